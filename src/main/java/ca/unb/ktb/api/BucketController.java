@@ -1,5 +1,6 @@
 package ca.unb.ktb.api;
 
+import ca.unb.ktb.api.dto.response.BucketBatchGetResponse;
 import ca.unb.ktb.api.dto.response.BucketSummaryResponse;
 import ca.unb.ktb.api.dto.response.UserSummaryResponse;
 import ca.unb.ktb.api.exception.client.BadRequestException;
@@ -20,9 +21,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @RestController
@@ -33,6 +37,8 @@ public class BucketController {
 
     @Autowired private UserService userService;
 
+    @Autowired private CursorPagination cursorPagination;
+
     /**
      * Create a new {@link Bucket}. The owner id must match principal user id.
      *
@@ -66,11 +72,15 @@ public class BucketController {
      *
      * The owner id must match the principal user id.
      *
+     * By default, the new bucket is a lightweight clone whose items are only copied once modified. Specifying
+     * {@code lightweight=false} copies all items immediately.
+     *
      * @param ownerId The id of the {@link User} that will own the new {@link Bucket}.
      * @param bucketId The id of the {@link Bucket} that is to be duplicated.
+     * @param lightweight Whether to create a lightweight clone of the bucket.
      * @return a new {@link Bucket} once persisted in the database.
      * @see BucketController#validateUserIsPrincipal(Long)
-     * @see BucketService#duplicateBucket(Long)
+     * @see BucketService#duplicateBucket(Long, boolean)
      * */
     @ApiOperation(
             value = "Create a new bucket from an existing bucket.",
@@ -83,23 +93,28 @@ public class BucketController {
             params = {"from"}
     )
     public ResponseEntity<BucketSummaryResponse> duplicateBucket(@PathVariable(name = "id") final Long ownerId,
-                                                                 @RequestParam(name = "from") final Long bucketId) {
+                                                                 @RequestParam(name = "from") final Long bucketId,
+                                                                 @RequestParam(name = "lightweight", required = false, defaultValue = "true")
+                                                                 final boolean lightweight) {
         validateUserIsPrincipal(ownerId);
 
-        Bucket duplicatedBucket = bucketService.duplicateBucket(bucketId);
+        Bucket duplicatedBucket = bucketService.duplicateBucket(bucketId, lightweight);
         BucketSummaryResponse response = bucketService.adaptBucketToBucketSummary(duplicatedBucket);
 
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
     /**
-     * Retrieve a list of {@link Bucket}s owned by a given {@link User}.
+     * Retrieve a page of {@link Bucket}s owned by a given {@link User}, in order of id.
      *
-     * If the owner id does not match the id of the principal user, only public buckets are returned.
+     * If the owner id does not match the id of the principal user, only public buckets are returned. If the page is
+     * full, a {@code Link} header points to the next page.
      *
      * @param ownerId Id of the {@link User} that owns the {@link Bucket}s.
+     * @param after The id of the last bucket of the previous page.
+     * @param limit The maximum number of buckets to return.
      * @return A list of {@link Bucket}s associated to a given {@link User}.
-     * @see BucketService#findBucketsByOwner(Long)
+     * @see BucketService#findBucketsByOwner(Long, Long, int)
      * */
     @ApiOperation(
             value = "Retrieve a list of buckets associated to a specific user.",
@@ -110,12 +125,39 @@ public class BucketController {
             value = "/users/{id}/buckets",
             method = RequestMethod.GET
     )
-    public ResponseEntity<List<BucketSummaryResponse>> findBuckets(@PathVariable(name = "id") final Long ownerId) {
-        List<BucketSummaryResponse> response = bucketService.findBucketsByOwner(ownerId).parallelStream()
-                .map(bucketService::adaptBucketToBucketSummary)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<BucketSummaryResponse>> findBuckets(@PathVariable(name = "id") final Long ownerId,
+                                                                   @RequestParam(name = "after", required = false) final Long after,
+                                                                   @RequestParam(name = "limit", required = false, defaultValue = "50") final int limit) {
+        cursorPagination.validateLimit(limit);
+        List<Bucket> buckets = bucketService.findBucketsByOwner(ownerId, after, limit);
 
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return cursorPagination.buildPage(buckets, limit, bucketService::adaptBucketToBucketSummary, Bucket::getId);
+    }
+
+    /**
+     * Stream all {@link Bucket}s owned by a given {@link User} as newline-delimited JSON, in order of id.
+     *
+     * If the owner id does not match the id of the principal user, only public buckets are returned.
+     *
+     * @param ownerId Id of the {@link User} that owns the {@link Bucket}s.
+     * @param after Only buckets with an id greater than this id are returned.
+     * @return A stream of {@link Bucket}s associated to a given {@link User}.
+     * @see BucketService#streamBucketsByOwner(Long, Long, Consumer)
+     * */
+    @ApiOperation(
+            value = "Stream the buckets associated to a specific user as newline-delimited JSON.",
+            response = BucketSummaryResponse.class
+    )
+    @RequestMapping(
+            value = "/users/{id}/buckets",
+            method = RequestMethod.GET,
+            params = "format=ndjson"
+    )
+    public ResponseEntity<StreamingResponseBody> streamBuckets(@PathVariable(name = "id") final Long ownerId,
+                                                               @RequestParam(name = "after", required = false) final Long after) {
+        return cursorPagination.buildStream((Consumer<BucketSummaryResponse> consumer) ->
+                bucketService.streamBucketsByOwner(ownerId, after, bucket ->
+                        consumer.accept(bucketService.adaptBucketToBucketSummary(bucket))));
     }
 
     /**
@@ -127,7 +169,9 @@ public class BucketController {
      *
      * @param ownerId Id of the {@link User} that owns the {@link Bucket}.
      * @param bucketId Id of the {@link Bucket}.
-     * @return The bucket with the given id.
+     * @param request The web request, used to evaluate conditional request headers.
+     * @return The bucket with the given id. If the entity tag of the bucket matches the {@code If-None-Match} request
+     * header, {@code 304 Not Modified} is returned.
      * @see BucketController#validateBucketURI(Long, Long)
      * @see BucketService#findBucketById(Long)
      * */
@@ -140,21 +184,73 @@ public class BucketController {
             method = RequestMethod.GET
     )
     public ResponseEntity<BucketSummaryResponse> findBucketById(@PathVariable(name = "ownerId") final Long ownerId,
-                                                                @PathVariable(name = "bucketId") final Long bucketId) {
+                                                                @PathVariable(name = "bucketId") final Long bucketId,
+                                                                final WebRequest request) {
         Bucket bucket = validateBucketURI(ownerId, bucketId);
+        if(request.checkNotModified(EntityTags.of("bucket", bucket.getId(), bucket.getUpdatedAt()))) {
+            return null;
+        }
+
         BucketSummaryResponse response = bucketService.adaptBucketToBucketSummary(bucket);
 
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
     /**
-     * Retrieve a list of {@link User}s that are following the given {@link Bucket}.
+     * Retrieve the {@link Bucket}s with the given ids, along with a summary of each distinct owner.
+     *
+     * Buckets and their owners are each retrieved with a single query. Buckets that do not exist, or that are private
+     * and not owned by the principal user, are omitted from the response.
+     *
+     * Usage example:
+     * {@code http://api.kick-the-bucket.com/buckets:batchGet?ids=12,13,14}
+     *
+     * @param bucketIds The ids of the {@link Bucket}s, at most {@code batch-get.max-size}.
+     * @return The {@link Bucket}s with the given ids, in the order of the given ids, and the owners of the buckets.
+     * @see BucketService#findBucketsById(List)
+     * @see UserService#findUsersById(List)
+     * */
+    @ApiOperation(
+            value = "Retrieve a list of buckets by id, along with their owners.",
+            response = BucketBatchGetResponse.class
+    )
+    @RequestMapping(
+            value = "/buckets:batchGet",
+            method = RequestMethod.GET
+    )
+    public ResponseEntity<BucketBatchGetResponse> batchGetBuckets(@RequestParam(name = "ids") final List<Long> bucketIds) {
+        List<Bucket> buckets = bucketService.findBucketsById(bucketIds);
+        if(buckets.isEmpty()) {
+            return new ResponseEntity<>(new BucketBatchGetResponse(List.of(), List.of()), HttpStatus.OK);
+        }
+
+        List<Long> ownerIds = buckets.stream()
+                .map(bucket -> bucket.getOwner().getId())
+                .distinct()
+                .collect(Collectors.toList());
+
+        List<BucketSummaryResponse> bucketSummaries = buckets.stream()
+                .map(bucketService::adaptBucketToBucketSummary)
+                .collect(Collectors.toList());
+        List<UserSummaryResponse> ownerSummaries = userService.findUsersById(ownerIds).stream()
+                .map(userService::adaptUserToSummary)
+                .collect(Collectors.toList());
+
+        return new ResponseEntity<>(new BucketBatchGetResponse(bucketSummaries, ownerSummaries), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieve a page of {@link User}s that are following the given {@link Bucket}, in order of id.
+     *
+     * If the page is full, a {@code Link} header points to the next page.
      *
      * @param ownerId The owner of the {@link Bucket}.
      * @param bucketId The id of the {@link Bucket}.
+     * @param after The id of the last user of the previous page.
+     * @param limit The maximum number of users to return.
      * @return List of {@link User}s that are following a given {@link Bucket}.
      * @see BucketController#validateBucketURI(Long, Long)
-     * @see BucketService#findFollowers(Long)
+     * @see BucketService#findFollowers(Long, Long, int)
      * */
     @ApiOperation(
             value = "Retrieve a list of users that are following the given bucket.",
@@ -166,13 +262,43 @@ public class BucketController {
             method = RequestMethod.GET
     )
     public ResponseEntity<List<UserSummaryResponse>> findFollowing(@PathVariable(name = "ownerId") final Long ownerId,
-                                                                   @PathVariable(name = "bucketId") final Long bucketId) {
+                                                                   @PathVariable(name = "bucketId") final Long bucketId,
+                                                                   @RequestParam(name = "after", required = false) final Long after,
+                                                                   @RequestParam(name = "limit", required = false, defaultValue = "50") final int limit) {
+        cursorPagination.validateLimit(limit);
         validateBucketURI(ownerId, bucketId);
-        List<UserSummaryResponse> response = bucketService.findFollowers(bucketId).parallelStream()
-                .map(userService::adaptUserToSummary)
-                .collect(Collectors.toList());
+        List<User> followers = bucketService.findFollowers(bucketId, after, limit);
 
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return cursorPagination.buildPage(followers, limit, userService::adaptUserToSummary, User::getId);
+    }
+
+    /**
+     * Stream all {@link User}s that are following the given {@link Bucket} as newline-delimited JSON, in order of id.
+     *
+     * @param ownerId The owner of the {@link Bucket}.
+     * @param bucketId The id of the {@link Bucket}.
+     * @param after Only users with an id greater than this id are returned.
+     * @return A stream of {@link User}s that are following a given {@link Bucket}.
+     * @see BucketController#validateBucketURI(Long, Long)
+     * @see BucketService#streamFollowers(Long, Long, Consumer)
+     * */
+    @ApiOperation(
+            value = "Stream the users that are following the given bucket as newline-delimited JSON.",
+            response = UserSummaryResponse.class
+    )
+    @RequestMapping(
+            value = "/users/{ownerId}/bucket/{bucketId}/followers",
+            method = RequestMethod.GET,
+            params = "format=ndjson"
+    )
+    public ResponseEntity<StreamingResponseBody> streamFollowing(@PathVariable(name = "ownerId") final Long ownerId,
+                                                                 @PathVariable(name = "bucketId") final Long bucketId,
+                                                                 @RequestParam(name = "after", required = false) final Long after) {
+        validateBucketURI(ownerId, bucketId);
+
+        return cursorPagination.buildStream((Consumer<UserSummaryResponse> consumer) ->
+                bucketService.streamFollowers(bucketId, after, user ->
+                        consumer.accept(userService.adaptUserToSummary(user))));
     }
 
     /**
@@ -183,7 +309,6 @@ public class BucketController {
      * @param bucket A partial {@link Bucket}.
      * @return The updated {@link Bucket}.
      * @see BucketController#validateUserIsPrincipal(Long)
-     * @see BucketController#validateBucketURI(Long, Long)
      * @see BucketService#patchBucket(Bucket, Long)
      * */
     @ApiOperation(
@@ -199,7 +324,6 @@ public class BucketController {
                                                              @PathVariable(value = "bucketId") final Long bucketId,
                                                              @RequestBody final Bucket bucket) {
         validateUserIsPrincipal(ownerId);
-        validateBucketURI(ownerId, bucketId);
         Bucket patchedBucket = bucketService.patchBucket(bucket, bucketId);
         BucketSummaryResponse response = bucketService.adaptBucketToBucketSummary(patchedBucket);
 
@@ -271,7 +395,7 @@ public class BucketController {
      * @see BucketService#findBucketById(Long)
      * */
     private Bucket validateBucketURI(final Long ownerId, final Long bucketId) {
-        Bucket bucket = bucketService.findBucketById(ownerId);
+        Bucket bucket = bucketService.findBucketById(bucketId);
         if(!Objects.equals(ownerId, bucket.getOwner().getId())) {
             throw new BadRequestException(String.format("Unable to find bucket with id %d and owner %d.", bucketId, ownerId));
         }
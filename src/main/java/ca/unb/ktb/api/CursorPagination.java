@@ -0,0 +1,148 @@
+package ca.unb.ktb.api;
+
+import ca.unb.ktb.api.exception.client.BadRequestException;
+import ca.unb.ktb.api.exception.server.ServiceUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds responses for list endpoints that support cursor pagination.
+ *
+ * A page of results is requested with an {@code after} parameter, the id of the last result of the previous page, and
+ * a {@code limit} parameter. When a page is full, a {@code Link} header with relation {@code next} points to the next
+ * page.
+ *
+ * Alternatively, a client may opt in to streaming with {@code format=ndjson} to receive all results as
+ * newline-delimited JSON ({@code application/x-ndjson}), written to the response as they are read from the database.
+ * Streaming is opt-in through a request parameter rather than the {@code Accept} header, so that clients accepting any
+ * media type continue to receive a page of JSON.
+ *
+ * A stream holds a read-only transaction, and therefore a pooled database connection, for as long as the client takes
+ * to consume it. At most {@code pagination.stream.max-concurrent} streams are served at a time, leaving the rest of the
+ * connection pool to other requests; further streams are rejected with 503 Service Unavailable, and the client may
+ * retry later or fall back to pages.
+ * */
+@Component
+public class CursorPagination {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    @Autowired private ObjectMapper objectMapper;
+
+    @Value("${pagination.max-limit:200}")
+    private int maxLimit;
+
+    private Semaphore streams;
+
+    /**
+     * Ensure a requested page size is positive, and no greater than {@code pagination.max-limit}.
+     *
+     * @param limit The requested page size.
+     * @throws BadRequestException If the page size is out of bounds.
+     * */
+    public void validateLimit(final int limit) {
+        if(limit < 1 || limit > maxLimit) {
+            throw new BadRequestException(String.format("Limit must be between 1 and %d.", maxLimit));
+        }
+    }
+
+    /**
+     * Set the maximum number of streaming responses served at a time.
+     *
+     * @param maxConcurrentStreams The maximum number of concurrent streams.
+     * */
+    @Value("${pagination.stream.max-concurrent:4}")
+    public void setMaxConcurrentStreams(final int maxConcurrentStreams) {
+        this.streams = new Semaphore(maxConcurrentStreams);
+    }
+
+    /**
+     * Adapt a page of entities and build the response.
+     *
+     * If the page is full, a {@code Link} header is added with the URI of the next page, which is the current request
+     * URI with the {@code after} parameter set to the id of the last entity.
+     *
+     * @param page The entities in the page, in order of id.
+     * @param limit The requested page size.
+     * @param adapter Adapts each entity to a response.
+     * @param idExtractor Extracts the id of an entity.
+     * @param <E> The type of the entities.
+     * @param <T> The type of the responses.
+     * @return A response with the adapted entities in the page.
+     * */
+    public <E, T> ResponseEntity<List<T>> buildPage(final List<E> page, final int limit,
+                                                    final Function<E, T> adapter,
+                                                    final Function<E, Long> idExtractor) {
+        List<T> response = page.stream()
+                .map(adapter)
+                .collect(Collectors.toList());
+
+        HttpHeaders headers = new HttpHeaders();
+        if(!page.isEmpty() && page.size() >= limit) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", idExtractor.apply(page.get(page.size() - 1)))
+                    .replaceQueryParam("limit", limit)
+                    .build()
+                    .toUriString();
+            headers.add(HttpHeaders.LINK, String.format("<%s>; rel=\"next\"", next));
+        }
+
+        return new ResponseEntity<>(response, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Build a streaming response that writes each result as a single line of JSON.
+     *
+     * The producer is invoked on the MVC async executor once the handler returns, and must pass each result to the
+     * given consumer in order. Results are flushed to the client as the response buffer fills, so the memory used is
+     * bounded regardless of the number of results.
+     *
+     * @param producer Passes each result to the given consumer.
+     * @param <T> The type of the results.
+     * @return A response that streams the results as newline-delimited JSON.
+     * @throws ServiceUnavailableException If {@code pagination.stream.max-concurrent} streams are already being served.
+     * */
+    public <T> ResponseEntity<StreamingResponseBody> buildStream(final Consumer<Consumer<T>> producer) {
+        if(!streams.tryAcquire()) {
+            throw new ServiceUnavailableException("Too many concurrent streams. Retry later, or request pages instead.");
+        }
+
+        StreamingResponseBody body = (OutputStream outputStream) -> {
+            try {
+                producer.accept(result -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(result));
+                        outputStream.write('\n');
+                    } catch(IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch(UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                streams.release();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+}
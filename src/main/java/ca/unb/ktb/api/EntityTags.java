@@ -0,0 +1,35 @@
+package ca.unb.ktb.api;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Builds strong entity tags for conditional GET requests.
+ *
+ * An entity tag is a digest of the components that determine a representation, such as the resource type, id and the
+ * version of the underlying entities. Controllers compute the tag with a cheap version lookup and pass it to
+ * {@link org.springframework.web.context.request.WebRequest#checkNotModified(String)} before loading or serializing
+ * the resource, so that a matching {@code If-None-Match} header is answered with {@code 304 Not Modified}.
+ * */
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    /**
+     * Build an entity tag from the components of a representation.
+     *
+     * @param components The components that determine the representation. Null components are permitted.
+     * @return The entity tag, without quotes.
+     * */
+    static String of(final Object... components) {
+        String key = Arrays.stream(components)
+                .map(String::valueOf)
+                .collect(Collectors.joining("/"));
+
+        return DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8));
+    }
+}
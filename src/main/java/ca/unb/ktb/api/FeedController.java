@@ -1,5 +1,6 @@
 package ca.unb.ktb.api;
 
+import ca.unb.ktb.api.dto.response.CompactFeedResponse;
 import ca.unb.ktb.api.dto.response.UserFeedResponse;
 import ca.unb.ktb.api.exception.client.UnauthorizedException;
 import ca.unb.ktb.core.svc.FeedService;
@@ -162,6 +163,150 @@ public class FeedController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    /**
+     * Retrieve the {@code /{id}/following/created_buckets} feed in compact form, opted in to with {@code format=compact}.
+     * Each referenced {@link ca.unb.ktb.core.model.User} and {@link ca.unb.ktb.core.model.Bucket} is listed once in
+     * a dictionary keyed by id, and feed entries reference them by id.
+     *
+     * @param userId Id of the current {@link ca.unb.ktb.core.model.User}.
+     * @param page The page number of the search.
+     * @param size How many items are displayed per page.
+     * @param auth Authentication principal.
+     * @return The compact feed results.
+     * @throws UnauthorizedException If the id of the {@link ca.unb.ktb.core.model.User} currently authenticated does
+     * not match the path variable id.
+     * */
+    @ApiOperation(
+            value = "Retrieve a compact feed of users who are followed by user with given user id and have recently created buckets.",
+            response = CompactFeedResponse.class
+    )
+    @RequestMapping(
+            value = "/{id}/following/created_buckets",
+            method = RequestMethod.GET,
+            params = "format=compact"
+    )
+    public ResponseEntity<CompactFeedResponse> retrieveCompactBucketsCreatedByFollowedUsers(
+            @PathVariable(name = "id") final Long userId,
+            @RequestParam(name = "page", defaultValue = "0", required = false) final Integer page,
+            @RequestParam(name = "size", defaultValue = "20", required = false) final Integer size,
+            @AuthenticationPrincipal final Authentication auth) {
+        UserPrincipal currentUser = (UserPrincipal) auth.getPrincipal();
+        if(!Objects.equals(currentUser.getId(), userId)) {
+            throw new UnauthorizedException("Insufficient permissions.");
+        }
+
+        CompactFeedResponse response = feedService.retrieveCompactBucketsRecentlyCreatedByFollowedUsers(PageRequest.of(page, size));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieve the {@code /{id}/following/created_items} feed in compact form, opted in to with {@code format=compact}.
+     * Each referenced {@link ca.unb.ktb.core.model.User} and {@link ca.unb.ktb.core.model.Bucket} is listed once in
+     * a dictionary keyed by id, and feed entries reference them by id.
+     *
+     * @param userId Id of the current {@link ca.unb.ktb.core.model.User}.
+     * @param page The page number of the search.
+     * @param size How many items are displayed per page.
+     * @param auth Authentication principal.
+     * @return The compact feed results.
+     * @throws UnauthorizedException If the id of the {@link ca.unb.ktb.core.model.User} currently authenticated does
+     * not match the path variable id.
+     * */
+    @ApiOperation(
+            value = "Retrieve a compact feed of users who are followed by user with given user id and have recently created items.",
+            response = CompactFeedResponse.class
+    )
+    @RequestMapping(
+            value = "/{id}/following/created_items",
+            method = RequestMethod.GET,
+            params = "format=compact"
+    )
+    public ResponseEntity<CompactFeedResponse> retrieveCompactItemsCreatedByFollowedUsers(
+            @PathVariable(name = "id") final Long userId,
+            @RequestParam(name = "page", defaultValue = "0", required = false) final Integer page,
+            @RequestParam(name = "size", defaultValue = "20", required = false) final Integer size,
+            @AuthenticationPrincipal final Authentication auth) {
+        UserPrincipal currentUser = (UserPrincipal) auth.getPrincipal();
+        if(!Objects.equals(currentUser.getId(), userId)) {
+            throw new UnauthorizedException("Insufficient permissions.");
+        }
+
+        CompactFeedResponse response = feedService.retrieveCompactItemsRecentlyCreatedByFollowedUsers(PageRequest.of(page, size));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieve the {@code /{id}/following/followed_users} feed in compact form, opted in to with {@code format=compact}.
+     * Each referenced {@link ca.unb.ktb.core.model.User} and {@link ca.unb.ktb.core.model.Bucket} is listed once in
+     * a dictionary keyed by id, and feed entries reference them by id.
+     *
+     * @param userId Id of the current {@link ca.unb.ktb.core.model.User}.
+     * @param page The page number of the search.
+     * @param size How many items are displayed per page.
+     * @param auth Authentication principal.
+     * @return The compact feed results.
+     * @throws UnauthorizedException If the id of the {@link ca.unb.ktb.core.model.User} currently authenticated does
+     * not match the path variable id.
+     * */
+    @ApiOperation(
+            value = "Retrieve a compact feed of users who are followed by user with given user id and have recently followed other users.",
+            response = CompactFeedResponse.class
+    )
+    @RequestMapping(
+            value = "/{id}/following/followed_users",
+            method = RequestMethod.GET,
+            params = "format=compact"
+    )
+    public ResponseEntity<CompactFeedResponse> retrieveCompactUsersFollowedByFollowedUsers(
+            @PathVariable(name = "id") final Long userId,
+            @RequestParam(name = "page", defaultValue = "0", required = false) final Integer page,
+            @RequestParam(name = "size", defaultValue = "20", required = false) final Integer size,
+            @AuthenticationPrincipal final Authentication auth) {
+        UserPrincipal currentUser = (UserPrincipal) auth.getPrincipal();
+        if(!Objects.equals(currentUser.getId(), userId)) {
+            throw new UnauthorizedException("Insufficient permissions.");
+        }
+
+        CompactFeedResponse response = feedService.retrieveCompactUsersRecentlyFollowedByFollowedUsers(PageRequest.of(page, size));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieve the {@code /{id}/following/followed_buckets} feed in compact form, opted in to with {@code format=compact}.
+     * Each referenced {@link ca.unb.ktb.core.model.User} and {@link ca.unb.ktb.core.model.Bucket} is listed once in
+     * a dictionary keyed by id, and feed entries reference them by id.
+     *
+     * @param userId Id of the current {@link ca.unb.ktb.core.model.User}.
+     * @param page The page number of the search.
+     * @param size How many items are displayed per page.
+     * @param auth Authentication principal.
+     * @return The compact feed results.
+     * @throws UnauthorizedException If the id of the {@link ca.unb.ktb.core.model.User} currently authenticated does
+     * not match the path variable id.
+     * */
+    @ApiOperation(
+            value = "Retrieve a compact feed of users who are followed by user with given user id and have recently followed other buckets.",
+            response = CompactFeedResponse.class
+    )
+    @RequestMapping(
+            value = "/{id}/following/followed_buckets",
+            method = RequestMethod.GET,
+            params = "format=compact"
+    )
+    public ResponseEntity<CompactFeedResponse> retrieveCompactBucketsFollowedByFollowedUsers(
+            @PathVariable(name = "id") final Long userId,
+            @RequestParam(name = "page", defaultValue = "0", required = false) final Integer page,
+            @RequestParam(name = "size", defaultValue = "20", required = false) final Integer size,
+            @AuthenticationPrincipal final Authentication auth) {
+        UserPrincipal currentUser = (UserPrincipal) auth.getPrincipal();
+        if(!Objects.equals(currentUser.getId(), userId)) {
+            throw new UnauthorizedException("Insufficient permissions.");
+        }
+
+        CompactFeedResponse response = feedService.retrieveCompactBucketsRecentlyFollowedByFollowedUsers(PageRequest.of(page, size));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     /**
      * Retrieve feed data for a {@link ca.unb.ktb.core.model.User}. Retrieve a list of buckets recently created by the
      * user with the given user id. Results are sorted in reverse chronological order.
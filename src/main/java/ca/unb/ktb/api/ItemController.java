@@ -1,25 +1,31 @@
 package ca.unb.ktb.api;
 
+import ca.unb.ktb.api.dto.response.ItemBatchResponse;
 import ca.unb.ktb.api.dto.response.ItemSummaryResponse;
 import ca.unb.ktb.api.exception.client.BadRequestException;
+import ca.unb.ktb.api.exception.client.UnauthorizedException;
 import ca.unb.ktb.core.model.Bucket;
 import ca.unb.ktb.core.model.Item;
 import ca.unb.ktb.core.svc.BucketService;
 import ca.unb.ktb.core.svc.ItemService;
+import ca.unb.ktb.infrastructure.security.UserPrincipal;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/")
@@ -29,6 +35,8 @@ public class ItemController {
 
     @Autowired private BucketService bucketService;
 
+    @Autowired private CursorPagination cursorPagination;
+
     /**
      * Create a new {@link Item} in a given {@link ca.unb.ktb.core.model.Bucket}.
      *
@@ -62,6 +70,96 @@ public class ItemController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    /**
+     * Create a batch of new {@link Item}s in a given {@link ca.unb.ktb.core.model.Bucket}.
+     *
+     * All items are validated, and bucket ownership is verified once. Valid items are created within a single
+     * transaction, and the result of each item is reported in the response, in the order the items were given.
+     *
+     * @param ownerId The id of the {@link ca.unb.ktb.core.model.User} that owns the {@link ca.unb.ktb.core.model.Bucket}.
+     * @param bucketId The id of the {@link ca.unb.ktb.core.model.Bucket} that will own the {@link Item}s.
+     * @param items A list of {@link Item}s with all necessary fields.
+     * @return The result of the operation for each {@link Item}.
+     * @throws BadRequestException If unable to find a bucket with the given id and owner.
+     * @see ItemService#createItemBatch(List, Long)
+     * */
+    @ApiOperation(
+            value = "Create a batch of new items.",
+            response = ItemBatchResponse.class
+    )
+    @RequestMapping(
+            value = "/users/{ownerId}/buckets/{bucketId}/items/batch",
+            method = RequestMethod.POST,
+            consumes = "application/json"
+    )
+    public ResponseEntity<ItemBatchResponse> createItemBatch(@PathVariable(name = "ownerId") final Long ownerId,
+                                                             @PathVariable(name = "bucketId") final Long bucketId,
+                                                             @RequestBody final List<Item> items) {
+        validateBucketURIPath(ownerId, bucketId);
+
+        ItemBatchResponse response = itemService.createItemBatch(items, bucketId);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Update fields in a batch of {@link Item}s that are currently persisted in the database. Only non-null item fields
+     * are updated, and each item is identified by its id.
+     *
+     * @param ownerId Id of the {@link ca.unb.ktb.core.model.User} that owns the {@link ca.unb.ktb.core.model.Bucket}.
+     * @param bucketId Id of the {@link ca.unb.ktb.core.model.Bucket} that owns the {@link Item}s.
+     * @param items A list of partial {@link Item}s to patch.
+     * @return The result of the operation for each {@link Item}.
+     * @throws BadRequestException If unable to find a bucket with the given id and owner.
+     * @see ItemService#patchItemBatch(List, Long)
+     * */
+    @ApiOperation(
+            value = "Update fields in a batch of items that are currently persisted in the database.",
+            response = ItemBatchResponse.class
+    )
+    @RequestMapping(
+            value = "/users/{ownerId}/buckets/{bucketId}/items/batch",
+            method = RequestMethod.PATCH,
+            consumes = "application/json"
+    )
+    public ResponseEntity<ItemBatchResponse> patchItemBatch(@PathVariable(name = "ownerId") final Long ownerId,
+                                                            @PathVariable(name = "bucketId") final Long bucketId,
+                                                            @RequestBody final List<Item> items) {
+        validateBucketURIPath(ownerId, bucketId);
+
+        ItemBatchResponse response = itemService.patchItemBatch(items, bucketId);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Delete a batch of {@link Item}s.
+     *
+     * Usage example:
+     * {@code DELETE http://api.kick-the-bucket.com/users/12/buckets/34/items/batch?id=56&id=57}
+     *
+     * @param ownerId Id of the {@link ca.unb.ktb.core.model.User} that owns the {@link ca.unb.ktb.core.model.Bucket}.
+     * @param bucketId Id of the {@link ca.unb.ktb.core.model.Bucket} that owns the {@link Item}s.
+     * @param itemIds Ids of the {@link Item}s that will be deleted.
+     * @return The result of the operation for each {@link Item}.
+     * @throws BadRequestException If unable to find a bucket with the given id and owner.
+     * @see ItemService#deleteItemBatch(List, Long)
+     * */
+    @ApiOperation(
+            value = "Delete a batch of items.",
+            response = ItemBatchResponse.class
+    )
+    @RequestMapping(
+            value = "/users/{ownerId}/buckets/{bucketId}/items/batch",
+            method = RequestMethod.DELETE
+    )
+    public ResponseEntity<ItemBatchResponse> deleteItemBatch(@PathVariable(name = "ownerId") final Long ownerId,
+                                                             @PathVariable(name = "bucketId") final Long bucketId,
+                                                             @RequestParam(name = "id") final List<Long> itemIds) {
+        validateBucketURIPath(ownerId, bucketId);
+
+        ItemBatchResponse response = itemService.deleteItemBatch(itemIds, bucketId);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     /**
      * Create a new {@link Item} from an existing item.
      *
@@ -94,11 +192,20 @@ public class ItemController {
     }
 
     /**
-     * Retrieve a list of {@link Item}'s associated to a specific {@link ca.unb.ktb.core.model.Bucket}.
+     * Retrieve a page of {@link Item}'s associated to a specific {@link ca.unb.ktb.core.model.Bucket}, in order of id.
+     *
+     * If the page is full, a {@code Link} header points to the next page. The response carries an entity tag derived
+     * from the version of the bucket's items; if it matches the {@code If-None-Match} request header, the items are not
+     * loaded and {@code 304 Not Modified} is returned.
      *
      * @param ownerId Id of the {@link ca.unb.ktb.core.model.User} that owns the {@link ca.unb.ktb.core.model.Bucket}s.
      * @param bucketId Id of the {@link ca.unb.ktb.core.model.Bucket} that owns the {@link Item}.
+     * @param after The id of the last item of the previous page.
+     * @param limit The maximum number of items to return.
+     * @param request The web request, used to evaluate conditional request headers.
      * @return A list of {@link Item}s associated to a given user.
+     * @see ItemService#findItemsVersion(Long)
+     * @see ItemService#findItems(Long, Long, int)
      * */
     @ApiOperation(
             value = "Retrieve a list of items associated to a specific bucket.",
@@ -110,18 +217,49 @@ public class ItemController {
             method = RequestMethod.GET
     )
     public ResponseEntity<List<ItemSummaryResponse>> findItems(@PathVariable(name = "userId") final Long ownerId,
-                                                               @PathVariable(name = "bucketId") final Long bucketId) {
-        Bucket existingBucket = bucketService.findBucketById(bucketId);
-        if(!Objects.equals(ownerId, existingBucket.getOwner().getId())) {
-            throw new BadRequestException(String.format("Unable to find bucket with id %d and owner %d.", bucketId, ownerId));
+                                                               @PathVariable(name = "bucketId") final Long bucketId,
+                                                               @RequestParam(name = "after", required = false) final Long after,
+                                                               @RequestParam(name = "limit", required = false, defaultValue = "50") final int limit,
+                                                               final WebRequest request) {
+        cursorPagination.validateLimit(limit);
+        validateBucketURIPath(ownerId, bucketId);
+        if(request.checkNotModified(EntityTags.of("items", bucketId, itemService.findItemsVersion(bucketId)))) {
+            return null;
         }
 
-        List<Item> items = itemService.findItems(bucketId);
-        List<ItemSummaryResponse> response = items.parallelStream()
-                .map(itemService::adaptItemToItemSummary)
-                .collect(Collectors.toList());
+        List<Item> items = itemService.findItems(bucketId, after, limit);
 
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return cursorPagination.buildPage(items, limit, item -> itemService.adaptItemToItemSummary(item, bucketId),
+                Item::getId);
+    }
+
+    /**
+     * Stream all {@link Item}'s associated to a specific {@link ca.unb.ktb.core.model.Bucket} as newline-delimited
+     * JSON, in order of id.
+     *
+     * @param ownerId Id of the {@link ca.unb.ktb.core.model.User} that owns the {@link ca.unb.ktb.core.model.Bucket}s.
+     * @param bucketId Id of the {@link ca.unb.ktb.core.model.Bucket} that owns the {@link Item}.
+     * @param after Only items with an id greater than this id are returned.
+     * @return A stream of {@link Item}s associated to a given user.
+     * @see ItemService#streamItems(Long, Long, Consumer)
+     * */
+    @ApiOperation(
+            value = "Stream the items associated to a specific bucket as newline-delimited JSON.",
+            response = ItemSummaryResponse.class
+    )
+    @RequestMapping(
+            value = "/users/{userId}/buckets/{bucketId}/items",
+            method = RequestMethod.GET,
+            params = "format=ndjson"
+    )
+    public ResponseEntity<StreamingResponseBody> streamItems(@PathVariable(name = "userId") final Long ownerId,
+                                                             @PathVariable(name = "bucketId") final Long bucketId,
+                                                             @RequestParam(name = "after", required = false) final Long after) {
+        validateBucketURIPath(ownerId, bucketId);
+
+        return cursorPagination.buildStream((Consumer<ItemSummaryResponse> consumer) ->
+                itemService.streamItems(bucketId, after, item ->
+                        consumer.accept(itemService.adaptItemToItemSummary(item, bucketId))));
     }
 
     /**
@@ -134,10 +272,12 @@ public class ItemController {
      * @param ownerId Id of the {@link ca.unb.ktb.core.model.User} that owns the {@link ca.unb.ktb.core.model.Bucket}s.
      * @param bucketId Id of the {@link ca.unb.ktb.core.model.Bucket} that owns the {@link Item}.
      * @param itemId Id of the {@link Item}.
+     * @param request The web request, used to evaluate conditional request headers.
      * @return {@link Item} associated to a given {@link ca.unb.ktb.core.model.User}. If the user and principal have
      * matching ids, public or private {@link ca.unb.ktb.core.model.Bucket} may be returned, otherwise only returns a
-     * public bucket.
-     * @see ItemService#findItemById(Long)
+     * public bucket. If the entity tag of the item matches the {@code If-None-Match} request header,
+     * {@code 304 Not Modified} is returned.
+     * @see ItemService#findBucketItemById(Long, Long)
      * */
     @ApiOperation(
             value = "Retrieve a specific item associated to a specific bucket and user.",
@@ -149,9 +289,14 @@ public class ItemController {
     )
     public ResponseEntity<ItemSummaryResponse> findItemById(@PathVariable(name = "ownerId") final Long ownerId,
                                                             @PathVariable(name = "bucketId") final Long bucketId,
-                                                            @PathVariable(name = "itemId") final Long itemId) {
+                                                            @PathVariable(name = "itemId") final Long itemId,
+                                                            final WebRequest request) {
         Item item = validateItemURIPath(ownerId, bucketId, itemId);
-        ItemSummaryResponse response = itemService.adaptItemToItemSummary(item);
+        if(request.checkNotModified(EntityTags.of("item", bucketId, item.getId(), item.getUpdatedAt()))) {
+            return null;
+        }
+
+        ItemSummaryResponse response = itemService.adaptItemToItemSummary(item, bucketId);
 
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
@@ -164,7 +309,9 @@ public class ItemController {
      * @param itemId Id of the {@link Item} to patch.
      * @param item An {@link Item} to patch.
      * @return The patched {@link Item}.
-     * @see ItemService#patchItem(Item, Long)
+     * @throws UnauthorizedException If the owner id does not match the id of the principal user.
+     * @see ItemController#validateUserIsPrincipal(Long)
+     * @see ItemService#patchItem(Item, Long, Long)
      * */
     @ApiOperation(
             value = "Update fields in an item that is currently persisted in the database.",
@@ -179,9 +326,9 @@ public class ItemController {
                                                          @PathVariable(name = "bucketId") final Long bucketId,
                                                          @PathVariable(name = "itemId") final Long itemId,
                                                          @RequestBody final Item item) {
-        validateItemURIPath(ownerId, bucketId, itemId);
+        validateUserIsPrincipal(ownerId);
 
-        Item newItem = itemService.patchItem(item, itemId);
+        Item newItem = itemService.patchItem(item, bucketId, itemId);
         ItemSummaryResponse response = itemService.adaptItemToItemSummary(newItem);
 
         return new ResponseEntity<>(response, HttpStatus.OK);
@@ -211,7 +358,7 @@ public class ItemController {
                                                           @RequestBody final Item item) {
         validateItemURIPath(ownerId, bucketId, itemId);
 
-        Item newItem = itemService.updateItem(item, itemId);
+        Item newItem = itemService.updateItem(item, bucketId, itemId);
         ItemSummaryResponse response = itemService.adaptItemToItemSummary(newItem);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
@@ -234,14 +381,32 @@ public class ItemController {
                                         @PathVariable(name = "itemId") final Long itemId) {
         validateItemURIPath(ownerId, bucketId, itemId);
 
-        itemService.deleteItem(itemId);
+        itemService.deleteItem(bucketId, itemId);
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
+    /**
+     * Validate a {@link Bucket} URI path. Ensure that the bucket with the given id belongs to the given
+     * {@link ca.unb.ktb.core.model.User}.
+     *
+     * @param ownerId Id of the owner of the {@link Bucket}.
+     * @param bucketId Id of the {@link Bucket}.
+     * @throws BadRequestException If no such {@link Bucket} could be found.
+     * */
+    private void validateBucketURIPath(final Long ownerId, final Long bucketId) {
+        Bucket existingBucket = bucketService.findBucketById(bucketId);
+        if(!Objects.equals(ownerId, existingBucket.getOwner().getId())) {
+            throw new BadRequestException(String.format("Unable to find bucket with id %d and owner %d.", bucketId, ownerId));
+        }
+    }
+
     /**
      *  Validate an {@link Item} URI path. Ensure that the item with the given id belongs to the given {@link Bucket}
      *  and {@link ca.unb.ktb.core.model.User}.
      *
+     *  Items of lightweight bucket clones are physically contained by the source bucket, but are considered to belong
+     *  to the clone.
+     *
      * @param ownerId Id of the owner of the {@link Item}.
      * @param bucketId Id of the parent {@link Bucket} of the {@link Item}.
      * @param itemId Id of the {@link Item}.
@@ -254,11 +419,19 @@ public class ItemController {
             throw new BadRequestException(String.format("Unable to find bucket with id %d and owner %d.", bucketId, ownerId));
         }
 
-        Item item = itemService.findItemById(itemId);
-        if(!Objects.equals(item.getParent().getId(), existingBucket.getId())) {
-            throw new BadRequestException(String.format("Unable to find item with id %d and parent %d.", itemId, bucketId));
-        }
+        return itemService.findBucketItemById(bucketId, itemId);
+    }
 
-        return item;
+    /**
+     * Ensure the given {@link ca.unb.ktb.core.model.User} id matches the principal user id.
+     *
+     * @param userId The {@link ca.unb.ktb.core.model.User} id.
+     * @throws UnauthorizedException If the given user id does not match the principal user id.
+     * */
+    private void validateUserIsPrincipal(final Long userId) {
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if(!Objects.equals(userId, currentUser.getId())) {
+            throw new UnauthorizedException("Insufficient permissions.");
+        }
     }
 }
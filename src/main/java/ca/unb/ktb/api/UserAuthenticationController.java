@@ -12,10 +12,13 @@ import ca.unb.ktb.core.model.User;
 import ca.unb.ktb.core.model.validation.EntityValidator;
 import ca.unb.ktb.core.svc.UserService;
 import ca.unb.ktb.infrastructure.security.JSONWebTokenUtil;
+import ca.unb.ktb.infrastructure.security.TokenRevocationList;
+import ca.unb.ktb.infrastructure.security.UserIdentityIndex;
 import ca.unb.ktb.infrastructure.security.UserPrincipal;
 import ca.unb.ktb.infrastructure.security.UserPrincipalService;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -24,6 +27,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -44,6 +48,10 @@ public class UserAuthenticationController {
 
     @Autowired private UserService userService;
 
+    @Autowired private TokenRevocationList tokenRevocationList;
+
+    @Autowired private UserIdentityIndex userIdentityIndex;
+
     /**
      * Issue token to {@link User}.
      *
@@ -184,15 +192,55 @@ public class UserAuthenticationController {
         return new ResponseEntity<>(new UserAuthenticationResponse(newToken, response), HttpStatus.OK);
     }
 
+    /**
+     * Sign out, revoking the token used to authenticate the request until it expires.
+     *
+     * @param authorizationHeader The authorization header value, holding the bearer token.
+     * @param auth The authentication token.
+     * @return Empty response.
+     * @throws UnauthorizedException If the user is not authenticated.
+     * @throws BadRequestException If the token was issued without a jti claim.
+     * */
+    @ApiOperation(value = "Sign out, revoking the token used to authenticate the request.")
+    @RequestMapping(
+            value = "/signout",
+            method = RequestMethod.POST
+    )
+    public ResponseEntity<?> revokeToken(
+            @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) final String authorizationHeader,
+            @AuthenticationPrincipal final Authentication auth) {
+        if(Objects.isNull(auth) || Objects.isNull(authorizationHeader)) {
+            throw new UnauthorizedException("User is not authenticated, and therefore cannot sign out.");
+        }
+
+        //Authentication filter has already validated the bearer token
+        final String token = authorizationHeader.substring(authorizationHeader.indexOf(' ') + 1).trim();
+        final String tokenId = JSONWebTokenUtil.parseTokenIdFromToken(token);
+        if(Objects.isNull(tokenId)) {
+            throw new BadRequestException("Token was issued without an id, and cannot be revoked.");
+        }
+
+        UserPrincipal userPrincipal = (UserPrincipal) auth.getPrincipal();
+        tokenRevocationList.revoke(tokenId, userPrincipal.getId(), JSONWebTokenUtil.parseExpirationTimeFromToken(token));
+
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
     /**
      * Check if a given identity is available.
      *
+     * Identities are first checked against the {@link UserIdentityIndex}, and only those it might contain are checked
+     * against the database. An identity registered through another instance may be reported as available until that
+     * instance's cache invalidation is received, typically within milliseconds.
+     *
      * @param username Optional request parameter for the email address.
      * @param email Optional request parameter for the username.
      * @return {@link UserIdentityAvailabilityResponse}.
      * */
     @ApiOperation(
             value = "Check if a given identity is available.",
+            notes = "An identity registered moments before may briefly be reported as available. Registration " +
+                    "always rejects identities that are in use.",
             response = UserAuthenticationResponse.class
     )
     @RequestMapping(
@@ -206,8 +254,11 @@ public class UserAuthenticationController {
             throw new BadRequestException("username or email request parameter must be specified");
         }
 
-        final Boolean usernameAvailable = username != null ? !userDAO.existsByUsername(username) : null;
-        final Boolean emailAddressAvailable = email != null ? !userDAO.existsByEmail(email) : null;
+        //identities rejected by the index are definitely available; others are confirmed against the database
+        final Boolean usernameAvailable = username != null ?
+                !(userIdentityIndex.mightContainUsername(username) && userDAO.existsByUsername(username)) : null;
+        final Boolean emailAddressAvailable = email != null ?
+                !(userIdentityIndex.mightContainEmail(email) && userDAO.existsByEmail(email)) : null;
 
         final UserIdentityAvailabilityResponse response =
                 new UserIdentityAvailabilityResponse(usernameAvailable, emailAddressAvailable);
@@ -19,12 +19,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @RestController
@@ -35,11 +38,14 @@ public class UserController {
 
     @Autowired private UserService userService;
 
+    @Autowired private CursorPagination cursorPagination;
+
     /**
      * Retrieve a list of {@link User}s with a given id, username or email address, first, middle or last name.
      *
      * If no request parameters are provided, all users are returned. If more than one request parameter is specified,
-     * users are queried and selected if they match any of the parameters.
+     * users are queried and selected if they match any of the parameters. Users are returned in order of id, one page
+     * at a time; if the page is full, a {@code Link} header points to the next page.
      *
      * Usage example:
      * {@code http://api.kick-the-bucket.com/users?id=133&username=example&email=example@example.com}
@@ -56,7 +62,10 @@ public class UserController {
      * @param firstName An optional first name to use in the query.
      * @param middleName An optional middle name to use in the query.
      * @param lastName An optional last name to use in the query.
+     * @param after The id of the last user of the previous page.
+     * @param limit The maximum number of users to return.
      * @return A list of {@link User}s found matching any of the request parameters.
+     * @see UserService#findUsers(Long, String, String, String, String, String, Long, int)
      * */
     @ApiOperation(
             value = "Retrieve a list of users by various fields.",
@@ -73,9 +82,75 @@ public class UserController {
             @RequestParam(name = "email", required = false) final String email,
             @RequestParam(name = "firstname", required = false) final String firstName,
             @RequestParam(name = "middlename", required = false) final String middleName,
-            @RequestParam(name = "lastname", required = false) final String lastName) {
-        List<User> users = userService.findUsers(userId, username, email, firstName, middleName, lastName);
-        List<UserSummaryResponse> response = users.parallelStream()
+            @RequestParam(name = "lastname", required = false) final String lastName,
+            @RequestParam(name = "after", required = false) final Long after,
+            @RequestParam(name = "limit", required = false, defaultValue = "50") final int limit) {
+        cursorPagination.validateLimit(limit);
+        List<User> users = userService.findUsers(userId, username, email, firstName, middleName, lastName, after, limit);
+
+        return cursorPagination.buildPage(users, limit, userService::adaptUserToSummary, User::getId);
+    }
+
+    /**
+     * Stream all {@link User}s with a given id, username or email address, first, middle or last name as
+     * newline-delimited JSON, in order of id.
+     *
+     * @param userId An optional id to be used in the query.
+     * @param username An optional username to use in the query.
+     * @param email An optional email to use in the query.
+     * @param firstName An optional first name to use in the query.
+     * @param middleName An optional middle name to use in the query.
+     * @param lastName An optional last name to use in the query.
+     * @param after Only users with an id greater than this id are returned.
+     * @return A stream of {@link User}s found matching any of the request parameters.
+     * @see UserService#streamUsers(Long, String, String, String, String, String, Long, Consumer)
+     * */
+    @ApiOperation(
+            value = "Stream users by various fields as newline-delimited JSON.",
+            response = UserSummaryResponse.class
+    )
+    @RequestMapping(
+            value = "/users",
+            method = RequestMethod.GET,
+            params = "format=ndjson"
+    )
+    public ResponseEntity<StreamingResponseBody> streamUsers(
+            @RequestParam(name = "id", required = false) final Long userId,
+            @RequestParam(name = "username", required = false) final String username,
+            @RequestParam(name = "email", required = false) final String email,
+            @RequestParam(name = "firstname", required = false) final String firstName,
+            @RequestParam(name = "middlename", required = false) final String middleName,
+            @RequestParam(name = "lastname", required = false) final String lastName,
+            @RequestParam(name = "after", required = false) final Long after) {
+        return cursorPagination.buildStream((Consumer<UserSummaryResponse> consumer) ->
+                userService.streamUsers(userId, username, email, firstName, middleName, lastName, after, user ->
+                        consumer.accept(userService.adaptUserToSummary(user))));
+    }
+
+    /**
+     * Retrieve the {@link User}s with the given ids.
+     *
+     * Users are retrieved with a single query. Users that do not exist or have been deleted are omitted from the
+     * response.
+     *
+     * Usage example:
+     * {@code http://api.kick-the-bucket.com/users:batchGet?ids=133,134,135}
+     *
+     * @param userIds The ids of the {@link User}s, at most {@code batch-get.max-size}.
+     * @return The {@link User}s with the given ids, in the order of the given ids.
+     * @see UserService#findUsersById(List)
+     * */
+    @ApiOperation(
+            value = "Retrieve a list of users by id.",
+            response = UserSummaryResponse.class,
+            responseContainer = "List"
+    )
+    @RequestMapping(
+            value = "/users:batchGet",
+            method = RequestMethod.GET
+    )
+    public ResponseEntity<List<UserSummaryResponse>> batchGetUsers(@RequestParam(name = "ids") final List<Long> userIds) {
+        List<UserSummaryResponse> response = userService.findUsersById(userIds).stream()
                 .map(userService::adaptUserToSummary)
                 .collect(Collectors.toList());
 
@@ -194,9 +269,14 @@ public class UserController {
     /**
      * Get a {@link User}'s profile information.
      *
+     * The response carries an entity tag derived from the version of the profile; if it matches the
+     * {@code If-None-Match} request header, the profile is not built and {@code 304 Not Modified} is returned.
+     *
      * @param userId The id of the {@link User} whose profile you wish to obtain.
+     * @param request The web request, used to evaluate conditional request headers.
      * @return User profile response data.
-     * @throws UnauthorizedException If the id of the {@link User} currently authenticated does not match the path variable id.
+     * @see UserService#findProfileVersion(Long)
+     * @see UserService#constructProfileSummary(Long)
      * */
     @ApiOperation(
             value = "Get a user's profile.",
@@ -206,7 +286,12 @@ public class UserController {
             value = "/users/{id}/profile",
             method = RequestMethod.GET
     )
-    public ResponseEntity<UserProfileSummaryResponse> getUserProfile(@PathVariable(name = "id") final Long userId) {
+    public ResponseEntity<UserProfileSummaryResponse> getUserProfile(@PathVariable(name = "id") final Long userId,
+                                                                     final WebRequest request) {
+        if(request.checkNotModified(EntityTags.of("profile", userId, userService.findProfileVersion(userId)))) {
+            return null;
+        }
+
         UserProfileSummaryResponse userProfile = userService.constructProfileSummary(userId);
         return new ResponseEntity<>(userProfile, HttpStatus.OK);
     }
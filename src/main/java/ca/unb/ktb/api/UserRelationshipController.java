@@ -19,10 +19,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/users")
@@ -30,6 +31,8 @@ public class UserRelationshipController {
 
     @Autowired private UserService userService;
 
+    @Autowired private CursorPagination cursorPagination;
+
     /**
      * Create a new {@link UserRelationship}.
      *
@@ -71,10 +74,15 @@ public class UserRelationshipController {
     }
 
     /**
-     * Retrieve a list of {@link User}'s that are following a given user.
+     * Retrieve a page of {@link User}'s that are following a given user, in order of id.
+     *
+     * If the page is full, a {@code Link} header points to the next page.
      *
      * @param subjectId The id of the {@link User} to be used in the query.
+     * @param after The id of the last user of the previous page.
+     * @param limit The maximum number of users to return.
      * @return A list of {@link User}s that are following the user with the given id.
+     * @see UserService#findFollowers(Long, Long, int)
      * */
     @ApiOperation(
             value = "Retrieve a list of users that are following a given user.",
@@ -85,20 +93,48 @@ public class UserRelationshipController {
             value = "/{id}/followers",
             method = RequestMethod.GET
     )
-    public ResponseEntity<List<UserSummaryResponse>> findFollowers(@PathVariable(name = "id") final Long subjectId) {
-        List<User> followers = userService.findFollowers(subjectId);
-        List<UserSummaryResponse> response = followers.parallelStream()
-                .map(userService::adaptUserToSummary)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<UserSummaryResponse>> findFollowers(@PathVariable(name = "id") final Long subjectId,
+                                                                   @RequestParam(name = "after", required = false) final Long after,
+                                                                   @RequestParam(name = "limit", required = false, defaultValue = "50") final int limit) {
+        cursorPagination.validateLimit(limit);
+        List<User> followers = userService.findFollowers(subjectId, after, limit);
 
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return cursorPagination.buildPage(followers, limit, userService::adaptUserToSummary, User::getId);
     }
 
     /**
-     * Retrieve a list of {@link User}'s that are followed by a given user.
+     * Stream all {@link User}'s that are following a given user as newline-delimited JSON, in order of id.
      *
      * @param subjectId The id of the {@link User} to be used in the query.
+     * @param after Only users with an id greater than this id are returned.
+     * @return A stream of {@link User}s that are following the user with the given id.
+     * @see UserService#streamFollowers(Long, Long, Consumer)
+     * */
+    @ApiOperation(
+            value = "Stream the users that are following a given user as newline-delimited JSON.",
+            response = UserSummaryResponse.class
+    )
+    @RequestMapping(
+            value = "/{id}/followers",
+            method = RequestMethod.GET,
+            params = "format=ndjson"
+    )
+    public ResponseEntity<StreamingResponseBody> streamFollowers(@PathVariable(name = "id") final Long subjectId,
+                                                                 @RequestParam(name = "after", required = false) final Long after) {
+        return cursorPagination.buildStream((Consumer<UserSummaryResponse> consumer) ->
+                userService.streamFollowers(subjectId, after, user -> consumer.accept(userService.adaptUserToSummary(user))));
+    }
+
+    /**
+     * Retrieve a page of {@link User}'s that are followed by a given user, in order of id.
+     *
+     * If the page is full, a {@code Link} header points to the next page.
+     *
+     * @param subjectId The id of the {@link User} to be used in the query.
+     * @param after The id of the last user of the previous page.
+     * @param limit The maximum number of users to return.
      * @return A list of {@link User}s that are followed by the user with the given id.
+     * @see UserService#findFollowing(Long, Long, int)
      * */
     @ApiOperation(
             value = "Retrieve a list of users that are followed by a given user.",
@@ -109,13 +145,36 @@ public class UserRelationshipController {
             value = "/{id}/following",
             method = RequestMethod.GET
     )
-    public ResponseEntity<List<UserSummaryResponse>> findFollowing(@PathVariable(name = "id") final Long subjectId) {
-        List<User> following = userService.findFollowing(subjectId);
-        List<UserSummaryResponse> response = following.parallelStream()
-                .map(userService::adaptUserToSummary)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<UserSummaryResponse>> findFollowing(@PathVariable(name = "id") final Long subjectId,
+                                                                   @RequestParam(name = "after", required = false) final Long after,
+                                                                   @RequestParam(name = "limit", required = false, defaultValue = "50") final int limit) {
+        cursorPagination.validateLimit(limit);
+        List<User> following = userService.findFollowing(subjectId, after, limit);
+
+        return cursorPagination.buildPage(following, limit, userService::adaptUserToSummary, User::getId);
+    }
 
-        return new ResponseEntity<>(response, HttpStatus.OK);
+    /**
+     * Stream all {@link User}'s that are followed by a given user as newline-delimited JSON, in order of id.
+     *
+     * @param subjectId The id of the {@link User} to be used in the query.
+     * @param after Only users with an id greater than this id are returned.
+     * @return A stream of {@link User}s that are followed by the user with the given id.
+     * @see UserService#streamFollowing(Long, Long, Consumer)
+     * */
+    @ApiOperation(
+            value = "Stream the users that are followed by a given user as newline-delimited JSON.",
+            response = UserSummaryResponse.class
+    )
+    @RequestMapping(
+            value = "/{id}/following",
+            method = RequestMethod.GET,
+            params = "format=ndjson"
+    )
+    public ResponseEntity<StreamingResponseBody> streamFollowing(@PathVariable(name = "id") final Long subjectId,
+                                                                 @RequestParam(name = "after", required = false) final Long after) {
+        return cursorPagination.buildStream((Consumer<UserSummaryResponse> consumer) ->
+                userService.streamFollowing(subjectId, after, user -> consumer.accept(userService.adaptUserToSummary(user))));
     }
 
     /**
@@ -0,0 +1,16 @@
+package ca.unb.ktb.api.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BucketBatchGetResponse implements Serializable {
+
+    private final List<BucketSummaryResponse> buckets;
+
+    private final List<UserSummaryResponse> owners;
+}
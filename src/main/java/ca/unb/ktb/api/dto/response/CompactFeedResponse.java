@@ -0,0 +1,35 @@
+package ca.unb.ktb.api.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CompactFeedResponse implements Serializable {
+
+    private final Map<Long, UserSummaryResponse> users;
+
+    private final Map<Long, BucketSummaryResponse> buckets;
+
+    private final List<FeedEntry> entries;
+
+    @Data
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class FeedEntry implements Serializable {
+
+        private final Long userId;
+
+        private final List<Long> userIds;
+
+        private final List<Long> bucketIds;
+
+        private final List<ItemSummaryResponse> items;
+    }
+}
@@ -0,0 +1,35 @@
+package ca.unb.ktb.api.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ItemBatchResponse implements Serializable {
+
+    private final int succeeded;
+
+    private final int failed;
+
+    private final List<ItemBatchResult> results;
+
+    @Data
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ItemBatchResult implements Serializable {
+
+        private final int index;
+
+        private final Long id;
+
+        private final int status;
+
+        private final String message;
+
+        private final ItemSummaryResponse item;
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -67,20 +68,48 @@ public interface BucketDAO extends JpaRepository<Bucket, Long> {
      * */
     Long countAllByOwnerAndIsPublicIsTrue(final User owner);
 
+    /**
+     * Determine whether any lightweight clones of a given bucket exist.
+     *
+     * @param source The bucket from which the clones were duplicated.
+     * @return True if the bucket is the source of at least one lightweight clone.
+     * */
+    boolean existsBySource(final Bucket source);
+
+    /**
+     * Find the buckets with the given ids, in a single query.
+     *
+     * Public buckets are always found. Private buckets are only found if they are owned by the user with id
+     * initiatorId.
+     *
+     * Buckets owned by users that have been deleted are never found.
+     *
+     * @param ids The ids of the buckets.
+     * @param initiatorId The user that initiated the query.
+     * @return The buckets with the given ids that are visible to the initiator, in no particular order.
+     * */
+    @Query("SELECT b FROM Bucket b WHERE b.id IN :ids AND (b.isPublic = true OR b.owner.id = :initiatorId) " +
+            "AND b.owner.deletedAt IS NULL")
+    List<Bucket> findAllVisibleByIdIn(@Param("ids") final Collection<Long> ids,
+                                      @Param("initiatorId") final Long initiatorId);
+
     /**
      * Find all buckets that contain the partial bucket name. The search is case-insensitive.
      *
      * All public buckets that partially match the query string will be returned. If the bucket is private and partially
-     * matches the query string, the bucket will only be returned if owner_id matches initiatorId.
+     * matches the query string, the bucket will only be returned if owner_id matches initiatorId. Buckets owned by users
+     * that have been deleted are omitted.
      *
      * @param partialBucketName The partial bucket name to search for.
      * @param initiatorId The user that initiated the query.
      * @return Buckets that contain with the given partial bucket name.
      * */
-    @Query(value = "SELECT * FROM buckets " +
+    @Query(value = "SELECT buckets.* FROM buckets " +
+            "INNER JOIN users owners ON (owners.id = buckets.owner_id AND owners.deleted_at IS NULL) " +
             "WHERE (buckets.name ILIKE %:partialBucketName%) " +
             "AND (buckets.is_public OR buckets.owner_id = :initiatorId)",
             countQuery = "SELECT COUNT(*) FROM buckets " +
+                    "INNER JOIN users owners ON (owners.id = buckets.owner_id AND owners.deleted_at IS NULL) " +
                     "WHERE (buckets.name ILIKE %:partialBucketName%) " +
                     "AND (buckets.is_public OR buckets.owner_id = :initiatorId)",
             nativeQuery = true)
@@ -88,7 +117,8 @@ public interface BucketDAO extends JpaRepository<Bucket, Long> {
                                    @Param("initiatorId") final Long initiatorId);
 
     /**
-     * Retrieve a list of buckets which were recently created by users who are followed by a given user.
+     * Retrieve a list of buckets which were recently created by users who are followed by a given user. Buckets owned by
+     * users that have been deleted are omitted.
      *
      * Results are sorted by the bucket created_at field. As such, the pageable should be unsorted.
      *
@@ -98,10 +128,12 @@ public interface BucketDAO extends JpaRepository<Bucket, Long> {
      * */
     @Query(value = "SELECT buckets.* FROM users_relationships " +
             "INNER JOIN buckets ON (users_relationships.following_id = buckets.owner_id AND buckets.is_public) " +
+            "INNER JOIN users owners ON (owners.id = buckets.owner_id AND owners.deleted_at IS NULL) " +
             "WHERE users_relationships.follower_id = :followerId " +
             "ORDER BY buckets.created_at DESC",
             countQuery = "SELECT COUNT(buckets.*) FROM users_relationships " +
                     "INNER JOIN buckets ON (users_relationships.following_id = buckets.owner_id AND buckets.is_public) " +
+                    "INNER JOIN users owners ON (owners.id = buckets.owner_id AND owners.deleted_at IS NULL) " +
                     "WHERE users_relationships.follower_id = :followerId " +
                     "ORDER BY buckets.created_at DESC",
             nativeQuery = true)
@@ -0,0 +1,157 @@
+package ca.unb.ktb.application.dao;
+
+import ca.unb.ktb.core.model.Bucket;
+import ca.unb.ktb.core.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * JDBC DAO for {@link Bucket} operations that cannot be expressed efficiently through JPA.
+ * */
+@Repository
+public class BucketJdbcDAO {
+
+    private static final String SELECT_BUCKETS_BY_OWNER =
+            "SELECT buckets.id, buckets.owner_id, buckets.name, buckets.is_public, buckets.description FROM buckets " +
+            "INNER JOIN users owners ON (owners.id = buckets.owner_id AND owners.deleted_at IS NULL) " +
+            "WHERE buckets.owner_id = ?";
+
+    private static final String PATCH_BUCKET_OWNED_BY_USER_CLAUSES =
+            "WHERE buckets.id = ? AND buckets.owner_id = ? " +
+            "RETURNING buckets.id, buckets.owner_id, buckets.name, buckets.is_public, buckets.description";
+
+    private static final String DELETE_BUCKET_BATCH_OWNED_BY_USER =
+            "DELETE FROM buckets WHERE buckets.id IN (" +
+            "SELECT buckets.id FROM buckets " +
+            "WHERE buckets.owner_id = ? " +
+            "LIMIT ?) " +
+            "RETURNING buckets.id";
+
+    private static final String DELETE_RELATIONSHIPS_BY_FOLLOWING =
+            "DELETE FROM users_bucket_relationships WHERE users_bucket_relationships.following_id = ?";
+
+    private static final String DELETE_RELATIONSHIP_BATCH_INVOLVING_USER =
+            "DELETE FROM users_bucket_relationships WHERE users_bucket_relationships.id IN (" +
+            "SELECT ubr.id FROM users_bucket_relationships ubr " +
+            "WHERE ubr.follower_id = ? " +
+            "UNION ALL " +
+            "SELECT ubr.id FROM users_bucket_relationships ubr " +
+            "INNER JOIN buckets ON (buckets.id = ubr.following_id) " +
+            "WHERE buckets.owner_id = ? " +
+            "LIMIT ?)";
+
+    private static final RowMapper<Bucket> BUCKET_ROW_MAPPER = (ResultSet rs, int rowNum) -> {
+        Bucket bucket = new Bucket(rs.getLong("id"));
+        bucket.setOwner(new User(rs.getLong("owner_id")));
+        bucket.setName(rs.getString("name"));
+        bucket.setIsPublic(rs.getBoolean("is_public"));
+        bucket.setDescription(rs.getString("description"));
+
+        return bucket;
+    };
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Autowired private SecondLevelCacheEvictor secondLevelCacheEvictor;
+
+    @Autowired private KeysetQueryExecutor keysetQueryExecutor;
+
+    /**
+     * Partially update a bucket owned by a given user, in a single statement. Only non-null fields of the partial
+     * bucket are written.
+     *
+     * The bucket is not read before it is written. If no bucket with the given id and owner exists, no rows are
+     * affected and nothing is returned. Since the statement bypasses Hibernate, the bucket is evicted from the
+     * second-level cache.
+     *
+     * @param bucketId The id of the bucket to update.
+     * @param ownerId The id of the user that must own the bucket.
+     * @param partialBucket The partial bucket.
+     * @return An {@link Optional} containing the bucket as updated, or {@code Optional.empty()} if no bucket was updated.
+     * The source of the returned bucket is not populated.
+     * */
+    public Optional<Bucket> patchBucketOwnedByUser(final Long bucketId, final Long ownerId, final Bucket partialBucket) {
+        PartialUpdate update = new PartialUpdate("buckets")
+                .set("name", partialBucket.getName())
+                .set("is_public", partialBucket.getIsPublic())
+                .set("description", partialBucket.getDescription());
+
+        String sql = update.toSql(PATCH_BUCKET_OWNED_BY_USER_CLAUSES);
+
+        Optional<Bucket> bucket = jdbcTemplate.query(sql, BUCKET_ROW_MAPPER, update.getParameters(bucketId, ownerId))
+                .stream()
+                .findFirst();
+
+        bucket.ifPresent(patchedBucket -> secondLevelCacheEvictor.evict(Bucket.class, bucketId, false));
+        return bucket;
+    }
+
+    /**
+     * Find the buckets owned by a given user, in order of id, passing each bucket to a consumer as it is read.
+     *
+     * @param ownerId The id of the user that owns the buckets.
+     * @param includePrivate If false, only public buckets are found.
+     * @param after Only buckets with an id greater than this id are found, or all buckets if null.
+     * @param limit The maximum number of buckets to find, or null to find all buckets.
+     * @param consumer Consumes each bucket found. The source of each bucket is not populated.
+     * @see KeysetQueryExecutor
+     * */
+    public void findBucketsByOwner(final Long ownerId, final boolean includePrivate, @Nullable final Long after,
+                                   @Nullable final Integer limit, final Consumer<Bucket> consumer) {
+        String sql = includePrivate ? SELECT_BUCKETS_BY_OWNER : SELECT_BUCKETS_BY_OWNER + " AND buckets.is_public";
+        keysetQueryExecutor.query(sql, "buckets.id", after, limit, BUCKET_ROW_MAPPER, consumer, ownerId);
+    }
+
+    /**
+     * Delete a bounded batch of buckets owned by a given user. The items and relationships of the buckets must already
+     * have been deleted.
+     *
+     * Used by the account purge job, which repeatedly invokes this method until no rows are affected. Since the
+     * statement bypasses Hibernate, the deleted buckets are evicted from the second-level cache.
+     *
+     * @param ownerId The id of the user who owns the buckets.
+     * @param batchSize The maximum number of buckets to delete.
+     * @return The ids of the buckets deleted.
+     * */
+    public List<Long> deleteBatchOwnedByUser(final Long ownerId, final int batchSize) {
+        List<Long> bucketIds = jdbcTemplate.queryForList(DELETE_BUCKET_BATCH_OWNED_BY_USER, Long.class, ownerId,
+                batchSize);
+        bucketIds.forEach(bucketId -> secondLevelCacheEvictor.evict(Bucket.class, bucketId, false));
+
+        return bucketIds;
+    }
+
+    /**
+     * Delete all relationships between users and a given bucket, in a single statement.
+     *
+     * @param bucketId The id of the bucket being followed.
+     * @return The number of relationships deleted.
+     * */
+    public int deleteRelationshipsByFollowingId(final Long bucketId) {
+        return jdbcTemplate.update(DELETE_RELATIONSHIPS_BY_FOLLOWING, bucketId);
+    }
+
+    /**
+     * Delete a bounded batch of relationships between users and buckets that involve a given user, either because the
+     * user is following the bucket, or because the user owns the bucket being followed.
+     *
+     * Used by the account purge job, which repeatedly invokes this method until no rows are affected. Relationships
+     * followed by the user and relationships with buckets owned by the user are found separately, so that each is
+     * found through an index.
+     *
+     * @param userId The id of the user.
+     * @param batchSize The maximum number of relationships to delete.
+     * @return The number of relationships deleted.
+     * */
+    public int deleteRelationshipBatchInvolvingUser(final Long userId, final int batchSize) {
+        return jdbcTemplate.update(DELETE_RELATIONSHIP_BATCH_INVOLVING_USER, userId, userId, batchSize);
+    }
+}
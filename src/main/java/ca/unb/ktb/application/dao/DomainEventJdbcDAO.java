@@ -0,0 +1,212 @@
+package ca.unb.ktb.application.dao;
+
+import ca.unb.ktb.core.event.DomainEvent;
+import ca.unb.ktb.core.event.DomainEventType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+
+/**
+ * JDBC DAO for the outbox of {@link DomainEvent}s, and the checkpoints of the projections that consume them.
+ *
+ * Events are appended within the current Spring-managed transaction, so that they are committed along with the write
+ * that produced them.
+ * */
+@Repository
+public class DomainEventJdbcDAO {
+
+    private static final String INSERT_DOMAIN_EVENT =
+            "INSERT INTO domain_events (event_type, aggregate_type, aggregate_id, partition_key, payload) " +
+            "VALUES (?, ?, ?, ?, ?::jsonb)";
+
+    private static final String INSERT_CHECKPOINT =
+            "INSERT INTO projection_checkpoints (projection, partition_key) VALUES (?, ?) " +
+            "ON CONFLICT (projection, partition_key) DO NOTHING";
+
+    private static final String SELECT_CHECKPOINT =
+            "SELECT projection_checkpoints.transaction_id, projection_checkpoints.event_id FROM projection_checkpoints " +
+            "WHERE projection_checkpoints.projection = ? AND projection_checkpoints.partition_key = ?";
+
+    private static final String LOCK_CHECKPOINT = SELECT_CHECKPOINT + " FOR UPDATE SKIP LOCKED";
+
+    private static final String UPDATE_CHECKPOINT =
+            "UPDATE projection_checkpoints SET transaction_id = ?, event_id = ?, updated_at = now() " +
+            "WHERE projection_checkpoints.projection = ? AND projection_checkpoints.partition_key = ?";
+
+    private static final String SELECT_DOMAIN_EVENTS_AFTER =
+            "SELECT domain_events.id, domain_events.event_type, domain_events.aggregate_id, domain_events.payload, " +
+            "domain_events.created_at, domain_events.transaction_id FROM domain_events " +
+            "WHERE domain_events.partition_key = ? " +
+            "AND (domain_events.transaction_id, domain_events.id) > (?, ?) " +
+            "AND domain_events.transaction_id < txid_snapshot_xmin(txid_current_snapshot()) " +
+            "ORDER BY domain_events.transaction_id, domain_events.id LIMIT ?";
+
+    private static final String DELETE_DOMAIN_EVENTS_BEFORE =
+            "DELETE FROM domain_events WHERE domain_events.id IN (" +
+            "SELECT domain_events.id FROM domain_events WHERE domain_events.created_at < ? LIMIT ?)";
+
+    private static final RowMapper<Checkpoint> CHECKPOINT_ROW_MAPPER = (ResultSet rs, int rowNum) ->
+            new Checkpoint(rs.getLong("transaction_id"), rs.getLong("event_id"));
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<Map<String, Object>>() {};
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Autowired private ObjectMapper objectMapper;
+
+    private final RowMapper<DomainEvent> domainEventRowMapper = (ResultSet rs, int rowNum) ->
+            new DomainEvent(rs.getLong("id"), DomainEventType.valueOf(rs.getString("event_type")),
+                    rs.getLong("aggregate_id"), readPayload(rs.getString("payload")), rs.getTimestamp("created_at"),
+                    rs.getLong("transaction_id"));
+
+    /**
+     * Append events to the outbox, with a single JDBC batch.
+     *
+     * @param events The events to append.
+     * @param partitioner Assigns each event to a partition.
+     * @return The number of rows inserted for each event, in the order they were given.
+     * */
+    public int[] insertAll(final List<DomainEvent> events, final ToIntFunction<DomainEvent> partitioner) {
+        return jdbcTemplate.execute(INSERT_DOMAIN_EVENT, (PreparedStatement statement) -> {
+            for(DomainEvent event : events) {
+                statement.setString(1, event.getType().name());
+                statement.setString(2, event.getType().getAggregateType().name());
+                statement.setLong(3, event.getAggregateId());
+                statement.setInt(4, partitioner.applyAsInt(event));
+                statement.setString(5, writePayload(event.getPayload()));
+                statement.addBatch();
+            }
+
+            return statement.executeBatch();
+        });
+    }
+
+    /**
+     * Create the checkpoints of a projection for each partition, if they do not yet exist.
+     *
+     * @param projection The name of the projection.
+     * @param partitions The number of partitions.
+     * */
+    public void insertCheckpoints(final String projection, final int partitions) {
+        jdbcTemplate.execute(INSERT_CHECKPOINT, (PreparedStatement statement) -> {
+            for(int partition = 0; partition < partitions; partition++) {
+                statement.setString(1, projection);
+                statement.setInt(2, partition);
+                statement.addBatch();
+            }
+
+            return statement.executeBatch();
+        });
+    }
+
+    /**
+     * Find the checkpoint of a projection for a partition, without locking it.
+     *
+     * @param projection The name of the projection.
+     * @param partition The partition.
+     * @return An {@link Optional} containing the checkpoint, or {@code Optional.empty()} if the checkpoint does not
+     * exist.
+     * */
+    public Optional<Checkpoint> findCheckpoint(final String projection, final int partition) {
+        return jdbcTemplate.query(SELECT_CHECKPOINT, CHECKPOINT_ROW_MAPPER, projection, partition).stream()
+                .findFirst();
+    }
+
+    /**
+     * Lock the checkpoint of a projection for a partition, until the end of the current transaction. If another
+     * transaction holds the lock, the checkpoint is skipped rather than waited on.
+     *
+     * @param projection The name of the projection.
+     * @param partition The partition.
+     * @return An {@link Optional} containing the checkpoint, or {@code Optional.empty()} if the checkpoint does not exist
+     * or is locked by another transaction.
+     * */
+    public Optional<Checkpoint> lockCheckpoint(final String projection, final int partition) {
+        return jdbcTemplate.query(LOCK_CHECKPOINT, CHECKPOINT_ROW_MAPPER, projection, partition).stream()
+                .findFirst();
+    }
+
+    /**
+     * Advance the checkpoint of a projection for a partition.
+     *
+     * @param projection The name of the projection.
+     * @param partition The partition.
+     * @param checkpoint The new checkpoint.
+     * */
+    public void updateCheckpoint(final String projection, final int partition, final Checkpoint checkpoint) {
+        jdbcTemplate.update(UPDATE_CHECKPOINT, checkpoint.getTransactionId(), checkpoint.getEventId(), projection,
+                partition);
+    }
+
+    /**
+     * Find the events of a partition after a checkpoint, in (transaction id, event id) order.
+     *
+     * Only events appended by transactions older than every transaction still running are returned. Any event
+     * appended later is therefore ordered after the returned events, and is never skipped by a checkpoint.
+     *
+     * @param partition The partition.
+     * @param checkpoint The checkpoint.
+     * @param limit The maximum number of events to find.
+     * @return The events.
+     * */
+    public List<DomainEvent> findEventsAfter(final int partition, final Checkpoint checkpoint, final int limit) {
+        return jdbcTemplate.query(SELECT_DOMAIN_EVENTS_AFTER, domainEventRowMapper, partition,
+                checkpoint.getTransactionId(), checkpoint.getEventId(), limit);
+    }
+
+    /**
+     * Delete a bounded batch of events appended before a given time.
+     *
+     * @param before The time before which events are deleted.
+     * @param batchSize The maximum number of events to delete.
+     * @return The number of events deleted.
+     * */
+    public int deleteEventsCreatedBefore(final Date before, final int batchSize) {
+        return jdbcTemplate.update(DELETE_DOMAIN_EVENTS_BEFORE, new Timestamp(before.getTime()), batchSize);
+    }
+
+    private String writePayload(final Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch(JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to serialize domain event payload.", e);
+        }
+    }
+
+    private Map<String, Object> readPayload(final String payload) {
+        try {
+            return objectMapper.readValue(payload, PAYLOAD_TYPE);
+        } catch(IOException e) {
+            throw new UncheckedIOException("Unable to deserialize domain event payload.", e);
+        }
+    }
+
+    /**
+     * The position of a projection within a partition: the transaction id and event id of the last event consumed.
+     * */
+    @AllArgsConstructor
+    @Getter
+    public static class Checkpoint {
+
+        private final long transactionId;
+
+        private final long eventId;
+    }
+}
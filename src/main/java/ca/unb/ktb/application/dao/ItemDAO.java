@@ -3,11 +3,13 @@ package ca.unb.ktb.application.dao;
 import ca.unb.ktb.core.model.Bucket;
 import ca.unb.ktb.core.model.Item;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * JPA Repository interface for defining specific DAO methods not already generated by JPA.
@@ -16,6 +18,16 @@ import java.util.List;
  * */
 public interface ItemDAO extends JpaRepository<Item, Long> {
 
+    /**
+     * Find an {@link Item} by id, along with the {@link Bucket} containing it.
+     *
+     * @param id The id of the item.
+     * @return An {@link Optional} containing the item, or {@code Optional.empty()} if not found.
+     * */
+    @Override
+    @EntityGraph("Item.parent")
+    Optional<Item> findById(final Long id);
+
     /**
      * Find all {@link Item} objects with a given parent that are public.
      *
@@ -25,17 +37,38 @@ public interface ItemDAO extends JpaRepository<Item, Long> {
     List<Item> findAllByParent(final Bucket parent);
 
     /**
-     * Find all items that contain the partial item name. The search is case-insensitive.
+     * Find an {@link Item} with a given id that belongs to a given bucket.
+     *
+     * @param id The id of the item.
+     * @param parent The bucket containing the item.
+     * @return An {@link Optional} containing the item, or {@code Optional.empty()} if not found.
+     * */
+    Optional<Item> findByIdAndParent(final Long id, final Bucket parent);
+
+    /**
+     * Find the {@link Item} in a given bucket that was materialized from the item with the given id.
+     *
+     * @param parent The bucket containing the materialized item.
+     * @param originId The id of the item from which the item was materialized.
+     * @return An {@link Optional} containing the materialized item, or {@code Optional.empty()} if not found.
+     * */
+    Optional<Item> findFirstByParentAndOriginId(final Bucket parent, final Long originId);
+
+    /**
+     * Find all items that contain the partial item name. The search is case-insensitive. Items in buckets owned by users
+     * that have been deleted are omitted.
      *
      * @param partialItemName The partial item name to search for.
      * @return Items that contain with the given partial item name.
      * */
-    @Query(value = "SELECT * FROM items " +
+    @Query(value = "SELECT items.* FROM items " +
             "INNER JOIN buckets ON items.parent_id = buckets.id " +
+            "INNER JOIN users owners ON (owners.id = buckets.owner_id AND owners.deleted_at IS NULL) " +
             "WHERE (items.name ILIKE %:partialItemName%) " +
             "AND (buckets.is_public OR buckets.owner_id = :initiatorId)",
             countQuery = "SELECT COUNT(*) FROM items " +
                     "INNER JOIN buckets ON items.parent_id = buckets.id " +
+                    "INNER JOIN users owners ON (owners.id = buckets.owner_id AND owners.deleted_at IS NULL) " +
                     "WHERE (items.name ILIKE %:partialItemName%) " +
                     "AND (buckets.is_public OR buckets.owner_id = :initiatorId)",
             nativeQuery = true)
@@ -43,7 +76,8 @@ public interface ItemDAO extends JpaRepository<Item, Long> {
                                  @Param("initiatorId") final Long initiatorId);
 
     /**
-     * Retrieve a list of items which were recently created by users who are follwed by a given user.
+     * Retrieve a list of items which were recently created by users who are follwed by a given user. Items in buckets
+     * owned by users that have been deleted are omitted.
      *
      * Results are sorted by the item created_at field. As such, the pageable should be unsorted.
      *
@@ -53,11 +87,13 @@ public interface ItemDAO extends JpaRepository<Item, Long> {
      * */
     @Query(value = "SELECT items.* FROM users_relationships " +
             "INNER JOIN buckets ON (users_relationships.following_id = buckets.owner_id) " +
+            "INNER JOIN users owners ON (owners.id = buckets.owner_id AND owners.deleted_at IS NULL) " +
             "INNER JOIN items ON (buckets.id = items.parent_id) " +
             "WHERE users_relationships.follower_id = :followerId " +
             "ORDER BY items.created_at DESC",
             countQuery = "SELECT count(items.*) FROM users_relationships " +
                     "INNER JOIN buckets ON (users_relationships.following_id = buckets.owner_id) " +
+                    "INNER JOIN users owners ON (owners.id = buckets.owner_id AND owners.deleted_at IS NULL) " +
                     "INNER JOIN items ON (buckets.id = items.parent_id) " +
                     "WHERE users_relationships.follower_id = :followerId " +
                     "ORDER BY items.created_at DESC",
@@ -84,4 +120,4 @@ public interface ItemDAO extends JpaRepository<Item, Long> {
                     "ORDER BY buckets.created_at DESC",
             nativeQuery = true)
     List<Item> retrieveItemsCreatedByUser(@Param("userId") final Long userId, final Pageable pageable);
-}
\ No newline at end of file
+}
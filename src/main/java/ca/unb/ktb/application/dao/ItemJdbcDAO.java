@@ -0,0 +1,399 @@
+package ca.unb.ktb.application.dao;
+
+import ca.unb.ktb.core.model.Bucket;
+import ca.unb.ktb.core.model.Item;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * JDBC DAO for {@link Item} operations that cannot be expressed efficiently through JPA.
+ *
+ * Hibernate cannot batch inserts of entities with IDENTITY generated ids, so batch operations on items are written
+ * with plain JDBC batches, which participate in the current Spring-managed transaction.
+ * */
+@Repository
+public class ItemJdbcDAO {
+
+    private static final String INSERT_ITEM =
+            "INSERT INTO items (name, description, link, is_complete, parent_id, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, now(), now())";
+
+    private static final String COPY_ITEMS =
+            "INSERT INTO items (name, description, link, is_complete, parent_id, created_at, updated_at) " +
+            "SELECT items.name, items.description, items.link, items.is_complete, ?, now(), now() FROM items " +
+            "WHERE items.parent_id = ? " +
+            "ORDER BY items.id";
+
+    private static final String PATCH_ITEM =
+            "UPDATE items SET name = COALESCE(?, name), " +
+            "description = COALESCE(?, description), " +
+            "link = COALESCE(?, link), " +
+            "is_complete = COALESCE(?, is_complete), " +
+            "updated_at = now() " +
+            "WHERE items.id = ? AND items.parent_id = ?";
+
+    private static final String PATCH_ITEM_OWNED_BY_USER_CLAUSES =
+            "FROM buckets " +
+            "WHERE items.id = ? AND items.parent_id = ? " +
+            "AND buckets.id = items.parent_id AND buckets.owner_id = ? AND buckets.source_id IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM buckets clones WHERE clones.source_id = items.parent_id) " +
+            "RETURNING items.id, items.name, items.description, items.link, items.is_complete";
+
+    private static final String DELETE_ITEM =
+            "DELETE FROM items WHERE items.id = ? AND items.parent_id = ?";
+
+    private static final String DELETE_ITEMS_BY_PARENT =
+            "DELETE FROM items WHERE items.parent_id = ?";
+
+    private static final String DELETE_ITEM_BATCH_OWNED_BY_USER =
+            "DELETE FROM items WHERE items.id IN (" +
+            "SELECT items.id FROM items " +
+            "INNER JOIN buckets ON (buckets.id = items.parent_id) " +
+            "WHERE buckets.owner_id = ? " +
+            "LIMIT ?)";
+
+    private static final String SELECT_ITEMS =
+            "SELECT items.id, items.name, items.description, items.link, items.is_complete FROM items " +
+            "WHERE items.parent_id = ? AND items.id = ANY (?)";
+
+    private static final String SELECT_ITEMS_BY_PARENT =
+            "SELECT items.id, items.name, items.description, items.link, items.is_complete FROM items " +
+            "WHERE items.parent_id = ?";
+
+    private static final String SELECT_ITEMS_VERSION =
+            "SELECT count(*) AS item_count, max(items.updated_at) AS last_updated FROM items " +
+            "WHERE items.parent_id = ?";
+
+    private static final String SELECT_ITEM_ORIGINS =
+            "SELECT items.id, items.origin_id FROM items " +
+            "WHERE items.parent_id = ? AND items.origin_id IS NOT NULL";
+
+    private static final String MATERIALIZE_CLONE =
+            materializeClonesWhere("buckets.id = ? AND buckets.source_id IS NOT NULL");
+
+    private static final String MATERIALIZE_CLONES_OF_SOURCE =
+            materializeClonesWhere("buckets.source_id = ?");
+
+    private static final String MATERIALIZE_CLONES_OF_SOURCES_OWNED_BY_USER =
+            materializeClonesWhere("buckets.source_id IN " +
+                    "(SELECT owned.id FROM buckets owned WHERE owned.owner_id = ?)");
+
+    private static final RowMapper<Item> ITEM_ROW_MAPPER = (ResultSet rs, int rowNum) -> {
+        Item item = new Item(rs.getLong("id"));
+        item.setName(rs.getString("name"));
+        item.setDescription(rs.getString("description"));
+        item.setLink(rs.getString("link"));
+        item.setIsComplete(rs.getBoolean("is_complete"));
+
+        return item;
+    };
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Autowired private SecondLevelCacheEvictor secondLevelCacheEvictor;
+
+    @Autowired private KeysetQueryExecutor keysetQueryExecutor;
+
+    /**
+     * Insert a list of items into a given bucket, as a single JDBC batch.
+     *
+     * @param parentId The id of the bucket that will contain the items.
+     * @param items The items to insert. The parent and id of each item is ignored.
+     * @return The generated ids of the inserted items, in the same order as the given items.
+     * */
+    public List<Long> insertAll(final Long parentId, final List<Item> items) {
+        return jdbcTemplate.execute(connection -> connection.prepareStatement(INSERT_ITEM, new String[] {"id"}),
+                (PreparedStatement statement) -> {
+                    for(Item item : items) {
+                        statement.setString(1, item.getName());
+                        statement.setString(2, item.getDescription());
+                        statement.setString(3, item.getLink());
+                        statement.setBoolean(4, item.getIsComplete());
+                        statement.setLong(5, parentId);
+                        statement.addBatch();
+                    }
+
+                    statement.executeBatch();
+
+                    List<Long> ids = new ArrayList<>(items.size());
+                    try(ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                        while(generatedKeys.next()) {
+                            ids.add(generatedKeys.getLong(1));
+                        }
+                    }
+
+                    return ids;
+                });
+    }
+
+    /**
+     * Copy all items contained by a given bucket into another bucket, as a single server-side INSERT ... SELECT
+     * statement. Item rows never leave the database, so the cost of the copy does not depend on the number of items.
+     *
+     * The statement bypasses Hibernate, so unlike a native query it does not cause Hibernate to evict the second-level
+     * cache. Items are not cached.
+     *
+     * @param fromParentId The id of the bucket whose items are copied.
+     * @param toParentId The id of the bucket that will contain the copies.
+     * @return The number of items copied.
+     * */
+    public int copyAll(final Long fromParentId, final Long toParentId) {
+        return jdbcTemplate.update(COPY_ITEMS, toParentId, fromParentId);
+    }
+
+    /**
+     * Partially update a list of items contained by a given bucket, as a single JDBC batch. Only non-null fields of
+     * each partial item are written.
+     *
+     * @param parentId The id of the bucket containing the items.
+     * @param partialItems The partial items. The id of each partial item identifies the item to update.
+     * @return The number of rows updated for each partial item, in the same order as the given partial items.
+     * */
+    public int[] patchAll(final Long parentId, final List<Item> partialItems) {
+        return jdbcTemplate.execute(PATCH_ITEM, (PreparedStatement statement) -> {
+            for(Item item : partialItems) {
+                statement.setString(1, item.getName());
+                statement.setString(2, item.getDescription());
+                statement.setString(3, item.getLink());
+                statement.setObject(4, item.getIsComplete(), Types.BOOLEAN);
+                statement.setLong(5, item.getId());
+                statement.setLong(6, parentId);
+                statement.addBatch();
+            }
+
+            return statement.executeBatch();
+        });
+    }
+
+    /**
+     * Partially update an item contained by a bucket owned by a given user, in a single statement. Only non-null
+     * fields of the partial item are written.
+     *
+     * The item is not read before it is written. No rows are affected, and nothing is returned, if no such item exists,
+     * or if the bucket is a lightweight clone or is the source of a lightweight clone. In those cases, the clones must
+     * be materialized before the item can be written.
+     *
+     * @param itemId The id of the item to update.
+     * @param parentId The id of the bucket containing the item.
+     * @param ownerId The id of the user that must own the bucket.
+     * @param partialItem The partial item.
+     * @return An {@link Optional} containing the item as updated, or {@code Optional.empty()} if no item was updated.
+     * The parent of the returned item is not populated.
+     * */
+    public Optional<Item> patchItemOwnedByUser(final Long itemId, final Long parentId, final Long ownerId,
+                                               final Item partialItem) {
+        PartialUpdate update = new PartialUpdate("items")
+                .set("name", partialItem.getName())
+                .set("description", partialItem.getDescription())
+                .set("link", partialItem.getLink())
+                .set("is_complete", partialItem.getIsComplete());
+
+        String sql = update.toSql(PATCH_ITEM_OWNED_BY_USER_CLAUSES);
+
+        return jdbcTemplate.query(sql, ITEM_ROW_MAPPER, update.getParameters(itemId, parentId, ownerId)).stream()
+                .findFirst();
+    }
+
+    /**
+     * Delete a list of items contained by a given bucket, as a single JDBC batch.
+     *
+     * @param parentId The id of the bucket containing the items.
+     * @param itemIds The ids of the items to delete.
+     * @return The number of rows deleted for each item id, in the same order as the given item ids.
+     * */
+    public int[] deleteAll(final Long parentId, final List<Long> itemIds) {
+        return jdbcTemplate.execute(DELETE_ITEM, (PreparedStatement statement) -> {
+            for(Long itemId : itemIds) {
+                statement.setLong(1, itemId);
+                statement.setLong(2, parentId);
+                statement.addBatch();
+            }
+
+            return statement.executeBatch();
+        });
+    }
+
+    /**
+     * Delete all items contained by a given bucket, in a single statement.
+     *
+     * The statement bypasses Hibernate, so unlike a native query it does not cause Hibernate to evict the second-level
+     * cache. Items are not cached.
+     *
+     * @param parentId The id of the bucket containing the items.
+     * @return The number of items deleted.
+     * */
+    public int deleteAllByParentId(final Long parentId) {
+        return jdbcTemplate.update(DELETE_ITEMS_BY_PARENT, parentId);
+    }
+
+    /**
+     * Delete a bounded batch of items contained by buckets owned by a given user.
+     *
+     * Used by the account purge job, which repeatedly invokes this method until no rows are affected.
+     *
+     * @param ownerId The id of the user who owns the buckets containing the items.
+     * @param batchSize The maximum number of items to delete.
+     * @return The number of items deleted.
+     * */
+    public int deleteBatchOwnedByUser(final Long ownerId, final int batchSize) {
+        return jdbcTemplate.update(DELETE_ITEM_BATCH_OWNED_BY_USER, ownerId, batchSize);
+    }
+
+    /**
+     * Find the items with the given ids that are contained by a given bucket. The parent of the returned items is not
+     * populated.
+     *
+     * @param parentId The id of the bucket containing the items.
+     * @param itemIds The ids of the items to find.
+     * @return The items found, in no particular order.
+     * */
+    public List<Item> findAllByParentIdAndIdIn(final Long parentId, final Collection<Long> itemIds) {
+        return jdbcTemplate.execute(SELECT_ITEMS, (PreparedStatement statement) -> {
+            statement.setLong(1, parentId);
+            statement.setArray(2, statement.getConnection().createArrayOf("bigint", itemIds.toArray()));
+
+            List<Item> items = new ArrayList<>(itemIds.size());
+            try(ResultSet rs = statement.executeQuery()) {
+                while(rs.next()) {
+                    items.add(ITEM_ROW_MAPPER.mapRow(rs, items.size()));
+                }
+            }
+
+            return items;
+        });
+    }
+
+    /**
+     * Find the items contained by a given bucket, in order of id, passing each item to a consumer as it is read.
+     *
+     * @param parentId The id of the bucket containing the items.
+     * @param after Only items with an id greater than this id are found, or all items if null.
+     * @param limit The maximum number of items to find, or null to find all items.
+     * @param consumer Consumes each item found. The parent of each item is not populated.
+     * @see KeysetQueryExecutor
+     * */
+    public void findItemsByParent(final Long parentId, @Nullable final Long after, @Nullable final Integer limit,
+                                  final Consumer<Item> consumer) {
+        keysetQueryExecutor.query(SELECT_ITEMS_BY_PARENT, "items.id", after, limit, ITEM_ROW_MAPPER, consumer,
+                parentId);
+    }
+
+    /**
+     * Find the version of the items contained by a given bucket, in a single statement.
+     *
+     * The version is built from the number of items in the bucket and the time the most recently updated item was
+     * updated, which changes whenever an item is inserted, updated or deleted.
+     *
+     * @param parentId The id of the bucket containing the items.
+     * @return The version of the items in the bucket.
+     * */
+    public String findItemsVersion(final Long parentId) {
+        return jdbcTemplate.queryForObject(SELECT_ITEMS_VERSION, (ResultSet rs, int rowNum) ->
+                String.format("%d/%s", rs.getLong("item_count"), rs.getTimestamp("last_updated")), parentId);
+    }
+
+    /**
+     * Retrieve the ids of the items in a given bucket that were materialized from another item, keyed by the id of the
+     * item from which they were materialized.
+     *
+     * @param parentId The id of the bucket containing the materialized items.
+     * @return A map of origin item ids to materialized item ids.
+     * */
+    public Map<Long, Long> findIdsByOriginId(final Long parentId) {
+        Map<Long, Long> ids = new HashMap<>();
+        jdbcTemplate.query(SELECT_ITEM_ORIGINS, (ResultSet rs) -> {
+            ids.put(rs.getLong("origin_id"), rs.getLong("id"));
+        }, parentId);
+
+        return ids;
+    }
+
+    /**
+     * Materialize the items of a lightweight bucket clone. The items of the source bucket are copied into the clone,
+     * and the clone's reference to its source is cleared, within a single statement.
+     *
+     * Materialized items record the id of the item they were copied from, and retain its creation date. If the bucket
+     * is not a lightweight clone, no rows are affected. The clone is evicted from the second-level cache.
+     *
+     * @param cloneId The id of the lightweight clone.
+     * @return True if the bucket was a lightweight clone and its items were materialized.
+     * */
+    public boolean materializeClone(final Long cloneId) {
+        return !materializeClones(MATERIALIZE_CLONE, cloneId).isEmpty();
+    }
+
+    /**
+     * Materialize the items of all lightweight clones of a given bucket, within a single statement.
+     *
+     * @param sourceId The id of the bucket from which the clones were duplicated.
+     * @return The ids of the clones whose items were materialized.
+     * @see ItemJdbcDAO#materializeClone(Long)
+     * */
+    public List<Long> materializeClonesOfSource(final Long sourceId) {
+        return materializeClones(MATERIALIZE_CLONES_OF_SOURCE, sourceId);
+    }
+
+    /**
+     * Materialize the items of all lightweight clones of buckets owned by a given user, within a single statement.
+     *
+     * @param ownerId The id of the user who owns the buckets from which the clones were duplicated.
+     * @return The ids of the clones whose items were materialized.
+     * @see ItemJdbcDAO#materializeClone(Long)
+     * */
+    public List<Long> materializeClonesOfSourcesOwnedByUser(final Long ownerId) {
+        return materializeClones(MATERIALIZE_CLONES_OF_SOURCES_OWNED_BY_USER, ownerId);
+    }
+
+    /**
+     * Materialize the items of lightweight clones, and evict the clones from the second-level cache, since the
+     * statement bypasses Hibernate.
+     *
+     * @param sql The materialization statement.
+     * @param parameter The single parameter of the statement.
+     * @return The ids of the clones whose items were materialized.
+     * */
+    private List<Long> materializeClones(final String sql, final Long parameter) {
+        List<Long> cloneIds = jdbcTemplate.queryForList(sql, Long.class, parameter);
+        cloneIds.forEach(cloneId -> secondLevelCacheEvictor.evict(Bucket.class, cloneId, false));
+
+        return cloneIds;
+    }
+
+    /**
+     * Build a statement that detaches the lightweight clones matching a condition from their source, copies the items
+     * of each source into its clones, and returns the ids of the detached clones.
+     *
+     * @param condition The condition on the buckets to detach, with a single parameter.
+     * @return The statement.
+     * */
+    private static String materializeClonesWhere(final String condition) {
+        return "WITH detached AS (" +
+                "UPDATE buckets SET source_id = NULL, updated_at = now() " +
+                "FROM buckets previous " +
+                "WHERE buckets.id = previous.id AND " + condition + " " +
+                "RETURNING buckets.id AS clone_id, previous.source_id AS source_id), " +
+                "materialized AS (" +
+                "INSERT INTO items " +
+                "(name, description, link, is_complete, parent_id, origin_id, created_at, updated_at) " +
+                "SELECT items.name, items.description, items.link, items.is_complete, detached.clone_id, items.id, " +
+                "items.created_at, now() " +
+                "FROM items " +
+                "INNER JOIN detached ON (items.parent_id = detached.source_id) " +
+                "ORDER BY detached.clone_id, items.id) " +
+                "SELECT detached.clone_id FROM detached";
+    }
+}
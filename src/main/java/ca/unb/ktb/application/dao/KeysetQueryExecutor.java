@@ -0,0 +1,84 @@
+package ca.unb.ktb.application.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Executes list queries with keyset (cursor) pagination, passing each row to a consumer as it is read.
+ *
+ * Rows are ordered by an id column, and a page starts after the last id of the previous page, so that a page can be
+ * read with an index range scan regardless of how deep into the list it is. Rows are fetched from the database in
+ * batches of {@code pagination.fetch-size} rows. The Postgres driver only fetches rows in batches within a
+ * transaction; outside of one, the whole result set is read into memory.
+ * */
+@Component
+class KeysetQueryExecutor {
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Value("${pagination.fetch-size:500}")
+    private int fetchSize;
+
+    /**
+     * Execute a keyset-paginated query.
+     *
+     * @param select The query, up to and including its {@code WHERE} clause. The keyset condition, ordering and limit
+     *               are appended to the query.
+     * @param idColumn The column by which rows are ordered, which must be unique.
+     * @param after Only rows with an id greater than this id are read, or all rows if null.
+     * @param limit The maximum number of rows to read, or null to read all rows.
+     * @param rowMapper Maps each row to an object.
+     * @param consumer Consumes each mapped row, in order.
+     * @param parameters The parameters of the query.
+     * */
+    <T> void query(final String select, final String idColumn, @Nullable final Long after,
+                   @Nullable final Integer limit, final RowMapper<T> rowMapper, final Consumer<T> consumer,
+                   final Object... parameters) {
+        String sql = toKeysetSql(select, idColumn, Objects.nonNull(limit));
+
+        List<Object> queryParameters = new ArrayList<>(Arrays.asList(parameters));
+        queryParameters.add(Objects.isNull(after) ? 0L : after);
+        if(Objects.nonNull(limit)) {
+            queryParameters.add(limit);
+        }
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(Objects.nonNull(limit) ? Math.min(limit, fetchSize) : fetchSize);
+            for(int i = 0; i < queryParameters.size(); i++) {
+                statement.setObject(i + 1, queryParameters.get(i));
+            }
+
+            return statement;
+        }, (ResultSet rs) -> {
+            consumer.accept(rowMapper.mapRow(rs, rs.getRow()));
+        });
+    }
+
+    /**
+     * Build a keyset-paginated query. The parameters of the query are followed by the id after which rows are read,
+     * and by the maximum number of rows to read if the query is limited.
+     *
+     * @param select The query, up to and including its {@code WHERE} clause.
+     * @param idColumn The column by which rows are ordered, which must be unique.
+     * @param limited Whether the number of rows read is limited.
+     * @return The keyset-paginated query.
+     * */
+    static String toKeysetSql(final String select, final String idColumn, final boolean limited) {
+        String sql = select + " AND " + idColumn + " > ? ORDER BY " + idColumn;
+
+        return limited ? sql + " LIMIT ?" : sql;
+    }
+}
@@ -0,0 +1,93 @@
+package ca.unb.ktb.application.dao;
+
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Builder for a targeted {@code UPDATE} statement that only writes the columns of a partial entity that are present.
+ *
+ * Columns with null values are omitted from the {@code SET} clause, and the {@code updated_at} column is always
+ * refreshed. The remainder of the statement (the {@code WHERE} and {@code RETURNING} clauses) is supplied by the DAO.
+ * */
+final class PartialUpdate {
+
+    private final String table;
+
+    private final List<String> columns = new ArrayList<>();
+
+    private final List<Object> values = new ArrayList<>();
+
+    private final List<String> increments = new ArrayList<>();
+
+    PartialUpdate(final String table) {
+        this.table = table;
+    }
+
+    /**
+     * Write a column, if the given value is not null.
+     *
+     * @param column The name of the column.
+     * @param value The new value of the column, or null if the column should not be written.
+     * @return This builder.
+     * */
+    PartialUpdate set(final String column, @Nullable final Object value) {
+        if(Objects.nonNull(value)) {
+            columns.add(column);
+            values.add(value);
+        }
+
+        return this;
+    }
+
+    /**
+     * Increment an integer column, if the given condition holds.
+     *
+     * @param column The name of the column.
+     * @param condition Whether the column should be incremented.
+     * @return This builder.
+     * */
+    PartialUpdate increment(final String column, final boolean condition) {
+        if(condition) {
+            increments.add(column);
+        }
+
+        return this;
+    }
+
+    /**
+     * Build the SQL statement.
+     *
+     * @param clauses The remainder of the statement following the {@code SET} clause, such as the {@code FROM},
+     *                {@code WHERE} and {@code RETURNING} clauses.
+     * @return The SQL statement.
+     * */
+    String toSql(final String clauses) {
+        String assignments = columns.stream()
+                .map(column -> column + " = ?, ")
+                .collect(Collectors.joining());
+        assignments += increments.stream()
+                .map(column -> column + " = " + column + " + 1, ")
+                .collect(Collectors.joining());
+
+        return "UPDATE " + table + " SET " + assignments + "updated_at = now() " + clauses;
+    }
+
+    /**
+     * Build the statement parameters, consisting of the values of the written columns followed by the given
+     * parameters of the remainder of the statement.
+     *
+     * @param clauseParameters The parameters of the remainder of the statement.
+     * @return The statement parameters, in order.
+     * */
+    Object[] getParameters(final Object... clauseParameters) {
+        List<Object> parameters = new ArrayList<>(values);
+        parameters.addAll(Arrays.asList(clauseParameters));
+
+        return parameters.toArray();
+    }
+}
@@ -0,0 +1,75 @@
+package ca.unb.ktb.application.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.function.Consumer;
+
+/**
+ * JDBC DAO for the list of tokens revoked before their expiration. Tokens are identified by their jti claim.
+ * */
+@Repository
+public class RevokedTokenJdbcDAO {
+
+    private static final String INSERT_REVOKED_TOKEN =
+            "INSERT INTO revoked_tokens (jti, user_id, expires_at) VALUES (?, ?, ?) ON CONFLICT (jti) DO NOTHING";
+
+    private static final String SELECT_ACTIVE_REVOKED_TOKENS =
+            "SELECT revoked_tokens.jti FROM revoked_tokens WHERE revoked_tokens.expires_at > now()";
+
+    private static final String EXISTS_ACTIVE_REVOKED_TOKEN =
+            "SELECT EXISTS (SELECT 1 FROM revoked_tokens " +
+            "WHERE revoked_tokens.jti = ? AND revoked_tokens.expires_at > now())";
+
+    private static final String DELETE_EXPIRED_REVOKED_TOKENS =
+            "DELETE FROM revoked_tokens WHERE revoked_tokens.jti IN (" +
+            "SELECT revoked_tokens.jti FROM revoked_tokens WHERE revoked_tokens.expires_at <= now() LIMIT ?)";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Revoke a token. Revoking a token that is already revoked has no effect.
+     *
+     * @param jti The jti claim of the token.
+     * @param userId The id of the user to which the token was issued.
+     * @param expiresAt The expiration time of the token, after which the revocation may be purged.
+     * */
+    public void insertRevokedToken(final String jti, final Long userId, final Date expiresAt) {
+        jdbcTemplate.update(INSERT_REVOKED_TOKEN, jti, userId, new Timestamp(expiresAt.getTime()));
+    }
+
+    /**
+     * Whether a token is revoked and has not yet expired.
+     *
+     * @param jti The jti claim of the token.
+     * @return true if the token is revoked, false otherwise.
+     * */
+    public boolean existsActiveRevokedToken(final String jti) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(EXISTS_ACTIVE_REVOKED_TOKEN, Boolean.class, jti));
+    }
+
+    /**
+     * Find the jti claims of all revoked tokens that have not yet expired.
+     *
+     * @param consumer Consumes each jti claim, as it is read.
+     * */
+    public void findActiveRevokedTokens(final Consumer<String> consumer) {
+        jdbcTemplate.query(SELECT_ACTIVE_REVOKED_TOKENS, (ResultSet rs) -> {
+            consumer.accept(rs.getString("jti"));
+        });
+    }
+
+    /**
+     * Delete a bounded batch of revocations of tokens that have expired.
+     *
+     * @param batchSize The maximum number of revocations to delete.
+     * @return The number of revocations deleted.
+     * */
+    public int deleteExpiredRevokedTokens(final int batchSize) {
+        return jdbcTemplate.update(DELETE_EXPIRED_REVOKED_TOKENS, batchSize);
+    }
+}
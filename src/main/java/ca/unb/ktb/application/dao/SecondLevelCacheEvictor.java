@@ -0,0 +1,49 @@
+package ca.unb.ktb.application.dao;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Evicts entities written by the JDBC DAOs from the Hibernate second-level cache, since those writes bypass Hibernate.
+ *
+ * Entities are evicted immediately, and again once the current transaction (if any) completes, so that a stale copy
+ * cached by a concurrent reader before the write was committed does not survive.
+ * */
+@Component
+class SecondLevelCacheEvictor {
+
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Evict an entity from the second-level cache.
+     *
+     * @param entityClass The class of the entity.
+     * @param id The id of the entity.
+     * @param evictQueryResults If true, all cached query results are also evicted.
+     * */
+    void evict(final Class<?> entityClass, final Long id, final boolean evictQueryResults) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        Runnable eviction = () -> {
+            cache.evictEntityData(entityClass, id);
+            if(evictQueryResults) {
+                cache.evictQueryRegions();
+            }
+        };
+
+        eviction.run();
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(final int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
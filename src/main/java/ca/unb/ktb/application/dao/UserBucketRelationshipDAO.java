@@ -4,6 +4,7 @@ import ca.unb.ktb.core.model.Bucket;
 import ca.unb.ktb.core.model.User;
 import ca.unb.ktb.core.model.UserBucketRelationship;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -20,20 +21,22 @@ public interface UserBucketRelationshipDAO extends JpaRepository<UserBucketRelat
 
     /**
      * Retrieve a list of relationships associated to a given user. Used to retrieve a list of buckets that a user
-     * is following.
+     * is following. The followed buckets are fetched along with the relationships.
      *
      * @param follower The user that is following the buckets.
      * @return A {@link List} of relationships associated to the given user.
      * */
+    @EntityGraph("UserBucketRelationship.following")
     List<UserBucketRelationship> findAllByFollower(final User follower);
 
     /**
      * Retrieve a list of relationships associated to a given bucket. Used to retrieve a list of users that are following
-     * a given bucket.
+     * a given bucket. The following users are fetched along with the relationships.
      *
      * @param following The bucket that is being followed.
      * @return A {@link List} of relationships associated to the given bucket.
      * */
+    @EntityGraph("UserBucketRelationship.follower")
     List<UserBucketRelationship> findAllByFollowing(final Bucket following);
 
     /**
@@ -64,7 +67,8 @@ public interface UserBucketRelationshipDAO extends JpaRepository<UserBucketRelat
     int findPrivateBucketCount(@Param("owner") User owner);
 
     /**
-     * Retrieve a list of buckets which were recently followed by users who are followed by a given user.
+     * Retrieve a list of buckets which were recently followed by users who are followed by a given user. Relationships
+     * in which the follower or the owner of the bucket has been deleted are omitted.
      *
      * Results are sorted by the user_relationship created_at field. As such, the pageable should be unsorted.
      *
@@ -75,10 +79,16 @@ public interface UserBucketRelationshipDAO extends JpaRepository<UserBucketRelat
      */
     @Query(value = "SELECT ubr.* FROM users_relationships ur " +
             "INNER JOIN users_bucket_relationships ubr ON (ur.following_id = ubr.follower_id) " +
+            "INNER JOIN users followers ON (followers.id = ubr.follower_id AND followers.deleted_at IS NULL) " +
+            "INNER JOIN buckets ON (buckets.id = ubr.following_id) " +
+            "INNER JOIN users owners ON (owners.id = buckets.owner_id AND owners.deleted_at IS NULL) " +
             "WHERE ur.follower_id = :followerId " +
             "ORDER BY ubr.created_at DESC",
             countQuery = "SELECT COUNT(ubr.*) FROM users_relationships ur " +
                     "INNER JOIN users_bucket_relationships ubr ON (ur.following_id = ubr.follower_id) " +
+                    "INNER JOIN users followers ON (followers.id = ubr.follower_id AND followers.deleted_at IS NULL) " +
+                    "INNER JOIN buckets ON (buckets.id = ubr.following_id) " +
+                    "INNER JOIN users owners ON (owners.id = buckets.owner_id AND owners.deleted_at IS NULL) " +
                     "WHERE ur.follower_id = :followerId " +
                     "ORDER BY ubr.created_at DESC",
             nativeQuery = true)
@@ -104,4 +114,4 @@ public interface UserBucketRelationshipDAO extends JpaRepository<UserBucketRelat
             nativeQuery = true)
     List<UserBucketRelationship> retrieveBucketsFollowedByUser(@Param("userId") final Long userId,
                                                                final Pageable pageable);
-}
\ No newline at end of file
+}
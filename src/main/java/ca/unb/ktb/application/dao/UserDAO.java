@@ -4,8 +4,12 @@ import ca.unb.ktb.core.model.User;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +28,7 @@ public interface UserDAO extends JpaRepository<User, Long> {
      * @return An {@link Optional} user with the given email address. If a user cannot be found with the given email address,
      * an empty optional is returned.
      * */
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
     Optional<User> findByEmail(final String emailAddress);
 
     /**
@@ -33,8 +38,18 @@ public interface UserDAO extends JpaRepository<User, Long> {
      * @return An {@link Optional} user with the given username. If a user cannot be found with the given username, an empty
      * optional is returned.
      * */
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
     Optional<User> findByUsername(final String username);
 
+    /**
+     * Find the users with the given ids that have not been deleted, in a single query.
+     *
+     * @param ids The ids of the users.
+     * @return The users with the given ids that have not been deleted, in no particular order.
+     * */
+    @Query("SELECT u FROM User u WHERE u.id IN :ids AND u.deletedAt IS NULL")
+    List<User> findAllActiveByIdIn(@Param("ids") final Collection<Long> ids);
+
     /**
      * Test existence of user using their username.
      *
@@ -60,13 +75,30 @@ public interface UserDAO extends JpaRepository<User, Long> {
     List<User> findAllByRole(final User.Role role);
 
     /**
-     * Find all users that contain the partial username. The search is case-insensitive.
+     * Find all users that contain the partial username. The search is case-insensitive. Users that have been deleted
+     * are omitted.
      *
      * @param partialUsername The partial username to search for
      * @return Users that contain the given partial username.
      * */
-    @Query(value = "SELECT * FROM users WHERE users.username ILIKE %:partialUsername% OR users.first_name ILIKE %:partialUsername% OR users.last_name ILIKE %:partialUsername%",
-            countQuery = "SELECT COUNT(*) FROM users WHERE users.username ILIKE %:partialUsername% OR users.first_name ILIKE %:partialUsername% OR users.last_name ILIKE %:partialUsername%",
+    @Query(value = "SELECT * FROM users " +
+            "WHERE (users.username ILIKE %:partialUsername% OR users.first_name ILIKE %:partialUsername% OR users.last_name ILIKE %:partialUsername%) " +
+            "AND users.deleted_at IS NULL",
+            countQuery = "SELECT COUNT(*) FROM users " +
+                    "WHERE (users.username ILIKE %:partialUsername% OR users.first_name ILIKE %:partialUsername% OR users.last_name ILIKE %:partialUsername%) " +
+                    "AND users.deleted_at IS NULL",
             nativeQuery = true)
     List<User> findAllByUsernameOrRealNameLike(@Param("partialUsername") final String partialUsername);
+
+    /**
+     * Retrieve the ids of users that were soft-deleted before a given date and are awaiting removal, oldest deletions
+     * first.
+     *
+     * @param deletedBefore only users deleted before this date are returned.
+     * @param pageable pagination details, used to bound the number of ids returned.
+     * @return list of ids of soft-deleted users.
+     * */
+    @Query("SELECT u.id FROM User u WHERE u.deletedAt IS NOT NULL AND u.deletedAt < :deletedBefore " +
+            "ORDER BY u.deletedAt ASC")
+    List<Long> findSoftDeletedUserIds(@Param("deletedBefore") final Date deletedBefore, final Pageable pageable);
 }
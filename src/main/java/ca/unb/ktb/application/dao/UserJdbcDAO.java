@@ -0,0 +1,325 @@
+package ca.unb.ktb.application.dao;
+
+import ca.unb.ktb.core.model.PhysicalAddress;
+import ca.unb.ktb.core.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * JDBC DAO for {@link User} operations that cannot be expressed efficiently through JPA.
+ * */
+@Repository
+public class UserJdbcDAO {
+
+    private static final String USER_COLUMNS =
+            "users.id, users.username, users.email, users.bio, users.first_name, users.middle_name, users.last_name, " +
+            "users.profile_picture_object_key, users.token_version";
+
+    private static final String PATCH_USER_CLAUSES =
+            "WHERE users.id = ? AND users.deleted_at IS NULL RETURNING " + USER_COLUMNS;
+
+    private static final String SELECT_USERS =
+            "SELECT " + USER_COLUMNS + " FROM users WHERE users.deleted_at IS NULL";
+
+    private static final String SELECT_FOLLOWERS =
+            "SELECT " + USER_COLUMNS + " FROM users_relationships " +
+            "JOIN users ON users.id = users_relationships.follower_id " +
+            "WHERE users_relationships.following_id = ? AND users.deleted_at IS NULL";
+
+    private static final String SELECT_FOLLOWING =
+            "SELECT " + USER_COLUMNS + " FROM users_relationships " +
+            "JOIN users ON users.id = users_relationships.following_id " +
+            "WHERE users_relationships.follower_id = ? AND users.deleted_at IS NULL";
+
+    private static final String SELECT_BUCKET_FOLLOWERS =
+            "SELECT " + USER_COLUMNS + " FROM users_bucket_relationships " +
+            "JOIN users ON users.id = users_bucket_relationships.follower_id " +
+            "WHERE users_bucket_relationships.following_id = ? AND users.deleted_at IS NULL";
+
+    private static final String SELECT_PROFILE_VERSION =
+            "SELECT users.updated_at, " +
+            "(SELECT count(*) FROM users_relationships WHERE users_relationships.following_id = users.id) AS follower_count, " +
+            "(SELECT count(*) FROM users_relationships WHERE users_relationships.follower_id = users.id) AS following_count, " +
+            "(SELECT count(*) FROM buckets WHERE buckets.owner_id = users.id AND (buckets.is_public OR ?)) AS bucket_count " +
+            "FROM users WHERE users.id = ? AND users.deleted_at IS NULL";
+
+    private static final String SELECT_REVOKED_TOKEN_VERSIONS =
+            "SELECT users.id, users.token_version FROM users WHERE users.token_version > 0";
+
+    private static final String SELECT_USER_IDENTITIES = "SELECT users.username, users.email FROM users";
+
+    private static final String SELECT_USER_IDENTITIES_BY_ID = SELECT_USER_IDENTITIES + " WHERE users.id = ANY (?)";
+
+    private static final String DELETE_SOFT_DELETED_USER =
+            "DELETE FROM users WHERE users.id = ? AND users.deleted_at IS NOT NULL";
+
+    private static final String DELETE_ADDRESS =
+            "DELETE FROM physical_addresses WHERE physical_addresses.id = ?";
+
+    private static final String DELETE_RELATIONSHIP_BATCH_INVOLVING_USER =
+            "DELETE FROM users_relationships WHERE users_relationships.id IN (" +
+            "SELECT ur.id FROM users_relationships ur " +
+            "WHERE ur.follower_id = ? OR ur.following_id = ? " +
+            "LIMIT ?)";
+
+    private static final RowMapper<User> USER_ROW_MAPPER = (ResultSet rs, int rowNum) -> {
+        User user = new User(rs.getLong("id"));
+        user.setUsername(rs.getString("username"));
+        user.setEmail(rs.getString("email"));
+        user.setBio(rs.getString("bio"));
+        user.setFirstName(rs.getString("first_name"));
+        user.setMiddleName(rs.getString("middle_name"));
+        user.setLastName(rs.getString("last_name"));
+        user.setProfilePictureObjectKey(rs.getString("profile_picture_object_key"));
+        user.setTokenVersion(rs.getInt("token_version"));
+
+        return user;
+    };
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Autowired private SecondLevelCacheEvictor secondLevelCacheEvictor;
+
+    @Autowired private KeysetQueryExecutor keysetQueryExecutor;
+
+    /**
+     * Partially update a user that has not been deleted, in a single statement. Only non-null fields of the partial
+     * user are written. The address of the partial user is ignored.
+     *
+     * The password of the partial user is written as given, and must already be encoded. Writing a password also
+     * increments the token version of the user, revoking the tokens previously issued to the user.
+     *
+     * Since the statement bypasses Hibernate, the user is evicted from the second-level cache, along with all cached
+     * query results, as cached lookups by username or email may no longer be valid.
+     *
+     * @param userId The id of the user to update.
+     * @param partialUser The partial user.
+     * @return An {@link Optional} containing the user as updated, or {@code Optional.empty()} if no user was updated.
+     * Only the fields of the user needed to build a user summary are populated.
+     * */
+    public Optional<User> patchUser(final Long userId, final User partialUser) {
+        PartialUpdate update = new PartialUpdate("users")
+                .set("email", partialUser.getEmail())
+                .set("username", partialUser.getUsername())
+                .set("first_name", partialUser.getFirstName())
+                .set("middle_name", partialUser.getMiddleName())
+                .set("last_name", partialUser.getLastName())
+                .set("bio", partialUser.getBio())
+                .set("password", partialUser.getPassword())
+                .increment("token_version", Objects.nonNull(partialUser.getPassword()));
+
+        String sql = update.toSql(PATCH_USER_CLAUSES);
+
+        Optional<User> user = jdbcTemplate.query(sql, USER_ROW_MAPPER, update.getParameters(userId)).stream()
+                .findFirst();
+
+        user.ifPresent(patchedUser -> secondLevelCacheEvictor.evict(User.class, userId, true));
+
+        return user;
+    }
+
+    /**
+     * Find the users that have not been deleted and that match any of the given id, username or email address, first,
+     * middle or last name, in order of id. Null parameters are ignored; if all parameters are null, all users match.
+     *
+     * @param probe A user holding the fields to match. Only the id, username, email and names are used.
+     * @param after Only users with an id greater than this id are found, or all users if null.
+     * @param limit The maximum number of users to find, or null to find all users.
+     * @param consumer Consumes each user found, as it is read. Only the fields of the user needed to build a user
+     *                 summary are populated.
+     * @see KeysetQueryExecutor
+     * */
+    public void findUsers(final User probe, @Nullable final Long after, @Nullable final Integer limit,
+                          final Consumer<User> consumer) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+        addCondition(conditions, parameters, "users.id", probe.getId());
+        addCondition(conditions, parameters, "users.username", probe.getUsername());
+        addCondition(conditions, parameters, "users.email", probe.getEmail());
+        addCondition(conditions, parameters, "users.first_name", probe.getFirstName());
+        addCondition(conditions, parameters, "users.middle_name", probe.getMiddleName());
+        addCondition(conditions, parameters, "users.last_name", probe.getLastName());
+
+        String sql = conditions.isEmpty() ? SELECT_USERS :
+                SELECT_USERS + " AND (" + String.join(" OR ", conditions) + ")";
+        keysetQueryExecutor.query(sql, "users.id", after, limit, USER_ROW_MAPPER, consumer, parameters.toArray());
+    }
+
+    /**
+     * Find the users following a given user, in order of id, passing each user to a consumer as it is read.
+     *
+     * @param userId The id of the user being followed.
+     * @param after Only users with an id greater than this id are found, or all users if null.
+     * @param limit The maximum number of users to find, or null to find all users.
+     * @param consumer Consumes each user found. Only the fields of the user needed to build a user summary are
+     *                 populated.
+     * @see KeysetQueryExecutor
+     * */
+    public void findFollowers(final Long userId, @Nullable final Long after, @Nullable final Integer limit,
+                              final Consumer<User> consumer) {
+        keysetQueryExecutor.query(SELECT_FOLLOWERS, "users_relationships.follower_id", after, limit, USER_ROW_MAPPER,
+                consumer, userId);
+    }
+
+    /**
+     * Find the users followed by a given user, in order of id, passing each user to a consumer as it is read.
+     *
+     * @param userId The id of the user following the users.
+     * @param after Only users with an id greater than this id are found, or all users if null.
+     * @param limit The maximum number of users to find, or null to find all users.
+     * @param consumer Consumes each user found. Only the fields of the user needed to build a user summary are
+     *                 populated.
+     * @see KeysetQueryExecutor
+     * */
+    public void findFollowing(final Long userId, @Nullable final Long after, @Nullable final Integer limit,
+                              final Consumer<User> consumer) {
+        keysetQueryExecutor.query(SELECT_FOLLOWING, "users_relationships.following_id", after, limit,
+                USER_ROW_MAPPER, consumer, userId);
+    }
+
+    /**
+     * Find the users following a given bucket, in order of id, passing each user to a consumer as it is read.
+     *
+     * @param bucketId The id of the bucket being followed.
+     * @param after Only users with an id greater than this id are found, or all users if null.
+     * @param limit The maximum number of users to find, or null to find all users.
+     * @param consumer Consumes each user found. Only the fields of the user needed to build a user summary are
+     *                 populated.
+     * @see KeysetQueryExecutor
+     * */
+    public void findBucketFollowers(final Long bucketId, @Nullable final Long after, @Nullable final Integer limit,
+                                    final Consumer<User> consumer) {
+        keysetQueryExecutor.query(SELECT_BUCKET_FOLLOWERS, "users_bucket_relationships.follower_id", after, limit,
+                USER_ROW_MAPPER, consumer, bucketId);
+    }
+
+    /**
+     * Find the version of the profile of a user that has not been deleted, in a single statement.
+     *
+     * The version is built from the time the user was last updated and the follower, following and bucket counts of
+     * the user, which together determine the content of the profile.
+     *
+     * @param userId The id of the user.
+     * @param includePrivateBuckets Whether private buckets are included in the bucket count.
+     * @return An {@link Optional} containing the version of the profile, or {@code Optional.empty()} if no such user
+     * exists.
+     * */
+    public Optional<String> findProfileVersion(final Long userId, final boolean includePrivateBuckets) {
+        return jdbcTemplate.query(SELECT_PROFILE_VERSION, (ResultSet rs, int rowNum) ->
+                String.format("%s/%d/%d/%d", rs.getTimestamp("updated_at"), rs.getLong("follower_count"),
+                        rs.getLong("following_count"), rs.getLong("bucket_count")),
+                includePrivateBuckets, userId).stream()
+                .findFirst();
+    }
+
+    /**
+     * Find the token versions of all users whose tokens have been revoked at least once.
+     *
+     * @param consumer Consumes the id and token version of each user, as it is read.
+     * */
+    public void findRevokedTokenVersions(final BiConsumer<Long, Integer> consumer) {
+        jdbcTemplate.query(SELECT_REVOKED_TOKEN_VERSIONS, (ResultSet rs) -> {
+            consumer.accept(rs.getLong("id"), rs.getInt("token_version"));
+        });
+    }
+
+    /**
+     * Find the username and email address of all users, including users that are soft-deleted but not yet purged.
+     *
+     * @param consumer Consumes the username and email address of each user, as it is read.
+     * */
+    public void findUserIdentities(final BiConsumer<String, String> consumer) {
+        jdbcTemplate.query(SELECT_USER_IDENTITIES, (ResultSet rs) -> {
+            consumer.accept(rs.getString("username"), rs.getString("email"));
+        });
+    }
+
+    /**
+     * Find the username and email address of the users with the given ids, in a single query.
+     *
+     * @param userIds The ids of the users.
+     * @param consumer Consumes the username and email address of each user found, as it is read.
+     * */
+    public void findUserIdentities(final Collection<Long> userIds, final BiConsumer<String, String> consumer) {
+        jdbcTemplate.execute(SELECT_USER_IDENTITIES_BY_ID, (PreparedStatement statement) -> {
+            statement.setArray(1, statement.getConnection().createArrayOf("bigint", userIds.toArray()));
+            try(ResultSet rs = statement.executeQuery()) {
+                while(rs.next()) {
+                    consumer.accept(rs.getString("username"), rs.getString("email"));
+                }
+            }
+
+            return null;
+        });
+    }
+
+    /**
+     * Delete a user that has been soft-deleted. Everything referencing the user must already have been deleted.
+     *
+     * Since the statement bypasses Hibernate, the user is evicted from the second-level cache, along with all cached
+     * query results, as cached lookups by username or email may no longer be valid.
+     *
+     * @param userId The id of the user.
+     * @return True if the user was deleted, or false if no soft-deleted user with the given id exists.
+     * */
+    public boolean deleteSoftDeletedUser(final Long userId) {
+        if(jdbcTemplate.update(DELETE_SOFT_DELETED_USER, userId) == 0) {
+            return false;
+        }
+
+        secondLevelCacheEvictor.evict(User.class, userId, true);
+        return true;
+    }
+
+    /**
+     * Delete the physical address of a user. The user must no longer reference the address.
+     *
+     * Since the statement bypasses Hibernate, the address is evicted from the second-level cache.
+     *
+     * @param addressId The id of the address.
+     * @return True if the address was deleted.
+     * */
+    public boolean deleteAddress(final Long addressId) {
+        if(jdbcTemplate.update(DELETE_ADDRESS, addressId) == 0) {
+            return false;
+        }
+
+        secondLevelCacheEvictor.evict(PhysicalAddress.class, addressId, false);
+        return true;
+    }
+
+    /**
+     * Delete a bounded batch of relationships between users that involve a given user, either as the follower or as the
+     * user being followed.
+     *
+     * Used by the account purge job, which repeatedly invokes this method until no rows are affected.
+     *
+     * @param userId The id of the user.
+     * @param batchSize The maximum number of relationships to delete.
+     * @return The number of relationships deleted.
+     * */
+    public int deleteRelationshipBatchInvolvingUser(final Long userId, final int batchSize) {
+        return jdbcTemplate.update(DELETE_RELATIONSHIP_BATCH_INVOLVING_USER, userId, userId, batchSize);
+    }
+
+    private static void addCondition(final List<String> conditions, final List<Object> parameters,
+                                     final String column, @Nullable final Object value) {
+        if(Objects.nonNull(value)) {
+            conditions.add(column + " = ?");
+            parameters.add(value);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package ca.unb.ktb.application.dao;
 import ca.unb.ktb.core.model.User;
 import ca.unb.ktb.core.model.UserRelationship;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -19,17 +20,23 @@ public interface UserRelationshipDAO extends JpaRepository<UserRelationship, Lon
     /**
      * Retrieve a list of relationships from a given user, i.e. users they are following.
      *
+     * The followed users are fetched along with the relationships.
+     *
      * @param follower The user that is following another user.
      * @return List of relationships that the user initiated.
      * */
+    @EntityGraph("UserRelationship.following")
     List<UserRelationship> findByFollower(final User follower);
 
     /**
      * Retrieve a list of relationships with a given user, i.e. users that follow them.
      *
+     * The following users are fetched along with the relationships.
+     *
      * @param user The user that is being followed by another user.
      * @return List of relationships that users have initiated with a given user.
      * */
+    @EntityGraph("UserRelationship.follower")
     List<UserRelationship> findByFollowing(final User user);
 
     /**
@@ -51,7 +58,8 @@ public interface UserRelationshipDAO extends JpaRepository<UserRelationship, Lon
     int findFollowingCount(@Param("user") User user);
 
     /**
-     * Retrieve a list of users which were recently followed by users who are followed by a given user.
+     * Retrieve a list of users which were recently followed by users who are followed by a given user. Relationships in
+     * which either user has been deleted are omitted.
      *
      * Results are sorted by the user_relationship created_at field. As such, the pageable should be unsorted.
      *
@@ -61,10 +69,14 @@ public interface UserRelationshipDAO extends JpaRepository<UserRelationship, Lon
      */
     @Query(value = "SELECT iur.* FROM users_relationships ur " +
             "INNER JOIN users_relationships iur ON (ur.following_id = iur.follower_id) " +
+            "INNER JOIN users followers ON (followers.id = iur.follower_id AND followers.deleted_at IS NULL) " +
+            "INNER JOIN users followed ON (followed.id = iur.following_id AND followed.deleted_at IS NULL) " +
             "WHERE ur.follower_id = :followerId " +
             "ORDER BY iur.created_at DESC",
             countQuery = "SELECT COUNT(iur.*) FROM users_relationships ur " +
                     "INNER JOIN users_relationships iur ON (ur.following_id = iur.follower_id) " +
+                    "INNER JOIN users followers ON (followers.id = iur.follower_id AND followers.deleted_at IS NULL) " +
+                    "INNER JOIN users followed ON (followed.id = iur.following_id AND followed.deleted_at IS NULL) " +
                     "WHERE ur.follower_id = :followerId " +
                     "ORDER BY iur.created_at DESC",
             nativeQuery = true)
@@ -0,0 +1,53 @@
+package ca.unb.ktb.core.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * An event recording a write to an aggregate, appended to the outbox in the transaction of the write.
+ * */
+@AllArgsConstructor
+@Getter
+@ToString
+public class DomainEvent {
+
+    /**
+     * The id of the event, or null if the event has not yet been appended.
+     * */
+    private final Long id;
+
+    private final DomainEventType type;
+
+    private final Long aggregateId;
+
+    /**
+     * Attributes of the event, such as the ids of the other entities involved.
+     * */
+    private final Map<String, Object> payload;
+
+    /**
+     * The time the event was appended, or null if the event has not yet been appended.
+     * */
+    private final Date createdAt;
+
+    /**
+     * The id of the transaction that appended the event, or zero if the event has not yet been appended.
+     * */
+    private final long transactionId;
+
+    /**
+     * Build a new event, to be appended.
+     *
+     * @param type The type of the event.
+     * @param aggregateId The id of the aggregate the event belongs to.
+     * @param payload Attributes of the event.
+     * @return The event.
+     * */
+    public static DomainEvent of(final DomainEventType type, final Long aggregateId, final Map<String, Object> payload) {
+        return new DomainEvent(null, type, aggregateId, payload, null, 0);
+    }
+}
@@ -0,0 +1,24 @@
+package ca.unb.ktb.core.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Projection counting the {@link DomainEvent}s of each type, as the {@code domain.events} metric.
+ * */
+@Component
+public class DomainEventMetricsProjection implements DomainEventProjection {
+
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Override
+    public String getName() {
+        return "domain-event-metrics";
+    }
+
+    @Override
+    public void handle(final DomainEvent event) {
+        meterRegistry.counter("domain.events", "type", event.getType().name()).increment();
+    }
+}
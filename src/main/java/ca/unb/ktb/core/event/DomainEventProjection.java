@@ -0,0 +1,38 @@
+package ca.unb.ktb.core.event;
+
+/**
+ * Consumer of {@link DomainEvent}s, maintaining derived data outside of the transaction of the write that produced
+ * each event.
+ *
+ * Events of an aggregate are delivered in order, one at a time, within a transaction that also advances the
+ * checkpoint of the projection. If the projection throws, the transaction is rolled back, and the events are delivered
+ * again later. A projection may therefore see an event more than once, unless its changes are made in the same
+ * transaction, and should be idempotent.
+ * */
+public interface DomainEventProjection {
+
+    /**
+     * The name of the projection, under which its checkpoints are stored. Must not change once the projection has
+     * consumed events.
+     *
+     * @return The name of the projection.
+     * */
+    String getName();
+
+    /**
+     * Whether the projection consumes events of the given type. Events of other types are skipped.
+     *
+     * @param type The type of event.
+     * @return true if the projection consumes the events, false otherwise.
+     * */
+    default boolean supports(final DomainEventType type) {
+        return true;
+    }
+
+    /**
+     * Consume an event.
+     *
+     * @param event The event.
+     * */
+    void handle(DomainEvent event);
+}
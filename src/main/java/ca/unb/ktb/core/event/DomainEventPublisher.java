@@ -0,0 +1,76 @@
+package ca.unb.ktb.core.event;
+
+import ca.unb.ktb.application.dao.DomainEventJdbcDAO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Append {@link DomainEvent}s to the transactional outbox.
+ *
+ * Events must be published within the transaction of the write that produced them, so that an event is committed if
+ * and only if the write is; publishing outside of a transaction fails. Events are consumed asynchronously by the
+ * {@link ProjectionWorkerPool}, and are assigned to one of {@code outbox.partitions} partitions by aggregate.
+ * */
+@Component
+public class DomainEventPublisher {
+
+    @Autowired private DomainEventJdbcDAO domainEventJdbcDAO;
+
+    @Value("${outbox.partitions:8}") private int partitions;
+
+    /**
+     * Append an event to the outbox.
+     *
+     * @param type The type of the event.
+     * @param aggregateId The id of the aggregate the event belongs to.
+     * @param payload Attributes of the event.
+     * */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(final DomainEventType type, final Long aggregateId, final Map<String, Object> payload) {
+        publishAll(List.of(DomainEvent.of(type, aggregateId, payload)));
+    }
+
+    /**
+     * Append a batch of events to the outbox, in order.
+     *
+     * @param events The events.
+     * */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishAll(final List<DomainEvent> events) {
+        if(events.isEmpty()) {
+            return;
+        }
+
+        domainEventJdbcDAO.insertAll(events, event -> partitionOf(event.getType().getAggregateType(),
+                event.getAggregateId(), partitions));
+    }
+
+    /**
+     * The number of partitions events are assigned to.
+     *
+     * @return The number of partitions.
+     * */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Assign an aggregate to a partition. All events of an aggregate are assigned to the same partition.
+     *
+     * @param aggregateType The type of the aggregate.
+     * @param aggregateId The id of the aggregate.
+     * @param partitions The number of partitions.
+     * @return The partition.
+     * */
+    static int partitionOf(final DomainEventType.AggregateType aggregateType, final Long aggregateId,
+                           final int partitions) {
+        return Math.floorMod(Objects.hash(aggregateType.name(), aggregateId), partitions);
+    }
+}
@@ -0,0 +1,36 @@
+package ca.unb.ktb.core.event;
+
+/**
+ * Types of {@link DomainEvent}s, along with the type of aggregate each event belongs to.
+ *
+ * Events are ordered per aggregate. Item events belong to the bucket that contains the item, so that the events of a
+ * bucket and of its items are consumed in order. Relationship events belong to the user that follows.
+ * */
+public enum DomainEventType {
+    USER_CREATED(AggregateType.USER),
+    USER_DELETED(AggregateType.USER),
+    USER_FOLLOWED(AggregateType.USER),
+    USER_UNFOLLOWED(AggregateType.USER),
+    BUCKET_FOLLOWED(AggregateType.USER),
+    BUCKET_UNFOLLOWED(AggregateType.USER),
+    BUCKET_CREATED(AggregateType.BUCKET),
+    BUCKET_DELETED(AggregateType.BUCKET),
+    ITEM_CREATED(AggregateType.BUCKET),
+    ITEM_COMPLETED(AggregateType.BUCKET),
+    ITEM_DELETED(AggregateType.BUCKET);
+
+    private final AggregateType aggregateType;
+
+    DomainEventType(final AggregateType aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public AggregateType getAggregateType() {
+        return aggregateType;
+    }
+
+    public enum AggregateType {
+        USER,
+        BUCKET
+    }
+}
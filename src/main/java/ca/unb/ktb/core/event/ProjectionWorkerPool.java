@@ -0,0 +1,252 @@
+package ca.unb.ktb.core.event;
+
+import ca.unb.ktb.application.dao.DomainEventJdbcDAO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of workers that deliver the {@link DomainEvent}s in the outbox to each {@link DomainEventProjection}.
+ *
+ * One worker is scheduled for each projection and partition, every {@code outbox.poll-interval} milliseconds, on a pool
+ * of {@code outbox.workers} threads. A worker consumes the events of its partition in batches of
+ * {@code outbox.batch-size}, each in a single transaction that locks the checkpoint of the partition, delivers the
+ * events in order and advances the checkpoint. Checkpoints are locked with SKIP LOCKED, so when several instances are
+ * running, each partition is consumed by one instance at a time and the others move on.
+ *
+ * If a projection fails, the batch is rolled back and retried with exponential backoff, up to
+ * {@code outbox.max-attempts} times per event; an event that keeps failing is then skipped, so that it does not block
+ * the events after it. The delay between the time an event was appended and the time it was delivered is recorded as
+ * the lag of the projection.
+ *
+ * Events are removed from the outbox once they are older than {@code outbox.retention} milliseconds.
+ * */
+@Component
+@Slf4j
+public class ProjectionWorkerPool {
+
+    private static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    @Autowired private DomainEventJdbcDAO domainEventJdbcDAO;
+
+    @Autowired private DomainEventPublisher domainEventPublisher;
+
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Autowired(required = false) private List<DomainEventProjection> projections = new ArrayList<>();
+
+    @Value("${outbox.enabled:true}") private boolean enabled;
+
+    @Value("${outbox.workers:2}") private int workers;
+
+    @Value("${outbox.poll-interval:500}") private long pollInterval;
+
+    @Value("${outbox.batch-size:100}") private int batchSize;
+
+    @Value("${outbox.max-attempts:5}") private int maxAttempts;
+
+    @Value("${outbox.retention:604800000}") private long retention;
+
+    @Value("${outbox.purge-batch-size:1000}") private int purgeBatchSize;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * Create the checkpoints of each projection, and start the workers.
+     * */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if(!enabled || projections.isEmpty()) {
+            return;
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "projection-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int partitions = domainEventPublisher.getPartitions();
+        for(DomainEventProjection projection : projections) {
+            domainEventJdbcDAO.insertCheckpoints(projection.getName(), partitions);
+
+            for(int partition = 0; partition < partitions; partition++) {
+                PartitionWorker worker = new PartitionWorker(projection, partition, transactionTemplate);
+                executor.scheduleWithFixedDelay(worker::run, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        LOG.info("Started projection workers for {} projections over {} partitions", projections.size(), partitions);
+    }
+
+    /**
+     * Stop the workers. Batches in progress are rolled back, and delivered again once the application restarts.
+     * */
+    @PreDestroy
+    public void stop() {
+        if(Objects.nonNull(executor)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Remove events older than the retention period from the outbox, in batches of {@code outbox.purge-batch-size}.
+     * */
+    @Scheduled(fixedDelayString = "${outbox.purge-interval:3600000}")
+    public void purgeEvents() {
+        if(!enabled) {
+            return;
+        }
+
+        Date before = new Date(System.currentTimeMillis() - retention);
+        try {
+            int purged = 0;
+            int deleted;
+            do {
+                deleted = domainEventJdbcDAO.deleteEventsCreatedBefore(before, purgeBatchSize);
+                purged += deleted;
+            } while(deleted == purgeBatchSize);
+
+            if(purged > 0) {
+                LOG.info("Purged {} domain events older than {}", purged, before);
+            }
+        } catch(DataAccessException e) {
+            LOG.warn("Unable to purge domain events. {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Delivers the events of a single partition to a single projection. Runs are never concurrent, since each worker is
+     * scheduled with a fixed delay.
+     * */
+    private class PartitionWorker {
+
+        private final DomainEventProjection projection;
+
+        private final int partition;
+
+        private final TransactionTemplate transactionTemplate;
+
+        private final Timer lagTimer;
+
+        private final Counter failureCounter;
+
+        private final Counter skippedCounter;
+
+        private Long attemptedEventId;
+
+        private Long failingEventId;
+
+        private int attempts;
+
+        private long retryAt;
+
+        PartitionWorker(final DomainEventProjection projection, final int partition,
+                        final TransactionTemplate transactionTemplate) {
+            this.projection = projection;
+            this.partition = partition;
+            this.transactionTemplate = transactionTemplate;
+            this.lagTimer = meterRegistry.timer("outbox.projection.lag", "projection", projection.getName());
+            this.failureCounter = meterRegistry.counter("outbox.projection.failures", "projection", projection.getName());
+            this.skippedCounter = meterRegistry.counter("outbox.projection.skipped", "projection", projection.getName());
+        }
+
+        void run() {
+            if(System.currentTimeMillis() < retryAt) {
+                return;
+            }
+
+            try {
+                Integer delivered;
+                do {
+                    attemptedEventId = null;
+                    delivered = transactionTemplate.execute(status -> deliverBatch());
+                    failingEventId = null;
+                    attempts = 0;
+                } while(Objects.nonNull(delivered) && delivered == batchSize && !Thread.currentThread().isInterrupted());
+            } catch(RuntimeException e) {
+                failureCounter.increment();
+                if(Objects.equals(attemptedEventId, failingEventId)) {
+                    attempts++;
+                } else {
+                    failingEventId = attemptedEventId;
+                    attempts = 1;
+                }
+
+                long delay = Math.min(pollInterval << Math.min(attempts, 20), MAX_RETRY_DELAY_MILLIS);
+                retryAt = System.currentTimeMillis() + delay;
+
+                LOG.warn("Projection {} failed on partition {} at event {} (attempt {}); retrying in {}ms. {}",
+                        projection.getName(), partition, failingEventId, attempts, delay, e.getMessage());
+                LOG.debug("Projection failure stack trace:", e);
+            }
+        }
+
+        /**
+         * Deliver the next batch of events after the checkpoint, and advance the checkpoint.
+         *
+         * @return The number of events consumed, including events the projection does not support.
+         * */
+        private int deliverBatch() {
+            //peek without locking first, since locking the checkpoint assigns a transaction id even when idle
+            Optional<DomainEventJdbcDAO.Checkpoint> current =
+                    domainEventJdbcDAO.findCheckpoint(projection.getName(), partition);
+            if(!current.isPresent() || domainEventJdbcDAO.findEventsAfter(partition, current.get(), 1).isEmpty()) {
+                return 0;
+            }
+
+            Optional<DomainEventJdbcDAO.Checkpoint> checkpoint =
+                    domainEventJdbcDAO.lockCheckpoint(projection.getName(), partition);
+            if(!checkpoint.isPresent()) {
+                return 0;
+            }
+
+            List<DomainEvent> events = domainEventJdbcDAO.findEventsAfter(partition, checkpoint.get(), batchSize);
+            for(DomainEvent event : events) {
+                if(Objects.equals(event.getId(), failingEventId) && attempts >= maxAttempts) {
+                    skippedCounter.increment();
+                    LOG.error("Projection {} skipping event {} after {} failed attempts: {}", projection.getName(),
+                            event.getId(), attempts, event);
+                } else if(projection.supports(event.getType())) {
+                    attemptedEventId = event.getId();
+                    projection.handle(event);
+                }
+
+                lagTimer.record(System.currentTimeMillis() - event.getCreatedAt().getTime(), TimeUnit.MILLISECONDS);
+            }
+
+            if(!events.isEmpty()) {
+                DomainEvent last = events.get(events.size() - 1);
+                domainEventJdbcDAO.updateCheckpoint(projection.getName(), partition,
+                        new DomainEventJdbcDAO.Checkpoint(last.getTransactionId(), last.getId()));
+            }
+
+            return events.size();
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package ca.unb.ktb.core.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
+import javax.persistence.FetchType;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import javax.validation.constraints.NotBlank;
@@ -21,6 +26,8 @@ import javax.validation.constraints.Size;
  * */
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "buckets")
 @EntityListeners(AuditingEntityListener.class)
 @NoArgsConstructor
@@ -38,7 +45,8 @@ public class Bucket extends PersistentObject {
     @Size(max = 255)
     private String name;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @NotNull
     private User owner;
 
@@ -47,4 +55,24 @@ public class Bucket extends PersistentObject {
 
     @Column(columnDefinition = "TEXT")
     private String description;
+
+    /**
+     * The bucket from which this bucket was duplicated, if this bucket is a lightweight clone whose items have not yet
+     * been materialized. A lightweight clone holds no items of its own, and instead exposes the items of its source.
+     * */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @JsonIgnore
+    private Bucket source;
+
+    /**
+     * Retrieve the bucket that physically contains the items exposed by this bucket. For lightweight clones, this is
+     * the source bucket, otherwise it is this bucket.
+     *
+     * @return The bucket containing the items of this bucket.
+     * */
+    @JsonIgnore
+    public Bucket getItemContainer() {
+        return this.source != null ? this.source : this;
+    }
 }
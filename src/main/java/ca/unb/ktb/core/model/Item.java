@@ -1,5 +1,6 @@
 package ca.unb.ktb.core.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -10,7 +11,10 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
+import javax.persistence.FetchType;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.Table;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -21,6 +25,7 @@ import javax.validation.constraints.Size;
  * */
 
 @Entity
+@NamedEntityGraph(name = "Item.parent", attributeNodes = @NamedAttributeNode("parent"))
 @Table(name = "items")
 @EntityListeners(AuditingEntityListener.class)
 @NoArgsConstructor
@@ -45,10 +50,17 @@ public class Item extends PersistentObject {
     @Size(max = 255)
     private String link;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @NotNull
     private Bucket parent;
 
     @NotNull
     private Boolean isComplete;
+
+    /**
+     * The id of the item from which this item was materialized, when a lightweight bucket clone is materialized.
+     * */
+    @JsonIgnore
+    private Long originId;
 }
\ No newline at end of file
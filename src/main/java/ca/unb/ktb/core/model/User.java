@@ -8,24 +8,33 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
+import java.util.Date;
 
 /**
  * User Hibernate entity. An instance of this class represents a persistent user record in the database.
  * */
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "users")
 @EntityListeners(AuditingEntityListener.class)
 @NoArgsConstructor
@@ -66,7 +75,8 @@ public class User extends PersistentObject {
     @Size(max = 255)
     private String middleName;
 
-    @OneToOne(orphanRemoval = true)
+    @OneToOne(fetch = FetchType.LAZY, orphanRemoval = true)
+    @ToString.Exclude
     private PhysicalAddress userAddress;
 
     @Size(max = 255)
@@ -85,6 +95,15 @@ public class User extends PersistentObject {
     @JsonIgnore
     private String profilePictureObjectKey;
 
+    @JsonIgnore
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date deletedAt;
+
+    /* incremented to revoke all tokens previously issued to the user */
+    @JsonIgnore
+    @Column(nullable = false)
+    private int tokenVersion;
+
     /**
      * Build the user handle string for this user. A user handle is the '@' symbol, followed by the username.
      *
@@ -93,4 +112,14 @@ public class User extends PersistentObject {
     public String getUserHandle() {
         return "@" + this.username;
     }
+
+    /**
+     * Whether this user has been soft-deleted, and is awaiting removal by the account purge job.
+     *
+     * @return true if the user has been deleted, false otherwise.
+     * */
+    @JsonIgnore
+    public boolean isDeleted() {
+        return this.deletedAt != null;
+    }
 }
@@ -9,7 +9,11 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
+import javax.persistence.FetchType;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedEntityGraphs;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.NotNull;
@@ -20,6 +24,10 @@ import javax.validation.constraints.NotNull;
  * */
 
 @Entity
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = "UserRelationship.follower", attributeNodes = @NamedAttributeNode("follower")),
+        @NamedEntityGraph(name = "UserRelationship.following", attributeNodes = @NamedAttributeNode("following"))
+})
 @Table(name = "users_relationships",
         uniqueConstraints = {@UniqueConstraint(columnNames = {"follower_id", "following_id"})})
 @EntityListeners(AuditingEntityListener.class)
@@ -35,10 +43,12 @@ public class UserRelationship extends PersistentObject {
     }
 
     @NotNull
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     private User follower;
 
     @NotNull
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     private User following;
 }
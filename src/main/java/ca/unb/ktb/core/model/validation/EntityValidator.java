@@ -1,16 +1,34 @@
 package ca.unb.ktb.core.model.validation;
 
+import ca.unb.ktb.core.model.Bucket;
+import ca.unb.ktb.core.model.Item;
+import ca.unb.ktb.core.model.PhysicalAddress;
+import ca.unb.ktb.core.model.User;
+import ca.unb.ktb.core.model.UserBucketRelationship;
+import ca.unb.ktb.core.model.UserRelationship;
 import org.springframework.lang.Nullable;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validation;
-import javax.validation.ValidatorFactory;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Supplier;
 
+/**
+ * Validate entities against their bean validation constraints.
+ *
+ * Building a validator factory bootstraps the validation provider, and the constraint metadata of each entity class is
+ * built by scanning its annotations the first time it is validated. A single validator is therefore shared by all
+ * callers; validators are thread-safe, and cache the constraint metadata of every class they validate. The metadata of
+ * the entities in the model is built when this class is loaded, so that the first request does not pay for it.
+ * */
 public final class EntityValidator {
 
+    private static final Validator VALIDATOR = buildValidator();
+
     /**
      * Validate an entity.
      *
@@ -49,13 +67,58 @@ public final class EntityValidator {
     /**
      * Get a set of validation constraint violations for an entity.
      *
-     * @param entity The bucket to be validated.
+     * @param entity The entity to be validated.
      * @param <E> The type of the entity.
-     * @return The set of constraint violations for a given bucket.
+     * @return The set of constraint violations for a given entity.
      * */
     public static <E> Set<ConstraintViolation<E>> getBucketConstraintViolations(final E entity) {
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+        return VALIDATOR.validate(entity);
+    }
+
+    /**
+     * Get the validation constraint violations for each entity of a batch.
+     *
+     * @param entities The entities to be validated. Must not contain null elements.
+     * @param <E> The type of the entities.
+     * @return The set of constraint violations of each entity, in the order the entities were given.
+     * */
+    public static <E> List<Set<ConstraintViolation<E>>> validateAll(final List<? extends E> entities) {
+        List<Set<ConstraintViolation<E>>> violations = new ArrayList<>(entities.size());
+        for(E entity : entities) {
+            violations.add(VALIDATOR.validate(entity));
+        }
+
+        return violations;
+    }
+
+    /**
+     * Get a set of validation constraint violations for a single property of an entity.
+     *
+     * Used to validate partial entities, where only the properties that are present must meet validation constraints.
+     *
+     * @param entity The entity whose property is to be validated.
+     * @param propertyName The name of the property to validate.
+     * @param <E> The type of the entity.
+     * @return The set of constraint violations for the given property.
+     * */
+    public static <E> Set<ConstraintViolation<E>> getPropertyConstraintViolations(final E entity, final String propertyName) {
+        return VALIDATOR.validateProperty(entity, propertyName);
+    }
+
+    /**
+     * Build the shared validator, and build the constraint metadata of the entities in the model.
+     *
+     * The validator factory is not closed, since the validator is used for the lifetime of the application.
+     *
+     * @return The validator.
+     * */
+    private static Validator buildValidator() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        for(Class<?> entityClass : List.of(User.class, PhysicalAddress.class, Bucket.class, Item.class,
+                UserRelationship.class, UserBucketRelationship.class)) {
+            validator.getConstraintsForClass(entityClass);
+        }
 
-        return factory.getValidator().validate(entity);
+        return validator;
     }
 }
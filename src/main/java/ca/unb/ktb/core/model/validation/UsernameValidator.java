@@ -2,7 +2,6 @@ package ca.unb.ktb.core.model.validation;
 
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
-import java.nio.charset.Charset;
 
 /**
  * Validator for usernames. Ensures username satisfy the following constraints:
@@ -16,34 +15,53 @@ import java.nio.charset.Charset;
  * */
 public class UsernameValidator implements ConstraintValidator<Username, String> {
 
+    private static final int MIN_LENGTH = 6;
+
+    private static final int MAX_LENGTH = 64;
+
     @Override
     public void initialize(Username constraintAnnotation) {}
 
+    /**
+     * Validate a username in a single pass over its characters, without allocating.
+     *
+     * Characters outside of the allowed set, including all non-ASCII characters, are rejected as they are reached.
+     * */
     @Override
     public boolean isValid(String value, ConstraintValidatorContext context) {
         if(value == null) {
             return false;
         }
 
-        if(value.length() < 6 || value.length() > 64) {
-            return false;
-        }
-
-        var asciiCharset = Charset.forName("US-ASCII").newEncoder();
-        if(!asciiCharset.canEncode(value)) {
+        final int length = value.length();
+        if(length < MIN_LENGTH || length > MAX_LENGTH) {
             return false;
         }
 
         //verify begins with alpha-numeric, followed by a valid character
-        if(!value.matches("\\A\\p{Alnum}[a-zA-Z0-9\\-_'.]+\\z")) {
+        if(!isAlphanumeric(value.charAt(0))) {
             return false;
         }
 
-        //verify no more than one period (.) in a row
-        if(value.matches("\\A.*\\.\\..*\\z")) {
-            return false;
+        char previous = value.charAt(0);
+        for(int i = 1; i < length; i++) {
+            char c = value.charAt(i);
+            if(!isAlphanumeric(c) && c != '-' && c != '_' && c != '\'' && c != '.') {
+                return false;
+            }
+
+            //verify no more than one period (.) in a row
+            if(c == '.' && previous == '.') {
+                return false;
+            }
+
+            previous = c;
         }
 
         return true;
     }
+
+    private static boolean isAlphanumeric(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
 }
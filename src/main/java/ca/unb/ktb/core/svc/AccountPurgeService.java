@@ -0,0 +1,172 @@
+package ca.unb.ktb.core.svc;
+
+import ca.unb.ktb.application.dao.BucketJdbcDAO;
+import ca.unb.ktb.application.dao.ItemJdbcDAO;
+import ca.unb.ktb.application.dao.UserDAO;
+import ca.unb.ktb.application.dao.UserJdbcDAO;
+import ca.unb.ktb.core.model.User;
+import ca.unb.ktb.infrastructure.AmazonS3Bucket;
+import ca.unb.ktb.infrastructure.AmazonS3BucketConfiguration;
+import ca.unb.ktb.infrastructure.cache.CacheInvalidationPublisher;
+import ca.unb.ktb.infrastructure.cache.CacheRegion;
+import com.amazonaws.SdkClientException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.IntSupplier;
+
+/**
+ * Background job responsible for removing the data owned by soft-deleted {@link User}s.
+ *
+ * Deleting an account through {@link UserService#deleteUser()} only flags the user as deleted. This service
+ * periodically picks up flagged users and removes their items, user-bucket relationships, buckets, user relationships,
+ * profile picture, address and finally the user record itself. Lightweight clones that other users made of the
+ * deleted user's buckets are materialized beforehand. Every step is a set-based DELETE statement limited to a
+ * bounded batch of rows, each running in its own short transaction, so that purging a heavy account never holds locks
+ * or a transaction open for long. The statements are issued through the JDBC DAOs, which evict only the deleted
+ * buckets, user and address from the second-level cache, and the same entries are invalidated on the other instances.
+ *
+ * An account is only purged once every token issued to the user before the deletion has expired, that is
+ * {@code jwt.expiration} seconds after the deletion. Until then, the soft-deleted user record is still read by the
+ * token version table of instances that start or refresh after the deletion, so those instances keep rejecting the
+ * user's tokens. A user record is only removed once everything referencing it is gone; if the purge of an account fails
+ * part way through, it is resumed on the next run.
+ * */
+@Service
+@Slf4j
+public class AccountPurgeService {
+
+    @Autowired private UserDAO userDAO;
+
+    @Autowired private UserJdbcDAO userJdbcDAO;
+
+    @Autowired private BucketJdbcDAO bucketJdbcDAO;
+
+    @Autowired private ItemJdbcDAO itemJdbcDAO;
+
+    @Autowired private AmazonS3ClientService s3ClientService;
+
+    @Autowired private AmazonS3BucketConfiguration awsBucketConfiguration;
+
+    @Autowired private CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    @Value("${account.purge.batch-size:500}")
+    private int batchSize;
+
+    @Value("${account.purge.max-accounts:10}")
+    private int maxAccountsPerRun;
+
+    @Value("${jwt.expiration:86400}")
+    private long tokenExpiration;
+
+    /**
+     * Purge the data of {@link User}s soft-deleted more than {@code jwt.expiration} seconds ago. At most
+     * {@code account.purge.max-accounts} accounts are purged per invocation; remaining accounts are picked up by
+     * subsequent runs.
+     * */
+    @Scheduled(fixedDelayString = "${account.purge.interval:60000}",
+            initialDelayString = "${account.purge.interval:60000}")
+    public void purgeDeletedAccounts() {
+        Date deletedBefore = new Date(System.currentTimeMillis() - tokenExpiration * 1000);
+        List<Long> userIds = userDAO.findSoftDeletedUserIds(deletedBefore, PageRequest.of(0, maxAccountsPerRun));
+        if(userIds.isEmpty()) {
+            return;
+        }
+
+        LOG.info("Purging {} deleted user accounts", userIds.size());
+
+        for(Long userId : userIds) {
+            try {
+                purgeAccount(userId);
+            } catch (RuntimeException e) {
+                LOG.warn("Unable to purge deleted user account {}; will retry later. {}", userId, e.getMessage());
+                LOG.debug("Account purge failure stack trace:", e);
+            }
+        }
+    }
+
+    /**
+     * Remove all data owned by a soft-deleted {@link User}, followed by the user itself.
+     *
+     * @param userId The id of the soft-deleted {@link User}.
+     * */
+    private void purgeAccount(final Long userId) {
+        Optional<User> deletedUser = userDAO.findById(userId).filter(User::isDeleted);
+        if(!deletedUser.isPresent()) {
+            return;
+        }
+
+        User user = deletedUser.get();
+        LOG.debug("Purging data owned by deleted user {}", userId);
+
+        List<Long> cloneIds = itemJdbcDAO.materializeClonesOfSourcesOwnedByUser(userId);
+        cacheInvalidationPublisher.invalidate(CacheRegion.BUCKET, cloneIds);
+        LOG.debug("Materialized items into {} lightweight clones of buckets owned by user {}", cloneIds.size(), userId);
+
+        int items = deleteInBatches(() -> itemJdbcDAO.deleteBatchOwnedByUser(userId, batchSize));
+        int bucketRelationships = deleteInBatches(() ->
+                bucketJdbcDAO.deleteRelationshipBatchInvolvingUser(userId, batchSize));
+        int buckets = deleteInBatches(() -> {
+            List<Long> bucketIds = bucketJdbcDAO.deleteBatchOwnedByUser(userId, batchSize);
+            cacheInvalidationPublisher.invalidate(CacheRegion.BUCKET, bucketIds);
+            return bucketIds.size();
+        });
+        int userRelationships = deleteInBatches(() ->
+                userJdbcDAO.deleteRelationshipBatchInvolvingUser(userId, batchSize));
+
+        LOG.debug("Deleted {} items, {} user-bucket relationships, {} buckets and {} user relationships of user {}",
+                items, bucketRelationships, buckets, userRelationships, userId);
+
+        if(Objects.nonNull(user.getProfilePictureObjectKey())) {
+            deleteProfilePicture(user);
+        }
+
+        if(userJdbcDAO.deleteSoftDeletedUser(userId)) {
+            cacheInvalidationPublisher.invalidate(CacheRegion.USER, userId);
+        }
+
+        if(Objects.nonNull(user.getUserAddress()) && userJdbcDAO.deleteAddress(user.getUserAddress().getId())) {
+            cacheInvalidationPublisher.invalidate(CacheRegion.PHYSICAL_ADDRESS, user.getUserAddress().getId());
+        }
+
+        LOG.info("Purged deleted user account {}", userId);
+    }
+
+    /**
+     * Delete the profile picture of a {@link User} from AWS S3.
+     *
+     * @param user The {@link User}.
+     * @throws SdkClientException If the object could not be deleted; the account purge is aborted and retried later,
+     * to avoid orphaning the object.
+     * */
+    private void deleteProfilePicture(final User user) {
+        AmazonS3Bucket bucket = awsBucketConfiguration.getBucket(AmazonS3BucketConfiguration.userProfileImageBucket);
+        s3ClientService.deleteObject(bucket, user.getProfilePictureObjectKey());
+    }
+
+    /**
+     * Repeatedly invoke a batched delete until it no longer affects any rows.
+     *
+     * @param batchDelete Supplier that deletes a single bounded batch, and returns the number of rows affected.
+     * @return The total number of rows deleted.
+     * */
+    private static int deleteInBatches(final IntSupplier batchDelete) {
+        int total = 0;
+        int deleted;
+
+        do {
+            deleted = batchDelete.getAsInt();
+            total += deleted;
+        } while(deleted > 0);
+
+        return total;
+    }
+}
@@ -115,4 +115,25 @@ public class AmazonS3ClientService {
         URL url = s3Client.generatePresignedUrl(generatePresignedUrlRequest);
         return Optional.of(url);
     }
+
+    /**
+     * Delete an object stored in the given {@link AmazonS3Bucket}.
+     *
+     * Deleting an object that does not exist is not considered an error.
+     *
+     * @param bucket The {@link AmazonS3Bucket} from which the object will be deleted.
+     * @param objectKey The key to the object in the bucket.
+     * @throws com.amazonaws.AmazonServiceException If the request was correctly submitted, but AWS was unable to process the request.
+     * @throws SdkClientException If the AmazonS3 client was unable to parse the response from AWS, or unable to get a response.
+     * */
+    public void deleteObject(final AmazonS3Bucket bucket, final String objectKey) {
+        AmazonS3 s3Client = AmazonS3ClientBuilder.standard()
+                .withRegion(bucket.getRegion())
+                .withCredentials(new EnvironmentVariableCredentialsProvider())
+                .withPathStyleAccessEnabled(true)
+                .build();
+
+        LOG.info("Deleting object {} from bucket {}", objectKey, bucket.getName());
+        s3Client.deleteObject(bucket.getName(), objectKey);
+    }
 }
@@ -4,20 +4,36 @@ import ca.unb.ktb.api.dto.response.BucketSummaryResponse;
 import ca.unb.ktb.api.exception.client.BadRequestException;
 import ca.unb.ktb.api.exception.client.UnauthorizedException;
 import ca.unb.ktb.application.dao.BucketDAO;
+import ca.unb.ktb.application.dao.BucketJdbcDAO;
+import ca.unb.ktb.application.dao.UserJdbcDAO;
+import ca.unb.ktb.core.event.DomainEventPublisher;
+import ca.unb.ktb.core.event.DomainEventType;
 import ca.unb.ktb.core.model.Bucket;
 import ca.unb.ktb.core.model.Item;
 import ca.unb.ktb.core.model.User;
 import ca.unb.ktb.core.model.UserBucketRelationship;
 import ca.unb.ktb.core.model.validation.EntityValidator;
+import ca.unb.ktb.infrastructure.cache.CacheInvalidationPublisher;
+import ca.unb.ktb.infrastructure.cache.CacheRegion;
 import ca.unb.ktb.infrastructure.security.UserPrincipal;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -25,16 +41,27 @@ public class BucketService {
 
     @Autowired private BucketDAO bucketDAO;
 
+    @Autowired private BucketJdbcDAO bucketJdbcDAO;
+
+    @Autowired private UserJdbcDAO userJdbcDAO;
+
     @Autowired private ItemService itemService;
 
     @Autowired private UserBucketRelationshipService userBucketRelationshipService;
 
+    @Autowired private DomainEventPublisher domainEventPublisher;
+
+    @Autowired private CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    @Value("${batch-get.max-size:100}") private int maxBatchGetSize;
+
     /**
      * Create a new {@link Bucket}. The principal user will take ownership of the new bucket.
      *
      * @param bucket The {@link Bucket} to create.
      * @return The {@link Bucket} once persisted in the database.
      * */
+    @Transactional
     public Bucket createBucket(final Bucket bucket) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         bucket.setOwner(new User(currentUser.getId()));
@@ -43,7 +70,11 @@ public class BucketService {
         LOG.info("User {} creating new bucket with name {}", currentUser.getId(), bucket.getName());
         LOG.debug("Bucket details: {}", bucket.toString());
 
-        return saveBucket(bucket);
+        Bucket persistentBucket = saveBucket(bucket);
+        domainEventPublisher.publish(DomainEventType.BUCKET_CREATED, persistentBucket.getId(),
+                Map.of("ownerId", currentUser.getId()));
+
+        return persistentBucket;
     }
 
     /**
@@ -58,50 +89,89 @@ public class BucketService {
      *
      * If the conditions above are not satisfied, an exception will be thrown.
      *
+     * If lightweight is true, the new bucket is a lightweight clone that references the items of the original bucket
+     * instead of copying them. Items are only copied into the clone once the items of the clone, or of the original
+     * bucket, are modified. Duplicating a lightweight clone references the clone's own source.
+     *
+     * Otherwise, the new bucket and copies of its items are created in a single transaction.
+     *
      * @param bucketId The id of the {@link Bucket} that will be duplicated.
+     * @param lightweight Whether to create a lightweight clone rather than copying the items.
      * @return The duplicated {@link Bucket} once persisted in the database.
      * @see BucketService#findBucketById(Long)
      * @see ItemService#duplicateBucketItems(Long, Long)
      * */
-    public Bucket duplicateBucket(final Long bucketId) {
+    @Transactional
+    public Bucket duplicateBucket(final Long bucketId, final boolean lightweight) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         Bucket originalBucket = findBucketById(bucketId);
 
         LOG.info("User {} duplicating bucket {}", currentUser.getId(), originalBucket.getId());
 
-        originalBucket.setOwner(new User(currentUser.getId()));
-        originalBucket.setId(null);
+        Bucket duplicatedBucket = new Bucket();
+        duplicatedBucket.setName(originalBucket.getName());
+        duplicatedBucket.setOwner(new User(currentUser.getId()));
+        duplicatedBucket.setIsPublic(originalBucket.getIsPublic());
+        duplicatedBucket.setDescription(originalBucket.getDescription());
+
+        if(lightweight) {
+            duplicatedBucket.setSource(originalBucket.getItemContainer());
+        }
+
+        Bucket newBucket = saveBucket(duplicatedBucket);
+        domainEventPublisher.publish(DomainEventType.BUCKET_CREATED, newBucket.getId(),
+                Map.of("ownerId", currentUser.getId(), "sourceBucketId", originalBucket.getId()));
 
-        Bucket newBucket = saveBucket(originalBucket);
-        itemService.duplicateBucketItems(originalBucket.getId(), newBucket.getId());
+        if(lightweight) {
+            return newBucket;
+        }
+
+        int itemCount = itemService.duplicateBucketItems(originalBucket.getId(), newBucket.getId());
+        LOG.debug("Duplicated {} items from bucket {} into bucket {}", itemCount, originalBucket.getId(), newBucket.getId());
 
         return newBucket;
     }
 
     /**
-     * Retrieve a list of {@link Bucket}s owned by a given {@link User}.
+     * Retrieve a page of {@link Bucket}s owned by a given {@link User}, in order of id.
      *
      * If the owner id does not match the id of the principal user, only public buckets are returned.
      *
      * @param ownerId The id of the {@link User} that owns the {@link Bucket}.
-     * @return A list of {@link Bucket}s.
-     * @see BucketDAO#findAllByOwner(User)
-     * @see BucketDAO#findAllByOwnerAndIsPublicTrue(User)
+     * @param after The id of the last bucket of the previous page, or null to retrieve the first page.
+     * @param limit The maximum number of buckets to retrieve.
+     * @return A list of {@link Bucket}s. The source of each bucket is not populated.
+     * @see BucketJdbcDAO#findBucketsByOwner(Long, boolean, Long, Integer, Consumer)
      * */
-    public List<Bucket> findBucketsByOwner(final Long ownerId) {
-        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        if(Objects.equals(ownerId, currentUser.getId())) {
-            return bucketDAO.findAllByOwner(new User(currentUser.getId()));
-        }
+    @Transactional(readOnly = true)
+    public List<Bucket> findBucketsByOwner(final Long ownerId, @Nullable final Long after, final int limit) {
+        List<Bucket> buckets = new ArrayList<>(limit);
+        queryBucketsByOwner(ownerId, after, limit, buckets::add);
+
+        return buckets;
+    }
 
-        return bucketDAO.findAllByOwnerAndIsPublicTrue(new User(currentUser.getId()));
+    /**
+     * Pass all {@link Bucket}s owned by a given {@link User} to a consumer as they are read from the database, in order
+     * of id.
+     *
+     * If the owner id does not match the id of the principal user, only public buckets are passed to the consumer.
+     *
+     * @param ownerId The id of the {@link User} that owns the {@link Bucket}.
+     * @param after Only buckets with an id greater than this id are read, or all buckets if null.
+     * @param consumer Consumes each {@link Bucket}. The source of each bucket is not populated.
+     * @see BucketJdbcDAO#findBucketsByOwner(Long, boolean, Long, Integer, Consumer)
+     * */
+    @Transactional(readOnly = true)
+    public void streamBucketsByOwner(final Long ownerId, @Nullable final Long after, final Consumer<Bucket> consumer) {
+        queryBucketsByOwner(ownerId, after, null, consumer);
     }
 
     /**
      * Retrieve a specific {@link Bucket} by id.
      *
      * If the bucket is private and the principal user is not the owner of the bucket, then an
-     * {@link UnauthorizedException} is thrown.
+     * {@link UnauthorizedException} is thrown. Buckets owned by a {@link User} that has been deleted are not found.
      *
      * @param bucketId The id of the {@link Bucket}.
      * @return A {@link Bucket}, if found.
@@ -109,10 +179,12 @@ public class BucketService {
      * @throws UnauthorizedException If the {@link Bucket} with the given id is private, bucket the principal user is
      * not the owner of the bucket.
      * */
+    @Transactional(readOnly = true)
     public Bucket findBucketById(final Long bucketId) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        Bucket bucket = bucketDAO.findById(bucketId).orElseThrow(() ->
-                new BadRequestException(String.format("Unable to find a record with id %d.", bucketId)));
+        Bucket bucket = bucketDAO.findById(bucketId)
+                .filter(persistedBucket -> !persistedBucket.getOwner().isDeleted())
+                .orElseThrow(() -> new BadRequestException(String.format("Unable to find a record with id %d.", bucketId)));
 
         /* if bucket is private and principal user does not own the bucket */
         if(!Objects.equals(currentUser.getId(), bucket.getOwner().getId()) && !bucket.getIsPublic()) {
@@ -122,6 +194,35 @@ public class BucketService {
         return bucket;
     }
 
+    /**
+     * Retrieve the {@link Bucket}s with the given ids, in a single query.
+     *
+     * Buckets are only returned if:
+     * - the bucket is public, or
+     * - the principal user owns the bucket.
+     *
+     * Buckets that do not exist or are not visible to the principal user are omitted. Duplicate ids are ignored.
+     *
+     * @param bucketIds The ids of the {@link Bucket}s.
+     * @return The {@link Bucket}s with the given ids, in the order of the given ids.
+     * @throws BadRequestException If no ids are given, or more than {@code batch-get.max-size} ids are given.
+     * @see BucketDAO#findAllVisibleByIdIn(java.util.Collection, Long)
+     * */
+    @Transactional(readOnly = true)
+    public List<Bucket> findBucketsById(final List<Long> bucketIds) {
+        validateBatchGetSize(bucketIds);
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        Map<Long, Bucket> buckets = bucketDAO.findAllVisibleByIdIn(new HashSet<>(bucketIds), currentUser.getId()).stream()
+                .collect(Collectors.toMap(Bucket::getId, Function.identity()));
+
+        return bucketIds.stream()
+                .distinct()
+                .map(buckets::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Retrieve a list of {@link Bucket}s with a bucket name that partially matches a given query string.
      *
@@ -133,6 +234,7 @@ public class BucketService {
      * @return List of {@link Bucket}s with a bucket name that partially matches a given query string.
      * @see BucketDAO#findAllByNameLike(String, Long)
      * */
+    @Transactional(readOnly = true)
     public List<Bucket> findBucketsByName(final String queryString) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
@@ -140,16 +242,37 @@ public class BucketService {
     }
 
     /**
-     * Retrieve a list of {@link User}s that are following a given {@link Bucket}.
+     * Retrieve a page of {@link User}s that are following a given {@link Bucket}, in order of id.
      *
      * @param bucketId The id of the {@link Bucket} used in the query.
+     * @param after The id of the last user of the previous page, or null to retrieve the first page.
+     * @param limit The maximum number of users to retrieve.
      * @return List of {@link User}s that are following a given {@link Bucket}.
-     * @see UserBucketRelationshipService#findAllUsersFollowingBucket(Bucket)
+     * @see UserJdbcDAO#findBucketFollowers(Long, Long, Integer, Consumer)
      * */
-    public List<User> findFollowers(final Long bucketId) {
+    @Transactional(readOnly = true)
+    public List<User> findFollowers(final Long bucketId, @Nullable final Long after, final int limit) {
         Bucket persistedBucket = findBucketById(bucketId);
 
-        return userBucketRelationshipService.findAllUsersFollowingBucket(persistedBucket);
+        List<User> followers = new ArrayList<>(limit);
+        userJdbcDAO.findBucketFollowers(persistedBucket.getId(), after, limit, followers::add);
+
+        return followers;
+    }
+
+    /**
+     * Pass all {@link User}s that are following a given {@link Bucket} to a consumer as they are read from the
+     * database, in order of id.
+     *
+     * @param bucketId The id of the {@link Bucket} used in the query.
+     * @param after Only users with an id greater than this id are read, or all users if null.
+     * @param consumer Consumes each {@link User}.
+     * @see UserJdbcDAO#findBucketFollowers(Long, Long, Integer, Consumer)
+     * */
+    @Transactional(readOnly = true)
+    public void streamFollowers(final Long bucketId, @Nullable final Long after, final Consumer<User> consumer) {
+        Bucket persistedBucket = findBucketById(bucketId);
+        userJdbcDAO.findBucketFollowers(persistedBucket.getId(), after, null, consumer);
     }
 
     /**
@@ -162,6 +285,7 @@ public class BucketService {
      * with the given user id.
      * @see BucketDAO#retrieveBucketsRecentlyCreatedByFollowedUsers(Long, Pageable)
      * */
+    @Transactional(readOnly = true)
     public List<Bucket> findBucketsRecentlyCreatedByFollowedUsers(final Long userId, final Pageable pageable) {
         return bucketDAO.retrieveBucketsRecentlyCreatedByFollowedUsers(userId, pageable);
     }
@@ -173,6 +297,7 @@ public class BucketService {
      * @param pageable Specify how the results should be paged.
      * @return A list of {@link Bucket}s that were recently created by the {@link User} that the given id.
      * */
+    @Transactional(readOnly = true)
     public List<Bucket> findBucketsRecentlyCreatedByUser(final Long userId, final Pageable pageable) {
         return bucketDAO.retrieveBucketsCreatedByUser(userId, pageable);
     }
@@ -188,6 +313,7 @@ public class BucketService {
      * @see BucketDAO#countAllByOwner(User)
      * @see BucketDAO#countAllByOwnerAndIsPublicIsTrue(User)
      * */
+    @Transactional(readOnly = true)
     public Long getBucketCount(final Long userId) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         if(Objects.equals(userId, currentUser.getId())) {
@@ -197,6 +323,20 @@ public class BucketService {
         return bucketDAO.countAllByOwnerAndIsPublicIsTrue(new User(userId));
     }
 
+    /**
+     * Determine whether a {@link Bucket} is the source of any lightweight clones.
+     *
+     * Used before the items of a bucket are modified, so that clones are only materialized when they exist. Always
+     * reads from the primary database, as a clone created moments before may not have reached a replica.
+     *
+     * @param bucket The {@link Bucket}.
+     * @return True if the bucket is the source of at least one lightweight clone.
+     * @see BucketDAO#existsBySource(Bucket)
+     * */
+    public boolean hasLightweightClones(final Bucket bucket) {
+        return bucketDAO.existsBySource(bucket);
+    }
+
     /**
      * Partially update a {@link Bucket} with a given id.
      *
@@ -205,29 +345,37 @@ public class BucketService {
      *
      * The bucket owner field is ignored, because the bucket ownership cannot be transferred to a new {@link User}.
      *
+     * The bucket is written with a single targeted UPDATE statement that is restricted to buckets owned by the
+     * principal user, without reading the bucket first. The bucket is only read if no rows were updated, to determine
+     * whether the bucket does not exist or is owned by another user.
+     *
      * @param partialBucket The partial {@link Bucket} used to update the bucket.
      * @param bucketId The id of the {@link Bucket} to patch.
      * @return The patched {@link Bucket}, once persisted in the database.
-     * @see BucketService#findBucketByIdOwnedByPrincipal(Long)
+     * @throws BadRequestException If the partial bucket does not meet validation constraints, or the bucket cannot be
+     * found.
+     * @throws UnauthorizedException If the principal user does not own the bucket.
+     * @see BucketJdbcDAO#patchBucketOwnedByUser(Long, Long, Bucket)
      * */
     public Bucket patchBucket(final Bucket partialBucket, final Long bucketId) {
-        Bucket persistedBucket = findBucketByIdOwnedByPrincipal(bucketId);
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
-        if(Objects.nonNull(partialBucket.getName())) {
-            persistedBucket.setName(partialBucket.getName());
+        if(Objects.nonNull(partialBucket.getName()) &&
+                !EntityValidator.getPropertyConstraintViolations(partialBucket, "name").isEmpty()) {
+            throw new BadRequestException("Cannot save bucket that does not meet validation constraints");
         }
 
-        if(Objects.nonNull(partialBucket.getIsPublic())) {
-            persistedBucket.setIsPublic(partialBucket.getIsPublic());
-        }
+        LOG.info("User {} patching bucket {}", currentUser.getId(), bucketId);
 
-        if(Objects.nonNull(partialBucket.getDescription())) {
-            persistedBucket.setDescription(partialBucket.getDescription());
+        Optional<Bucket> patchedBucket = bucketJdbcDAO.patchBucketOwnedByUser(bucketId, currentUser.getId(), partialBucket);
+        if(!patchedBucket.isPresent()) {
+            /* no rows were updated; determine whether the bucket is missing or owned by another user */
+            findBucketByIdOwnedByPrincipal(bucketId);
+            throw new BadRequestException(String.format("Unable to find a record with id %d.", bucketId));
         }
 
-        LOG.info("User {} patching bucket {}", persistedBucket.getOwner().getId(), persistedBucket.getId());
-
-        return saveBucket(persistedBucket);
+        cacheInvalidationPublisher.invalidate(CacheRegion.BUCKET, bucketId);
+        return patchedBucket.get();
     }
 
     /**
@@ -248,20 +396,24 @@ public class BucketService {
 
         LOG.info("User {} updating bucket {}", bucket.getOwner().getId(), bucket.getId());
 
-        return saveBucket(persistedBucket);
+        Bucket updatedBucket = saveBucket(persistedBucket);
+        cacheInvalidationPublisher.invalidate(CacheRegion.BUCKET, updatedBucket.getId());
+
+        return updatedBucket;
     }
 
     /**
      * Delete a {@link Bucket}.
      *
      * All {@link UserBucketRelationship}s with the bucket are also removed, along with all the {@link Item}s contained
-     * by the bucket.
+     * by the bucket. Lightweight clones of the bucket are materialized beforehand.
      *
      * @param bucket The {@link Bucket} to delete.
      * @throws UnauthorizedException If the principal user does not own the bucket.
      * @see UserBucketRelationshipService#deleteUserBucketRelationships(Bucket)
      * @see ItemService#deleteItems(Bucket)
      * */
+    @Transactional
     public void deleteBucket(final Bucket bucket) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         if(!Objects.equals(currentUser.getId(), bucket.getOwner().getId())) {
@@ -273,6 +425,9 @@ public class BucketService {
         userBucketRelationshipService.deleteUserBucketRelationships(bucket);
         itemService.deleteItems(bucket);
         bucketDAO.delete(bucket);
+        cacheInvalidationPublisher.invalidate(CacheRegion.BUCKET, bucket.getId());
+        domainEventPublisher.publish(DomainEventType.BUCKET_DELETED, bucket.getId(),
+                Map.of("ownerId", currentUser.getId()));
     }
 
     /**
@@ -315,6 +470,38 @@ public class BucketService {
         return bucketDAO.save(bucket);
     }
 
+    /**
+     * Ensure a list of ids to retrieve in a single request is not empty, and not larger than the maximum batch size.
+     *
+     * @param ids The ids.
+     * @throws BadRequestException If the list of ids is empty, or larger than the maximum batch size.
+     * */
+    private void validateBatchGetSize(final List<Long> ids) {
+        if(Objects.isNull(ids) || ids.isEmpty()) {
+            throw new BadRequestException("at least one bucket id must be specified");
+        }
+
+        if(ids.size() > maxBatchGetSize) {
+            throw new BadRequestException(String.format("cannot retrieve more than %d buckets at once", maxBatchGetSize));
+        }
+    }
+
+    /**
+     * Pass the {@link Bucket}s owned by a given {@link User} that are visible to the principal user to a consumer.
+     *
+     * @param ownerId The id of the {@link User} that owns the {@link Bucket}s.
+     * @param after Only buckets with an id greater than this id are read, or all buckets if null.
+     * @param limit The maximum number of buckets to read, or null to read all buckets.
+     * @param consumer Consumes each {@link Bucket}.
+     * */
+    private void queryBucketsByOwner(final Long ownerId, @Nullable final Long after, @Nullable final Integer limit,
+                                     final Consumer<Bucket> consumer) {
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        boolean includePrivate = Objects.equals(ownerId, currentUser.getId());
+
+        bucketJdbcDAO.findBucketsByOwner(ownerId, includePrivate, after, limit, consumer);
+    }
+
     /**
      * Build a {@link BucketSummaryResponse} DTO of a {@link Bucket} entity.
      *
@@ -1,6 +1,7 @@
 package ca.unb.ktb.core.svc;
 
 import ca.unb.ktb.api.dto.response.BucketSummaryResponse;
+import ca.unb.ktb.api.dto.response.CompactFeedResponse;
 import ca.unb.ktb.api.dto.response.ItemSummaryResponse;
 import ca.unb.ktb.api.dto.response.UserFeedResponse;
 import ca.unb.ktb.api.dto.response.UserSummaryResponse;
@@ -15,11 +16,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -41,24 +44,14 @@ public class FeedService {
      * @param pageable Pagination details.
      * @return A {@link UserFeedResponse}.
      * */
+    @Transactional(readOnly = true)
     public UserFeedResponse retrieveBucketsRecentlyCreatedByFollowedUsers(final Pageable pageable) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
         LOG.info("Fetching 'BucketsRecentlyCreatedByFollowedUsers' feed data for user {}", currentUser.getId());
 
         List<Bucket> buckets = bucketService.findBucketsRecentlyCreatedByFollowedUsers(currentUser.getId(), pageable);
-        Map<User, List<Bucket>> followedUserBuckets = new HashMap<>();
-        for(Bucket bucket : buckets) {
-            User bucketOwner = bucket.getOwner();
-
-            if(followedUserBuckets.containsKey(bucketOwner)) {
-                followedUserBuckets.get(bucketOwner).add(bucket);
-            } else {
-                List<Bucket> userBuckets = new ArrayList<>();
-                userBuckets.add(bucket);
-                followedUserBuckets.put(bucketOwner, userBuckets);
-            }
-        }
+        Map<User, List<Bucket>> followedUserBuckets = groupByUser(buckets, Bucket::getOwner, Function.identity());
 
         List<UserFeedResponse.UserBucketPair> response = adaptToUserBucketPairList(followedUserBuckets);
         return new UserFeedResponse(null, null, null, null, response, null, null, null);
@@ -71,24 +64,15 @@ public class FeedService {
      * @param pageable pagination details.
      * @return A {@link UserFeedResponse}.
      * */
+    @Transactional(readOnly = true)
     public UserFeedResponse retrieveItemsRecentlyCreatedByFollowedUsers(final Pageable pageable) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
         LOG.info("Fetching 'ItemsRecentlyCreatedByFollowedUsers' feed data for user {}", currentUser.getId());
 
         List<Item> items = itemService.findItemsRecentlyCreatedByFollowedUsers(currentUser.getId(), pageable);
-        Map<User, List<Item>> followedUserItems = new HashMap<>();
-        for(Item item : items) {
-            User itemOwner = item.getParent().getOwner();
-
-            if(followedUserItems.containsKey(itemOwner)) {
-                followedUserItems.get(itemOwner).add(item);
-            } else {
-                List<Item> userItems = new ArrayList<>();
-                userItems.add(item);
-                followedUserItems.put(itemOwner, userItems);
-            }
-        }
+        Map<User, List<Item>> followedUserItems = groupByUser(items, item -> item.getParent().getOwner(),
+                Function.identity());
 
         List<UserFeedResponse.UserItemPair> response = new ArrayList<>();
         for(Map.Entry<User, List<Item>> entry : followedUserItems.entrySet()) {
@@ -109,25 +93,15 @@ public class FeedService {
      * @param pageable pagination details.
      * @return A {@link UserFeedResponse}.
      * */
+    @Transactional(readOnly = true)
     public UserFeedResponse retrieveUsersRecentlyFollowedByFollowedUsers(final Pageable pageable) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
         LOG.info("Fetching 'UsersRecentlyFollowedByFollowedUsers' feed data for user {}", currentUser.getId());
 
         List<UserRelationship> relationships = userService.findUsersRecentlyFollowedByFollowedUsers(currentUser.getId(), pageable);
-        Map<User, List<User>> followedUserNewRelationships = new HashMap<>();
-        for(UserRelationship relationship : relationships) {
-            User follower = relationship.getFollower();
-            User following = relationship.getFollowing();
-
-            if(followedUserNewRelationships.containsKey(follower)) {
-                followedUserNewRelationships.get(follower).add(following);
-            } else {
-                List<User> users = new ArrayList<>();
-                users.add(following);
-                followedUserNewRelationships.put(follower, users);
-            }
-        }
+        Map<User, List<User>> followedUserNewRelationships = groupByUser(relationships, UserRelationship::getFollower,
+                UserRelationship::getFollowing);
 
         List<UserFeedResponse.UserUserPair> response = new ArrayList<>();
         for(Map.Entry<User, List<User>> entry : followedUserNewRelationships.entrySet()) {
@@ -149,6 +123,7 @@ public class FeedService {
      * @param pageable pagination details.
      * @return A {@link UserFeedResponse}.
      * */
+    @Transactional(readOnly = true)
     public UserFeedResponse retrieveBucketsRecentlyFollowedByFollowedUsers(final Pageable pageable) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
@@ -156,30 +131,115 @@ public class FeedService {
 
         List<UserBucketRelationship> relationships =
                 userBucketRelationshipService.findBucketsRecentlyFollowedByFollowedUsers(currentUser.getId(), pageable);
-        Map<User, List<Bucket>> followedUserNewBucketRelationships = new HashMap<>();
-        for(UserBucketRelationship relationship : relationships) {
-            User follower = relationship.getFollower();
-            Bucket following = relationship.getFollowing();
-
-            if(followedUserNewBucketRelationships.containsKey(follower)) {
-                followedUserNewBucketRelationships.get(follower).add(following);
-            } else {
-                List<Bucket> buckets = new ArrayList<>();
-                buckets.add(following);
-                followedUserNewBucketRelationships.put(follower, buckets);
-            }
-        }
+        Map<User, List<Bucket>> followedUserNewBucketRelationships = groupByUser(relationships,
+                UserBucketRelationship::getFollower, UserBucketRelationship::getFollowing);
 
         List<UserFeedResponse.UserBucketPair> response = adaptToUserBucketPairList(followedUserNewBucketRelationships);
         return new UserFeedResponse(null, null, null, null, null, null, null, response);
     }
 
+    /**
+     * Retrieve a compact summary of {@link User}s who are followed by the principal user and have recently created
+     * {@link Bucket}s.
+     *
+     * Each user and bucket is summarized once, in the dictionaries of the response, and referenced by id from the feed
+     * entries.
+     *
+     * @param pageable Pagination details.
+     * @return A {@link CompactFeedResponse}.
+     * */
+    @Transactional(readOnly = true)
+    public CompactFeedResponse retrieveCompactBucketsRecentlyCreatedByFollowedUsers(final Pageable pageable) {
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        LOG.info("Fetching compact 'BucketsRecentlyCreatedByFollowedUsers' feed data for user {}", currentUser.getId());
+
+        List<Bucket> buckets = bucketService.findBucketsRecentlyCreatedByFollowedUsers(currentUser.getId(), pageable);
+        CompactFeedBuilder feed = new CompactFeedBuilder();
+        groupByUser(buckets, Bucket::getOwner, Function.identity()).forEach((user, userBuckets) ->
+                feed.addBucketEntry(user, userBuckets));
+
+        return feed.build();
+    }
+
+    /**
+     * Retrieve a compact summary of {@link User}s who are followed by the principal user and have recently created
+     * {@link Item}s.
+     *
+     * Each user is summarized once, in the user dictionary of the response, and referenced by id from the feed entries.
+     *
+     * @param pageable pagination details.
+     * @return A {@link CompactFeedResponse}.
+     * */
+    @Transactional(readOnly = true)
+    public CompactFeedResponse retrieveCompactItemsRecentlyCreatedByFollowedUsers(final Pageable pageable) {
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        LOG.info("Fetching compact 'ItemsRecentlyCreatedByFollowedUsers' feed data for user {}", currentUser.getId());
+
+        List<Item> items = itemService.findItemsRecentlyCreatedByFollowedUsers(currentUser.getId(), pageable);
+        CompactFeedBuilder feed = new CompactFeedBuilder();
+        groupByUser(items, item -> item.getParent().getOwner(), Function.identity()).forEach((user, userItems) ->
+                feed.addItemEntry(user, userItems));
+
+        return feed.build();
+    }
+
+    /**
+     * Retrieve a compact summary of {@link User}s who are followed by the principal user and have recently followed
+     * other users.
+     *
+     * Each user is summarized once, in the user dictionary of the response, and referenced by id from the feed entries.
+     *
+     * @param pageable pagination details.
+     * @return A {@link CompactFeedResponse}.
+     * */
+    @Transactional(readOnly = true)
+    public CompactFeedResponse retrieveCompactUsersRecentlyFollowedByFollowedUsers(final Pageable pageable) {
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        LOG.info("Fetching compact 'UsersRecentlyFollowedByFollowedUsers' feed data for user {}", currentUser.getId());
+
+        List<UserRelationship> relationships = userService.findUsersRecentlyFollowedByFollowedUsers(currentUser.getId(), pageable);
+        CompactFeedBuilder feed = new CompactFeedBuilder();
+        groupByUser(relationships, UserRelationship::getFollower, UserRelationship::getFollowing).forEach((user, users) ->
+                feed.addUserEntry(user, users));
+
+        return feed.build();
+    }
+
+    /**
+     * Retrieve a compact summary of {@link User}s who are followed by the principal user and have recently followed
+     * other {@link Bucket}s.
+     *
+     * Each user and bucket is summarized once, in the dictionaries of the response, and referenced by id from the feed
+     * entries.
+     *
+     * @param pageable pagination details.
+     * @return A {@link CompactFeedResponse}.
+     * */
+    @Transactional(readOnly = true)
+    public CompactFeedResponse retrieveCompactBucketsRecentlyFollowedByFollowedUsers(final Pageable pageable) {
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        LOG.info("Fetching compact 'BucketsRecentlyFollowedByFollowedUsers' feed data for user {}", currentUser.getId());
+
+        List<UserBucketRelationship> relationships =
+                userBucketRelationshipService.findBucketsRecentlyFollowedByFollowedUsers(currentUser.getId(), pageable);
+        CompactFeedBuilder feed = new CompactFeedBuilder();
+        groupByUser(relationships, UserBucketRelationship::getFollower, UserBucketRelationship::getFollowing)
+                .forEach((user, buckets) -> feed.addBucketEntry(user, buckets));
+
+        return feed.build();
+    }
+
     /**
      * Retrieve a summary of {@link Bucket}s recently created by the principal user.
      *
      * @param pageable pagination details.
      * @return A {@link UserFeedResponse}.
      * */
+    @Transactional(readOnly = true)
     public UserFeedResponse retrieveBucketsRecentlyCreatedByUser(final Pageable pageable) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
@@ -199,6 +259,7 @@ public class FeedService {
      * @param pageable pagination details.
      * @return A {@link UserFeedResponse}.
      * */
+    @Transactional(readOnly = true)
     public UserFeedResponse retrieveItemsRecentlyCreatedByUser(final Pageable pageable) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
@@ -218,6 +279,7 @@ public class FeedService {
      * @param pageable pagination details.
      * @return A {@link UserFeedResponse}.
      * */
+    @Transactional(readOnly = true)
     public UserFeedResponse retrieveUsersRecentlyFollowedByUser(final Pageable pageable) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
@@ -237,6 +299,7 @@ public class FeedService {
      * @param pageable pagination details.
      * @return A {@link UserFeedResponse}.
      * */
+    @Transactional(readOnly = true)
     public UserFeedResponse retrieveBucketsRecentlyFollowedByUser(final Pageable pageable) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
@@ -269,4 +332,72 @@ public class FeedService {
 
         return response;
     }
+
+    /**
+     * Group rows by {@link User}, preserving the order in which users and rows first appear.
+     *
+     * @param rows The rows to group.
+     * @param userExtractor Extracts the user by which a row is grouped.
+     * @param valueExtractor Extracts the value of a row that is added to the group.
+     * @return A {@link Map} of {@link User}-{@link List} entries, in order of first appearance.
+     * */
+    private static <R, T> Map<User, List<T>> groupByUser(final List<R> rows, final Function<R, User> userExtractor,
+                                                         final Function<R, T> valueExtractor) {
+        Map<User, List<T>> groups = new LinkedHashMap<>();
+        for(R row : rows) {
+            groups.computeIfAbsent(userExtractor.apply(row), user -> new ArrayList<>()).add(valueExtractor.apply(row));
+        }
+
+        return groups;
+    }
+
+    /**
+     * Builds a {@link CompactFeedResponse}, summarizing each distinct {@link User} and {@link Bucket} once.
+     * */
+    private class CompactFeedBuilder {
+
+        private final Map<Long, UserSummaryResponse> users = new LinkedHashMap<>();
+
+        private final Map<Long, BucketSummaryResponse> buckets = new LinkedHashMap<>();
+
+        private final List<CompactFeedResponse.FeedEntry> entries = new ArrayList<>();
+
+        void addBucketEntry(final User user, final List<Bucket> userBuckets) {
+            List<Long> bucketIds = userBuckets.stream()
+                    .map(this::addBucket)
+                    .collect(Collectors.toList());
+
+            entries.add(new CompactFeedResponse.FeedEntry(addUser(user), null, bucketIds, null));
+        }
+
+        void addItemEntry(final User user, final List<Item> userItems) {
+            List<ItemSummaryResponse> items = userItems.stream()
+                    .map(itemService::adaptItemToItemSummary)
+                    .collect(Collectors.toList());
+
+            entries.add(new CompactFeedResponse.FeedEntry(addUser(user), null, null, items));
+        }
+
+        void addUserEntry(final User user, final List<User> userUsers) {
+            List<Long> userIds = userUsers.stream()
+                    .map(this::addUser)
+                    .collect(Collectors.toList());
+
+            entries.add(new CompactFeedResponse.FeedEntry(addUser(user), userIds, null, null));
+        }
+
+        CompactFeedResponse build() {
+            return new CompactFeedResponse(users, buckets.isEmpty() ? null : buckets, entries);
+        }
+
+        private Long addUser(final User user) {
+            users.computeIfAbsent(user.getId(), id -> userService.adaptUserToSummary(user));
+            return user.getId();
+        }
+
+        private Long addBucket(final Bucket bucket) {
+            buckets.computeIfAbsent(bucket.getId(), id -> bucketService.adaptBucketToBucketSummary(bucket));
+            return bucket.getId();
+        }
+    }
 }
@@ -1,21 +1,43 @@
 package ca.unb.ktb.core.svc;
 
+import ca.unb.ktb.api.dto.response.ItemBatchResponse;
+import ca.unb.ktb.api.dto.response.ItemBatchResponse.ItemBatchResult;
 import ca.unb.ktb.api.dto.response.ItemSummaryResponse;
 import ca.unb.ktb.api.exception.client.BadRequestException;
 import ca.unb.ktb.api.exception.client.UnauthorizedException;
 import ca.unb.ktb.application.dao.ItemDAO;
+import ca.unb.ktb.application.dao.ItemJdbcDAO;
+import ca.unb.ktb.core.event.DomainEvent;
+import ca.unb.ktb.core.event.DomainEventPublisher;
+import ca.unb.ktb.core.event.DomainEventType;
 import ca.unb.ktb.core.model.Bucket;
 import ca.unb.ktb.core.model.Item;
 import ca.unb.ktb.core.model.validation.EntityValidator;
+import ca.unb.ktb.infrastructure.cache.CacheInvalidationPublisher;
+import ca.unb.ktb.infrastructure.cache.CacheRegion;
 import ca.unb.ktb.infrastructure.security.UserPrincipal;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.validation.ConstraintViolation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -23,8 +45,16 @@ public class ItemService {
 
     @Autowired private ItemDAO itemDAO;
 
+    @Autowired private ItemJdbcDAO itemJdbcDAO;
+
     @Autowired private BucketService bucketService;
 
+    @Autowired private DomainEventPublisher domainEventPublisher;
+
+    @Autowired private CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    @Value("${item.batch.max-size:100}") private int maxBatchSize;
+
     /**
      * Create a new {@link Item} that is associated to a given {@link Bucket}.
      *
@@ -34,6 +64,7 @@ public class ItemService {
      * @throws UnauthorizedException if the principal user does not own the bucket with the given bucketId.
      * @see BucketService#findBucketById(Long)
      * */
+    @Transactional
     public Item createItem(final Item item, final Long bucketId) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         Bucket itemParent = bucketService.findBucketById(bucketId);
@@ -42,13 +73,19 @@ public class ItemService {
             throw new UnauthorizedException("Insufficient permissions.");
         }
 
+        prepareBucketForItemWrite(itemParent);
         item.setParent(itemParent);
         item.setId(null);
+        item.setOriginId(null);
 
         LOG.info("User {} creating new item with name {}", currentUser.getUsername(), item.getName());
         LOG.debug("Item details: {}", item.toString());
 
-        return saveItem(item);
+        Item persistentItem = saveItem(item);
+        domainEventPublisher.publish(DomainEventType.ITEM_CREATED, itemParent.getId(),
+                Map.of("itemId", persistentItem.getId()));
+
+        return persistentItem;
     }
 
     /**
@@ -62,22 +99,16 @@ public class ItemService {
      * @param toBucket The id of the {@link Bucket} that will own the newly created {@link Item}.
      * @return The newly created {@link Item}, once persisted in the database.
      * @see BucketService#findBucketById(Long)
-     * @see ItemService#findItemById(Long)
+     * @see ItemService#findBucketItemById(Long, Long)
      * */
+    @Transactional
     public Item duplicateItem(final Long itemId, final Long fromBucket, final Long toBucket) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        Bucket sourceBucket = bucketService.findBucketById(fromBucket);
+        Item originalItem = findBucketItemById(fromBucket, itemId);
         Bucket destinationBucket = bucketService.findBucketById(toBucket);
-        Item duplicatedItem = findItemById(itemId);
 
         LOG.info("User {} duplicating item {} from bucket {} into bucket {}", currentUser.getUsername(),
-                duplicatedItem.getId(), sourceBucket.getId(), destinationBucket.getId());
-
-        /* Verify that item belongs to bucket */
-        if(!Objects.equals(duplicatedItem.getParent().getId(), sourceBucket.getId())) {
-            throw new BadRequestException(String.format("Unable to find an item with id %d and parent bucket id %d.",
-                    itemId, fromBucket));
-        }
+                originalItem.getId(), fromBucket, destinationBucket.getId());
 
         /* Verify that principal user owns the destination bucket */
         if(!Objects.equals(currentUser.getId(), destinationBucket.getOwner().getId())) {
@@ -85,57 +116,111 @@ public class ItemService {
                     currentUser.getId()));
         }
 
-        duplicatedItem.setId(null);
+        prepareBucketForItemWrite(destinationBucket);
+
+        Item duplicatedItem = new Item();
+        duplicatedItem.setName(originalItem.getName());
+        duplicatedItem.setDescription(originalItem.getDescription());
+        duplicatedItem.setLink(originalItem.getLink());
+        duplicatedItem.setIsComplete(originalItem.getIsComplete());
         duplicatedItem.setParent(destinationBucket);
-        return itemDAO.save(duplicatedItem);
+
+        return saveItem(duplicatedItem);
     }
 
     /**
      * Duplicate all {@link Item}s that are associated to a given {@link Bucket} into another existing bucket.
      *
+     * Items are copied with a single INSERT ... SELECT statement, regardless of the number of items in the bucket. If
+     * the source bucket is a lightweight clone, the items of its own source are copied.
+     *
      * @param fromBucket The id of the {@link Bucket} that currently owns the {@link Item}s.
      * @param toBucket The id of the {@link Bucket} that will own the newly created {@link Item}s.
-     * @return A list of the new {@link Item}s.
+     * @return The number of {@link Item}s duplicated.
      * @throws UnauthorizedException If the principal user does not own the destination bucket.
      * @see BucketService#findBucketById(Long)
+     * @see ItemJdbcDAO#copyAll(Long, Long)
      * */
-    public List<Item> duplicateBucketItems(final Long fromBucket, final Long toBucket) {
+    @Transactional
+    public int duplicateBucketItems(final Long fromBucket, final Long toBucket) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         Bucket itemParent = bucketService.findBucketById(fromBucket);
         Bucket newItemParent = bucketService.findBucketById(toBucket);
 
         LOG.info("User {} duplicating all items from bucket {} into bucket {}", currentUser.getUsername(),
-                itemParent, newItemParent);
+                itemParent.getId(), newItemParent.getId());
 
         if(!Objects.equals(currentUser.getId(), newItemParent.getOwner().getId())) {
             throw new UnauthorizedException(String.format("Unable to duplicate item into a bucket not owned by the user with id %d.",
                     currentUser.getId()));
         }
 
-        List<Item> items = itemDAO.findAllByParent(itemParent);
-        for(Item item : items) {
-            item.setId(null);
-            item.setParent(newItemParent);
-        }
+        prepareBucketForItemWrite(newItemParent);
+        return itemJdbcDAO.copyAll(itemParent.getItemContainer().getId(), newItemParent.getId());
+    }
 
-        return itemDAO.saveAll(items);
+    /**
+     * Retrieve a page of {@link Item}s belonging to a {@link Bucket} with a given id, in order of id.
+     *
+     * If the bucket is a lightweight clone, the items of the source bucket are returned.
+     *
+     * @param bucketId The id of the {@link Bucket} that owns the {@link Item}s.
+     * @param after The id of the last item of the previous page, or null to retrieve the first page.
+     * @param limit The maximum number of items to retrieve.
+     * @return A list of {@link Item}s belonging to the given {@link Bucket}. The parent of each item is not populated.
+     * @see BucketService#findBucketById(Long)
+     * @see ItemJdbcDAO#findItemsByParent(Long, Long, Integer, Consumer)
+     * */
+    @Transactional(readOnly = true)
+    public List<Item> findItems(final Long bucketId, @Nullable final Long after, final int limit) {
+        Bucket itemParent = bucketService.findBucketById(bucketId);
+
+        List<Item> items = new ArrayList<>(limit);
+        itemJdbcDAO.findItemsByParent(itemParent.getItemContainer().getId(), after, limit, items::add);
+
+        return items;
+    }
+
+    /**
+     * Pass all {@link Item}s belonging to a {@link Bucket} with a given id to a consumer as they are read from the
+     * database, in order of id.
+     *
+     * If the bucket is a lightweight clone, the items of the source bucket are passed to the consumer.
+     *
+     * @param bucketId The id of the {@link Bucket} that owns the {@link Item}s.
+     * @param after Only items with an id greater than this id are read, or all items if null.
+     * @param consumer Consumes each {@link Item}. The parent of each item is not populated.
+     * @see BucketService#findBucketById(Long)
+     * @see ItemJdbcDAO#findItemsByParent(Long, Long, Integer, Consumer)
+     * */
+    @Transactional(readOnly = true)
+    public void streamItems(final Long bucketId, @Nullable final Long after, final Consumer<Item> consumer) {
+        Bucket itemParent = bucketService.findBucketById(bucketId);
+        itemJdbcDAO.findItemsByParent(itemParent.getItemContainer().getId(), after, null, consumer);
     }
 
     /**
-     * Retrieve a list of {@link Item}s belonging to a given {@link Bucket}.
+     * Retrieve the version of the {@link Item}s belonging to a {@link Bucket} with a given id.
+     *
+     * The version changes whenever an item of the bucket is created, updated or deleted, or a lightweight clone is
+     * materialized, and can be retrieved without loading the items.
      *
      * @param bucketId The id of the {@link Bucket} that owns the {@link Item}s.
-     * @return A list of {@link Item}s belonging to the given {@link Bucket}.
+     * @return The version of the items of the bucket.
      * @see BucketService#findBucketById(Long)
-     * @see ItemDAO#findAllByParent(Bucket)
+     * @see ItemJdbcDAO#findItemsVersion(Long)
      * */
-    public List<Item> findItems(final Long bucketId) {
+    @Transactional(readOnly = true)
+    public String findItemsVersion(final Long bucketId) {
         Bucket itemParent = bucketService.findBucketById(bucketId);
-        return itemDAO.findAllByParent(itemParent);
+        Long containerId = itemParent.getItemContainer().getId();
+
+        return containerId + "/" + itemJdbcDAO.findItemsVersion(containerId);
     }
 
     /**
-     * Retrieve a specific {@link Item} by id.
+     * Retrieve a specific {@link Item} by id. Items in a {@link Bucket} owned by a user that has been deleted are not
+     * found.
      *
      * @param itemId The id of the {@link Item} to retrieve.
      * @return The {@link Item}.
@@ -143,10 +228,12 @@ public class ItemService {
      * @throws UnauthorizedException If the item belongs to a {@link Bucket} that is private, and the principal user
      * does not own the bucket.
      * */
+    @Transactional(readOnly = true)
     public Item findItemById(final Long itemId) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        Item item = itemDAO.findById(itemId).orElseThrow(() ->
-                new BadRequestException(String.format("Unable to find a record with id %d.", itemId)));
+        Item item = itemDAO.findById(itemId)
+                .filter(persistedItem -> !persistedItem.getParent().getOwner().isDeleted())
+                .orElseThrow(() -> new BadRequestException(String.format("Unable to find a record with id %d.", itemId)));
 
         Bucket parentBucket = item.getParent();
         if(!parentBucket.getIsPublic() && !Objects.equals(parentBucket.getOwner().getId(), currentUser.getId())) {
@@ -156,6 +243,29 @@ public class ItemService {
         return item;
     }
 
+    /**
+     * Retrieve a specific {@link Item} by id, belonging to a given {@link Bucket}.
+     *
+     * If the bucket is a lightweight clone, the item is looked up in the source bucket. Visibility is determined by the
+     * given bucket, not by the bucket physically containing the item. If the bucket was a lightweight clone that has
+     * since been materialized, the item may also be found by the id of the source item it was copied from.
+     *
+     * @param bucketId The id of the {@link Bucket} that owns the {@link Item}.
+     * @param itemId The id of the {@link Item} to retrieve.
+     * @return The {@link Item}.
+     * @throws BadRequestException If an {@link Item} with the given id cannot be found in the bucket.
+     * @throws UnauthorizedException If the bucket is private, and the principal user does not own the bucket.
+     * @see BucketService#findBucketById(Long)
+     * @see ItemService#findItemInBucket(Bucket, Long)
+     * */
+    @Transactional(readOnly = true)
+    public Item findBucketItemById(final Long bucketId, final Long itemId) {
+        Bucket bucket = bucketService.findBucketById(bucketId);
+
+        return findItemInBucket(bucket, itemId).orElseThrow(() ->
+                new BadRequestException(String.format("Unable to find item with id %d and parent %d.", itemId, bucketId)));
+    }
+
     /**
      * Retrieve a list of {@link Item}s whose names partially match a query string.
      *
@@ -165,6 +275,7 @@ public class ItemService {
      * @return A list of {@link Item}s whose names partially match a query string.
      * @see ItemDAO#findAllByNameLike(String, Long)
      * */
+    @Transactional(readOnly = true)
     public List<Item> findItemsByName(final String queryString) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
@@ -183,6 +294,7 @@ public class ItemService {
      * given user.
      * @see ItemDAO#retrieveItemsCreatedByFollowedUsers(Long, Pageable)
      * */
+    @Transactional(readOnly = true)
     public List<Item> findItemsRecentlyCreatedByFollowedUsers(final Long userId, final Pageable pageable) {
         return itemDAO.retrieveItemsCreatedByFollowedUsers(userId, pageable);
     }
@@ -195,6 +307,7 @@ public class ItemService {
      * @return A list of {@link Item}s recently created by a {@link ca.unb.ktb.core.model.User} with the given user id.
      * @see ItemDAO#retrieveItemsCreatedByUser(Long, Pageable)
      * */
+    @Transactional(readOnly = true)
     public List<Item> findItemsRecentlyCreatedByUser(final Long userId, final Pageable pageable) {
         return itemDAO.retrieveItemsCreatedByUser(userId, pageable);
     }
@@ -207,13 +320,39 @@ public class ItemService {
      *
      * The item parent field is ignored, because a bucket cannot be transferred to another bucket without duplication.
      *
+     * The item is written with a single targeted UPDATE statement that is restricted to items of buckets owned by the
+     * principal user, without reading the item first. If no rows were updated, because the item does not exist, the
+     * bucket is owned by another user, or the bucket is involved in a lightweight clone, the item is read and patched
+     * through the persistence context instead, which materializes clones and reports the appropriate error.
+     *
      * @param partialItem The partial {@link Item} used to update the item.
+     * @param bucketId The id of the {@link Bucket} that owns the {@link Item}.
      * @param itemId The id of the {@link Item} to patch.
      * @return The patched {@link Item}, once persisted in the database.
-     * @see ItemService#findItemByIdOwnedByPrincipal(Long)
+     * @throws BadRequestException If the partial item does not meet validation constraints, or the item cannot be
+     * found.
+     * @see ItemJdbcDAO#patchItemOwnedByUser(Long, Long, Long, Item)
+     * @see ItemService#findItemByIdOwnedByPrincipal(Long, Long)
      * */
-    public Item patchItem(final Item partialItem, final Long itemId) {
-        Item persistedItem = findItemByIdOwnedByPrincipal(itemId);
+    @Transactional
+    public Item patchItem(final Item partialItem, final Long bucketId, final Long itemId) {
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        if(!getPartialItemConstraintViolations(partialItem).isEmpty()) {
+            throw new BadRequestException("cannot save item that does not meet validation constraints");
+        }
+
+        Optional<Item> patchedItem = itemJdbcDAO.patchItemOwnedByUser(itemId, bucketId, currentUser.getId(), partialItem);
+        if(patchedItem.isPresent()) {
+            LOG.info("User {} patched item {}", currentUser.getId(), itemId);
+
+            Item item = patchedItem.get();
+            item.setParent(new Bucket(bucketId));
+            publishItemCompleted(partialItem, item);
+            return item;
+        }
+
+        Item persistedItem = findItemByIdOwnedByPrincipal(bucketId, itemId);
 
         if(Objects.nonNull(partialItem.getName())) {
             persistedItem.setName(partialItem.getName());
@@ -233,7 +372,9 @@ public class ItemService {
 
         LOG.info("User {} patching item {}", persistedItem.getParent().getOwner().getId(), persistedItem.getId());
 
-        return saveItem(persistedItem);
+        Item item = saveItem(persistedItem);
+        publishItemCompleted(partialItem, item);
+        return item;
     }
 
     /**
@@ -244,12 +385,14 @@ public class ItemService {
      * The item parent field is ignored, because a bucket cannot be transferred to another bucket without duplication.
      *
      * @param item The {@link Item} used to update the persisted item.
+     * @param bucketId The id of the {@link Bucket} that owns the {@link Item}.
      * @param itemId The id of the {@link Item} to update.
      * @return The updated {@link Item}, once persisted in the database.
-     * @see ItemService#findItemByIdOwnedByPrincipal(Long)
+     * @see ItemService#findItemByIdOwnedByPrincipal(Long, Long)
      * */
-    public Item updateItem(final Item item, final Long itemId) {
-        Item persistedItem = findItemByIdOwnedByPrincipal(itemId);
+    @Transactional
+    public Item updateItem(final Item item, final Long bucketId, final Long itemId) {
+        Item persistedItem = findItemByIdOwnedByPrincipal(bucketId, itemId);
         item.setId(persistedItem.getId());
         item.setParent(persistedItem.getParent());
 
@@ -261,25 +404,32 @@ public class ItemService {
     /**
      * Delete an {@link Item}.
      *
+     * @param bucketId The id of the {@link Bucket} that owns the {@link Item}.
      * @param itemId The id of the {@link Item}.
-     * @see ItemService#findItemByIdOwnedByPrincipal(Long)
+     * @see ItemService#findItemByIdOwnedByPrincipal(Long, Long)
      * */
-    public void deleteItem(final Long itemId) {
-        Item persistedItem = findItemByIdOwnedByPrincipal(itemId);
+    @Transactional
+    public void deleteItem(final Long bucketId, final Long itemId) {
+        Item persistedItem = findItemByIdOwnedByPrincipal(bucketId, itemId);
 
         LOG.info("User {} deleting item {}", persistedItem.getParent().getOwner().getId(), persistedItem.getId());
 
         itemDAO.delete(persistedItem);
+        domainEventPublisher.publish(DomainEventType.ITEM_DELETED, persistedItem.getParent().getId(),
+                Map.of("itemId", persistedItem.getId()));
     }
 
     /**
      * Delete all {@link Item}s within a given {@link Bucket}. The principal user must be the owner of the bucket, or an
      * {@link UnauthorizedException} is thrown.
      *
+     * Lightweight clones of the bucket are materialized before the items are removed.
+     *
      * @param bucket The {@link Bucket} whose {@link Item}s are to be removed.
      * @throws UnauthorizedException If the principal user does not own the {@link Bucket}.
-     * @see ItemDAO#findAllByParent(Bucket)
+     * @see ItemJdbcDAO#deleteAllByParentId(Long)
      * */
+    @Transactional
     public void deleteItems(final Bucket bucket) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         if(!Objects.equals(currentUser.getId(), bucket.getOwner().getId())) {
@@ -288,33 +438,480 @@ public class ItemService {
 
         LOG.info("User {} deleting items from bucket {}", currentUser.getId(), bucket.getId());
 
-        List<Item> items = itemDAO.findAllByParent(bucket);
-        itemDAO.deleteAll(items);
+        materializeClones(bucket);
+        itemJdbcDAO.deleteAllByParentId(bucket.getId());
+    }
+
+    /**
+     * Create a batch of {@link Item}s in a given {@link Bucket}.
+     *
+     * Bucket ownership is verified once, and all items are validated before any item is written. Valid items are
+     * inserted with a single JDBC batch, within a single transaction. Invalid items are not created, and are reported
+     * in the result.
+     *
+     * @param items The {@link Item}s to create.
+     * @param bucketId The id of the {@link Bucket} that will own the new items.
+     * @return The result of the operation for each item, in the order they were given.
+     * @throws BadRequestException If the batch is empty, or larger than the maximum batch size.
+     * @throws UnauthorizedException If the principal user does not own the bucket with the given bucketId.
+     * @see ItemJdbcDAO#insertAll(Long, List)
+     * */
+    @Transactional
+    public ItemBatchResponse createItemBatch(final List<Item> items, final Long bucketId) {
+        validateBatchSize(items);
+        Bucket itemParent = findBucketOwnedByPrincipal(bucketId);
+
+        ItemBatchResult[] results = new ItemBatchResult[items.size()];
+        List<Item> candidateItems = new ArrayList<>();
+        List<Integer> candidateIndices = new ArrayList<>();
+        for(int index = 0; index < items.size(); index++) {
+            Item item = items.get(index);
+            if(Objects.isNull(item)) {
+                results[index] = rejectBatchItem(index, null, "item must not be null");
+                continue;
+            }
+
+            item.setId(null);
+            item.setParent(itemParent);
+            item.setOriginId(null);
+
+            candidateItems.add(item);
+            candidateIndices.add(index);
+        }
+
+        List<Item> validItems = new ArrayList<>();
+        List<Integer> validIndices = new ArrayList<>();
+        List<Set<ConstraintViolation<Item>>> candidateViolations = EntityValidator.validateAll(candidateItems);
+        for(int i = 0; i < candidateItems.size(); i++) {
+            int index = candidateIndices.get(i);
+            Set<ConstraintViolation<Item>> violations = candidateViolations.get(i);
+            if(!violations.isEmpty()) {
+                results[index] = rejectBatchItem(index, null, describeConstraintViolations(violations));
+                continue;
+            }
+
+            validItems.add(candidateItems.get(i));
+            validIndices.add(index);
+        }
+
+        if(!validItems.isEmpty()) {
+            prepareBucketForItemWrite(itemParent);
+            List<Long> ids = itemJdbcDAO.insertAll(itemParent.getId(), validItems);
+
+            List<DomainEvent> events = new ArrayList<>();
+            for(int i = 0; i < validItems.size(); i++) {
+                Item item = validItems.get(i);
+                item.setId(ids.get(i));
+
+                int index = validIndices.get(i);
+                results[index] = new ItemBatchResult(index, item.getId(), HttpStatus.CREATED.value(), null,
+                        adaptItemToItemSummary(item, bucketId));
+                events.add(DomainEvent.of(DomainEventType.ITEM_CREATED, itemParent.getId(),
+                        Map.of("itemId", item.getId())));
+            }
+
+            domainEventPublisher.publishAll(events);
+        }
+
+        LOG.info("User {} created {} of {} items in bucket {}", itemParent.getOwner().getId(), validItems.size(),
+                items.size(), bucketId);
+
+        return buildBatchResponse(results);
+    }
+
+    /**
+     * Partially update a batch of {@link Item}s contained by a given {@link Bucket}.
+     *
+     * All non-null fields in each partial item are used to overwrite the same fields in the item identified by the
+     * partial item id. Bucket ownership is verified once, and all partial items are validated before any item is
+     * written. Valid partial items are written with a single JDBC batch, within a single transaction.
+     *
+     * If the bucket is a lightweight clone, its items are materialized first, and the materialized copies of the
+     * requested items are updated.
+     *
+     * @param partialItems The partial {@link Item}s used to update the items.
+     * @param bucketId The id of the {@link Bucket} that owns the items.
+     * @return The result of the operation for each partial item, in the order they were given.
+     * @throws BadRequestException If the batch is empty, or larger than the maximum batch size.
+     * @throws UnauthorizedException If the principal user does not own the bucket with the given bucketId.
+     * @see ItemJdbcDAO#patchAll(Long, List)
+     * */
+    @Transactional
+    public ItemBatchResponse patchItemBatch(final List<Item> partialItems, final Long bucketId) {
+        validateBatchSize(partialItems);
+        Bucket itemParent = findBucketOwnedByPrincipal(bucketId);
+
+        ItemBatchResult[] results = new ItemBatchResult[partialItems.size()];
+        Set<Long> requestedIds = new HashSet<>();
+        List<Item> validItems = new ArrayList<>();
+        List<Integer> validIndices = new ArrayList<>();
+        for(int index = 0; index < partialItems.size(); index++) {
+            Item partialItem = partialItems.get(index);
+            if(Objects.isNull(partialItem) || Objects.isNull(partialItem.getId())) {
+                results[index] = rejectBatchItem(index, null, "item id must be specified");
+                continue;
+            }
+
+            if(!requestedIds.add(partialItem.getId())) {
+                results[index] = rejectBatchItem(index, partialItem.getId(), "item id appears more than once in the batch");
+                continue;
+            }
+
+            Set<ConstraintViolation<Item>> violations = getPartialItemConstraintViolations(partialItem);
+            if(!violations.isEmpty()) {
+                results[index] = rejectBatchItem(index, partialItem.getId(), describeConstraintViolations(violations));
+                continue;
+            }
+
+            validItems.add(partialItem);
+            validIndices.add(index);
+        }
+
+        if(validItems.isEmpty()) {
+            return buildBatchResponse(results);
+        }
+
+        List<Long> itemIds = validItems.stream().map(Item::getId).collect(Collectors.toList());
+        List<Long> targetIds = resolveBatchItemIds(itemParent, itemIds);
+        for(int i = 0; i < validItems.size(); i++) {
+            validItems.get(i).setId(targetIds.get(i));
+        }
+
+        int[] updateCounts = itemJdbcDAO.patchAll(itemParent.getId(), validItems);
+        Map<Long, Item> patchedItems = itemJdbcDAO.findAllByParentIdAndIdIn(itemParent.getId(), targetIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        int patchedCount = 0;
+        List<DomainEvent> events = new ArrayList<>();
+        for(int i = 0; i < validItems.size(); i++) {
+            int index = validIndices.get(i);
+            Item patchedItem = patchedItems.get(targetIds.get(i));
+            if(updateCounts[i] == 0 || Objects.isNull(patchedItem)) {
+                results[index] = rejectBatchItem(index, itemIds.get(i),
+                        String.format("Unable to find item with id %d and parent %d.", itemIds.get(i), bucketId));
+                continue;
+            }
+
+            results[index] = new ItemBatchResult(index, patchedItem.getId(), HttpStatus.OK.value(), null,
+                    adaptItemToItemSummary(patchedItem, bucketId));
+            patchedCount++;
+
+            if(Boolean.TRUE.equals(validItems.get(i).getIsComplete())) {
+                events.add(DomainEvent.of(DomainEventType.ITEM_COMPLETED, itemParent.getId(),
+                        Map.of("itemId", patchedItem.getId())));
+            }
+        }
+
+        domainEventPublisher.publishAll(events);
+
+        LOG.info("User {} patched {} of {} items in bucket {}", itemParent.getOwner().getId(), patchedCount,
+                partialItems.size(), bucketId);
+
+        return buildBatchResponse(results);
+    }
+
+    /**
+     * Delete a batch of {@link Item}s contained by a given {@link Bucket}.
+     *
+     * Bucket ownership is verified once, and the items are deleted with a single JDBC batch, within a single
+     * transaction. If the bucket is a lightweight clone, its items are materialized first.
+     *
+     * @param itemIds The ids of the {@link Item}s to delete.
+     * @param bucketId The id of the {@link Bucket} that owns the items.
+     * @return The result of the operation for each item id, in the order they were given.
+     * @throws BadRequestException If the batch is empty, or larger than the maximum batch size.
+     * @throws UnauthorizedException If the principal user does not own the bucket with the given bucketId.
+     * @see ItemJdbcDAO#deleteAll(Long, List)
+     * */
+    @Transactional
+    public ItemBatchResponse deleteItemBatch(final List<Long> itemIds, final Long bucketId) {
+        validateBatchSize(itemIds);
+        Bucket itemParent = findBucketOwnedByPrincipal(bucketId);
+
+        ItemBatchResult[] results = new ItemBatchResult[itemIds.size()];
+        Set<Long> requestedIds = new HashSet<>();
+        List<Long> validIds = new ArrayList<>();
+        List<Integer> validIndices = new ArrayList<>();
+        for(int index = 0; index < itemIds.size(); index++) {
+            Long itemId = itemIds.get(index);
+            if(Objects.isNull(itemId) || !requestedIds.add(itemId)) {
+                results[index] = rejectBatchItem(index, itemId, "item id must be specified exactly once");
+                continue;
+            }
+
+            validIds.add(itemId);
+            validIndices.add(index);
+        }
+
+        if(validIds.isEmpty()) {
+            return buildBatchResponse(results);
+        }
+
+        List<Long> targetIds = resolveBatchItemIds(itemParent, validIds);
+        int[] deleteCounts = itemJdbcDAO.deleteAll(itemParent.getId(), targetIds);
+
+        int deletedCount = 0;
+        List<DomainEvent> events = new ArrayList<>();
+        for(int i = 0; i < validIds.size(); i++) {
+            int index = validIndices.get(i);
+            if(deleteCounts[i] == 0) {
+                results[index] = rejectBatchItem(index, validIds.get(i),
+                        String.format("Unable to find item with id %d and parent %d.", validIds.get(i), bucketId));
+                continue;
+            }
+
+            results[index] = new ItemBatchResult(index, validIds.get(i), HttpStatus.OK.value(), null, null);
+            deletedCount++;
+            events.add(DomainEvent.of(DomainEventType.ITEM_DELETED, itemParent.getId(),
+                    Map.of("itemId", targetIds.get(i))));
+        }
+
+        domainEventPublisher.publishAll(events);
+
+        LOG.info("User {} deleted {} of {} items from bucket {}", itemParent.getOwner().getId(), deletedCount,
+                itemIds.size(), bucketId);
+
+        return buildBatchResponse(results);
     }
 
     /**
-     * Find an {@link Item} owned by a given {@link ca.unb.ktb.core.model.User}.
+     * Find an {@link Item} owned by a given {@link ca.unb.ktb.core.model.User}, in preparation for modifying it.
      *
      * This method ensures that the principal user owns the item before returning it. This is primarily used by
      * methods that modify items to ensure that a user is not modifying a item that does not belong to them.
      *
+     * If the bucket is a lightweight clone, its items are materialized first, and the materialized copy of the
+     * requested item is returned. Items of a bucket that has already been materialized may also be requested by the id
+     * of the source item they were copied from.
+     *
+     * @param bucketId The id of the {@link Bucket} that owns the {@link Item}.
      * @param itemId The id of the {@link Item} to fetch.
      * @return The {@link Item}.
-     * @throws BadRequestException If an {@link Item} with the given id does not exist, or the parent bucket is not
-     * owned by the given owner.
+     * @throws BadRequestException If an {@link Item} with the given id does not exist in the given bucket.
      * @throws UnauthorizedException If the owner of the {@link Item} does not match the principal user.
-     * @see ItemService#findItemById(Long)
+     * @see BucketService#findBucketById(Long)
+     * @see ItemService#findItemInBucket(Bucket, Long)
+     * @see ItemService#prepareBucketForItemWrite(Bucket)
      * */
-    private Item findItemByIdOwnedByPrincipal(final Long itemId) {
+    private Item findItemByIdOwnedByPrincipal(final Long bucketId, final Long itemId) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        Item persistedItem = findItemById(itemId);
-        Bucket parent = persistedItem.getParent();
+        Bucket parent = bucketService.findBucketById(bucketId);
 
         if(!Objects.equals(parent.getOwner().getId(), currentUser.getId())) {
             throw new UnauthorizedException("Cannot modify an item owned by another user.");
         }
 
-        return persistedItem;
+        Item persistedItem = findItemInBucket(parent, itemId).orElseThrow(() ->
+                new BadRequestException(String.format("Unable to find item with id %d and parent %d.", itemId, bucketId)));
+
+        if(!prepareBucketForItemWrite(parent)) {
+            return persistedItem;
+        }
+
+        return itemDAO.findFirstByParentAndOriginId(parent, persistedItem.getId()).orElseThrow(() ->
+                new BadRequestException(String.format("Unable to find item with id %d and parent %d.", itemId, bucketId)));
+    }
+
+    /**
+     * Find an {@link Item} by id, as seen through a given {@link Bucket}.
+     *
+     * Items of a lightweight clone are found in its source bucket. Once the clone is materialized, its items are copies
+     * with new ids, while clients may still hold the ids of the source items they retrieved beforehand. If no item
+     * in the bucket has the given id, the item materialized from the source item with that id is returned instead.
+     *
+     * @param bucket The {@link Bucket} through which the item is requested.
+     * @param itemId The id of the {@link Item}, or of the source item it was materialized from.
+     * @return The {@link Item}, if one is found.
+     * @see ItemDAO#findFirstByParentAndOriginId(Bucket, Long)
+     * */
+    private Optional<Item> findItemInBucket(final Bucket bucket, final Long itemId) {
+        Optional<Item> item = itemDAO.findByIdAndParent(itemId, bucket.getItemContainer());
+        if(item.isPresent() || Objects.nonNull(bucket.getSource())) {
+            return item;
+        }
+
+        return itemDAO.findFirstByParentAndOriginId(bucket, itemId);
+    }
+
+    /**
+     * Prepare a {@link Bucket} for modification of its items, preserving copy-on-write semantics of lightweight clones.
+     *
+     * If the bucket is a lightweight clone, the items of its source are materialized into the bucket. Otherwise, any
+     * lightweight clones of this bucket are materialized, such that they retain the items as they were when the
+     * bucket was duplicated.
+     *
+     * @param bucket The {@link Bucket} whose items are about to be modified.
+     * @return True if the given bucket was a lightweight clone and its items have been materialized.
+     * @see ItemJdbcDAO#materializeClone(Long)
+     * @see ItemService#materializeClones(Bucket)
+     * */
+    private boolean prepareBucketForItemWrite(final Bucket bucket) {
+        if(Objects.nonNull(bucket.getSource())) {
+            itemJdbcDAO.materializeClone(bucket.getId());
+            cacheInvalidationPublisher.invalidate(CacheRegion.BUCKET, bucket.getId());
+            LOG.info("Materialized items into bucket {} from source bucket {}", bucket.getId(),
+                    bucket.getSource().getId());
+
+            bucket.setSource(null);
+            return true;
+        }
+
+        materializeClones(bucket);
+        return false;
+    }
+
+    /**
+     * Materialize the items of all lightweight clones of a given {@link Bucket}. Must be invoked before the items of the
+     * bucket are modified or removed.
+     *
+     * Most buckets have no clones, so their existence is verified first, and no rows are written if there are none.
+     *
+     * @param source The {@link Bucket} whose clones are materialized.
+     * @see ItemJdbcDAO#materializeClonesOfSource(Long)
+     * */
+    public void materializeClones(final Bucket source) {
+        if(!bucketService.hasLightweightClones(source)) {
+            return;
+        }
+
+        List<Long> cloneIds = itemJdbcDAO.materializeClonesOfSource(source.getId());
+        cacheInvalidationPublisher.invalidate(CacheRegion.BUCKET, cloneIds);
+        LOG.info("Materialized items into {} lightweight clones of bucket {}", cloneIds.size(), source.getId());
+    }
+
+    /**
+     * Find a {@link Bucket} owned by the principal user, in preparation for modifying its items.
+     *
+     * @param bucketId The id of the {@link Bucket}.
+     * @return The {@link Bucket}.
+     * @throws UnauthorizedException If the principal user does not own the bucket.
+     * @see BucketService#findBucketById(Long)
+     * */
+    private Bucket findBucketOwnedByPrincipal(final Long bucketId) {
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        Bucket bucket = bucketService.findBucketById(bucketId);
+
+        if(!Objects.equals(currentUser.getId(), bucket.getOwner().getId())) {
+            throw new UnauthorizedException("Insufficient permissions.");
+        }
+
+        return bucket;
+    }
+
+    /**
+     * Prepare a {@link Bucket} for a batch write, and resolve the ids of the items the batch will modify.
+     *
+     * If the bucket is a lightweight clone, its items are materialized first. Requested ids that refer to items of the
+     * source bucket are resolved to the ids of the materialized copies, whether the bucket was materialized by this
+     * write or by an earlier one.
+     *
+     * @param bucket The {@link Bucket} whose items are about to be modified.
+     * @param itemIds The requested item ids.
+     * @return The ids of the items to modify, in the same order as the requested item ids.
+     * @see ItemService#prepareBucketForItemWrite(Bucket)
+     * */
+    private List<Long> resolveBatchItemIds(final Bucket bucket, final List<Long> itemIds) {
+        prepareBucketForItemWrite(bucket);
+
+        Map<Long, Long> materializedIds = itemJdbcDAO.findIdsByOriginId(bucket.getId());
+        if(materializedIds.isEmpty()) {
+            return itemIds;
+        }
+
+        return itemIds.stream()
+                .map(itemId -> materializedIds.getOrDefault(itemId, itemId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Verify that a batch is not empty, and does not exceed the maximum batch size.
+     *
+     * @param batch The batch to verify.
+     * @throws BadRequestException If the batch is empty, or larger than the maximum batch size.
+     * */
+    private void validateBatchSize(final List<?> batch) {
+        if(Objects.isNull(batch) || batch.isEmpty()) {
+            throw new BadRequestException("batch must contain at least one item");
+        }
+
+        if(batch.size() > maxBatchSize) {
+            throw new BadRequestException(String.format("batch cannot contain more than %d items", maxBatchSize));
+        }
+    }
+
+    /**
+     * Get the validation constraint violations of a partial {@link Item}. Only non-null fields are validated.
+     *
+     * @param partialItem The partial {@link Item}.
+     * @return The set of constraint violations for the non-null fields of the partial item.
+     * */
+    private static Set<ConstraintViolation<Item>> getPartialItemConstraintViolations(final Item partialItem) {
+        Set<ConstraintViolation<Item>> violations = new HashSet<>();
+        if(Objects.nonNull(partialItem.getName())) {
+            violations.addAll(EntityValidator.getPropertyConstraintViolations(partialItem, "name"));
+        }
+
+        if(Objects.nonNull(partialItem.getLink())) {
+            violations.addAll(EntityValidator.getPropertyConstraintViolations(partialItem, "link"));
+        }
+
+        if(Objects.nonNull(partialItem.getDescription())) {
+            violations.addAll(EntityValidator.getPropertyConstraintViolations(partialItem, "description"));
+        }
+
+        return violations;
+    }
+
+    /**
+     * Build a human readable description of a set of constraint violations.
+     *
+     * @param violations The constraint violations.
+     * @return A description of the constraint violations.
+     * */
+    private static String describeConstraintViolations(final Set<ConstraintViolation<Item>> violations) {
+        return violations.stream()
+                .map(violation -> String.format("%s %s", violation.getPropertyPath(), violation.getMessage()))
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Build the result of a batch item that was rejected.
+     *
+     * @param index The index of the item in the batch.
+     * @param itemId The id of the item, if known.
+     * @param message The reason the item was rejected.
+     * @return The {@link ItemBatchResult}.
+     * */
+    private static ItemBatchResult rejectBatchItem(final int index, final Long itemId, final String message) {
+        return new ItemBatchResult(index, itemId, HttpStatus.BAD_REQUEST.value(), message, null);
+    }
+
+    /**
+     * Build an {@link ItemBatchResponse} from the results of each item in a batch.
+     *
+     * @param results The results of each item in the batch.
+     * @return The {@link ItemBatchResponse}.
+     * */
+    private static ItemBatchResponse buildBatchResponse(final ItemBatchResult[] results) {
+        int succeeded = (int) Arrays.stream(results)
+                .filter(result -> result.getStatus() < HttpStatus.BAD_REQUEST.value())
+                .count();
+
+        return new ItemBatchResponse(succeeded, results.length - succeeded, Arrays.asList(results));
+    }
+
+    /**
+     * Publish an {@link DomainEventType#ITEM_COMPLETED} event if a patch marked an {@link Item} as complete.
+     *
+     * @param partialItem The partial {@link Item} used to patch the item.
+     * @param item The patched {@link Item}, along with its parent.
+     * */
+    private void publishItemCompleted(final Item partialItem, final Item item) {
+        if(Boolean.TRUE.equals(partialItem.getIsComplete())) {
+            domainEventPublisher.publish(DomainEventType.ITEM_COMPLETED, item.getParent().getId(),
+                    Map.of("itemId", item.getId()));
+        }
     }
 
     /**
@@ -341,6 +938,19 @@ public class ItemService {
      * */
     public ItemSummaryResponse adaptItemToItemSummary(final Item item) {
         Long parentId = Objects.nonNull(item.getParent()) ? item.getParent().getId() : null;
+        return adaptItemToItemSummary(item, parentId);
+    }
+
+    /**
+     * Build a {@link ItemSummaryResponse} DTO of an {@link Item}, as seen through a given parent {@link Bucket}.
+     *
+     * Used for items of lightweight clones, which are physically contained by the source bucket.
+     *
+     * @param item The {@link Item} to be used to build a {@link ItemSummaryResponse}.
+     * @param parentId The id of the {@link Bucket} through which the item was retrieved.
+     * @return A summary of the {@link Item}.
+     * */
+    public ItemSummaryResponse adaptItemToItemSummary(final Item item, final Long parentId) {
         return new ItemSummaryResponse(item.getId(),
                 parentId,
                 item.getName(),
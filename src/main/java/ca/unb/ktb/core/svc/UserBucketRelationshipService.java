@@ -3,7 +3,10 @@ package ca.unb.ktb.core.svc;
 import ca.unb.ktb.api.dto.response.UserBucketRelationshipSummaryResponse;
 import ca.unb.ktb.api.exception.client.BadRequestException;
 import ca.unb.ktb.api.exception.client.UnauthorizedException;
+import ca.unb.ktb.application.dao.BucketJdbcDAO;
 import ca.unb.ktb.application.dao.UserBucketRelationshipDAO;
+import ca.unb.ktb.core.event.DomainEventPublisher;
+import ca.unb.ktb.core.event.DomainEventType;
 import ca.unb.ktb.core.model.Bucket;
 import ca.unb.ktb.core.model.User;
 import ca.unb.ktb.core.model.UserBucketRelationship;
@@ -14,8 +17,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -25,10 +30,14 @@ public class UserBucketRelationshipService {
 
     @Autowired private UserBucketRelationshipDAO userBucketRelationshipDAO;
 
+    @Autowired private BucketJdbcDAO bucketJdbcDAO;
+
     @Autowired private UserService userService;
 
     @Autowired private BucketService bucketService;
 
+    @Autowired private DomainEventPublisher domainEventPublisher;
+
     /**
      * Create a {@link User}-{@link Bucket} relationship. Once persisted, the user will be following the bucket.
      *
@@ -40,6 +49,7 @@ public class UserBucketRelationshipService {
      * @see UserService#findUserById(Long)
      * @see BucketService#findBucketById(Long)
      * */
+    @Transactional
     public UserBucketRelationship createUserBucketRelationship(final Long bucketId) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         User follower = userService.findUserById(currentUser.getId());
@@ -51,7 +61,11 @@ public class UserBucketRelationshipService {
 
         LOG.info("Creating new user-bucket relationship between user {} and bucket {}", follower.getId(), following.getId());
 
-        return saveUserBucketRelationship(new UserBucketRelationship(follower, following));
+        UserBucketRelationship relationship = saveUserBucketRelationship(new UserBucketRelationship(follower, following));
+        domainEventPublisher.publish(DomainEventType.BUCKET_FOLLOWED, follower.getId(),
+                Map.of("bucketId", following.getId()));
+
+        return relationship;
     }
 
     /**
@@ -62,6 +76,7 @@ public class UserBucketRelationshipService {
      * @see UserService#findUserById(Long)
      * @see UserBucketRelationshipDAO#findAllByFollower(User)
      * */
+    @Transactional(readOnly = true)
     public List<Bucket> findBucketsFollowedByUser(final Long userId) {
         User follower = userService.findUserById(userId);
 
@@ -77,6 +92,7 @@ public class UserBucketRelationshipService {
      * @return A list of {@link User}s that are following the {@link Bucket}.
      * @see UserBucketRelationshipDAO#findAllByFollowing(Bucket)
      * */
+    @Transactional(readOnly = true)
     public List<User> findAllUsersFollowingBucket(final Bucket bucket) {
         return userBucketRelationshipDAO.findAllByFollowing(bucket).stream()
                 .map(UserBucketRelationship::getFollower)
@@ -92,6 +108,7 @@ public class UserBucketRelationshipService {
      * between users followed by the gievn user.
      * @see UserBucketRelationshipDAO#retrieveBucketsFollowedByFollowedUsers(Long, Pageable)
      * */
+    @Transactional(readOnly = true)
     public List<UserBucketRelationship> findBucketsRecentlyFollowedByFollowedUsers(final Long userId, final Pageable pageable) {
         return userBucketRelationshipDAO.retrieveBucketsFollowedByFollowedUsers(userId, pageable);
     }
@@ -104,6 +121,7 @@ public class UserBucketRelationshipService {
      * @return A list of {@link UserBucketRelationship}s between a {@link User} and {@link Bucket}s they recently created.
      * @see UserBucketRelationshipDAO#retrieveBucketsFollowedByUser(Long, Pageable)
      * */
+    @Transactional(readOnly = true)
     public List<UserBucketRelationship> findBucketsRecentlyFollowedByUser(final Long userId, final Pageable pageable) {
         return userBucketRelationshipDAO.retrieveBucketsFollowedByUser(userId, pageable);
     }
@@ -116,6 +134,7 @@ public class UserBucketRelationshipService {
      * @see BucketService#findBucketById(Long)
      * @see UserBucketRelationshipDAO#findByFollowerAndFollowing(User, Bucket)
      * */
+    @Transactional
     public void deleteUserBucketRelationship(final Long bucketId) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         User follower = userService.findUserById(currentUser.getId());
@@ -127,6 +146,8 @@ public class UserBucketRelationshipService {
                 new BadRequestException("Unable to find a relationship with the given information."));
 
         userBucketRelationshipDAO.delete(relationship);
+        domainEventPublisher.publish(DomainEventType.BUCKET_UNFOLLOWED, follower.getId(),
+                Map.of("bucketId", following.getId()));
     }
 
     /**
@@ -135,7 +156,7 @@ public class UserBucketRelationshipService {
      *
      * @param bucket The {@link Bucket} for which relationships will be removed.
      * @throws UnauthorizedException If the principal user is not the owner of the {@link Bucket}.
-     * @see UserBucketRelationshipDAO#findAllByFollowing(Bucket)
+     * @see BucketJdbcDAO#deleteRelationshipsByFollowingId(Long)
      * */
     public void deleteUserBucketRelationships(final Bucket bucket) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
@@ -145,8 +166,7 @@ public class UserBucketRelationshipService {
 
         LOG.info("User {} deleting all user-bucket relationships with bucket {}", currentUser.getId(), bucket.getId());
 
-        List<UserBucketRelationship> relationships = userBucketRelationshipDAO.findAllByFollowing(bucket);
-        userBucketRelationshipDAO.deleteAll(relationships);
+        bucketJdbcDAO.deleteRelationshipsByFollowingId(bucket.getId());
     }
 
     /**
@@ -9,41 +9,61 @@ import ca.unb.ktb.api.exception.client.UnauthorizedException;
 import ca.unb.ktb.api.exception.server.InternalServerErrorException;
 import ca.unb.ktb.application.dao.PhysicalAddressDAO;
 import ca.unb.ktb.application.dao.UserDAO;
+import ca.unb.ktb.application.dao.UserJdbcDAO;
 import ca.unb.ktb.application.dao.UserRelationshipDAO;
-import ca.unb.ktb.core.model.Bucket;
+import ca.unb.ktb.core.event.DomainEventPublisher;
+import ca.unb.ktb.core.event.DomainEventType;
 import ca.unb.ktb.core.model.PhysicalAddress;
 import ca.unb.ktb.core.model.User;
 import ca.unb.ktb.core.model.UserRelationship;
 import ca.unb.ktb.core.model.validation.EntityValidator;
 import ca.unb.ktb.infrastructure.AmazonS3Bucket;
 import ca.unb.ktb.infrastructure.AmazonS3BucketConfiguration;
+import ca.unb.ktb.infrastructure.cache.CacheInvalidationPublisher;
+import ca.unb.ktb.infrastructure.cache.CacheRegion;
+import ca.unb.ktb.infrastructure.security.TokenVersionTable;
+import ca.unb.ktb.infrastructure.security.UserIdentityIndex;
 import ca.unb.ktb.infrastructure.security.UserPrincipal;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.lang.Nullable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.validation.ConstraintViolation;
 import java.io.IOException;
 import java.net.URL;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class UserService {
 
+    /* half of the lifetime of a pre-signed profile picture URL */
+    private static final long PROFILE_URL_WINDOW = 15 * 60 * 1000;
+
     @Autowired private UserDAO userDAO;
 
+    @Autowired private UserJdbcDAO userJdbcDAO;
+
     @Autowired private PhysicalAddressDAO physicalAddressDAO;
 
     @Autowired private UserRelationshipDAO userRelationshipDAO;
@@ -56,6 +76,16 @@ public class UserService {
 
     @Autowired private PasswordEncoder passwordEncoder;
 
+    @Autowired private TokenVersionTable tokenVersionTable;
+
+    @Autowired private UserIdentityIndex userIdentityIndex;
+
+    @Autowired private DomainEventPublisher domainEventPublisher;
+
+    @Autowired private CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    @Value("${batch-get.max-size:100}") private int maxBatchGetSize;
+
     /**
      * Create a new {@link User}.
      *
@@ -63,12 +93,16 @@ public class UserService {
      * @return The {@link User}, once persisted in the database.
      * @see UserService#saveUser(User)
      * */
+    @Transactional
     public User createUser(final User user) {
         user.setId(null);
 
         LOG.info("Creating new user {}", user.getUsername());
 
-        return saveUser(user);
+        User persistentUser = saveUser(user);
+        domainEventPublisher.publish(DomainEventType.USER_CREATED, persistentUser.getId(), Map.of());
+
+        return persistentUser;
     }
 
     /**
@@ -81,6 +115,7 @@ public class UserService {
      * @see UserService#findPrincipalUser(Long)
      * @see UserService#findUserById(Long)
      * */
+    @Transactional
     public UserRelationship createUserRelationship(final Long userId) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         User follower = findPrincipalUser(currentUser.getId());
@@ -88,12 +123,16 @@ public class UserService {
 
         LOG.info("User {} following user {}", currentUser.getId(), following.getId());
 
-        return userRelationshipDAO.save(new UserRelationship(follower, following));
+        UserRelationship relationship = userRelationshipDAO.save(new UserRelationship(follower, following));
+        domainEventPublisher.publish(DomainEventType.USER_FOLLOWED, follower.getId(),
+                Map.of("followingId", following.getId()));
+
+        return relationship;
     }
 
     /**
-     * Retrieve a list of {@link User}s that match any of the given id, username or email address, first, middle or
-     * last name. Null parameters are ignored.
+     * Retrieve a page of {@link User}s that match any of the given id, username or email address, first, middle or
+     * last name, in order of id. Null parameters are ignored. Users that have been deleted are not retrieved.
      *
      * @param userId The id of the {@link User} to use in the query.
      * @param username An optional username to use in the query.
@@ -101,23 +140,54 @@ public class UserService {
      * @param firstName An optional first name to use in the query.
      * @param middleName An optional middle name to use in the query.
      * @param lastName An optional last name to use in the query.
-     * @return A list of {@link User}s matching any of the parameters..
+     * @param after The id of the last user of the previous page, or null to retrieve the first page.
+     * @param limit The maximum number of users to retrieve.
+     * @return A list of {@link User}s matching any of the parameters.
+     * @see UserJdbcDAO#findUsers(User, Long, Integer, Consumer)
      * */
+    @Transactional(readOnly = true)
     public List<User> findUsers(@Nullable final Long userId,
                                 @Nullable final String username,
                                 @Nullable final String email,
                                 @Nullable final String firstName,
                                 @Nullable final String middleName,
-                                @Nullable final String lastName) {
-        User queryUser = new User();
-        queryUser.setId(userId);
-        queryUser.setUsername(username);
-        queryUser.setEmail(email);
-        queryUser.setFirstName(firstName);
-        queryUser.setMiddleName(middleName);
-        queryUser.setLastName(lastName);
+                                @Nullable final String lastName,
+                                @Nullable final Long after,
+                                final int limit) {
+        User queryUser = buildQueryUser(userId, username, email, firstName, middleName, lastName);
+
+        List<User> users = new ArrayList<>(limit);
+        userJdbcDAO.findUsers(queryUser, after, limit, users::add);
+
+        return users;
+    }
 
-        return userDAO.findAll(Example.of(queryUser, ExampleMatcher.matchingAny()));
+    /**
+     * Pass all {@link User}s that match any of the given id, username or email address, first, middle or last name to
+     * a consumer as they are read from the database, in order of id. Null parameters are ignored. Users that have been
+     * deleted are not retrieved.
+     *
+     * @param userId The id of the {@link User} to use in the query.
+     * @param username An optional username to use in the query.
+     * @param email An optional email to use in the query.
+     * @param firstName An optional first name to use in the query.
+     * @param middleName An optional middle name to use in the query.
+     * @param lastName An optional last name to use in the query.
+     * @param after Only users with an id greater than this id are read, or all users if null.
+     * @param consumer Consumes each {@link User} matching any of the parameters.
+     * @see UserJdbcDAO#findUsers(User, Long, Integer, Consumer)
+     * */
+    @Transactional(readOnly = true)
+    public void streamUsers(@Nullable final Long userId,
+                            @Nullable final String username,
+                            @Nullable final String email,
+                            @Nullable final String firstName,
+                            @Nullable final String middleName,
+                            @Nullable final String lastName,
+                            @Nullable final Long after,
+                            final Consumer<User> consumer) {
+        User queryUser = buildQueryUser(userId, username, email, firstName, middleName, lastName);
+        userJdbcDAO.findUsers(queryUser, after, null, consumer);
     }
 
     /**
@@ -127,6 +197,7 @@ public class UserService {
      * @return a list of {@link User}s whose username or real name fully or partially matches the query string.
      * @see UserDAO#findAllByUsernameOrRealNameLike(String)
      * */
+    @Transactional(readOnly = true)
     public List<User> findUsersByUsernameOrRealName(final String queryString) {
         return userDAO.findAllByUsernameOrRealNameLike(queryString);
     }
@@ -134,43 +205,102 @@ public class UserService {
     /**
      * Retrieve a specific {@link User} by id.
      *
+     * Users that have been deleted, but not yet purged, cannot be retrieved.
+     *
      * @param userId The id of the {@link User}.
      * @return The {@link User} with the given id.
      * @throws BadRequestException If a {@link User} with the given id cannot be found.
      * */
+    @Transactional(readOnly = true)
     public User findUserById(final Long userId) {
-        return userDAO.findById(userId).orElseThrow(() ->
+        return userDAO.findById(userId).filter(user -> !user.isDeleted()).orElseThrow(() ->
                 new BadRequestException("Unable to find user with id " + userId));
     }
 
     /**
-     * Retrieve a list of {@link User}s that are following a given user.
+     * Retrieve the {@link User}s with the given ids, in a single query.
      *
-     * @param userId The id of the {@link User} to use in the query.
-     * @return A list of {@link User}s that are following a given user.
+     * Users that do not exist or have been deleted are omitted. Duplicate ids are ignored.
+     *
+     * @param userIds The ids of the {@link User}s.
+     * @return The {@link User}s with the given ids, in the order of the given ids.
+     * @throws BadRequestException If no ids are given, or more than {@code batch-get.max-size} ids are given.
+     * @see UserDAO#findAllActiveByIdIn(java.util.Collection)
      * */
-    public List<User> findFollowers(final Long userId) {
-        UserRelationship relationship = new UserRelationship(null, new User(userId));
-        List<UserRelationship> relationships = userRelationshipDAO.findAll(Example.of(relationship));
+    @Transactional(readOnly = true)
+    public List<User> findUsersById(final List<Long> userIds) {
+        validateBatchGetSize(userIds);
 
-        return relationships.stream()
-                .map(UserRelationship::getFollower)
+        Map<Long, User> users = userDAO.findAllActiveByIdIn(new HashSet<>(userIds)).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        return userIds.stream()
+                .distinct()
+                .map(users::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Retrieve a list of {@link User}s that are followed by a given user.
+     * Retrieve a page of {@link User}s that are following a given user, in order of id.
      *
      * @param userId The id of the {@link User} being followed.
+     * @param after The id of the last user of the previous page, or null to retrieve the first page.
+     * @param limit The maximum number of users to retrieve.
+     * @return A list of {@link User}s that are following a given user.
+     * @see UserJdbcDAO#findFollowers(Long, Long, Integer, Consumer)
+     * */
+    @Transactional(readOnly = true)
+    public List<User> findFollowers(final Long userId, @Nullable final Long after, final int limit) {
+        List<User> followers = new ArrayList<>(limit);
+        userJdbcDAO.findFollowers(userId, after, limit, followers::add);
+
+        return followers;
+    }
+
+    /**
+     * Pass all {@link User}s that are following a given user to a consumer as they are read from the database, in
+     * order of id.
+     *
+     * @param userId The id of the {@link User} being followed.
+     * @param after Only users with an id greater than this id are read, or all users if null.
+     * @param consumer Consumes each {@link User} that is following the given user.
+     * @see UserJdbcDAO#findFollowers(Long, Long, Integer, Consumer)
+     * */
+    @Transactional(readOnly = true)
+    public void streamFollowers(final Long userId, @Nullable final Long after, final Consumer<User> consumer) {
+        userJdbcDAO.findFollowers(userId, after, null, consumer);
+    }
+
+    /**
+     * Retrieve a page of {@link User}s that are followed by a given user, in order of id.
+     *
+     * @param userId The id of the {@link User} following the users.
+     * @param after The id of the last user of the previous page, or null to retrieve the first page.
+     * @param limit The maximum number of users to retrieve.
      * @return A list of {@link User}s that are followed by a given user.
+     * @see UserJdbcDAO#findFollowing(Long, Long, Integer, Consumer)
      * */
-    public List<User> findFollowing(final Long userId) {
-        UserRelationship relationship = new UserRelationship(new User(userId), null);
-        List<UserRelationship> relationships = userRelationshipDAO.findAll(Example.of(relationship));
+    @Transactional(readOnly = true)
+    public List<User> findFollowing(final Long userId, @Nullable final Long after, final int limit) {
+        List<User> following = new ArrayList<>(limit);
+        userJdbcDAO.findFollowing(userId, after, limit, following::add);
 
-        return relationships.stream()
-                .map(UserRelationship::getFollowing)
-                .collect(Collectors.toList());
+        return following;
+    }
+
+    /**
+     * Pass all {@link User}s that are followed by a given user to a consumer as they are read from the database, in
+     * order of id.
+     *
+     * @param userId The id of the {@link User} following the users.
+     * @param after Only users with an id greater than this id are read, or all users if null.
+     * @param consumer Consumes each {@link User} followed by the given user.
+     * @see UserJdbcDAO#findFollowing(Long, Long, Integer, Consumer)
+     * */
+    @Transactional(readOnly = true)
+    public void streamFollowing(final Long userId, @Nullable final Long after, final Consumer<User> consumer) {
+        userJdbcDAO.findFollowing(userId, after, null, consumer);
     }
 
     /**
@@ -180,6 +310,7 @@ public class UserService {
      * @return A list of {@link UserRelationship} between followers of a given {@link User} and other users.
      * @see UserRelationshipDAO#retrieveUsersFollowedByFollowedUsers(Long, Pageable)
      * */
+    @Transactional(readOnly = true)
     public List<UserRelationship> findUsersRecentlyFollowedByFollowedUsers(final Long userId, final Pageable pageable) {
         return userRelationshipDAO.retrieveUsersFollowedByFollowedUsers(userId, pageable);
     }
@@ -191,6 +322,7 @@ public class UserService {
      * @return A list of {@link UserRelationship} between a given {@link User} and other users.
      * @see UserRelationshipDAO#retrieveUsersFollowedByUser(Long, Pageable)
      * */
+    @Transactional(readOnly = true)
     public List<UserRelationship> findUsersRecentlyFollowedByUser(final Long userId, final Pageable pageable) {
         return userRelationshipDAO.retrieveUsersFollowedByUser(userId, pageable);
     }
@@ -200,14 +332,59 @@ public class UserService {
      *
      * Applies only non-null fields present in the partialUser to the principal user.
      *
-     * User role is ignored. If the password field is non-null, it is encrypted before updating the persisted user.
+     * User role is ignored. If the password field is non-null, it is encrypted before updating the persisted user, and
+     * the tokens previously issued to the user are revoked.
+     *
+     * Unless the partial user contains an address, the user is written with a single targeted UPDATE statement,
+     * without reading the user first.
      *
      * @param partialUser A partial {@link User}.
      * @return The persisted {@link User}.
-     * @see UserService#findPrincipalUser(Long)
+     * @throws BadRequestException If the partial user does not meet validation constraints, or the principal user
+     * cannot be found.
+     * @see UserJdbcDAO#patchUser(Long, User)
      * */
+    @Transactional
     public User patchUser(final User partialUser) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+        if(!getPartialUserConstraintViolations(partialUser).isEmpty()) {
+            throw new BadRequestException("user does not meet validation constraints");
+        }
+
+        if(Objects.nonNull(partialUser.getUserAddress())) {
+            return patchUserAndAddress(partialUser);
+        }
+
+        LOG.info("User {} patching their user details", currentUser.getId());
+
+        if(Objects.nonNull(partialUser.getPassword())) {
+            partialUser.setPassword(passwordEncoder.encode(partialUser.getPassword()));
+        }
+
+        User user = userJdbcDAO.patchUser(currentUser.getId(), partialUser).orElseThrow(() ->
+                new BadRequestException("Unable to find user with id " + currentUser.getId()));
+
+        userIdentityIndex.add(partialUser.getUsername(), partialUser.getEmail());
+        cacheInvalidationPublisher.invalidate(CacheRegion.USER, user.getId());
+
+        if(Objects.nonNull(partialUser.getPassword())) {
+            tokenVersionTable.revoke(user.getId(), user.getTokenVersion());
+        }
+
+        return user;
+    }
+
+    /**
+     * Patch the fields in the principal {@link User}, along with the fields in the {@link PhysicalAddress} of the user.
+     * If the user does not yet have an address, a new address is created.
+     *
+     * @param partialUser A partial {@link User}, with a partial {@link PhysicalAddress}.
+     * @return The persisted {@link User}.
+     * @see UserService#findPrincipalUser(Long)
+     * */
+    private User patchUserAndAddress(final User partialUser) {
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         User persistentUser = findPrincipalUser(currentUser.getId());
 
         LOG.info("User {} patching their user details", currentUser.getId());
@@ -238,6 +415,8 @@ public class UserService {
 
         if(Objects.nonNull(partialUser.getPassword())) {
             persistentUser.setPassword(passwordEncoder.encode(partialUser.getPassword()));
+            persistentUser.setTokenVersion(persistentUser.getTokenVersion() + 1);
+            tokenVersionTable.revoke(persistentUser.getId(), persistentUser.getTokenVersion());
         }
 
         if(Objects.nonNull(partialUser.getUserAddress())) {
@@ -276,13 +455,94 @@ public class UserService {
             physicalAddressDAO.save(persistentUserAddress);
         }
 
-        return userDAO.save(persistentUser);
+        User user = userDAO.save(persistentUser);
+        userIdentityIndex.add(user.getUsername(), user.getEmail());
+        invalidateCachedUser(user);
+
+        return user;
+    }
+
+    /**
+     * Build a {@link User} holding the fields used to query users.
+     * */
+    private static User buildQueryUser(@Nullable final Long userId,
+                                       @Nullable final String username,
+                                       @Nullable final String email,
+                                       @Nullable final String firstName,
+                                       @Nullable final String middleName,
+                                       @Nullable final String lastName) {
+        User queryUser = new User();
+        queryUser.setId(userId);
+        queryUser.setUsername(username);
+        queryUser.setEmail(email);
+        queryUser.setFirstName(firstName);
+        queryUser.setMiddleName(middleName);
+        queryUser.setLastName(lastName);
+
+        return queryUser;
+    }
+
+    /**
+     * Ensure a list of ids to retrieve in a single request is not empty, and not larger than the maximum batch size.
+     *
+     * @param ids The ids.
+     * @throws BadRequestException If the list of ids is empty, or larger than the maximum batch size.
+     * */
+    private void validateBatchGetSize(final List<Long> ids) {
+        if(Objects.isNull(ids) || ids.isEmpty()) {
+            throw new BadRequestException("at least one user id must be specified");
+        }
+
+        if(ids.size() > maxBatchGetSize) {
+            throw new BadRequestException(String.format("cannot retrieve more than %d users at once", maxBatchGetSize));
+        }
+    }
+
+    /**
+     * Get the validation constraint violations of a partial {@link User}. Only non-null fields are validated, and the
+     * user address is ignored.
+     *
+     * @param partialUser The partial {@link User}.
+     * @return The set of constraint violations for the non-null fields of the partial user.
+     * */
+    private static Set<ConstraintViolation<User>> getPartialUserConstraintViolations(final User partialUser) {
+        Set<ConstraintViolation<User>> violations = new HashSet<>();
+        if(Objects.nonNull(partialUser.getEmail())) {
+            violations.addAll(EntityValidator.getPropertyConstraintViolations(partialUser, "email"));
+        }
+
+        if(Objects.nonNull(partialUser.getUsername())) {
+            violations.addAll(EntityValidator.getPropertyConstraintViolations(partialUser, "username"));
+        }
+
+        if(Objects.nonNull(partialUser.getFirstName())) {
+            violations.addAll(EntityValidator.getPropertyConstraintViolations(partialUser, "firstName"));
+        }
+
+        if(Objects.nonNull(partialUser.getMiddleName())) {
+            violations.addAll(EntityValidator.getPropertyConstraintViolations(partialUser, "middleName"));
+        }
+
+        if(Objects.nonNull(partialUser.getLastName())) {
+            violations.addAll(EntityValidator.getPropertyConstraintViolations(partialUser, "lastName"));
+        }
+
+        if(Objects.nonNull(partialUser.getBio())) {
+            violations.addAll(EntityValidator.getPropertyConstraintViolations(partialUser, "bio"));
+        }
+
+        if(Objects.nonNull(partialUser.getPassword())) {
+            violations.addAll(EntityValidator.getPropertyConstraintViolations(partialUser, "password"));
+        }
+
+        return violations;
     }
 
     /**
      * Completely overwrite fields in the principal {@link User}.
      *
-     * The password field is encrypted before updating the persisted user.
+     * The password field is encrypted before updating the persisted user, and the tokens previously issued to the
+     * user are revoked.
      *
      * @param partialUser A {@link User}.
      * @return The persisted {@link User}.
@@ -295,7 +555,11 @@ public class UserService {
 
         LOG.info("User {} updating their user details", currentUser.getId());
 
-        return saveUser(partialUser);
+        partialUser.setTokenVersion(user.getTokenVersion() + 1);
+        User persistentUser = saveUser(partialUser);
+        tokenVersionTable.revoke(persistentUser.getId(), persistentUser.getTokenVersion());
+
+        return persistentUser;
     }
 
 
@@ -342,32 +606,34 @@ public class UserService {
             throw new InternalServerErrorException("Could not compute MD5 checksum of uploaded file.", e);
         }
 
-        return userDAO.save(persistentUser);
+        User user = userDAO.save(persistentUser);
+        cacheInvalidationPublisher.invalidate(CacheRegion.USER, user.getId());
+
+        return user;
     }
 
     /**
-     * Delete principal {@link User}, along with its user relationships.
+     * Delete the principal {@link User}.
+     *
+     * The user is soft-deleted; the deletion takes effect immediately, such that the user can no longer authenticate or
+     * be retrieved, but the user's buckets, items, relationships, address and profile picture are removed later in
+     * bounded batches by the {@link AccountPurgeService}.
      *
-     * @see BucketService#findBucketsByOwner(Long)
+     * @see AccountPurgeService#purgeDeletedAccounts()
      * */
+    @Transactional
     public void deleteUser() {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         User persistentUser = findPrincipalUser(currentUser.getId());
 
         LOG.info("User {} deleting their user account", currentUser.getId());
 
-        List<Bucket> buckets = bucketService.findBucketsByOwner(currentUser.getId());
-        LOG.debug("User {} deleting {} buckets", buckets.size());
-
-        for(Bucket bucket : buckets) {
-            bucketService.deleteBucket(bucket);
-        }
-
-        List<UserRelationship> relationships = userRelationshipDAO.findByFollower(persistentUser);
-        LOG.debug("User {} deleting {} user relationships", relationships.size());
-
-        userRelationshipDAO.deleteAll(relationships);
-        userDAO.delete(persistentUser);
+        persistentUser.setDeletedAt(new Date());
+        persistentUser.setTokenVersion(persistentUser.getTokenVersion() + 1);
+        userDAO.save(persistentUser);
+        tokenVersionTable.revoke(persistentUser.getId(), persistentUser.getTokenVersion());
+        cacheInvalidationPublisher.invalidate(CacheRegion.USER, persistentUser.getId());
+        domainEventPublisher.publish(DomainEventType.USER_DELETED, persistentUser.getId(), Map.of());
     }
 
     /**
@@ -375,6 +641,7 @@ public class UserService {
      *
      * @param subjectId The user being followed.
      * */
+    @Transactional
     public void deleteUserRelationship(final Long subjectId) {
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         User persistentUser = findPrincipalUser(currentUser.getId());
@@ -387,13 +654,16 @@ public class UserService {
                 new BadRequestException("Unable to find relationship"));
 
         userRelationshipDAO.delete(relationship);
+        domainEventPublisher.publish(DomainEventType.USER_UNFOLLOWED, persistentUser.getId(),
+                Map.of("followingId", subject.getId()));
     }
 
     /**
      * Save a {@link User}.
      *
      * Encrypts the user's password, sets the user's role to ROLE_USER, performs validation, and saves the user to the
-     * database. The user's {@link PhysicalAddress} is also saved.
+     * database. The user's {@link PhysicalAddress} is also saved, the user's identities are added to the
+     * {@link UserIdentityIndex}, and the user is invalidated in the caches of the other instances.
      *
      * @param user The {@link User} to save.
      * @return The persisted {@link User}.
@@ -407,7 +677,25 @@ public class UserService {
                 new BadRequestException("cannot save user that does not meet validation constraints"));
 
         physicalAddressDAO.save(user.getUserAddress());
-        return userDAO.save(user);
+        User persistentUser = userDAO.save(user);
+        userIdentityIndex.add(persistentUser.getUsername(), persistentUser.getEmail());
+        invalidateCachedUser(persistentUser);
+
+        return persistentUser;
+    }
+
+    /**
+     * Invalidate a {@link User} and their {@link PhysicalAddress} in the second-level caches of the other instances.
+     * New users are also invalidated, since the other instances may have cached the result of a lookup by username or
+     * email address that did not find them.
+     *
+     * @param user The persisted {@link User}.
+     * */
+    private void invalidateCachedUser(final User user) {
+        cacheInvalidationPublisher.invalidate(CacheRegion.USER, user.getId());
+        if(Objects.nonNull(user.getUserAddress())) {
+            cacheInvalidationPublisher.invalidate(CacheRegion.PHYSICAL_ADDRESS, user.getUserAddress().getId());
+        }
     }
 
     /**
@@ -488,6 +776,7 @@ public class UserService {
      * @throws BadRequestException If the {@link User} cannot be found with the specific id.
      * @see UserService#findUserById(Long)
      * */
+    @Transactional(readOnly = true)
     public UserProfileSummaryResponse constructProfileSummary(final Long userId) {
         User user = findUserById(userId);
         int bucketCount = bucketService.getBucketCount(userId).intValue();
@@ -495,6 +784,30 @@ public class UserService {
                 userRelationshipDAO.findFollowingCount(user), bucketCount, user.getCreatedAt());
     }
 
+    /**
+     * Retrieve the version of the profile of a {@link User}, as seen by the principal user.
+     *
+     * The version changes whenever the user is updated, or their follower, following or bucket counts change, and can
+     * be retrieved without loading the user. Since the profile contains a pre-signed profile picture URL that expires,
+     * the version also changes every {@code PROFILE_URL_WINDOW} milliseconds, so that a client never holds on to an
+     * expired URL.
+     *
+     * @param userId The id of the {@link User}.
+     * @return The version of the profile of the user.
+     * @throws BadRequestException If the {@link User} cannot be found with the specific id.
+     * @see UserJdbcDAO#findProfileVersion(Long, boolean)
+     * */
+    @Transactional(readOnly = true)
+    public String findProfileVersion(final Long userId) {
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        boolean includePrivateBuckets = Objects.equals(userId, currentUser.getId());
+
+        String version = userJdbcDAO.findProfileVersion(userId, includePrivateBuckets).orElseThrow(() ->
+                new BadRequestException("Unable to find user with id " + userId));
+
+        return version + "/" + includePrivateBuckets + "/" + System.currentTimeMillis() / PROFILE_URL_WINDOW;
+    }
+
     /**
      * Get the principal user, and throw an {@link UnauthorizedException} if the {@link User} does not match the given id.
      *
@@ -0,0 +1,69 @@
+package ca.unb.ktb.infrastructure;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint exposing the statistics of each Hibernate second-level cache region, at
+ * {@code /actuator/cacheregions}.
+ *
+ * Statistics are only gathered when {@code spring.jpa.properties.hibernate.generate_statistics} is enabled.
+ * */
+@Component
+@Endpoint(id = "cacheregions")
+public class CacheRegionStatisticsEndpoint {
+
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Retrieve the statistics of all second-level cache regions.
+     *
+     * @return The statistics of each cache region, keyed by region name.
+     * */
+    @ReadOperation
+    public Map<String, RegionStatistics> cacheRegions() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, RegionStatistics> regions = new TreeMap<>();
+        for(String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(regionName);
+            if(Objects.nonNull(regionStatistics)) {
+                regions.put(regionName, new RegionStatistics(regionStatistics.getHitCount(),
+                        regionStatistics.getMissCount(), regionStatistics.getPutCount(),
+                        regionStatistics.getElementCountInMemory()));
+            }
+        }
+
+        return regions;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RegionStatistics {
+
+        private final long hitCount;
+
+        private final long missCount;
+
+        private final long putCount;
+
+        private final long elementCountInMemory;
+
+        public double getHitRatio() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 0 : (double) hitCount / requests;
+        }
+    }
+}
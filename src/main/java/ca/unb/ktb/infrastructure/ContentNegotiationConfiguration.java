@@ -0,0 +1,49 @@
+package ca.unb.ktb.infrastructure;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Configuration of binary response encodings.
+ *
+ * Clients that send {@code Accept: application/cbor} receive responses encoded as CBOR (RFC 7049), which is smaller
+ * than uncompressed JSON. Once compressed, JSON is about as small as CBOR. CBOR is self-describing, so the response DTOs are encoded as they are for JSON.
+ * Properties are written in alphabetical order, so that the encoding of a DTO does not depend on the order in which
+ * its fields are declared. Clients that accept any media type continue to receive JSON.
+ * */
+@Configuration
+public class ContentNegotiationConfiguration {
+
+    /**
+     * Replaces the default CBOR message converter with one that shares the application Jackson configuration.
+     *
+     * @param builder The application {@link Jackson2ObjectMapperBuilder}.
+     * @return The CBOR message converter.
+     * */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(final Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(buildCborObjectMapper(builder));
+    }
+
+    /**
+     * Build an {@link ObjectMapper} that encodes CBOR, with properties written in alphabetical order.
+     *
+     * The application builder is a singleton shared with the JSON {@link ObjectMapper}, so it is only used to configure
+     * the new mapper, and is left unmodified.
+     *
+     * @param builder The builder from which the mapper is configured.
+     * @return The CBOR object mapper.
+     * */
+    static ObjectMapper buildCborObjectMapper(final Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper mapper = new ObjectMapper(new CBORFactory());
+        builder.configure(mapper);
+        mapper.enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY);
+
+        return mapper;
+    }
+}
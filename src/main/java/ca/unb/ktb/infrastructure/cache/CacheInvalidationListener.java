@@ -0,0 +1,268 @@
+package ca.unb.ktb.infrastructure.cache;
+
+import ca.unb.ktb.infrastructure.security.UserIdentityIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Apply the invalidations published by the {@link CacheInvalidationPublisher} of the other instances to the
+ * second-level cache of this instance. The identities of invalidated users are added to the {@link UserIdentityIndex},
+ * since users are invalidated whenever they are created or change their identities.
+ *
+ * Invalidations are received on a dedicated connection to the primary database, opened outside of the connection pool
+ * so that it is never handed to a transaction, and polled every {@code cache-invalidation.poll-timeout} milliseconds.
+ * While idle, the connection is checked every {@code cache-invalidation.keepalive-interval} milliseconds. If the
+ * connection is lost, it is opened again after a delay that doubles with each failed attempt, starting at
+ * {@code cache-invalidation.reconnect-delay} and up to {@code cache-invalidation.max-reconnect-delay} milliseconds.
+ *
+ * Messages published while this instance is not listening are lost, so the whole cache is flushed every time the
+ * connection is (re)opened. The whole cache is also flushed when a message from another instance is missing, which is
+ * detected by a gap in the sequence numbers of its messages, and when a message cannot be decoded. In each case, the
+ * {@link UserIdentityIndex} is rebuilt as well.
+ * */
+@Component
+@Slf4j
+public class CacheInvalidationListener {
+
+    private static final String LISTEN = "LISTEN " + CacheInvalidationPublisher.CHANNEL;
+
+    private static final String KEEPALIVE = "SELECT 1";
+
+    /**
+     * The sequence number of the last message received from each instance, only accessed by the listener thread.
+     * */
+    private final Map<String, Long> sequences = new HashMap<>();
+
+    @Autowired private CacheInvalidationPublisher cacheInvalidationPublisher;
+
+    @Autowired private UserIdentityIndex userIdentityIndex;
+
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @Autowired private DataSourceProperties dataSourceProperties;
+
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Value("${cache-invalidation.enabled:true}") private boolean enabled;
+
+    @Value("${cache-invalidation.poll-timeout:500}") private int pollTimeout;
+
+    @Value("${cache-invalidation.keepalive-interval:10000}") private long keepaliveInterval;
+
+    @Value("${cache-invalidation.reconnect-delay:1000}") private long reconnectDelay;
+
+    @Value("${cache-invalidation.max-reconnect-delay:30000}") private long maxReconnectDelay;
+
+    private volatile boolean running;
+
+    private Thread thread;
+
+    /**
+     * Start listening for invalidations.
+     * */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if(!enabled) {
+            return;
+        }
+
+        running = true;
+        thread = new Thread(this::listen, "cache-invalidation-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop listening for invalidations.
+     * */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if(Objects.nonNull(thread)) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Listen for invalidations until stopped, reconnecting whenever the connection is lost.
+     * */
+    private void listen() {
+        long delay = reconnectDelay;
+        while(running) {
+            try(Connection connection = connect(); Statement statement = connection.createStatement()) {
+                statement.execute(LISTEN);
+                sequences.clear();
+                flush("connected");
+                userIdentityIndex.rebuild();
+                delay = reconnectDelay;
+
+                LOG.info("Listening for cache invalidations on channel {}", CacheInvalidationPublisher.CHANNEL);
+                receive(connection.unwrap(PGConnection.class), statement);
+            } catch(SQLException e) {
+                if(!running) {
+                    return;
+                }
+
+                LOG.warn("Cache invalidation listener disconnected; reconnecting in {}ms. {}", delay, e.getMessage());
+            }
+
+            try {
+                Thread.sleep(delay);
+            } catch(InterruptedException e) {
+                return;
+            }
+
+            delay = Math.min(delay * 2, maxReconnectDelay);
+        }
+    }
+
+    /**
+     * Receive and apply invalidations until stopped, or until the connection is lost.
+     *
+     * @param connection The listening connection.
+     * @param statement A statement of the listening connection, used to check the connection while idle.
+     * @throws SQLException If the connection is lost.
+     * */
+    private void receive(final PGConnection connection, final Statement statement) throws SQLException {
+        long lastActivity = System.currentTimeMillis();
+        while(running) {
+            PGNotification[] notifications = connection.getNotifications(pollTimeout);
+            long now = System.currentTimeMillis();
+            if(Objects.isNull(notifications) || notifications.length == 0) {
+                if(now - lastActivity >= keepaliveInterval) {
+                    statement.execute(KEEPALIVE);
+                    lastActivity = now;
+                }
+
+                continue;
+            }
+
+            lastActivity = now;
+            for(PGNotification notification : notifications) {
+                apply(notification.getParameter());
+            }
+        }
+    }
+
+    /**
+     * Open the listening connection to the primary database.
+     *
+     * @return The connection.
+     * @throws SQLException If the connection cannot be opened.
+     * */
+    private Connection connect() throws SQLException {
+        Properties properties = new Properties();
+        if(Objects.nonNull(dataSourceProperties.determineUsername())) {
+            properties.setProperty("user", dataSourceProperties.determineUsername());
+        }
+
+        if(Objects.nonNull(dataSourceProperties.determinePassword())) {
+            properties.setProperty("password", dataSourceProperties.determinePassword());
+        }
+
+        properties.setProperty("ApplicationName", "cache-invalidation-listener");
+        properties.setProperty("tcpKeepAlive", "true");
+        properties.setProperty("socketTimeout",
+                Long.toString(Math.max(TimeUnit.MILLISECONDS.toSeconds(keepaliveInterval * 3), 1)));
+
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(), properties);
+    }
+
+    /**
+     * Apply a message received from another instance.
+     *
+     * @param payload The encoded message.
+     * */
+    void apply(final String payload) {
+        CacheInvalidationMessage message;
+        try {
+            message = CacheInvalidationMessage.decode(payload);
+        } catch(IllegalArgumentException e) {
+            LOG.warn("Received malformed cache invalidation {}", payload);
+            flush("malformed");
+            userIdentityIndex.rebuild();
+            return;
+        }
+
+        if(message.getSender().equals(cacheInvalidationPublisher.getNodeId())) {
+            return;
+        }
+
+        Long previous = sequences.get(message.getSender());
+        if(Objects.nonNull(previous) && message.getSequence() <= previous) {
+            return;
+        }
+
+        sequences.put(message.getSender(), message.getSequence());
+        if(message.isFlush()) {
+            flush("requested");
+        } else if(Objects.nonNull(previous) && message.getSequence() != previous + 1) {
+            LOG.info("Missed cache invalidations {} to {} from instance {}", previous + 1, message.getSequence() - 1,
+                    message.getSender());
+            flush("gap");
+            userIdentityIndex.rebuild();
+        } else {
+            List<Long> userIds = new ArrayList<>();
+            for(CacheInvalidationMessage.Entry entry : message.getEntries()) {
+                evict(entry.getRegion(), entry.getId());
+                if(entry.getRegion() == CacheRegion.USER) {
+                    userIds.add(entry.getId());
+                }
+            }
+
+            if(!userIds.isEmpty()) {
+                userIdentityIndex.addUsers(userIds);
+            }
+        }
+    }
+
+    /**
+     * Evict an entity from the second-level cache.
+     *
+     * @param region The region of the entity.
+     * @param id The id of the entity.
+     * */
+    void evict(final CacheRegion region, final Long id) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(region.getEntityClass(), id);
+        if(region.isQueryResultsEvicted()) {
+            cache.evictQueryRegions();
+        }
+    }
+
+    /**
+     * Evict everything from the second-level cache.
+     *
+     * @param reason The reason the cache is flushed, recorded in the {@code cache.invalidation.flushes} metric.
+     * */
+    void flush(final String reason) {
+        LOG.debug("Flushing second-level cache ({})", reason);
+
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        meterRegistry.counter("cache.invalidation.flushes", "reason", reason).increment();
+    }
+}
@@ -0,0 +1,140 @@
+package ca.unb.ktb.infrastructure.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A message published by an instance to invalidate entries of the second-level caches of the other instances.
+ *
+ * Messages are encoded compactly as {@code <sender>:<sequence>:<entries>}, where the entries are a comma-separated list
+ * of region codes followed by entity ids (such as {@code U12,B7}), or {@code *} if the whole cache is invalidated. The
+ * sequence numbers of the messages of a sender are consecutive, so that receivers can detect missed messages.
+ *
+ * Notification payloads are limited in size by Postgres; a message that would exceed {@link #MAX_ENCODED_LENGTH}
+ * characters invalidates the whole cache instead.
+ * */
+@AllArgsConstructor
+@Getter
+@ToString
+class CacheInvalidationMessage {
+
+    static final int MAX_ENCODED_LENGTH = 7900;
+
+    private static final String FLUSH = "*";
+
+    private final String sender;
+
+    private final long sequence;
+
+    /**
+     * The entries to invalidate, or an empty list if the whole cache is invalidated.
+     * */
+    private final List<Entry> entries;
+
+    public boolean isFlush() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Encode the message as a notification payload.
+     *
+     * @return The encoded message.
+     * */
+    String encode() {
+        String prefix = sender + ':' + sequence + ':';
+        if(isFlush()) {
+            return prefix + FLUSH;
+        }
+
+        StringBuilder builder = new StringBuilder(prefix);
+        for(int i = 0; i < entries.size(); i++) {
+            if(i > 0) {
+                builder.append(',');
+            }
+
+            Entry entry = entries.get(i);
+            builder.append(entry.getRegion().getCode()).append(entry.getId());
+            if(builder.length() > MAX_ENCODED_LENGTH) {
+                return prefix + FLUSH;
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Build a message invalidating the given entries, or the whole cache if there are none.
+     *
+     * @param sender The id of the sending instance.
+     * @param sequence The sequence number of the message.
+     * @param entries The entries to invalidate.
+     * @return The message.
+     * */
+    static CacheInvalidationMessage of(final String sender, final long sequence, final Collection<Entry> entries) {
+        return new CacheInvalidationMessage(sender, sequence, Collections.unmodifiableList(new ArrayList<>(entries)));
+    }
+
+    /**
+     * Decode a notification payload.
+     *
+     * @param payload The encoded message.
+     * @return The message.
+     * @throws IllegalArgumentException If the payload is not a valid message.
+     * */
+    static CacheInvalidationMessage decode(final String payload) {
+        int senderEnd = payload.indexOf(':');
+        int sequenceEnd = payload.indexOf(':', senderEnd + 1);
+        if(senderEnd <= 0 || sequenceEnd < 0) {
+            throw new IllegalArgumentException("Malformed cache invalidation message " + payload);
+        }
+
+        String sender = payload.substring(0, senderEnd);
+        String body = payload.substring(sequenceEnd + 1);
+        long sequence;
+        try {
+            sequence = Long.parseLong(payload.substring(senderEnd + 1, sequenceEnd));
+        } catch(NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cache invalidation message " + payload, e);
+        }
+
+        if(FLUSH.equals(body)) {
+            return new CacheInvalidationMessage(sender, sequence, Collections.emptyList());
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        for(String entry : body.split(",")) {
+            if(entry.length() < 2) {
+                throw new IllegalArgumentException("Malformed cache invalidation message " + payload);
+            }
+
+            try {
+                entries.add(new Entry(CacheRegion.fromCode(entry.charAt(0)), Long.parseLong(entry.substring(1))));
+            } catch(NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed cache invalidation message " + payload, e);
+            }
+        }
+
+        return new CacheInvalidationMessage(sender, sequence, Collections.unmodifiableList(entries));
+    }
+
+    /**
+     * A cached entity to invalidate.
+     * */
+    @AllArgsConstructor
+    @Getter
+    @EqualsAndHashCode
+    @ToString
+    static class Entry {
+
+        private final CacheRegion region;
+
+        private final Long id;
+    }
+}
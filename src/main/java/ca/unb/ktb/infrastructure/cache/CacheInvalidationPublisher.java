@@ -0,0 +1,212 @@
+package ca.unb.ktb.infrastructure.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publish invalidations of second-level cache entries to the other instances, through Postgres NOTIFY on the
+ * {@value #CHANNEL} channel. Invalidations are applied by the {@link CacheInvalidationListener} of each instance.
+ *
+ * Writes through this instance already keep its own cache up to date, so invalidations are only published for the
+ * other instances. The invalidations made within a transaction are published together in a single message once the
+ * transaction commits, and are discarded if it rolls back; outside of a transaction, they are published immediately.
+ *
+ * Messages are sent in order by a single dispatcher thread, outside of the transaction of the write, and are numbered
+ * consecutively. A message that cannot be sent still consumes its sequence number, so that the other instances detect
+ * the gap once the next message arrives, and flush their caches.
+ * */
+@Component
+@Slf4j
+public class CacheInvalidationPublisher {
+
+    static final String CHANNEL = "cache_invalidation";
+
+    private static final String NOTIFY = "SELECT pg_notify(?, ?)";
+
+    private final String nodeId = Long.toString(new SecureRandom().nextLong() >>> 16, Character.MAX_RADIX);
+
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The sequence number of the last message sent, only accessed by the dispatcher thread.
+     * */
+    private long sequence;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Value("${cache-invalidation.enabled:true}") private boolean enabled;
+
+    /**
+     * The id of this instance, used to identify the messages it sends.
+     *
+     * @return The id of this instance.
+     * */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Invalidate a cached entity on the other instances.
+     *
+     * @param region The region of the entity.
+     * @param id The id of the entity.
+     * */
+    public void invalidate(final CacheRegion region, final Long id) {
+        if(!enabled || Objects.isNull(id)) {
+            return;
+        }
+
+        CacheInvalidationMessage.Entry entry = new CacheInvalidationMessage.Entry(region, id);
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(Collections.singleton(entry));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<CacheInvalidationMessage.Entry> entries =
+                (Set<CacheInvalidationMessage.Entry>) TransactionSynchronizationManager.getResource(this);
+        if(Objects.isNull(entries)) {
+            entries = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, entries);
+            TransactionSynchronizationManager.registerSynchronization(new InvalidationSynchronization(entries));
+        }
+
+        entries.add(entry);
+    }
+
+    /**
+     * Invalidate cached entities of a single region on the other instances. Outside of a transaction, the entities are
+     * invalidated together in a single message, rather than one message per entity.
+     *
+     * @param region The region of the entities.
+     * @param ids The ids of the entities.
+     * */
+    public void invalidate(final CacheRegion region, final Collection<Long> ids) {
+        if(!enabled || ids.isEmpty()) {
+            return;
+        }
+
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            ids.forEach(id -> invalidate(region, id));
+            return;
+        }
+
+        Set<CacheInvalidationMessage.Entry> entries = new LinkedHashSet<>();
+        for(Long id : ids) {
+            entries.add(new CacheInvalidationMessage.Entry(region, id));
+        }
+
+        dispatch(entries);
+    }
+
+    /**
+     * Invalidate the whole cache on the other instances, once the current transaction (if any) commits.
+     * */
+    public void invalidateAll() {
+        if(!enabled) {
+            return;
+        }
+
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(Collections.emptySet());
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                dispatch(Collections.emptySet());
+            }
+        });
+    }
+
+    /**
+     * Stop the dispatcher, once the messages already queued have been sent.
+     * */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queue a message for the dispatcher thread.
+     *
+     * @param entries The entries to invalidate, or an empty collection to invalidate the whole cache.
+     * */
+    private void dispatch(final Collection<CacheInvalidationMessage.Entry> entries) {
+        try {
+            dispatcher.execute(() -> send(entries));
+        } catch(RejectedExecutionException e) {
+            LOG.warn("Unable to publish cache invalidation of {}; the application is shutting down", entries);
+        }
+    }
+
+    /**
+     * Send a message, with the next sequence number.
+     *
+     * @param entries The entries to invalidate, or an empty collection to invalidate the whole cache.
+     * */
+    private void send(final Collection<CacheInvalidationMessage.Entry> entries) {
+        String payload = CacheInvalidationMessage.of(nodeId, ++sequence, entries).encode();
+        try {
+            jdbcTemplate.queryForList(NOTIFY, CHANNEL, payload);
+        } catch(DataAccessException e) {
+            LOG.warn("Unable to publish cache invalidation {}; other instances flush their caches once they detect " +
+                    "the gap. {}", payload, e.getMessage());
+        }
+    }
+
+    /**
+     * Collects the invalidations made within a transaction, and publishes them once it commits.
+     * */
+    private class InvalidationSynchronization extends TransactionSynchronizationAdapter {
+
+        private final Set<CacheInvalidationMessage.Entry> entries;
+
+        InvalidationSynchronization(final Set<CacheInvalidationMessage.Entry> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(CacheInvalidationPublisher.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(CacheInvalidationPublisher.this, entries);
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationPublisher.this);
+            if(status == TransactionSynchronization.STATUS_COMMITTED) {
+                dispatch(entries);
+            }
+        }
+    }
+}
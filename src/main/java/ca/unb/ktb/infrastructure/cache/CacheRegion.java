@@ -0,0 +1,59 @@
+package ca.unb.ktb.infrastructure.cache;
+
+import ca.unb.ktb.core.model.Bucket;
+import ca.unb.ktb.core.model.PhysicalAddress;
+import ca.unb.ktb.core.model.User;
+
+/**
+ * Regions of the second-level cache that are invalidated across instances, along with the single character code that
+ * identifies each region in an invalidation message.
+ *
+ * Users are looked up by username and email address through cached queries, so invalidating a user also evicts all
+ * cached query results.
+ * */
+public enum CacheRegion {
+    USER('U', User.class, true),
+    BUCKET('B', Bucket.class, false),
+    PHYSICAL_ADDRESS('A', PhysicalAddress.class, false);
+
+    private final char code;
+
+    private final Class<?> entityClass;
+
+    private final boolean queryResultsEvicted;
+
+    CacheRegion(final char code, final Class<?> entityClass, final boolean queryResultsEvicted) {
+        this.code = code;
+        this.entityClass = entityClass;
+        this.queryResultsEvicted = queryResultsEvicted;
+    }
+
+    public char getCode() {
+        return code;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    public boolean isQueryResultsEvicted() {
+        return queryResultsEvicted;
+    }
+
+    /**
+     * Find the region identified by a code.
+     *
+     * @param code The code of the region.
+     * @return The region.
+     * @throws IllegalArgumentException If no region is identified by the code.
+     * */
+    public static CacheRegion fromCode(final char code) {
+        for(CacheRegion region : values()) {
+            if(region.code == code) {
+                return region;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown cache region " + code);
+    }
+}
@@ -0,0 +1,125 @@
+package ca.unb.ktb.infrastructure.datasource;
+
+import ca.unb.ktb.infrastructure.security.UserPrincipal;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.Nullable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the principal user as a recent writer for every request that may modify data, so that the user's reads are
+ * served by the primary until the read replicas have caught up.
+ *
+ * The write is recorded both before the request is handled, so that reads performed while handling the request are
+ * served by the primary, and after it completes, so that the read-your-writes window starts once the write has been
+ * committed.
+ *
+ * Since the following requests of the client may be handled by other instances, the end of the read-your-writes window
+ * is also returned to the client in the {@value #LAST_WRITE_COOKIE} cookie, which expires with the window. Any instance
+ * receiving the cookie records the write, so sticky sessions are not required.
+ * */
+public class ReadYourWritesInterceptor extends HandlerInterceptorAdapter {
+
+    public static final String LAST_WRITE_COOKIE = "last-write";
+
+    private static final List<String> READ_METHODS = Arrays.asList(HttpMethod.GET.name(), HttpMethod.HEAD.name(),
+            HttpMethod.OPTIONS.name());
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    /**
+     * @param readYourWritesTracker The tracker of users that have recently written to the database.
+     * */
+    public ReadYourWritesInterceptor(final ReadYourWritesTracker readYourWritesTracker) {
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response,
+                             final Object handler) {
+        Long userId = getPrincipalId();
+        if(Objects.isNull(userId)) {
+            return true;
+        }
+
+        if(READ_METHODS.contains(request.getMethod())) {
+            recordLastWrite(request, userId);
+            return true;
+        }
+
+        long expiry = readYourWritesTracker.recordWrite(userId);
+        addLastWriteCookie(response, expiry);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(final HttpServletRequest request, final HttpServletResponse response,
+                                final Object handler, @Nullable final Exception ex) {
+        Long userId = getPrincipalId();
+        if(Objects.nonNull(userId) && !READ_METHODS.contains(request.getMethod())) {
+            readYourWritesTracker.recordWrite(userId);
+        }
+    }
+
+    /**
+     * Record a write made by the principal user through another instance, as carried by the
+     * {@value #LAST_WRITE_COOKIE} cookie of the request.
+     *
+     * @param request The request.
+     * @param userId The id of the principal user.
+     * */
+    private void recordLastWrite(final HttpServletRequest request, final Long userId) {
+        Cookie cookie = WebUtils.getCookie(request, LAST_WRITE_COOKIE);
+        if(Objects.isNull(cookie)) {
+            return;
+        }
+
+        try {
+            readYourWritesTracker.recordWrite(userId, Long.parseLong(cookie.getValue()));
+        } catch(NumberFormatException e) {
+            // ignore malformed cookies; reads are served by the replicas
+        }
+    }
+
+    /**
+     * Return the end of the read-your-writes window to the client. The cookie is set before the request is handled,
+     * since the response may be committed by the time the request completes; the window is therefore measured from
+     * the start of the request, and the cookie outlives it by a second to cover the time taken to handle the request.
+     *
+     * @param response The response.
+     * @param expiry The time, in milliseconds since the epoch, at which the read-your-writes window ends.
+     * */
+    private static void addLastWriteCookie(final HttpServletResponse response, final long expiry) {
+        long maxAge = TimeUnit.MILLISECONDS.toSeconds(expiry - System.currentTimeMillis()) + 1;
+
+        Cookie cookie = new Cookie(LAST_WRITE_COOKIE, Long.toString(expiry + TimeUnit.SECONDS.toMillis(1)));
+        cookie.setMaxAge((int) maxAge);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        response.addCookie(cookie);
+    }
+
+    /**
+     * Retrieve the id of the principal user.
+     *
+     * @return The id of the principal user, or null if the request is not authenticated.
+     * */
+    private static Long getPrincipalId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if(Objects.nonNull(auth) && auth.getPrincipal() instanceof UserPrincipal) {
+            return ((UserPrincipal) auth.getPrincipal()).getId();
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,84 @@
+package ca.unb.ktb.infrastructure.datasource;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks users that have recently written to the database, so that their reads can be served by the primary until the
+ * read replicas have caught up with their writes.
+ *
+ * The tracker only knows of writes handled by this instance. Writes handled by other instances are learned from the
+ * client, which carries the end of its read-your-writes window in a cookie (see {@link ReadYourWritesInterceptor}).
+ * */
+public class ReadYourWritesTracker {
+
+    private final long window;
+
+    private final Map<Long, Long> writeExpiry = new ConcurrentHashMap<>();
+
+    /**
+     * @param window How long, in milliseconds, a user is considered a recent writer after writing.
+     * */
+    public ReadYourWritesTracker(final long window) {
+        this.window = window;
+    }
+
+    /**
+     * Record that a given user has written to the database.
+     *
+     * @param userId The id of the user.
+     * @return The time, in milliseconds since the epoch, at which the read-your-writes window of the user ends.
+     * */
+    public long recordWrite(final Long userId) {
+        long expiry = System.currentTimeMillis() + window;
+        writeExpiry.put(userId, expiry);
+
+        return expiry;
+    }
+
+    /**
+     * Record that a given user has written to the database through another instance, extending the read-your-writes
+     * window of the user to the given time. The time is capped to a full window from now, so that a client cannot
+     * hold its reads on the primary indefinitely.
+     *
+     * @param userId The id of the user.
+     * @param expiry The time, in milliseconds since the epoch, at which the read-your-writes window of the user ends.
+     * */
+    public void recordWrite(final Long userId, final long expiry) {
+        long now = System.currentTimeMillis();
+        if(expiry <= now) {
+            return;
+        }
+
+        writeExpiry.merge(userId, Math.min(expiry, now + window), Math::max);
+    }
+
+    /**
+     * Whether a given user has written to the database within the read-your-writes window.
+     *
+     * @param userId The id of the user.
+     * @return True if the user has recently written to the database, false otherwise.
+     * */
+    public boolean isRecentWriter(final Long userId) {
+        Long expiry = writeExpiry.get(userId);
+        if(Objects.isNull(expiry)) {
+            return false;
+        }
+
+        if(expiry > System.currentTimeMillis()) {
+            return true;
+        }
+
+        writeExpiry.remove(userId, expiry);
+        return false;
+    }
+
+    /**
+     * Forget all users whose read-your-writes window has elapsed.
+     * */
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        writeExpiry.entrySet().removeIf(entry -> entry.getValue() <= now);
+    }
+}
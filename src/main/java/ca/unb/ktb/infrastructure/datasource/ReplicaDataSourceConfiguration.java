@@ -0,0 +1,121 @@
+package ca.unb.ktb.infrastructure.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration of read replica routing. Only active when {@code datasource.replica.enabled} is true.
+ *
+ * The primary is configured through the usual {@code spring.datasource} properties, and each replica through
+ * {@code datasource.replica.instances}. Transactions marked {@code @Transactional(readOnly = true)} are served by a
+ * replica, and everything else (including schema migrations) by the primary.
+ *
+ * For local testing, two independent Postgres instances may be used; a replica that is not in recovery is considered
+ * to have no replication lag.
+ * */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfiguration implements WebMvcConfigurer {
+
+    private final ReplicaDataSourceProperties replicaProperties;
+
+    private final DataSourceProperties primaryProperties;
+
+    public ReplicaDataSourceConfiguration(final ReplicaDataSourceProperties replicaProperties,
+                                          final DataSourceProperties primaryProperties) {
+        this.replicaProperties = replicaProperties;
+        this.primaryProperties = primaryProperties;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker() {
+        return new ReadYourWritesTracker(replicaProperties.getReadYourWritesWindow());
+    }
+
+    @Bean
+    @FlywayDataSource
+    public DataSource primaryDataSource() {
+        return primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public Map<String, HikariDataSource> replicaDataSources() {
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        List<ReplicaDataSourceProperties.Instance> instances = replicaProperties.getInstances();
+        for(int i = 0; i < instances.size(); i++) {
+            ReplicaDataSourceProperties.Instance instance = instances.get(i);
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(primaryProperties.determineDriverClassName())
+                    .url(instance.getUrl())
+                    .username(instance.getUsername())
+                    .password(instance.getPassword())
+                    .build();
+
+            replicas.put("replica-" + i, replica);
+        }
+
+        return replicas;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource() {
+        Map<String, HikariDataSource> replicas = replicaDataSources();
+
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(new ArrayList<>(replicas.keySet()),
+                replicaProperties.getMaxLag(), readYourWritesTracker());
+
+        Map<Object, Object> targetDataSources = new HashMap<>(replicas);
+        targetDataSources.put(ReplicaRoutingDataSource.PRIMARY, primaryDataSource());
+        routingDataSource.setTargetDataSources(targetDataSources);
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource());
+
+        return routingDataSource;
+    }
+
+    /**
+     * The data source used by the application. Connections are obtained lazily, once the read-only flag of the
+     * current transaction is known.
+     * */
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource());
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor() {
+        return new ReplicaLagMonitor(replicaRoutingDataSource(), new HashMap<>(replicaDataSources()),
+                readYourWritesTracker());
+    }
+
+    /**
+     * Close the connection pools of the replicas, which are not managed as individual beans.
+     * */
+    @PreDestroy
+    public void closeReplicaDataSources() {
+        replicaDataSources().values().forEach(HikariDataSource::close);
+    }
+
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor(readYourWritesTracker()));
+    }
+}
@@ -0,0 +1,50 @@
+package ca.unb.ktb.infrastructure.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the read replicas that serve read-only transactions.
+ *
+ * @see ReplicaDataSourceConfiguration
+ * */
+
+@Component
+@ConfigurationProperties(prefix = "datasource.replica")
+@Data
+public class ReplicaDataSourceProperties {
+
+    /**
+     * Whether read-only transactions are routed to the read replicas.
+     * */
+    private boolean enabled = false;
+
+    /**
+     * The maximum replication lag, in milliseconds, that a replica may have while serving reads.
+     * */
+    private long maxLag = 5000;
+
+    /**
+     * How long, in milliseconds, a user's reads are served by the primary after the user writes.
+     * */
+    private long readYourWritesWindow = 10000;
+
+    private List<Instance> instances = new ArrayList<>();
+
+    /**
+     * Simple POJO which represents the connection details of a single read replica.
+     * */
+    @Data
+    public static class Instance {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+}
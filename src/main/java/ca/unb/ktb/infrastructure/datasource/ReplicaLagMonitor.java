@@ -0,0 +1,72 @@
+package ca.unb.ktb.infrastructure.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Periodically measures the replication lag of each read replica, and reports it to the {@link ReplicaRoutingDataSource}.
+ *
+ * The lag of a replica is the time since the last transaction it replayed, or zero if it has replayed everything it has
+ * received. Having replayed everything received only means the replica is caught up while it is streaming from the
+ * primary, so a replica without a streaming WAL receiver (disconnected from the primary, or restoring from an archive)
+ * is reported as unavailable, as is a replica that cannot be queried. The status of the WAL receiver is only visible to
+ * roles granted {@code pg_read_all_stats}, which the replica users must therefore be granted. A replica that is not in
+ * recovery (such as a standalone instance used for local testing) has no lag.
+ * */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String REPLICATION_LAG_QUERY = "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0) END";
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    private final Map<String, DataSource> replicas;
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    /**
+     * @param routingDataSource The routing data source that is informed of the replication lag.
+     * @param replicas The read replica data sources, keyed by lookup key.
+     * @param readYourWritesTracker The tracker of users that have recently written to the database.
+     * */
+    public ReplicaLagMonitor(final ReplicaRoutingDataSource routingDataSource, final Map<String, DataSource> replicas,
+                             final ReadYourWritesTracker readYourWritesTracker) {
+        this.routingDataSource = routingDataSource;
+        this.replicas = replicas;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    /**
+     * Measure the replication lag of each replica.
+     * */
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval:1000}")
+    public void checkReplicationLag() {
+        replicas.forEach((replicaKey, replica) -> {
+            try {
+                Double lag = new JdbcTemplate(replica).queryForObject(REPLICATION_LAG_QUERY, Double.class);
+                if(Objects.isNull(lag)) {
+                    LOG.warn("Replica {} is not streaming from the primary; routing reads to the primary", replicaKey);
+                    routingDataSource.updateReplicaLag(replicaKey, null);
+                    return;
+                }
+
+                routingDataSource.updateReplicaLag(replicaKey, lag.longValue());
+            } catch(DataAccessException e) {
+                LOG.warn("Unable to measure replication lag of replica {}; routing reads to the primary", replicaKey, e);
+                routingDataSource.updateReplicaLag(replicaKey, null);
+            }
+        });
+
+        readYourWritesTracker.evictExpired();
+    }
+}
@@ -0,0 +1,90 @@
+package ca.unb.ktb.infrastructure.datasource;
+
+import ca.unb.ktb.infrastructure.security.UserPrincipal;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * {@link javax.sql.DataSource} that routes read-only transactions to the read replicas, and everything else to the
+ * primary.
+ *
+ * A read-only transaction is served by the primary if the principal user has recently written to the database, or if
+ * no replica is currently within the maximum replication lag. Replicas are otherwise selected in round-robin order.
+ *
+ * The routing decision is made when a connection is obtained, so this data source must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} for the read-only flag of the current
+ * transaction to be known at that time.
+ * */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<String> replicaKeys;
+
+    private final long maxLag;
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    private final Map<String, Long> replicaLag = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /**
+     * @param replicaKeys The lookup keys of the read replicas.
+     * @param maxLag The maximum replication lag, in milliseconds, that a replica may have while serving reads.
+     * @param readYourWritesTracker The tracker of users that have recently written to the database.
+     * */
+    public ReplicaRoutingDataSource(final List<String> replicaKeys, final long maxLag,
+                                    final ReadYourWritesTracker readYourWritesTracker) {
+        this.replicaKeys = replicaKeys;
+        this.maxLag = maxLag;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    /**
+     * Record the replication lag of a replica. Until the lag of a replica is first recorded, the replica does not
+     * serve reads.
+     *
+     * @param replicaKey The lookup key of the replica.
+     * @param lag The replication lag in milliseconds, or null if the replica is unavailable.
+     * */
+    public void updateReplicaLag(final String replicaKey, final Long lag) {
+        if(Objects.isNull(lag)) {
+            replicaLag.remove(replicaKey);
+        } else {
+            replicaLag.put(replicaKey, lag);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if(!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if(Objects.nonNull(auth) && auth.getPrincipal() instanceof UserPrincipal &&
+                readYourWritesTracker.isRecentWriter(((UserPrincipal) auth.getPrincipal()).getId())) {
+            return PRIMARY;
+        }
+
+        List<String> availableReplicas = replicaKeys.stream()
+                .filter(replicaKey -> replicaLag.getOrDefault(replicaKey, Long.MAX_VALUE) <= maxLag)
+                .collect(Collectors.toList());
+
+        if(availableReplicas.isEmpty()) {
+            return PRIMARY;
+        }
+
+        return availableReplicas.get(Math.floorMod(nextReplica.getAndIncrement(), availableReplicas.size()));
+    }
+}
@@ -0,0 +1,80 @@
+package ca.unb.ktb.infrastructure.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+@Validated
+@Data
+public class RateLimitProperties {
+
+    /**
+     * Whether requests are rate limited.
+     * */
+    private boolean enabled = true;
+
+    /**
+     * The maximum number of clients tracked at once, across all routes. Clients that are not yet tracked when the
+     * limit is reached are not rate limited.
+     * */
+    private int maxKeys = 100000;
+
+    /**
+     * How often, in milliseconds, clients with a full bucket are forgotten.
+     * */
+    private long evictionInterval = 60000;
+
+    /**
+     * The rate limited routes. A request is limited by the first route that matches it.
+     * */
+    @Valid
+    private List<Route> routes = new ArrayList<>();
+
+    /**
+     * Simple POJO which represents the limit of a single route.
+     * */
+    @Data
+    public static class Route {
+
+        /**
+         * Ant-style pattern of the request paths to which the limit applies.
+         * */
+        private String pattern;
+
+        /**
+         * The request methods to which the limit applies, or all methods if empty.
+         * */
+        private List<String> methods = new ArrayList<>();
+
+        /**
+         * Whether clients are identified by IP address, or by user id. Unauthenticated requests to a route limited
+         * by user are limited by IP address.
+         * */
+        private Key key = Key.IP;
+
+        /**
+         * The sustained number of requests allowed per minute.
+         * */
+        @Min(1)
+        private int permitsPerMinute;
+
+        /**
+         * The number of requests that may be made at once by a client that has not made a request recently.
+         * */
+        @Min(1)
+        private int burst = 1;
+    }
+
+    public enum Key {
+        IP, USER
+    }
+}
@@ -0,0 +1,93 @@
+package ca.unb.ktb.infrastructure.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets, keyed by client.
+ *
+ * Each bucket is implemented with the generic cell rate algorithm, which represents a token bucket as a single
+ * timestamp: the theoretical arrival time of the next request if the client made requests at exactly the sustained
+ * rate. A request is allowed if it arrives no earlier than that time less the burst allowance, in which case the
+ * timestamp is advanced by one emission interval with a compare-and-set. A request that is not allowed leaves the
+ * bucket unchanged.
+ *
+ * A bucket whose timestamp is in the past is full, and is indistinguishable from a bucket that does not exist, so
+ * idle buckets are periodically removed without affecting any client. Idle buckets are only removed by the scheduled
+ * eviction, never on the request thread; until then, clients that are not yet tracked once {@code rate-limit.max-keys}
+ * is reached are not limited.
+ * */
+@Component
+@Slf4j
+public class RateLimiter {
+
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private final RateLimitProperties rateLimitProperties;
+
+    public RateLimiter(final RateLimitProperties rateLimitProperties) {
+        this.rateLimitProperties = rateLimitProperties;
+    }
+
+    /**
+     * Attempt to take a token from the bucket of a client.
+     *
+     * @param key Identifies the bucket of the client.
+     * @param emissionInterval The time, in nanoseconds, in which a single token is replenished.
+     * @param burst The capacity of the bucket.
+     * @param now The current value of {@link System#nanoTime()}.
+     * @return Zero if the request is allowed, otherwise the time in nanoseconds until it would be allowed.
+     * */
+    public long tryAcquire(final String key, final long emissionInterval, final int burst, final long now) {
+        AtomicLong bucket = buckets.get(key);
+        if(Objects.isNull(bucket)) {
+            if(buckets.size() >= rateLimitProperties.getMaxKeys()) {
+                LOG.debug("Rate limiter is tracking the maximum number of clients; allowing request from {}", key);
+                return 0;
+            }
+
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        long burstTolerance = emissionInterval * burst;
+        while(true) {
+            long arrivalTime = bucket.get();
+            long nextArrivalTime = Math.max(arrivalTime, now) + emissionInterval;
+            long wait = nextArrivalTime - burstTolerance - now;
+            if(wait > 0) {
+                return wait;
+            }
+
+            if(bucket.compareAndSet(arrivalTime, nextArrivalTime)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Forget clients whose bucket is full.
+     * */
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval:60000}")
+    public void evictIdle() {
+        evictIdle(System.nanoTime());
+    }
+
+    /**
+     * Retrieve the number of clients currently tracked.
+     *
+     * @return The number of buckets.
+     * */
+    public int size() {
+        return buckets.size();
+    }
+
+    private void evictIdle(final long now) {
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+}
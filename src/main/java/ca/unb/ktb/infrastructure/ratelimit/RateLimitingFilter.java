@@ -0,0 +1,128 @@
+package ca.unb.ktb.infrastructure.ratelimit;
+
+import ca.unb.ktb.infrastructure.security.UserPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Rejects requests from clients that exceed the limit of a route with {@code 429 Too Many Requests}, along with a
+ * {@code Retry-After} header.
+ *
+ * The filter runs after the authorization filter, so that routes limited by user can identify the principal. A request
+ * is limited by the first route that matches its path and method, and requests that match no route are not limited.
+ * */
+@Slf4j
+public class RateLimitingFilter extends OncePerRequestFilter {
+
+    private final List<RouteLimit> routes;
+
+    private final RateLimiter rateLimiter;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    /**
+     * @param rateLimitProperties The rate limit configuration.
+     * @param rateLimiter The token buckets of the clients.
+     * @param meterRegistry The registry with which the {@code rate-limit.rejected} counter of each route is registered.
+     * */
+    public RateLimitingFilter(final RateLimitProperties rateLimitProperties, final RateLimiter rateLimiter,
+                              final MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+
+        List<RateLimitProperties.Route> configuredRoutes = rateLimitProperties.getRoutes();
+        this.routes = IntStream.range(0, configuredRoutes.size())
+                .mapToObj(id -> new RouteLimit(id, configuredRoutes.get(id), meterRegistry.counter("rate-limit.rejected",
+                        "route", configuredRoutes.get(id).getPattern())))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain chain) throws ServletException, IOException {
+        RouteLimit route = findRoute(request);
+        if(Objects.nonNull(route)) {
+            long wait = rateLimiter.tryAcquire(route.id + ":" + resolveClient(request, route.route.getKey()),
+                    route.emissionInterval, route.route.getBurst(), System.nanoTime());
+
+            if(wait > 0) {
+                route.rejected.increment();
+                LOG.info("Rate limit of route {} exceeded by {}", route.route.getPattern(), request.getRemoteAddr());
+
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(TimeUnit.NANOSECONDS.toSeconds(wait) + 1));
+                response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+                response.getWriter().write("Too many requests. Please try again later.");
+                return;
+            }
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    private RouteLimit findRoute(final HttpServletRequest request) {
+        String path = request.getServletPath();
+        for(RouteLimit route : routes) {
+            List<String> methods = route.route.getMethods();
+            if(!methods.isEmpty() && !methods.contains(request.getMethod())) {
+                continue;
+            }
+
+            if(pathMatcher.match(route.route.getPattern(), path)) {
+                return route;
+            }
+        }
+
+        return null;
+    }
+
+    private static String resolveClient(final HttpServletRequest request, final RateLimitProperties.Key key) {
+        if(key == RateLimitProperties.Key.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if(Objects.nonNull(authentication) && authentication.getPrincipal() instanceof UserPrincipal) {
+                return "user:" + ((UserPrincipal) authentication.getPrincipal()).getId();
+            }
+        }
+
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * A configured route, along with its precomputed emission interval and rejection counter.
+     * */
+    private static class RouteLimit {
+
+        private final int id;
+
+        private final RateLimitProperties.Route route;
+
+        private final long emissionInterval;
+
+        private final Counter rejected;
+
+        RouteLimit(final int id, final RateLimitProperties.Route route, final Counter rejected) {
+            this.id = id;
+            this.route = route;
+            this.emissionInterval = TimeUnit.MINUTES.toNanos(1) / route.getPermitsPerMinute();
+            this.rejected = rejected;
+        }
+    }
+}
@@ -25,11 +25,19 @@ class AuthorizationProcessingFilter extends BasicAuthenticationFilter {
 
     private final UserPrincipalService userPrincipalService;
 
+    private final TokenVersionTable tokenVersionTable;
+
+    private final TokenRevocationList tokenRevocationList;
+
     private static final String AUTHENTICATION_SCHEME = "Bearer";
 
-    public AuthorizationProcessingFilter(AuthenticationManager authManager, UserPrincipalService userPrincipalService) {
+    public AuthorizationProcessingFilter(AuthenticationManager authManager, UserPrincipalService userPrincipalService,
+                                         TokenVersionTable tokenVersionTable,
+                                         TokenRevocationList tokenRevocationList) {
         super(authManager);
         this.userPrincipalService = userPrincipalService;
+        this.tokenVersionTable = tokenVersionTable;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     /**
@@ -39,7 +47,10 @@ class AuthorizationProcessingFilter extends BasicAuthenticationFilter {
      * the current security context holds the authorized principal and verifies that the principal matches the token.
      *
      * If the security context does not hold an authorized principal, uses the userId extracted from the token to
-     * load the user details and sets the user as the security context authenticated principal.
+     * load the user details and sets the user as the security context authenticated principal. In stateless mode, the
+     * principal is instead built from the verified claims of the token, without loading the user.
+     *
+     * In either case, tokens that have been revoked, such as on sign-out, are rejected.
      *
      * Requests without the Authorization header are processed normally.
      *
@@ -100,6 +111,7 @@ class AuthorizationProcessingFilter extends BasicAuthenticationFilter {
 
         JSONWebTokenUtil.validateToken(token, userPrincipal, () ->
                 new MalformedAuthTokenException("Invalid token; either token is not formatted correctly or token-principal mismatch."));
+        rejectRevokedToken(token);
     }
 
     /**
@@ -111,11 +123,8 @@ class AuthorizationProcessingFilter extends BasicAuthenticationFilter {
      * @throws MalformedAuthTokenException If the token is malformed (does not meet validation).
      * */
     private void authenticateTokenHolder(final String token, HttpServletRequest request) {
-        final Long userId = JSONWebTokenUtil.parseUserIdFromToken(token);
-        final UserPrincipal userPrincipal = this.userPrincipalService.loadUserById(userId);
-
-        JSONWebTokenUtil.validateToken(token, userPrincipal, () ->
-                new MalformedAuthTokenException("Invalid token; either token is not formatted correctly or token-principal mismatch."));
+        final UserPrincipal userPrincipal = resolvePrincipal(token);
+        rejectRevokedToken(token);
 
         //if token is valid, add principal to security context
         final UsernamePasswordAuthenticationToken newAuthentication =
@@ -124,4 +133,50 @@ class AuthorizationProcessingFilter extends BasicAuthenticationFilter {
 
         SecurityContextHolder.getContext().setAuthentication(newAuthentication);
     }
+
+    /**
+     * Resolve the principal to which a token was issued.
+     *
+     * In stateless mode, the principal is built from the verified claims of the token, and the token is checked
+     * against the {@link TokenVersionTable}. Otherwise, or if the token was issued without the claims needed to build
+     * the principal, the principal is loaded by id and the token is validated against it.
+     *
+     * @param token The signed JWT token.
+     * @return The principal.
+     * @throws MalformedAuthTokenException If the token is malformed (does not meet validation), or has been revoked.
+     * */
+    private UserPrincipal resolvePrincipal(final String token) {
+        if(tokenVersionTable.isEnabled()) {
+            Optional<UserPrincipal> claimsPrincipal = JSONWebTokenUtil.parsePrincipalFromToken(token);
+            if(claimsPrincipal.isPresent()) {
+                UserPrincipal userPrincipal = claimsPrincipal.get();
+                if(tokenVersionTable.isRevoked(userPrincipal.getId(), userPrincipal.getTokenVersion())) {
+                    throw new MalformedAuthTokenException("Invalid token; token has been revoked.");
+                }
+
+                return userPrincipal;
+            }
+        }
+
+        final Long userId = JSONWebTokenUtil.parseUserIdFromToken(token);
+        final UserPrincipal userPrincipal = this.userPrincipalService.loadUserById(userId);
+
+        JSONWebTokenUtil.validateToken(token, userPrincipal, () ->
+                new MalformedAuthTokenException("Invalid token; either token is not formatted correctly or token-principal mismatch."));
+
+        return userPrincipal;
+    }
+
+    /**
+     * Reject a token that has been revoked before its expiration. Tokens issued without a jti claim cannot be revoked.
+     *
+     * @param token The signed JWT token, already validated.
+     * @throws MalformedAuthTokenException If the token has been revoked.
+     * */
+    private void rejectRevokedToken(final String token) {
+        final String tokenId = JSONWebTokenUtil.parseTokenIdFromToken(token);
+        if(Objects.nonNull(tokenId) && tokenRevocationList.isRevoked(tokenId)) {
+            throw new MalformedAuthTokenException("Invalid token; token has been revoked.");
+        }
+    }
 }
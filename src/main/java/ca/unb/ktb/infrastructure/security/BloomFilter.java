@@ -0,0 +1,123 @@
+package ca.unb.ktb.infrastructure.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe Bloom filter over strings.
+ *
+ * The filter never reports a false negative: once a value is added, {@link #mightContain(String)} returns true for
+ * that value. It may report false positives, at roughly the false positive probability it was sized for, as long as no
+ * more than the expected number of values are added. Values cannot be removed; the filter must be rebuilt instead.
+ *
+ * Values are hashed with 64-bit FNV-1a, finalized with the MurmurHash3 mixer, and the bit positions are derived from
+ * the two halves of the hash by double hashing.
+ * */
+class BloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final AtomicLongArray words;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    /**
+     * Create an empty filter.
+     *
+     * @param expectedInsertions The number of values the filter is expected to hold.
+     * @param falsePositiveProbability The desired false positive probability, between 0 and 1 exclusive.
+     * */
+    BloomFilter(final long expectedInsertions, final double falsePositiveProbability) {
+        if(falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("false positive probability must be between 0 and 1 exclusive");
+        }
+
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (m + 63) / 64));
+
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashCount = (int) Math.max(1, Math.round((double) m / n * Math.log(2)));
+    }
+
+    /**
+     * Add a value to the filter.
+     *
+     * @param value The value.
+     * */
+    void put(final String value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = hash >>> 32 | hash << 32;
+
+        for(int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            long word;
+            do {
+                word = words.get(index);
+            } while((word & mask) == 0 && !words.compareAndSet(index, word, word | mask));
+        }
+    }
+
+    /**
+     * Whether a value might have been added to the filter.
+     *
+     * @param value The value.
+     * @return false if the value was definitely not added, true if it might have been.
+     * */
+    boolean mightContain(final String value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = hash >>> 32 | hash << 32;
+
+        for(int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if((words.get((int) (bit >>> 6)) & 1L << bit) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * The number of bits in the filter.
+     *
+     * @return The number of bits.
+     * */
+    long bitSize() {
+        return bitCount;
+    }
+
+    /**
+     * The number of bit positions set or checked per value.
+     *
+     * @return The number of hash functions.
+     * */
+    int hashCount() {
+        return hashCount;
+    }
+
+    private static long hash(final String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for(int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53bcaa3L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+}
@@ -0,0 +1,128 @@
+package ca.unb.ktb.infrastructure.security;
+
+import ca.unb.ktb.api.exception.server.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link PasswordEncoder} that hashes and verifies passwords on a dedicated, bounded pool of threads.
+ *
+ * Password hashing is deliberately expensive. Run on request threads, a burst of sign-in or sign-up requests would
+ * occupy every CPU and starve unrelated requests. Instead, at most one hash per pool thread is computed at a time, and
+ * at most {@code queueCapacity} further requests wait for a thread. The calling thread waits for its hash to complete.
+ * When the queue is full, a {@link ServiceUnavailableException} is thrown immediately, rather than letting requests
+ * pile up.
+ *
+ * The following metrics are registered:
+ * <ul>
+ *     <li>{@code auth.password.hash}: time spent hashing or verifying a password, tagged by operation.</li>
+ *     <li>{@code auth.password.queue.depth}: number of requests waiting for a thread.</li>
+ *     <li>{@code auth.password.active}: number of passwords being hashed or verified.</li>
+ *     <li>{@code auth.password.rejected}: number of requests rejected because the queue was full.</li>
+ * </ul>
+ * */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Counter rejectedCounter;
+
+    /**
+     * @param delegate The encoder that hashes and verifies passwords.
+     * @param threads The number of threads in the pool.
+     * @param queueCapacity The number of requests that may wait for a thread before requests are rejected.
+     * @param meterRegistry The registry with which metrics are registered.
+     * */
+    public BoundedPasswordEncoder(final PasswordEncoder delegate, final int threads, final int queueCapacity,
+                                  final MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-encoder-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.encodeTimer = meterRegistry.timer("auth.password.hash", "operation", "encode");
+        this.matchesTimer = meterRegistry.timer("auth.password.hash", "operation", "matches");
+        this.rejectedCounter = meterRegistry.counter("auth.password.rejected");
+        meterRegistry.gauge("auth.password.queue.depth", executor, pool -> pool.getQueue().size());
+        meterRegistry.gauge("auth.password.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    @Override
+    public String encode(final CharSequence rawPassword) {
+        return execute(() -> encodeTimer.recordCallable(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+        return execute(() -> matchesTimer.recordCallable(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(final String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Stop accepting requests, and release the threads of the pool once queued requests are complete.
+     * */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Run a task on the pool, and wait for its result.
+     *
+     * @param task The task.
+     * @param <T> The type of the result.
+     * @return The result of the task.
+     * @throws ServiceUnavailableException If the queue is full, or the calling thread is interrupted while waiting.
+     * */
+    private <T> T execute(final Callable<T> task) {
+        final Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch(RejectedExecutionException e) {
+            rejectedCounter.increment();
+            LOG.warn("Password encoder queue is full; rejecting request.");
+            throw new ServiceUnavailableException("Too many authentication requests. Please try again later.", e);
+        }
+
+        try {
+            return future.get();
+        } catch(InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for password encoder.", e);
+        } catch(ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -14,12 +14,16 @@ import com.nimbusds.jwt.JWTParser;
 import com.nimbusds.jwt.SignedJWT;
 import com.nimbusds.jwt.util.DateUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import java.text.ParseException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Supplier;
 
@@ -30,6 +34,10 @@ public final class JSONWebTokenUtil {
 
     private static final String EMAIL_ADDR_CLAIM_NAME = "ead";
 
+    private static final String ROLE_CLAIM_NAME = "rol";
+
+    private static final String TOKEN_VERSION_CLAIM_NAME = "ver";
+
     private static byte[] secret;
 
     private static Long expiration;
@@ -103,6 +111,54 @@ public final class JSONWebTokenUtil {
         return cs.getExpirationTime();
     }
 
+    /**
+     * Attempt to extract the token id (jti claim) from the JWT token.
+     *
+     * @param token The JWT token.
+     * @return The token id, or null if the token was issued without one.
+     */
+    public static String parseTokenIdFromToken(String token) {
+        JWTClaimsSet cs = JSONWebTokenUtil.parseTokenClaimSet(token);
+
+        return cs.getJWTID();
+    }
+
+    /**
+     * Build a {@link UserPrincipal} from the claims of a token, without loading the user.
+     *
+     * The token must have a valid signature, must not be expired, and must carry the role and token version claims.
+     * Tokens issued before these claims were introduced do not carry them. The principal has an empty password.
+     *
+     * @param token The serialized SignedJWT token.
+     * @return An Optional holding the principal if the token is valid and carries all claims, and returns empty
+     * optional otherwise.
+     * */
+    public static Optional<UserPrincipal> parsePrincipalFromToken(final String token) {
+        try {
+            SignedJWT signedJWT = SignedJWT.parse(token);
+            if(!signedJWT.verify(new MACVerifier(secret))) {
+                return Optional.empty();
+            }
+
+            JWTClaimsSet cs = signedJWT.getJWTClaimsSet();
+            if(DateUtils.isAfter(new Date(), cs.getExpirationTime(), 60L)) {
+                return Optional.empty();
+            }
+
+            Long userId = cs.getLongClaim(UID_CLAIM_NAME);
+            String role = cs.getStringClaim(ROLE_CLAIM_NAME);
+            Integer tokenVersion = cs.getIntegerClaim(TOKEN_VERSION_CLAIM_NAME);
+            if(Objects.isNull(userId) || Objects.isNull(role) || Objects.isNull(tokenVersion)) {
+                return Optional.empty();
+            }
+
+            return Optional.of(new UserPrincipal(userId, cs.getSubject(), cs.getStringClaim(EMAIL_ADDR_CLAIM_NAME), "",
+                    Collections.singletonList(new SimpleGrantedAuthority(role)), tokenVersion));
+        } catch(JOSEException | ParseException e) {
+            return Optional.empty();
+        }
+    }
+
     /**
      * Parse the JWTClaimSet from the JWT token.
      *
@@ -133,6 +189,11 @@ public final class JSONWebTokenUtil {
                 .subject(user.getUsername())
                 .claim(UID_CLAIM_NAME, user.getId())
                 .claim(EMAIL_ADDR_CLAIM_NAME, user.getEmail())
+                .claim(ROLE_CLAIM_NAME, user.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .findFirst()
+                        .orElse(null))
+                .claim(TOKEN_VERSION_CLAIM_NAME, user.getTokenVersion())
                 .expirationTime(expirationTime)
                 .issueTime(currentTime)
                 .notBeforeTime(currentTime)
@@ -176,6 +237,8 @@ public final class JSONWebTokenUtil {
                 .subject(cs.getSubject())
                 .claim(UID_CLAIM_NAME, cs.getClaim(UID_CLAIM_NAME))
                 .claim(EMAIL_ADDR_CLAIM_NAME, cs.getClaim(EMAIL_ADDR_CLAIM_NAME))
+                .claim(ROLE_CLAIM_NAME, cs.getClaim(ROLE_CLAIM_NAME))
+                .claim(TOKEN_VERSION_CLAIM_NAME, cs.getClaim(TOKEN_VERSION_CLAIM_NAME))
                 .expirationTime(expirationTime)
                 .issueTime(currentTime)
                 .notBeforeTime(currentTime)
@@ -201,6 +264,7 @@ public final class JSONWebTokenUtil {
      *  <li>the token subject matches the user provided</li>
      *  <li>the token UID_CLAIM_NAME claim matches the user id provided</li>
      *  <li>the token EMAIL_ADDR_CLAIM_NAME claim matches the user email address provided</li>
+     *  <li>the token TOKEN_VERSION_CLAIM_NAME claim, if present, is not older than the user token version</li>
      * </ul>
      *
      * @param token The serialized SignedJWT token.
@@ -233,6 +297,11 @@ public final class JSONWebTokenUtil {
             if(!Objects.equals(user.getUsername(), cs.getSubject())) {
                 return false;
             }
+
+            Integer tokenVersion = cs.getIntegerClaim(TOKEN_VERSION_CLAIM_NAME);
+            if(Objects.nonNull(tokenVersion) && tokenVersion < user.getTokenVersion()) {
+                return false;
+            }
         } catch (JOSEException | ParseException e) {
             return false;
         }
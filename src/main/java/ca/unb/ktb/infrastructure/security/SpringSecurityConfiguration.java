@@ -1,6 +1,11 @@
 package ca.unb.ktb.infrastructure.security;
 
+import ca.unb.ktb.infrastructure.ratelimit.RateLimitProperties;
+import ca.unb.ktb.infrastructure.ratelimit.RateLimiter;
+import ca.unb.ktb.infrastructure.ratelimit.RateLimitingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,6 +18,7 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -28,6 +34,20 @@ public class SpringSecurityConfiguration extends WebSecurityConfigurerAdapter {
 
     @Autowired AuthenticationEntryPoint authenticationEntryPoint;
 
+    @Autowired TokenVersionTable tokenVersionTable;
+
+    @Autowired TokenRevocationList tokenRevocationList;
+
+    @Autowired MeterRegistry meterRegistry;
+
+    @Autowired RateLimitProperties rateLimitProperties;
+
+    @Autowired RateLimiter rateLimiter;
+
+    @Value("${password-encoder.threads:0}") private int passwordEncoderThreads;
+
+    @Value("${password-encoder.queue-capacity:64}") private int passwordEncoderQueueCapacity;
+
     @Autowired
     public void configureGlobal(AuthenticationManagerBuilder auth) throws Exception {
         auth
@@ -65,7 +85,13 @@ public class SpringSecurityConfiguration extends WebSecurityConfigurerAdapter {
                 .anyRequest()
                     .authenticated()
                 .and()
-                    .addFilter(new AuthorizationProcessingFilter(authenticationManagerBean(), userPrincipalService));
+                    .addFilter(new AuthorizationProcessingFilter(authenticationManagerBean(), userPrincipalService,
+                            tokenVersionTable, tokenRevocationList));
+
+        if(rateLimitProperties.isEnabled()) {
+            http.addFilterAfter(new RateLimitingFilter(rateLimitProperties, rateLimiter, meterRegistry),
+                    BasicAuthenticationFilter.class);
+        }
     }
 
     @Bean
@@ -87,8 +113,17 @@ public class SpringSecurityConfiguration extends WebSecurityConfigurerAdapter {
         return source;
     }
 
+    /**
+     * BCrypt password encoder, run on a bounded pool of {@code password-encoder.threads} threads (one per available
+     * processor by default).
+     *
+     * @return The password encoder.
+     * @see BoundedPasswordEncoder
+     * */
     @Bean
     public PasswordEncoder passwordEncoderBean() {
-        return new BCryptPasswordEncoder(10);
+        int threads = passwordEncoderThreads > 0 ? passwordEncoderThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(10), threads, passwordEncoderQueueCapacity,
+                meterRegistry);
     }
 }
\ No newline at end of file
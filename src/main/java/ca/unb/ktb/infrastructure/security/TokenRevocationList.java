@@ -0,0 +1,137 @@
+package ca.unb.ktb.infrastructure.security;
+
+import ca.unb.ktb.application.dao.RevokedTokenJdbcDAO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * List of tokens revoked before their expiration, such as when a user signs out. Tokens are identified by their jti
+ * claim.
+ *
+ * Revocations are persisted, and an in-memory {@link BloomFilter} over the revoked jti claims is kept so that the
+ * database is only queried for tokens that might be revoked; tokens that are not revoked are almost always rejected by
+ * the filter alone. Filter hits are verified against the database, since the filter reports false positives.
+ *
+ * Revocations made by this instance are added to the filter immediately. The filter is rebuilt from the database every
+ * {@code jwt.revocation.refresh-interval} milliseconds, picking up revocations made by other instances and dropping
+ * those that have expired. Until the filter is first loaded, every token is verified against the database. Revocations
+ * are purged from the database once the token expires, every {@code jwt.revocation.purge-interval} milliseconds.
+ * */
+@Component
+@Slf4j
+public class TokenRevocationList {
+
+    @Autowired private RevokedTokenJdbcDAO revokedTokenJdbcDAO;
+
+    @Value("${jwt.revocation.expected-insertions:100000}") private int expectedInsertions;
+
+    @Value("${jwt.revocation.false-positive-probability:0.001}") private double falsePositiveProbability;
+
+    @Value("${jwt.revocation.purge-batch-size:1000}") private int purgeBatchSize;
+
+    private volatile BloomFilter filter;
+
+    private volatile Set<String> recentlyRevoked = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Revoke a token until it expires.
+     *
+     * @param jti The jti claim of the token.
+     * @param userId The id of the user to which the token was issued.
+     * @param expiresAt The expiration time of the token.
+     * */
+    public void revoke(final String jti, final Long userId, final Date expiresAt) {
+        revokedTokenJdbcDAO.insertRevokedToken(jti, userId, expiresAt);
+
+        recentlyRevoked.add(jti);
+        BloomFilter current = filter;
+        if(current != null) {
+            current.put(jti);
+        }
+    }
+
+    /**
+     * Whether a token has been revoked. The database is only queried if the filter reports that the token might be
+     * revoked, or if the filter has not yet been loaded. If the database cannot be queried, the token is treated as
+     * revoked.
+     *
+     * @param jti The jti claim of the token.
+     * @return true if the token has been revoked, false otherwise.
+     * */
+    public boolean isRevoked(final String jti) {
+        BloomFilter current = filter;
+        if(current != null && !current.mightContain(jti)) {
+            return false;
+        }
+
+        try {
+            return revokedTokenJdbcDAO.existsActiveRevokedToken(jti);
+        } catch(DataAccessException e) {
+            LOG.warn("Unable to verify whether token '{}' is revoked; rejecting token. {}", jti, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Rebuild the filter from the revocations of tokens that have not yet expired.
+     *
+     * Revocations made by this instance since the previous rebuild are carried over to the new filter once it is
+     * swapped in, since they may have been committed after the database was read, or added to the previous filter.
+     * */
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval:30000}")
+    public void rebuild() {
+        final Set<String> carried = recentlyRevoked;
+        recentlyRevoked = ConcurrentHashMap.newKeySet();
+
+        final List<String> revoked = new ArrayList<>();
+        try {
+            revokedTokenJdbcDAO.findActiveRevokedTokens(revoked::add);
+        } catch(DataAccessException e) {
+            recentlyRevoked.addAll(carried);
+            LOG.warn("Unable to rebuild token revocation filter; revocations by other instances are delayed. {}",
+                    e.getMessage());
+            return;
+        }
+
+        BloomFilter next = new BloomFilter(Math.max(expectedInsertions, 2L * revoked.size()), falsePositiveProbability);
+        revoked.forEach(next::put);
+
+        filter = next;
+        carried.forEach(next::put);
+        recentlyRevoked.forEach(next::put);
+
+        LOG.debug("Rebuilt token revocation filter with {} revoked tokens ({} bits, {} hashes)", revoked.size(),
+                next.bitSize(), next.hashCount());
+    }
+
+    /**
+     * Purge the revocations of tokens that have expired, in batches of {@code jwt.revocation.purge-batch-size}.
+     * */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:3600000}")
+    public void purgeExpired() {
+        try {
+            int purged = 0;
+            int deleted;
+            do {
+                deleted = revokedTokenJdbcDAO.deleteExpiredRevokedTokens(purgeBatchSize);
+                purged += deleted;
+            } while(deleted == purgeBatchSize);
+
+            if(purged > 0) {
+                LOG.info("Purged {} expired token revocations", purged);
+            }
+        } catch(DataAccessException e) {
+            LOG.warn("Unable to purge expired token revocations. {}", e.getMessage());
+        }
+    }
+}
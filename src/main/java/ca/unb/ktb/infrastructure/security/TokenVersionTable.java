@@ -0,0 +1,97 @@
+package ca.unb.ktb.infrastructure.security;
+
+import ca.unb.ktb.application.dao.UserJdbcDAO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory table of the token versions of users whose tokens have been revoked, used to authenticate requests from
+ * the claims of a token alone when {@code jwt.stateless} is enabled.
+ *
+ * Every token carries the token version of its user at the time it was issued. A token is revoked once the version of
+ * its user is incremented, such as when the user changes their password or deletes their account. Users whose tokens
+ * have never been revoked have version zero, and are not held in the table, so the table stays small.
+ *
+ * Revocations made by this instance take effect as soon as the transaction that made them commits. Revocations made
+ * by other instances take effect once the table is refreshed from the database, every
+ * {@code jwt.token-version-refresh-interval} milliseconds. Versions never decrease, so entries are never removed while
+ * the application is running. Deleted accounts are only purged once the tokens issued before the deletion have expired,
+ * so the version of a deleted user is read by every instance for as long as any of its tokens could be presented.
+ * */
+@Component
+@Slf4j
+public class TokenVersionTable {
+
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    @Autowired private UserJdbcDAO userJdbcDAO;
+
+    @Value("${jwt.stateless:false}") private boolean enabled;
+
+    /**
+     * Whether requests are authenticated from the claims of a token alone.
+     *
+     * @return true if stateless authentication is enabled, false otherwise.
+     * */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether a token carrying the given version has been revoked.
+     *
+     * @param userId The id of the user to which the token was issued.
+     * @param tokenVersion The token version claim of the token.
+     * @return true if the token has been revoked, false otherwise.
+     * */
+    public boolean isRevoked(final Long userId, final int tokenVersion) {
+        return tokenVersion < versions.getOrDefault(userId, 0);
+    }
+
+    /**
+     * Record the new token version of a user, revoking tokens carrying older versions. If a transaction is active, the
+     * version is recorded once the transaction commits.
+     *
+     * @param userId The id of the user.
+     * @param tokenVersion The new token version of the user, as persisted.
+     * */
+    public void revoke(final Long userId, final int tokenVersion) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+            versions.merge(userId, tokenVersion, Math::max);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                versions.merge(userId, tokenVersion, Math::max);
+            }
+        });
+    }
+
+    /**
+     * Refresh the table with the token versions of all users whose tokens have been revoked.
+     * */
+    @Scheduled(fixedDelayString = "${jwt.token-version-refresh-interval:30000}")
+    public void refresh() {
+        if(!enabled) {
+            return;
+        }
+
+        try {
+            userJdbcDAO.findRevokedTokenVersions((userId, tokenVersion) ->
+                    versions.merge(userId, tokenVersion, Math::max));
+        } catch(DataAccessException e) {
+            LOG.warn("Unable to refresh token versions; revocations by other instances are delayed. {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package ca.unb.ktb.infrastructure.security;
+
+import ca.unb.ktb.application.dao.UserJdbcDAO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the usernames and email addresses in use, used to answer identity availability checks without
+ * querying the database for identities that are definitely not in use.
+ *
+ * Identities are held in a {@link BloomFilter}, normalized to lower case. Since an identity in use is always in the
+ * filter, an identity the filter rejects is definitely available; identities the filter might contain must be confirmed
+ * against the database. Identities stay in the filter once their user changes them or is purged, until the filter is
+ * rebuilt from the database every {@code identity-index.refresh-interval} milliseconds. Until the filter is first
+ * loaded, every identity might be in use.
+ *
+ * Identities registered or changed through other instances are added by the
+ * {@link ca.unb.ktb.infrastructure.cache.CacheInvalidationListener}, which receives the ids of the users whose cache
+ * entries they invalidate, and rebuilds the filter whenever invalidations may have been missed. Such identities may be
+ * reported as available until the invalidation is received, typically within milliseconds of the commit, or until the
+ * next rebuild if cross-instance invalidation is disabled. Registration itself is still guarded by the unique
+ * constraints of the database.
+ * */
+@Component
+@Slf4j
+public class UserIdentityIndex {
+
+    private static final String USERNAME_PREFIX = "u:";
+
+    private static final String EMAIL_PREFIX = "e:";
+
+    @Autowired private UserJdbcDAO userJdbcDAO;
+
+    @Value("${identity-index.expected-insertions:100000}") private int expectedInsertions;
+
+    @Value("${identity-index.false-positive-probability:0.01}") private double falsePositiveProbability;
+
+    private volatile BloomFilter filter;
+
+    private volatile Set<String> recentlyAdded = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Whether a username might be in use.
+     *
+     * @param username The username.
+     * @return false if the username is definitely not in use, true if it might be.
+     * */
+    public boolean mightContainUsername(final String username) {
+        return mightContain(USERNAME_PREFIX + normalize(username));
+    }
+
+    /**
+     * Whether an email address might be in use.
+     *
+     * @param email The email address.
+     * @return false if the email address is definitely not in use, true if it might be.
+     * */
+    public boolean mightContainEmail(final String email) {
+        return mightContain(EMAIL_PREFIX + normalize(email));
+    }
+
+    /**
+     * Add the identities of a user that was created or changed its identities.
+     *
+     * @param username The username of the user, if set.
+     * @param email The email address of the user, if set.
+     * */
+    public void add(@Nullable final String username, @Nullable final String email) {
+        if(Objects.nonNull(username)) {
+            put(USERNAME_PREFIX + normalize(username));
+        }
+
+        if(Objects.nonNull(email)) {
+            put(EMAIL_PREFIX + normalize(email));
+        }
+    }
+
+    /**
+     * Add the identities of users that were created or changed their identities through another instance.
+     *
+     * @param userIds The ids of the users.
+     * */
+    public void addUsers(final Collection<Long> userIds) {
+        try {
+            userJdbcDAO.findUserIdentities(userIds, this::add);
+        } catch(DataAccessException e) {
+            LOG.warn("Unable to add identities of users {} to user identity index; delayed until next rebuild. {}",
+                    userIds, e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the filter from the identities of all users.
+     *
+     * Identities added by this instance since the previous rebuild are carried over to the new filter once it is
+     * swapped in, since they may have been committed after the database was read, or added to the previous filter.
+     * Rebuilds are serialized, so that concurrent rebuilds cannot drop each other's carried identities.
+     * */
+    @Scheduled(fixedDelayString = "${identity-index.refresh-interval:60000}")
+    public synchronized void rebuild() {
+        final Set<String> carried = recentlyAdded;
+        recentlyAdded = ConcurrentHashMap.newKeySet();
+
+        final List<String> identities = new ArrayList<>();
+        try {
+            userJdbcDAO.findUserIdentities((username, email) -> {
+                if(Objects.nonNull(username)) {
+                    identities.add(USERNAME_PREFIX + normalize(username));
+                }
+
+                if(Objects.nonNull(email)) {
+                    identities.add(EMAIL_PREFIX + normalize(email));
+                }
+            });
+        } catch(DataAccessException e) {
+            recentlyAdded.addAll(carried);
+            LOG.warn("Unable to rebuild user identity index; identities registered by other instances are delayed. {}",
+                    e.getMessage());
+            return;
+        }
+
+        BloomFilter next = new BloomFilter(Math.max(expectedInsertions, 2L * identities.size()), falsePositiveProbability);
+        identities.forEach(next::put);
+
+        filter = next;
+        carried.forEach(next::put);
+        recentlyAdded.forEach(next::put);
+
+        LOG.debug("Rebuilt user identity index with {} identities ({} bits, {} hashes)", identities.size(),
+                next.bitSize(), next.hashCount());
+    }
+
+    private boolean mightContain(final String identity) {
+        BloomFilter current = filter;
+        return Objects.isNull(current) || current.mightContain(identity);
+    }
+
+    private void put(final String identity) {
+        recentlyAdded.add(identity);
+        BloomFilter current = filter;
+        if(Objects.nonNull(current)) {
+            current.put(identity);
+        }
+    }
+
+    private static String normalize(final String identity) {
+        return identity.toLowerCase(Locale.ROOT);
+    }
+}
@@ -13,11 +13,19 @@ public class UserPrincipal extends org.springframework.security.core.userdetails
 
     private final String email;
 
+    private final int tokenVersion;
+
     public UserPrincipal(final Long id, final String username, final String email, final String password,
                          final Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, email, password, authorities, 0);
+    }
+
+    public UserPrincipal(final Long id, final String username, final String email, final String password,
+                         final Collection<? extends GrantedAuthority> authorities, final int tokenVersion) {
         super(username, password, authorities);
         this.id = id;
         this.email = email;
+        this.tokenVersion = tokenVersion;
     }
 
     private UserPrincipal(final User user) {
@@ -25,6 +33,7 @@ public class UserPrincipal extends org.springframework.security.core.userdetails
                 Collections.singletonList(new SimpleGrantedAuthority(user.getRole().name())));
         this.id = user.getId();
         this.email = user.getEmail();
+        this.tokenVersion = user.getTokenVersion();
     }
 
     public Long getId() {
@@ -35,6 +44,10 @@ public class UserPrincipal extends org.springframework.security.core.userdetails
         return this.email;
     }
 
+    public int getTokenVersion() {
+        return this.tokenVersion;
+    }
+
     public static UserPrincipal adapt(final User user) {
         return new UserPrincipal(user);
     }
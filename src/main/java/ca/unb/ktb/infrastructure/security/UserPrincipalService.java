@@ -18,6 +18,7 @@ public class UserPrincipalService implements UserDetailsService {
     @Transactional
     public UserPrincipal loadUserByUsername(final String username) {
         User user = userDAO.findByUsername(username)
+                .filter(persistedUser -> !persistedUser.isDeleted())
                 .orElseThrow(() -> new UserNotFoundException(String.format("user not found with username '%s'", username)));
 
         return UserPrincipal.adapt(user);
@@ -26,6 +27,7 @@ public class UserPrincipalService implements UserDetailsService {
     @Transactional
     public UserPrincipal loadByEmailAddress(final String emailAddress) {
         User user = userDAO.findByEmail(emailAddress)
+                .filter(persistedUser -> !persistedUser.isDeleted())
                 .orElseThrow(() -> new UserNotFoundException(String.format("user not found with email '%s'", emailAddress)));
 
         return UserPrincipal.adapt(user);
@@ -34,6 +36,7 @@ public class UserPrincipalService implements UserDetailsService {
     @Transactional
     public UserPrincipal loadUserById(final Long userId) {
         User user = userDAO.findById(userId)
+                .filter(persistedUser -> !persistedUser.isDeleted())
                 .orElseThrow(() -> new UserNotFoundException(String.format("user not found with id: '%s'", userId)));
 
         return UserPrincipal.adapt(user);
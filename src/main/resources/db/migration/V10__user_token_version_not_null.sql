@@ -0,0 +1,26 @@
+/**
+Backfill the token version of the users that existed before V6, then make the column NOT NULL.
+
+Rows are updated in batches of id ranges rather than by a single update over the whole table, and the migration only
+takes row locks until the column is made NOT NULL. Setting NOT NULL holds an exclusive lock while scanning the table for
+nulls, but does not rewrite it.
+*/
+
+DO $$
+DECLARE
+  batch_size CONSTANT BIGINT := 10000;
+  lower_id   BIGINT;
+  max_id     BIGINT;
+BEGIN
+  SELECT min(id), max(id) INTO lower_id, max_id FROM users WHERE token_version IS NULL;
+
+  WHILE lower_id <= max_id LOOP
+    UPDATE users SET token_version = 0
+    WHERE id >= lower_id AND id < lower_id + batch_size AND token_version IS NULL;
+
+    lower_id := lower_id + batch_size;
+  END LOOP;
+END
+$$;
+
+ALTER TABLE users ALTER COLUMN token_version SET NOT NULL;
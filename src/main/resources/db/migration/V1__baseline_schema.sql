@@ -0,0 +1,73 @@
+/**
+Baseline schema, equivalent to the schema previously generated by Hibernate (spring.jpa.hibernate.ddl-auto = update).
+
+Databases that were created by Hibernate are baselined at this version (spring.flyway.baseline-on-migrate = true), so
+this script only runs against empty databases.
+*/
+
+CREATE TABLE physical_addresses (
+  id                       BIGSERIAL PRIMARY KEY,
+  created_at               TIMESTAMP NOT NULL,
+  updated_at               TIMESTAMP NOT NULL,
+  city                     VARCHAR(255),
+  country                  VARCHAR(255),
+  postal_code              VARCHAR(255),
+  primary_street_address   VARCHAR(255),
+  province                 VARCHAR(255),
+  secondary_street_address VARCHAR(255)
+);
+
+CREATE TABLE users (
+  id                         BIGSERIAL PRIMARY KEY,
+  created_at                 TIMESTAMP NOT NULL,
+  updated_at                 TIMESTAMP NOT NULL,
+  bio                        VARCHAR(255),
+  email                      VARCHAR(255) CONSTRAINT uk_users_email UNIQUE,
+  first_name                 VARCHAR(255),
+  last_name                  VARCHAR(255),
+  middle_name                VARCHAR(255),
+  password                   VARCHAR(255),
+  profile_picture_object_key VARCHAR(255),
+  role                       VARCHAR(16),
+  username                   VARCHAR(255) CONSTRAINT uk_users_username UNIQUE,
+  user_address_id            BIGINT CONSTRAINT fk_users_user_address REFERENCES physical_addresses (id)
+);
+
+CREATE TABLE buckets (
+  id          BIGSERIAL PRIMARY KEY,
+  created_at  TIMESTAMP NOT NULL,
+  updated_at  TIMESTAMP NOT NULL,
+  description TEXT,
+  is_public   BOOLEAN NOT NULL,
+  name        VARCHAR(255),
+  owner_id    BIGINT NOT NULL CONSTRAINT fk_buckets_owner REFERENCES users (id)
+);
+
+CREATE TABLE items (
+  id          BIGSERIAL PRIMARY KEY,
+  created_at  TIMESTAMP NOT NULL,
+  updated_at  TIMESTAMP NOT NULL,
+  description TEXT,
+  is_complete BOOLEAN NOT NULL,
+  link        VARCHAR(255),
+  name        VARCHAR(255),
+  parent_id   BIGINT NOT NULL CONSTRAINT fk_items_parent REFERENCES buckets (id)
+);
+
+CREATE TABLE users_relationships (
+  id           BIGSERIAL PRIMARY KEY,
+  created_at   TIMESTAMP NOT NULL,
+  updated_at   TIMESTAMP NOT NULL,
+  follower_id  BIGINT NOT NULL CONSTRAINT fk_users_relationships_follower REFERENCES users (id),
+  following_id BIGINT NOT NULL CONSTRAINT fk_users_relationships_following REFERENCES users (id),
+  CONSTRAINT uk_users_relationships_follower_following UNIQUE (follower_id, following_id)
+);
+
+CREATE TABLE users_bucket_relationships (
+  id           BIGSERIAL PRIMARY KEY,
+  created_at   TIMESTAMP NOT NULL,
+  updated_at   TIMESTAMP NOT NULL,
+  follower_id  BIGINT NOT NULL CONSTRAINT fk_users_bucket_relationships_follower REFERENCES users (id),
+  following_id BIGINT NOT NULL CONSTRAINT fk_users_bucket_relationships_following REFERENCES buckets (id),
+  CONSTRAINT uk_users_bucket_relationships_follower_following UNIQUE (follower_id, following_id)
+);
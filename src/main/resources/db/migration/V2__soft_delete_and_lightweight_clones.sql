@@ -0,0 +1,12 @@
+/**
+Columns supporting soft-deleted user accounts, and lightweight copy-on-write bucket clones.
+
+Databases that were created by Hibernate before migrations were introduced may already contain these columns, so each
+column is only added if it does not exist.
+*/
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP;
+
+ALTER TABLE buckets ADD COLUMN IF NOT EXISTS source_id BIGINT CONSTRAINT fk_buckets_source REFERENCES buckets (id);
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS origin_id BIGINT;
@@ -0,0 +1,32 @@
+/**
+Indexes matching the filter and sort order of the DAO queries.
+
+Indexes are built concurrently, so that the migration does not block writes to the tables being indexed. Flyway runs
+migrations containing CREATE INDEX CONCURRENTLY outside of a transaction, so this script must not contain any other
+kind of statement. If a concurrent build fails, the invalid index must be dropped before the migration is repaired and
+re-run.
+*/
+
+-- buckets by owner, most recent first (owner bucket lists and counts, bucket feeds, account purge)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_buckets_owner_id_created_at ON buckets (owner_id, created_at DESC);
+
+-- lightweight clones of a source bucket
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_buckets_source_id ON buckets (source_id) WHERE source_id IS NOT NULL;
+
+-- items of a bucket, most recent first (bucket item lists, item feeds, bucket duplication and deletion)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_items_parent_id_created_at ON items (parent_id, created_at DESC);
+
+-- users followed by a user, most recent first (user feeds)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_relationships_follower_id_created_at ON users_relationships (follower_id, created_at DESC);
+
+-- followers of a user (follower counts, account purge)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_relationships_following_id ON users_relationships (following_id);
+
+-- buckets followed by a user, most recent first (bucket follow feeds)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_bucket_relationships_follower_id_created_at ON users_bucket_relationships (follower_id, created_at DESC);
+
+-- followers of a bucket (bucket followers, bucket deletion)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_bucket_relationships_following_id ON users_bucket_relationships (following_id);
+
+-- soft-deleted user accounts awaiting purge
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_deleted_at ON users (deleted_at) WHERE deleted_at IS NOT NULL;
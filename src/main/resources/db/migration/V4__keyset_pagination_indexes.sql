@@ -0,0 +1,20 @@
+/**
+Indexes matching the keyset conditions and id ordering of the paginated list queries.
+
+Indexes are built concurrently, so that the migration does not block writes to the tables being indexed. Flyway runs
+migrations containing CREATE INDEX CONCURRENTLY outside of a transaction, so this script must not contain any other
+kind of statement. If a concurrent build fails, the invalid index must be dropped before the migration is repaired and
+re-run.
+*/
+
+-- buckets of an owner, in order of id (owner bucket lists)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_buckets_owner_id_id ON buckets (owner_id, id);
+
+-- items of a bucket, in order of id (bucket item lists)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_items_parent_id_id ON items (parent_id, id);
+
+-- followers of a user, in order of follower id (user follower lists)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_relationships_following_id_follower_id ON users_relationships (following_id, follower_id);
+
+-- followers of a bucket, in order of follower id (bucket follower lists)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_bucket_relationships_following_id_follower_id ON users_bucket_relationships (following_id, follower_id);
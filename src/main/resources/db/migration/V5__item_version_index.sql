@@ -0,0 +1,11 @@
+/**
+Index matching the item version query used to answer conditional requests for the items of a bucket.
+
+Indexes are built concurrently, so that the migration does not block writes to the tables being indexed. Flyway runs
+migrations containing CREATE INDEX CONCURRENTLY outside of a transaction, so this script must not contain any other
+kind of statement. If a concurrent build fails, the invalid index must be dropped before the migration is repaired and
+re-run.
+*/
+
+-- item count and last update time of a bucket, read from the index alone (item list entity tags)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_items_parent_id_updated_at ON items (parent_id, updated_at);
@@ -0,0 +1,12 @@
+/**
+Per-user token version, embedded in issued tokens. Incrementing the version of a user revokes every token previously
+issued to the user.
+
+Adding a column with a default rewrites the whole table before PostgreSQL 11, so the column is added nullable and the
+default is set separately; both only change the catalog. Existing rows are backfilled in batches and the column is made
+NOT NULL by V10.
+*/
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version INTEGER;
+
+ALTER TABLE users ALTER COLUMN token_version SET DEFAULT 0;
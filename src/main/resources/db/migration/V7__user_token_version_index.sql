@@ -0,0 +1,11 @@
+/**
+Index matching the token version query, which periodically reads the versions of users whose tokens have been revoked.
+
+Indexes are built concurrently, so that the migration does not block writes to the tables being indexed. Flyway runs
+migrations containing CREATE INDEX CONCURRENTLY outside of a transaction, so this script must not contain any other
+kind of statement. If a concurrent build fails, the invalid index must be dropped before the migration is repaired and
+re-run.
+*/
+
+-- users whose tokens have been revoked at least once (token version table)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_revoked_token_version ON users (id, token_version) WHERE token_version > 0;
@@ -0,0 +1,15 @@
+/**
+Tokens revoked before their expiration, such as when a user signs out. Tokens are identified by their jti claim.
+
+Rows are only needed until the token expires, after which they are purged.
+*/
+
+CREATE TABLE revoked_tokens (
+  jti        VARCHAR(64) PRIMARY KEY,
+  user_id    BIGINT NOT NULL,
+  expires_at TIMESTAMP NOT NULL,
+  created_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- expired revocations (revoked token purge)
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
@@ -0,0 +1,34 @@
+/**
+Transactional outbox of domain events, and the checkpoints of the projections that consume them.
+
+Events are appended in the transaction of the write that produced them. Each event records the id of that transaction,
+and events are consumed in (transaction_id, id) order once no older transaction is still running, so that an event
+committed late is never skipped by a projection that has already moved past it. Events are assigned to a partition by
+aggregate, and each projection holds one checkpoint per partition.
+*/
+
+CREATE TABLE domain_events (
+  id             BIGSERIAL PRIMARY KEY,
+  event_type     VARCHAR(64) NOT NULL,
+  aggregate_type VARCHAR(32) NOT NULL,
+  aggregate_id   BIGINT NOT NULL,
+  partition_key  INTEGER NOT NULL,
+  payload        JSONB NOT NULL,
+  transaction_id BIGINT NOT NULL DEFAULT txid_current(),
+  created_at     TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- events of a partition after a checkpoint (projection workers)
+CREATE INDEX idx_domain_events_partition_key_transaction_id_id ON domain_events (partition_key, transaction_id, id);
+
+-- events older than the retention period (outbox purge)
+CREATE INDEX idx_domain_events_created_at ON domain_events (created_at);
+
+CREATE TABLE projection_checkpoints (
+  projection     VARCHAR(64) NOT NULL,
+  partition_key  INTEGER NOT NULL,
+  transaction_id BIGINT NOT NULL DEFAULT 0,
+  event_id       BIGINT NOT NULL DEFAULT 0,
+  updated_at     TIMESTAMP NOT NULL DEFAULT now(),
+  PRIMARY KEY (projection, partition_key)
+);
@@ -0,0 +1,126 @@
+package ca.unb.ktb.api;
+
+import ca.unb.ktb.application.dao.BucketDAO;
+import ca.unb.ktb.application.dao.UserDAO;
+import ca.unb.ktb.core.model.Bucket;
+import ca.unb.ktb.core.model.User;
+import ca.unb.ktb.infrastructure.security.JSONWebTokenUtil;
+import ca.unb.ktb.infrastructure.security.UserPrincipal;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Verify that users and buckets can be retrieved by id list, and that deleted users and private buckets of other users
+ * are omitted.
+ * */
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class BatchGetIntegrationTest extends APIIntegrationTestSuite {
+
+    @Autowired private UserDAO userDAO;
+
+    @Autowired private BucketDAO bucketDAO;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private User principal;
+
+    private User other;
+
+    private User deleted;
+
+    private String token;
+
+    private final List<Bucket> buckets = new ArrayList<>();
+
+    @BeforeEach void setup() {
+        principal = createUser("batchget");
+        other = createUser("batchget0");
+        deleted = createUser("batchget1");
+        deleted.setDeletedAt(new Date());
+        deleted = userDAO.save(deleted);
+        token = JSONWebTokenUtil.generateToken(UserPrincipal.adapt(principal));
+
+        createBucket(principal, false);
+        createBucket(other, true);
+        createBucket(other, true);
+        createBucket(other, false);
+    }
+
+    @AfterEach void teardown() {
+        bucketDAO.deleteAll(buckets);
+        userDAO.delete(deleted);
+        userDAO.delete(other);
+        userDAO.delete(principal);
+    }
+
+    @Test void batchGetUsersTest() throws IOException {
+        JsonNode users = batchGet("/users:batchGet?ids=" + other.getId() + "," + deleted.getId() + "," +
+                principal.getId() + "," + other.getId());
+
+        Assertions.assertEquals(2, users.size());
+        Assertions.assertEquals(other.getId().longValue(), users.get(0).get("id").asLong());
+        Assertions.assertEquals(principal.getId().longValue(), users.get(1).get("id").asLong());
+    }
+
+    @Test void batchGetBucketsTest() throws IOException {
+        StringBuilder ids = new StringBuilder();
+        for(Bucket bucket : buckets) {
+            ids.append(bucket.getId()).append(',');
+        }
+
+        JsonNode response = batchGet("/buckets:batchGet?ids=" + ids);
+
+        Assertions.assertEquals(3, response.get("buckets").size());
+        Assertions.assertEquals(2, response.get("owners").size());
+    }
+
+    @Test void batchGetWithoutIdsTest() {
+        ResponseEntity<String> response = restTemplate.exchange("/users:batchGet?ids=", HttpMethod.GET,
+                APITestUtils.buildAuthenticatedHTTPRequest(token), String.class);
+
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    private JsonNode batchGet(final String uri) throws IOException {
+        ResponseEntity<String> response = restTemplate.exchange(uri, HttpMethod.GET,
+                APITestUtils.buildAuthenticatedHTTPRequest(token), String.class);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        return mapper.readTree(response.getBody());
+    }
+
+    private User createUser(final String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@email.com");
+        user.setFirstName("Batch");
+        user.setLastName("Get");
+        user.setPassword("password");
+        user.setRole(User.Role.ROLE_USER);
+
+        return userDAO.save(user);
+    }
+
+    private void createBucket(final User owner, final boolean isPublic) {
+        Bucket bucket = new Bucket();
+        bucket.setName("Bucket of " + owner.getUsername());
+        bucket.setIsPublic(isPublic);
+        bucket.setOwner(owner);
+
+        buckets.add(bucketDAO.save(bucket));
+    }
+}
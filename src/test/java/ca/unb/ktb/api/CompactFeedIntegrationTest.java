@@ -0,0 +1,108 @@
+package ca.unb.ktb.api;
+
+import ca.unb.ktb.application.dao.UserDAO;
+import ca.unb.ktb.application.dao.UserRelationshipDAO;
+import ca.unb.ktb.core.model.User;
+import ca.unb.ktb.core.model.UserRelationship;
+import ca.unb.ktb.infrastructure.security.JSONWebTokenUtil;
+import ca.unb.ktb.infrastructure.security.UserPrincipal;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verify that the compact feed format lists each referenced user once, and that feed entries reference users by id.
+ *
+ * The principal user follows two users, who both follow the same third user.
+ * */
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class CompactFeedIntegrationTest extends APIIntegrationTestSuite {
+
+    @Autowired private UserDAO userDAO;
+
+    @Autowired private UserRelationshipDAO userRelationshipDAO;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private User principal;
+
+    private User followed;
+
+    private String token;
+
+    private final List<User> users = new ArrayList<>();
+
+    private final List<UserRelationship> userRelationships = new ArrayList<>();
+
+    @BeforeEach void setup() {
+        principal = createUser("compactfeed");
+        followed = createUser("compactfeed0");
+        token = JSONWebTokenUtil.generateToken(UserPrincipal.adapt(principal));
+
+        for(int i = 1; i <= 2; i++) {
+            User user = createUser("compactfeed" + i);
+            userRelationships.add(userRelationshipDAO.save(new UserRelationship(principal, user)));
+            userRelationships.add(userRelationshipDAO.save(new UserRelationship(user, followed)));
+        }
+    }
+
+    @AfterEach void teardown() {
+        userRelationshipDAO.deleteAll(userRelationships);
+        userDAO.deleteAll(users);
+    }
+
+    @Test void retrieveCompactUsersFollowedByFollowedUsersTest() throws IOException {
+        JsonNode response = retrieve("/feed/" + principal.getId() + "/following/followed_users?format=compact");
+
+        Assertions.assertEquals(3, response.get("users").size());
+        Assertions.assertTrue(response.get("users").has(followed.getId().toString()));
+        Assertions.assertFalse(response.has("buckets"));
+        Assertions.assertEquals(2, response.get("entries").size());
+
+        for(JsonNode entry : response.get("entries")) {
+            Assertions.assertTrue(response.get("users").has(entry.get("userId").asText()));
+            Assertions.assertEquals(followed.getId().longValue(), entry.get("userIds").get(0).asLong());
+        }
+    }
+
+    @Test void retrieveFullUsersFollowedByFollowedUsersTest() throws IOException {
+        JsonNode response = retrieve("/feed/" + principal.getId() + "/following/followed_users");
+
+        Assertions.assertFalse(response.has("users"));
+        Assertions.assertEquals(2, response.get("followedUsersRecentlyFollowedUsers").size());
+    }
+
+    private JsonNode retrieve(final String uri) throws IOException {
+        ResponseEntity<String> response = restTemplate.exchange(uri, HttpMethod.GET,
+                APITestUtils.buildAuthenticatedHTTPRequest(token), String.class);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        return mapper.readTree(response.getBody());
+    }
+
+    private User createUser(final String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@email.com");
+        user.setFirstName("Compact");
+        user.setLastName("Feed");
+        user.setPassword("password");
+        user.setRole(User.Role.ROLE_USER);
+
+        user = userDAO.save(user);
+        users.add(0, user);
+        return user;
+    }
+}
@@ -0,0 +1,166 @@
+package ca.unb.ktb.api;
+
+import ca.unb.ktb.application.dao.BucketDAO;
+import ca.unb.ktb.application.dao.ItemDAO;
+import ca.unb.ktb.application.dao.UserDAO;
+import ca.unb.ktb.application.dao.UserRelationshipDAO;
+import ca.unb.ktb.core.model.Bucket;
+import ca.unb.ktb.core.model.Item;
+import ca.unb.ktb.core.model.User;
+import ca.unb.ktb.core.model.UserRelationship;
+import ca.unb.ktb.infrastructure.security.JSONWebTokenUtil;
+import ca.unb.ktb.infrastructure.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Verify that bucket, item and profile resources carry entity tags, and that a request with a matching
+ * {@code If-None-Match} header is answered with {@code 304 Not Modified} until the resource changes.
+ * */
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ConditionalRequestIntegrationTest extends APIIntegrationTestSuite {
+
+    @Autowired private UserDAO userDAO;
+
+    @Autowired private BucketDAO bucketDAO;
+
+    @Autowired private ItemDAO itemDAO;
+
+    @Autowired private UserRelationshipDAO userRelationshipDAO;
+
+    private User principal;
+
+    private User follower;
+
+    private Bucket bucket;
+
+    private String token;
+
+    private final List<Item> items = new ArrayList<>();
+
+    private final List<UserRelationship> userRelationships = new ArrayList<>();
+
+    @BeforeEach void setup() {
+        principal = createUser("conditionalrequest");
+        follower = createUser("conditionalrequest0");
+        token = JSONWebTokenUtil.generateToken(UserPrincipal.adapt(principal));
+
+        bucket = new Bucket();
+        bucket.setName("Conditional Request Bucket");
+        bucket.setIsPublic(true);
+        bucket.setOwner(principal);
+        bucket = bucketDAO.save(bucket);
+
+        createItem();
+    }
+
+    @AfterEach void teardown() {
+        userRelationshipDAO.deleteAll(userRelationships);
+        itemDAO.deleteAll(items);
+        bucketDAO.delete(bucket);
+        userDAO.delete(follower);
+        userDAO.delete(principal);
+    }
+
+    @Test void retrieveUnmodifiedItemsTest() {
+        String uri = "/users/" + principal.getId() + "/buckets/" + bucket.getId() + "/items";
+        String eTag = assertModified(uri, null);
+
+        assertNotModified(uri, eTag);
+        createItem();
+
+        Assertions.assertNotEquals(eTag, assertModified(uri, eTag));
+    }
+
+    @Test void retrieveUnmodifiedItemTest() {
+        String uri = "/users/" + principal.getId() + "/buckets/" + bucket.getId() + "/items/" + items.get(0).getId();
+        String eTag = assertModified(uri, null);
+
+        assertNotModified(uri, eTag);
+    }
+
+    @Test void retrieveUnmodifiedBucketTest() {
+        String uri = "/users/" + principal.getId() + "/buckets/" + bucket.getId();
+        String eTag = assertModified(uri, null);
+
+        assertNotModified(uri, eTag);
+    }
+
+    @Test void retrieveUnmodifiedProfileTest() {
+        String uri = "/users/" + principal.getId() + "/profile";
+        String eTag = assertModified(uri, null);
+
+        assertNotModified(uri, eTag);
+        userRelationships.add(userRelationshipDAO.save(new UserRelationship(follower, principal)));
+
+        Assertions.assertNotEquals(eTag, assertModified(uri, eTag));
+    }
+
+    /**
+     * Issue a conditional GET request, and assert that the resource is returned along with an entity tag.
+     *
+     * @param uri The request URI.
+     * @param eTag The entity tag sent in the {@code If-None-Match} header, or null to send an unconditional request.
+     * @return The entity tag of the resource.
+     * */
+    private String assertModified(final String uri, final String eTag) {
+        ResponseEntity<String> response = exchange(uri, eTag);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertNotNull(response.getBody());
+        Assertions.assertNotNull(response.getHeaders().getETag());
+        return response.getHeaders().getETag();
+    }
+
+    private void assertNotModified(final String uri, final String eTag) {
+        ResponseEntity<String> response = exchange(uri, eTag);
+
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        Assertions.assertNull(response.getBody());
+        Assertions.assertEquals(eTag, response.getHeaders().getETag());
+    }
+
+    private ResponseEntity<String> exchange(final String uri, final String eTag) {
+        HttpHeaders headers = new HttpHeaders(APITestUtils.buildAuthenticatedHTTPRequest(token).getHeaders());
+        if(Objects.nonNull(eTag)) {
+            headers.setIfNoneMatch(eTag);
+        }
+
+        return restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private User createUser(final String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@email.com");
+        user.setFirstName("Conditional");
+        user.setLastName("Request");
+        user.setPassword("password");
+        user.setRole(User.Role.ROLE_USER);
+
+        return userDAO.save(user);
+    }
+
+    private void createItem() {
+        Item item = new Item();
+        item.setName("Conditional Request Item");
+        item.setLink("https://www.unb.ca");
+        item.setIsComplete(false);
+        item.setParent(bucket);
+
+        items.add(itemDAO.save(item));
+    }
+}
@@ -0,0 +1,157 @@
+package ca.unb.ktb.api;
+
+import ca.unb.ktb.application.dao.UserDAO;
+import ca.unb.ktb.application.dao.UserRelationshipDAO;
+import ca.unb.ktb.core.model.User;
+import ca.unb.ktb.core.model.UserRelationship;
+import ca.unb.ktb.infrastructure.security.JSONWebTokenUtil;
+import ca.unb.ktb.infrastructure.security.UserPrincipal;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Verify that list endpoints can be paged through with the {@code Link} header, and streamed as newline-delimited JSON.
+ *
+ * The principal user follows several users, which are listed with a page size smaller than the number of users.
+ * */
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class CursorPaginationIntegrationTest extends APIIntegrationTestSuite {
+
+    private static final int FOLLOWED_USERS = 5;
+
+    private static final Pattern NEXT_LINK = Pattern.compile("<([^>]+)>; rel=\"next\"");
+
+    @Autowired private UserDAO userDAO;
+
+    @Autowired private UserRelationshipDAO userRelationshipDAO;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private User principal;
+
+    private String token;
+
+    private final List<User> users = new ArrayList<>();
+
+    private final List<UserRelationship> userRelationships = new ArrayList<>();
+
+    @BeforeEach void setup() {
+        principal = createUser("cursorpagination");
+        token = JSONWebTokenUtil.generateToken(UserPrincipal.adapt(principal));
+
+        for(int i = 0; i < FOLLOWED_USERS; i++) {
+            User user = createUser("cursorpagination" + i);
+            userRelationships.add(userRelationshipDAO.save(new UserRelationship(principal, user)));
+        }
+    }
+
+    @AfterEach void teardown() {
+        userRelationshipDAO.deleteAll(userRelationships);
+        userDAO.deleteAll(users);
+    }
+
+    @Test void retrieveAllPagesTest() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        String uri = "/users/" + principal.getId() + "/following?limit=2";
+        int pages = 0;
+
+        while(Objects.nonNull(uri)) {
+            ResponseEntity<String> response = restTemplate.exchange(URI.create(uri), HttpMethod.GET,
+                    APITestUtils.buildAuthenticatedHTTPRequest(token), String.class);
+            Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+
+            for(JsonNode user : mapper.readTree(response.getBody())) {
+                ids.add(user.get("id").asLong());
+            }
+
+            uri = findNextPage(response);
+            pages++;
+        }
+
+        Assertions.assertEquals(followedUserIds(), ids);
+        Assertions.assertEquals(3, pages);
+    }
+
+    @Test void retrieveFirstPageTest() throws IOException {
+        ResponseEntity<String> response = restTemplate.exchange("/users/" + principal.getId() + "/following?limit=" +
+                (FOLLOWED_USERS + 1), HttpMethod.GET, APITestUtils.buildAuthenticatedHTTPRequest(token), String.class);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(FOLLOWED_USERS, mapper.readTree(response.getBody()).size());
+        Assertions.assertNull(findNextPage(response));
+    }
+
+    @Test void retrieveStreamTest() throws IOException {
+        ResponseEntity<String> response = restTemplate.exchange("/users/" + principal.getId() +
+                "/following?format=ndjson", HttpMethod.GET, APITestUtils.buildAuthenticatedHTTPRequest(token),
+                String.class);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(CursorPagination.APPLICATION_NDJSON_VALUE,
+                Objects.requireNonNull(response.getHeaders().getContentType()).toString());
+
+        List<Long> ids = new ArrayList<>();
+        for(String line : Objects.requireNonNull(response.getBody()).split("\n")) {
+            ids.add(mapper.readTree(line).get("id").asLong());
+        }
+
+        Assertions.assertEquals(followedUserIds(), ids);
+    }
+
+    @Test void retrieveWithInvalidLimitTest() {
+        ResponseEntity<String> response = restTemplate.exchange("/users/" + principal.getId() + "/following?limit=0",
+                HttpMethod.GET, APITestUtils.buildAuthenticatedHTTPRequest(token), String.class);
+
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    private List<Long> followedUserIds() {
+        return userRelationships.stream()
+                .map(relationship -> relationship.getFollowing().getId())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static String findNextPage(final ResponseEntity<String> response) {
+        String link = response.getHeaders().getFirst(HttpHeaders.LINK);
+        if(Objects.isNull(link)) {
+            return null;
+        }
+
+        Matcher matcher = NEXT_LINK.matcher(link);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private User createUser(final String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@email.com");
+        user.setFirstName("Cursor");
+        user.setLastName("Pagination");
+        user.setPassword("password");
+        user.setRole(User.Role.ROLE_USER);
+
+        user = userDAO.save(user);
+        users.add(0, user);
+        return user;
+    }
+}
@@ -0,0 +1,60 @@
+package ca.unb.ktb.api;
+
+import ca.unb.ktb.api.exception.server.ServiceUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+class CursorPaginationTest {
+
+    private CursorPagination cursorPagination;
+
+    @BeforeEach void setup() {
+        cursorPagination = new CursorPagination();
+        ReflectionTestUtils.setField(cursorPagination, "objectMapper", new ObjectMapper());
+        cursorPagination.setMaxConcurrentStreams(1);
+    }
+
+    @Test void writeStreamTest() throws IOException {
+        Assertions.assertEquals("1\n2\n3\n", write(cursorPagination.buildStream(produce(List.of(1, 2, 3)))));
+    }
+
+    @Test void rejectWhenTooManyStreamsTest() throws IOException {
+        ResponseEntity<StreamingResponseBody> running = cursorPagination.buildStream(produce(List.of(1)));
+
+        Assertions.assertThrows(ServiceUnavailableException.class, () ->
+                cursorPagination.buildStream(produce(List.of(2))));
+
+        Assertions.assertEquals("1\n", write(running));
+        Assertions.assertEquals("3\n", write(cursorPagination.buildStream(produce(List.of(3)))));
+    }
+
+    @Test void releaseWhenStreamFailsTest() {
+        ResponseEntity<StreamingResponseBody> failing = cursorPagination.buildStream((Consumer<Integer> consumer) -> {
+            throw new IllegalStateException("Stream failed");
+        });
+
+        Assertions.assertThrows(IllegalStateException.class, () -> write(failing));
+        Assertions.assertDoesNotThrow(() -> cursorPagination.buildStream(produce(List.of(1))));
+    }
+
+    private static Consumer<Consumer<Integer>> produce(final List<Integer> results) {
+        return results::forEach;
+    }
+
+    private static String write(final ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+
+        return outputStream.toString();
+    }
+}
@@ -0,0 +1,173 @@
+package ca.unb.ktb.api;
+
+import ca.unb.ktb.application.dao.BucketDAO;
+import ca.unb.ktb.application.dao.ItemDAO;
+import ca.unb.ktb.application.dao.UserDAO;
+import ca.unb.ktb.core.model.Bucket;
+import ca.unb.ktb.core.model.Item;
+import ca.unb.ktb.core.model.User;
+import ca.unb.ktb.infrastructure.security.JSONWebTokenUtil;
+import ca.unb.ktb.infrastructure.security.UserPrincipal;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Verify that items of a lightweight clone can still be retrieved, updated and deleted by the ids listed before the
+ * clone was materialized by a write to its source bucket.
+ * */
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class MaterializedCloneIntegrationTest extends APIIntegrationTestSuite {
+
+    private static final String ITEM_JSON = "{\"name\":\"Materialized Clone Item\",\"link\":\"https://www.unb.ca\"," +
+            "\"isComplete\":false}";
+
+    @Autowired private UserDAO userDAO;
+
+    @Autowired private BucketDAO bucketDAO;
+
+    @Autowired private ItemDAO itemDAO;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private User sourceOwner;
+
+    private User cloneOwner;
+
+    private Bucket source;
+
+    private Bucket clone;
+
+    private String sourceOwnerToken;
+
+    private String cloneOwnerToken;
+
+    @BeforeEach void setup() {
+        sourceOwner = createUser("materializedclone");
+        cloneOwner = createUser("materializedclone0");
+        sourceOwnerToken = JSONWebTokenUtil.generateToken(UserPrincipal.adapt(sourceOwner));
+        cloneOwnerToken = JSONWebTokenUtil.generateToken(UserPrincipal.adapt(cloneOwner));
+
+        source = createBucket(sourceOwner, null);
+        clone = createBucket(cloneOwner, source);
+
+        Item item = new Item();
+        item.setName("Source Item");
+        item.setLink("https://www.unb.ca");
+        item.setIsComplete(false);
+        item.setParent(source);
+        itemDAO.save(item);
+    }
+
+    @AfterEach void teardown() {
+        itemDAO.deleteAll(itemDAO.findAllByParent(clone));
+        itemDAO.deleteAll(itemDAO.findAllByParent(source));
+        bucketDAO.delete(clone);
+        bucketDAO.delete(source);
+        userDAO.delete(cloneOwner);
+        userDAO.delete(sourceOwner);
+    }
+
+    @Test void retrieveItemByIdListedBeforeMaterializationTest() throws IOException {
+        long listedId = listCloneItemId();
+        writeToSource();
+
+        ResponseEntity<String> response = exchange(HttpMethod.GET, cloneItemURI(listedId), null);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        JsonNode item = mapper.readTree(response.getBody());
+        Assertions.assertNotEquals(listedId, item.get("id").asLong());
+        Assertions.assertEquals("Source Item", item.get("name").asText());
+    }
+
+    @Test void updateItemByIdListedBeforeMaterializationTest() throws IOException {
+        long listedId = listCloneItemId();
+        writeToSource();
+
+        ResponseEntity<String> response = exchange(HttpMethod.PUT, cloneItemURI(listedId), ITEM_JSON);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(1, itemDAO.findAllByParent(clone).size());
+    }
+
+    @Test void deleteItemByIdListedBeforeMaterializationTest() throws IOException {
+        long listedId = listCloneItemId();
+        writeToSource();
+
+        ResponseEntity<String> response = exchange(HttpMethod.DELETE, cloneItemURI(listedId), null);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertTrue(itemDAO.findAllByParent(clone).isEmpty());
+        Assertions.assertEquals(2, itemDAO.findAllByParent(source).size());
+    }
+
+    /**
+     * List the items of the lightweight clone, which are the items of its source bucket.
+     *
+     * @return The id of the only item listed.
+     * */
+    private long listCloneItemId() throws IOException {
+        ResponseEntity<String> response = exchange(HttpMethod.GET,
+                "/users/" + cloneOwner.getId() + "/buckets/" + clone.getId() + "/items", null);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        JsonNode items = mapper.readTree(response.getBody());
+        Assertions.assertEquals(1, items.size());
+        return items.get(0).get("id").asLong();
+    }
+
+    /**
+     * Create an item in the source bucket, which materializes the items of the clone.
+     * */
+    private void writeToSource() {
+        ResponseEntity<String> response = restTemplate.exchange(
+                "/users/" + sourceOwner.getId() + "/buckets/" + source.getId() + "/items", HttpMethod.POST,
+                APITestUtils.buildAuthenticatedHTTPRequest(ITEM_JSON, sourceOwnerToken), String.class);
+
+        Assertions.assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        Assertions.assertEquals(1, itemDAO.findAllByParent(clone).size());
+    }
+
+    private String cloneItemURI(final long itemId) {
+        return "/users/" + cloneOwner.getId() + "/buckets/" + clone.getId() + "/items/" + itemId;
+    }
+
+    private ResponseEntity<String> exchange(final HttpMethod method, final String uri, final String json) {
+        return restTemplate.exchange(uri, method, Objects.isNull(json) ?
+                APITestUtils.buildAuthenticatedHTTPRequest(cloneOwnerToken) :
+                APITestUtils.buildAuthenticatedHTTPRequest(json, cloneOwnerToken), String.class);
+    }
+
+    private User createUser(final String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@email.com");
+        user.setFirstName("Materialized");
+        user.setLastName("Clone");
+        user.setPassword("password");
+        user.setRole(User.Role.ROLE_USER);
+
+        return userDAO.save(user);
+    }
+
+    private Bucket createBucket(final User owner, final Bucket source) {
+        Bucket bucket = new Bucket();
+        bucket.setName("Bucket of " + owner.getUsername());
+        bucket.setIsPublic(true);
+        bucket.setOwner(owner);
+        bucket.setSource(source);
+
+        return bucketDAO.save(bucket);
+    }
+}
@@ -0,0 +1,206 @@
+package ca.unb.ktb.api;
+
+import ca.unb.ktb.application.dao.BucketDAO;
+import ca.unb.ktb.application.dao.ItemDAO;
+import ca.unb.ktb.application.dao.UserBucketRelationshipDAO;
+import ca.unb.ktb.application.dao.UserDAO;
+import ca.unb.ktb.application.dao.UserRelationshipDAO;
+import ca.unb.ktb.core.model.Bucket;
+import ca.unb.ktb.core.model.Item;
+import ca.unb.ktb.core.model.User;
+import ca.unb.ktb.core.model.UserBucketRelationship;
+import ca.unb.ktb.core.model.UserRelationship;
+import ca.unb.ktb.infrastructure.security.JSONWebTokenUtil;
+import ca.unb.ktb.infrastructure.security.UserPrincipal;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verify that read endpoints issue a bounded number of SQL statements, independent of the number of rows returned.
+ *
+ * The principal user follows several users, each owning a bucket containing an item, such that loading associations
+ * one row at a time would exceed the statement budget of each endpoint. The second-level cache is cleared before each
+ * request, and the budget includes the statement that loads the principal user.
+ * */
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class StatementCountIntegrationTest extends APIIntegrationTestSuite {
+
+    private static final int FOLLOWED_USERS = 5;
+
+    @Autowired private UserDAO userDAO;
+
+    @Autowired private BucketDAO bucketDAO;
+
+    @Autowired private ItemDAO itemDAO;
+
+    @Autowired private UserRelationshipDAO userRelationshipDAO;
+
+    @Autowired private UserBucketRelationshipDAO userBucketRelationshipDAO;
+
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private User principal;
+
+    private String token;
+
+    private final List<User> users = new ArrayList<>();
+
+    private final List<Bucket> buckets = new ArrayList<>();
+
+    private final List<Item> items = new ArrayList<>();
+
+    private final List<UserRelationship> userRelationships = new ArrayList<>();
+
+    private final List<UserBucketRelationship> userBucketRelationships = new ArrayList<>();
+
+    @BeforeEach void setup() {
+        principal = createUser("statementcount");
+        token = JSONWebTokenUtil.generateToken(UserPrincipal.adapt(principal));
+
+        User previous = principal;
+        for(int i = 0; i < FOLLOWED_USERS; i++) {
+            User user = createUser("statementcount" + i);
+            Bucket bucket = createBucket(user);
+            createItem(bucket);
+
+            userRelationships.add(userRelationshipDAO.save(new UserRelationship(principal, user)));
+            userBucketRelationships.add(userBucketRelationshipDAO.save(new UserBucketRelationship(principal, bucket)));
+            if(previous != principal) {
+                userRelationships.add(userRelationshipDAO.save(new UserRelationship(previous, user)));
+            }
+
+            previous = user;
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach void teardown() {
+        userBucketRelationshipDAO.deleteAll(userBucketRelationships);
+        userRelationshipDAO.deleteAll(userRelationships);
+        itemDAO.deleteAll(items);
+        bucketDAO.deleteAll(buckets);
+        userDAO.deleteAll(users);
+    }
+
+    @Nested
+    class UserRelationshipStatementCountTest {
+
+        @Test void retrieveUsersFollowedByUserTest() {
+            assertStatementCount("/users/" + principal.getId() + "/following", 3);
+        }
+
+        @Test void retrieveUsersFollowingUserTest() {
+            assertStatementCount("/users/" + users.get(1).getId() + "/followers", 3);
+        }
+
+        @Test void retrieveBucketsFollowedByUserTest() {
+            assertStatementCount("/users/" + principal.getId() + "/following_bucket", 3);
+        }
+    }
+
+    @Nested
+    class ItemStatementCountTest {
+
+        @Test void retrieveItemByIdTest() {
+            Bucket bucket = buckets.get(0);
+            assertStatementCount("/users/" + bucket.getOwner().getId() + "/buckets/" + bucket.getId() + "/items/" +
+                    items.get(0).getId(), 3);
+        }
+
+        @Test void retrieveBucketItemsTest() {
+            Bucket bucket = buckets.get(0);
+            assertStatementCount("/users/" + bucket.getOwner().getId() + "/buckets/" + bucket.getId() + "/items", 3);
+        }
+    }
+
+    @Nested
+    class FeedStatementCountTest {
+
+        @Test void retrieveBucketsCreatedByFollowedUsersTest() {
+            assertStatementCount("/feed/" + principal.getId() + "/following/created_buckets", 3);
+        }
+
+        @Test void retrieveItemsCreatedByFollowedUsersTest() {
+            assertStatementCount("/feed/" + principal.getId() + "/following/created_items", 4);
+        }
+
+        @Test void retrieveUsersFollowedByFollowedUsersTest() {
+            assertStatementCount("/feed/" + principal.getId() + "/following/followed_users", 4);
+        }
+
+        @Test void retrieveBucketsFollowedByUserTest() {
+            assertStatementCount("/feed/" + principal.getId() + "/followed_buckets", 3);
+        }
+    }
+
+    /**
+     * Issue an authenticated GET request, and assert that it succeeds without exceeding a statement budget.
+     *
+     * @param uri The request URI.
+     * @param maxStatements The maximum number of SQL statements the request may prepare.
+     * */
+    private void assertStatementCount(final String uri, final int maxStatements) {
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        ResponseEntity<String> response = restTemplate.exchange(uri, HttpMethod.GET,
+                APITestUtils.buildAuthenticatedHTTPRequest(token), String.class);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertTrue(statistics.getPrepareStatementCount() <= maxStatements,
+                String.format("GET %s prepared %d statements, expected at most %d", uri,
+                        statistics.getPrepareStatementCount(), maxStatements));
+    }
+
+    private User createUser(final String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@email.com");
+        user.setFirstName("Statement");
+        user.setLastName("Count");
+        user.setPassword("password");
+        user.setRole(User.Role.ROLE_USER);
+
+        user = userDAO.save(user);
+        users.add(0, user);
+        return user;
+    }
+
+    private Bucket createBucket(final User owner) {
+        Bucket bucket = new Bucket();
+        bucket.setName("Bucket of " + owner.getUsername());
+        bucket.setIsPublic(true);
+        bucket.setOwner(owner);
+
+        bucket = bucketDAO.save(bucket);
+        buckets.add(bucket);
+        return bucket;
+    }
+
+    private void createItem(final Bucket parent) {
+        Item item = new Item();
+        item.setName("Item of " + parent.getName());
+        item.setLink("https://www.unb.ca");
+        item.setIsComplete(false);
+        item.setParent(parent);
+
+        items.add(itemDAO.save(item));
+    }
+}
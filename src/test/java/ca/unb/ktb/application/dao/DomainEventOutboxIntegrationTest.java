@@ -0,0 +1,108 @@
+package ca.unb.ktb.application.dao;
+
+import ca.unb.ktb.core.event.DomainEvent;
+import ca.unb.ktb.core.event.DomainEventProjection;
+import ca.unb.ktb.core.event.DomainEventPublisher;
+import ca.unb.ktb.core.event.DomainEventType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Verify that domain events are only delivered to projections once the transaction that published them commits, and
+ * that the events of an aggregate are delivered in order.
+ * */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+class DomainEventOutboxIntegrationTest {
+
+    private static final List<DomainEvent> delivered = new CopyOnWriteArrayList<>();
+
+    @Autowired private DomainEventPublisher domainEventPublisher;
+
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private long aggregateId;
+
+    @BeforeEach void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        aggregateId = System.nanoTime();
+    }
+
+    @Test void publishOutsideTransactionTest() {
+        Assertions.assertThrows(IllegalTransactionStateException.class, () ->
+                domainEventPublisher.publish(DomainEventType.BUCKET_CREATED, aggregateId, Map.of()));
+    }
+
+    @Test void deliverCommittedEventsInOrderTest() throws InterruptedException {
+        transactionTemplate.execute(status -> {
+            domainEventPublisher.publish(DomainEventType.BUCKET_CREATED, aggregateId, Map.of());
+            domainEventPublisher.publish(DomainEventType.ITEM_CREATED, aggregateId, Map.of("itemId", 1));
+            return null;
+        });
+
+        transactionTemplate.execute(status -> {
+            domainEventPublisher.publish(DomainEventType.ITEM_DELETED, aggregateId, Map.of("itemId", 2));
+            status.setRollbackOnly();
+            return null;
+        });
+
+        transactionTemplate.execute(status -> {
+            domainEventPublisher.publish(DomainEventType.ITEM_COMPLETED, aggregateId, Map.of("itemId", 1));
+            return null;
+        });
+
+        List<DomainEventType> types = awaitEvents(3);
+        Assertions.assertEquals(List.of(DomainEventType.BUCKET_CREATED, DomainEventType.ITEM_CREATED,
+                DomainEventType.ITEM_COMPLETED), types);
+    }
+
+    private List<DomainEventType> awaitEvents(final int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        List<DomainEventType> types;
+        do {
+            Thread.sleep(100);
+            types = delivered.stream()
+                    .filter(event -> event.getAggregateId() == aggregateId)
+                    .map(DomainEvent::getType)
+                    .collect(Collectors.toList());
+        } while(types.size() < count && System.currentTimeMillis() < deadline);
+
+        return types;
+    }
+
+    @TestConfiguration
+    static class RecordingProjectionConfiguration {
+
+        @Bean
+        DomainEventProjection recordingProjection() {
+            return new DomainEventProjection() {
+                @Override
+                public String getName() {
+                    return "outbox-integration-test";
+                }
+
+                @Override
+                public void handle(final DomainEvent event) {
+                    delivered.add(event);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package ca.unb.ktb.application.dao;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Verify that every native {@link Query} declared by the DAOs, and every statement issued by the JDBC DAOs, can be
+ * planned without reading whole tables that are expected to grow large.
+ *
+ * Each statement is explained (but not executed) against the database migrated by Flyway, with sequential scans, hash
+ * joins and merge joins disabled in the planner, so that every table is reached through an index lookup when one
+ * exists. If no index supports a lookup, the planner falls back to a sequential scan, or to a scan of a whole index
+ * (typically the primary key) without an {@code Index Cond}; both fail the test. Only partial indexes may be scanned
+ * whole, since their predicate already restricts the rows they contain.
+ *
+ * Queries that search with a leading wildcard (ILIKE '%...%') cannot be supported by a b-tree index, and are excluded.
+ * */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+class NativeQueryPlanIntegrationTest {
+
+    private static final List<Class<?>> DAOS = Arrays.asList(BucketDAO.class, ItemDAO.class, PhysicalAddressDAO.class,
+            UserBucketRelationshipDAO.class, UserDAO.class, UserRelationshipDAO.class);
+
+    private static final List<Class<?>> JDBC_DAOS = Arrays.asList(BucketJdbcDAO.class, ItemJdbcDAO.class,
+            UserJdbcDAO.class);
+
+    /**
+     * Statements of the JDBC DAOs, along with the parameters they are explained with.
+     * */
+    private static final List<JdbcStatement> JDBC_STATEMENTS = Arrays.asList(
+            statement(ItemJdbcDAO.class, "COPY_ITEMS", 2L, 1L),
+            statement(ItemJdbcDAO.class, "PATCH_ITEM", "name", "description", "link", true, 1L, 1L),
+            partialUpdate(ItemJdbcDAO.class, "PATCH_ITEM_OWNED_BY_USER_CLAUSES", "items", 1L, 1L, 1L),
+            statement(ItemJdbcDAO.class, "DELETE_ITEM", 1L, 1L),
+            statement(ItemJdbcDAO.class, "DELETE_ITEMS_BY_PARENT", 1L),
+            statement(ItemJdbcDAO.class, "DELETE_ITEM_BATCH_OWNED_BY_USER", 1L, 10),
+            statement(ItemJdbcDAO.class, "SELECT_ITEMS", 1L, new Long[] {1L, 2L}),
+            keyset(ItemJdbcDAO.class, "SELECT_ITEMS_BY_PARENT", "items.id", 1L),
+            statement(ItemJdbcDAO.class, "SELECT_ITEMS_VERSION", 1L),
+            statement(ItemJdbcDAO.class, "SELECT_ITEM_ORIGINS", 1L),
+            statement(ItemJdbcDAO.class, "MATERIALIZE_CLONE", 1L),
+            statement(ItemJdbcDAO.class, "MATERIALIZE_CLONES_OF_SOURCE", 1L),
+            statement(ItemJdbcDAO.class, "MATERIALIZE_CLONES_OF_SOURCES_OWNED_BY_USER", 1L),
+            keyset(BucketJdbcDAO.class, "SELECT_BUCKETS_BY_OWNER", "buckets.id", 1L),
+            partialUpdate(BucketJdbcDAO.class, "PATCH_BUCKET_OWNED_BY_USER_CLAUSES", "buckets", 1L, 1L),
+            statement(BucketJdbcDAO.class, "DELETE_BUCKET_BATCH_OWNED_BY_USER", 1L, 10),
+            statement(BucketJdbcDAO.class, "DELETE_RELATIONSHIPS_BY_FOLLOWING", 1L),
+            statement(BucketJdbcDAO.class, "DELETE_RELATIONSHIP_BATCH_INVOLVING_USER", 1L, 1L, 10),
+            partialUpdate(UserJdbcDAO.class, "PATCH_USER_CLAUSES", "users", 1L),
+            keyset(UserJdbcDAO.class, "SELECT_USERS", "users.id"),
+            keyset(UserJdbcDAO.class, "SELECT_FOLLOWERS", "users_relationships.follower_id", 1L),
+            keyset(UserJdbcDAO.class, "SELECT_FOLLOWING", "users_relationships.following_id", 1L),
+            keyset(UserJdbcDAO.class, "SELECT_BUCKET_FOLLOWERS", "users_bucket_relationships.follower_id", 1L),
+            statement(UserJdbcDAO.class, "SELECT_PROFILE_VERSION", true, 1L),
+            statement(UserJdbcDAO.class, "SELECT_REVOKED_TOKEN_VERSIONS"),
+            statement(UserJdbcDAO.class, "SELECT_USER_IDENTITIES_BY_ID", (Object) new Long[] {1L, 2L}),
+            statement(UserJdbcDAO.class, "DELETE_SOFT_DELETED_USER", 1L),
+            statement(UserJdbcDAO.class, "DELETE_ADDRESS", 1L),
+            statement(UserJdbcDAO.class, "DELETE_RELATIONSHIP_BATCH_INVOLVING_USER", 1L, 1L, 10));
+
+    /**
+     * Constants of the JDBC DAOs that are deliberately not explained.
+     * */
+    private static final Set<String> EXCLUDED_JDBC_CONSTANTS = new HashSet<>(Arrays.asList(
+            /* a fragment of other statements */
+            "UserJdbcDAO#USER_COLUMNS",
+            /* inserts rows without reading any table */
+            "ItemJdbcDAO#INSERT_ITEM",
+            /* reads every user by design, once on startup */
+            "UserJdbcDAO#SELECT_USER_IDENTITIES"));
+
+    private static final Pattern LARGE_TABLE_SEQ_SCAN =
+            Pattern.compile("Seq Scan on (buckets|items|users|users_relationships|users_bucket_relationships)\\b");
+
+    private static final Pattern INDEX_SCAN = Pattern.compile(
+            "(?:Index Scan|Index Only Scan)(?: Backward)? using (\\S+) on |Bitmap Index Scan on (\\S+)");
+
+    private static final Pattern PLAN_LABEL = Pattern.compile("^\\s*(SubPlan|InitPlan|CTE)\\b");
+
+    private static final Pattern NAMED_PARAMETER = Pattern.compile("(?<!:):(\\w+)");
+
+    private static final String SELECT_PARTIAL_INDEXES =
+            "SELECT indexrelid::regclass::text FROM pg_index WHERE indpred IS NOT NULL";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @TestFactory Stream<DynamicTest> nativeQueriesDoNotReadWholeLargeTablesTest() {
+        return DAOS.stream()
+                .flatMap(dao -> Arrays.stream(dao.getDeclaredMethods()))
+                .filter(method -> method.isAnnotationPresent(Query.class))
+                .filter(method -> method.getAnnotation(Query.class).nativeQuery())
+                .filter(method -> !method.getAnnotation(Query.class).value().toUpperCase().contains("ILIKE"))
+                .map(method -> DynamicTest.dynamicTest(
+                        method.getDeclaringClass().getSimpleName() + "#" + method.getName(),
+                        () -> verifyQueryPlan(method.getName(), bindParameters(method))));
+    }
+
+    @TestFactory Stream<DynamicTest> jdbcStatementsDoNotReadWholeLargeTablesTest() {
+        return JDBC_STATEMENTS.stream()
+                .map(statement -> DynamicTest.dynamicTest(statement.name,
+                        () -> verifyQueryPlan(statement.name, statement.sql, statement.parameters)));
+    }
+
+    @Test void allJdbcStatementsAreExplainedTest() {
+        Set<String> explained = JDBC_STATEMENTS.stream()
+                .map(statement -> statement.name)
+                .collect(Collectors.toSet());
+
+        for(Class<?> dao : JDBC_DAOS) {
+            for(Field field : dao.getDeclaredFields()) {
+                String name = dao.getSimpleName() + "#" + field.getName();
+                if(isStringConstant(field) && !EXCLUDED_JDBC_CONSTANTS.contains(name)) {
+                    Assertions.assertTrue(explained.contains(name),
+                            () -> String.format("Statement %s is not explained by this test", name));
+                }
+            }
+        }
+    }
+
+    /**
+     * Explain a statement with sequential scans, hash joins and merge joins disabled, and fail if the plan contains a
+     * sequential scan over a large table, or a scan of a whole index that is not partial.
+     *
+     * @param name The name of the statement, used in failure messages.
+     * @param sql The statement.
+     * @param parameters The parameters of the statement. {@code Long[]} parameters are bound as arrays.
+     * */
+    private void verifyQueryPlan(final String name, final String sql, final Object... parameters) {
+        List<String> plan = jdbcTemplate.execute((Connection connection) -> {
+            try(Statement settings = connection.createStatement()) {
+                settings.execute("SET enable_seqscan = off");
+                settings.execute("SET enable_hashjoin = off");
+                settings.execute("SET enable_mergejoin = off");
+
+                try(PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                    for(int i = 0; i < parameters.length; i++) {
+                        Object parameter = parameters[i] instanceof Long[] ?
+                                connection.createArrayOf("bigint", (Long[]) parameters[i]) : parameters[i];
+                        statement.setObject(i + 1, parameter);
+                    }
+
+                    List<String> lines = new ArrayList<>();
+                    try(ResultSet rs = statement.executeQuery()) {
+                        while(rs.next()) {
+                            lines.add(rs.getString(1));
+                        }
+                    }
+
+                    return lines;
+                } finally {
+                    settings.execute("RESET enable_seqscan");
+                    settings.execute("RESET enable_hashjoin");
+                    settings.execute("RESET enable_mergejoin");
+                }
+            }
+        });
+
+        String planText = String.join("\n", plan);
+        Assertions.assertFalse(LARGE_TABLE_SEQ_SCAN.matcher(planText).find(),
+                () -> String.format("Query plan for %s contains a sequential scan over a large table:%n%s%n%s",
+                        name, sql, planText));
+
+        List<String> partialIndexes = jdbcTemplate.queryForList(SELECT_PARTIAL_INDEXES, String.class);
+        for(int i = 0; i < plan.size(); i++) {
+            Matcher matcher = INDEX_SCAN.matcher(plan.get(i));
+            if(!matcher.find()) {
+                continue;
+            }
+
+            String index = Stream.of(matcher.group(1), matcher.group(2))
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .orElseThrow(IllegalStateException::new);
+            Assertions.assertTrue(hasIndexCondition(plan, i) || partialIndexes.contains(index),
+                    () -> String.format("Query plan for %s scans all of index %s:%n%s%n%s",
+                            name, index, sql, planText));
+        }
+    }
+
+    /**
+     * Determine whether a node of a query plan has an {@code Index Cond}. The properties of a node are listed on the
+     * lines following the node, up to its first child node or subplan.
+     *
+     * @param plan The lines of the query plan.
+     * @param node The line of the node.
+     * @return True if the node has an {@code Index Cond}.
+     * */
+    private static boolean hasIndexCondition(final List<String> plan, final int node) {
+        for(int i = node + 1; i < plan.size(); i++) {
+            String line = plan.get(i);
+            if(line.contains("->") || PLAN_LABEL.matcher(line).find()) {
+                return false;
+            }
+
+            if(line.trim().startsWith("Index Cond:")) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Bind literal values to the named parameters of the native query of a DAO method. All named parameters are ids or
+     * batch sizes, so each is bound to the literal 1. Paged queries are limited, as Spring Data would.
+     *
+     * @param method The DAO method.
+     * @return The query, with named parameters replaced by literal values.
+     * */
+    private static String bindParameters(final Method method) {
+        Matcher matcher = NAMED_PARAMETER.matcher(method.getAnnotation(Query.class).value());
+        String sql = matcher.replaceAll("1");
+
+        if(Arrays.asList(method.getParameterTypes()).contains(Pageable.class)) {
+            sql += " LIMIT 10";
+        }
+
+        return sql;
+    }
+
+    private static boolean isStringConstant(final Field field) {
+        int modifiers = field.getModifiers();
+        return Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers) && field.getType() == String.class;
+    }
+
+    private static String constant(final Class<?> dao, final String field) {
+        try {
+            Field constant = dao.getDeclaredField(field);
+            constant.setAccessible(true);
+
+            return (String) constant.get(null);
+        } catch(ReflectiveOperationException e) {
+            throw new IllegalArgumentException("No statement " + field + " in " + dao.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * A statement issued as declared by a JDBC DAO.
+     * */
+    private static JdbcStatement statement(final Class<?> dao, final String field, final Object... parameters) {
+        return new JdbcStatement(dao, field, constant(dao, field), parameters);
+    }
+
+    /**
+     * A query of a JDBC DAO, paginated by the {@link KeysetQueryExecutor}. The query is limited, and reads rows after
+     * the id 1.
+     * */
+    private static JdbcStatement keyset(final Class<?> dao, final String field, final String idColumn,
+                                        final Object... parameters) {
+        List<Object> keysetParameters = new ArrayList<>(Arrays.asList(parameters));
+        keysetParameters.add(1L);
+        keysetParameters.add(10);
+
+        return new JdbcStatement(dao, field, KeysetQueryExecutor.toKeysetSql(constant(dao, field), idColumn, true),
+                keysetParameters.toArray());
+    }
+
+    /**
+     * A {@link PartialUpdate} of a JDBC DAO, writing a single text column.
+     * */
+    private static JdbcStatement partialUpdate(final Class<?> dao, final String field, final String table,
+                                               final Object... parameters) {
+        PartialUpdate update = new PartialUpdate(table).set(table.equals("users") ? "bio" : "name", "name");
+
+        return new JdbcStatement(dao, field, update.toSql(constant(dao, field)), update.getParameters(parameters));
+    }
+
+    private static class JdbcStatement {
+
+        private final String name;
+
+        private final String sql;
+
+        private final Object[] parameters;
+
+        JdbcStatement(final Class<?> dao, final String field, final String sql, final Object[] parameters) {
+            this.name = dao.getSimpleName() + "#" + field;
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+}
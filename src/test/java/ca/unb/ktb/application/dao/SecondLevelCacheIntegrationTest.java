@@ -0,0 +1,170 @@
+package ca.unb.ktb.application.dao;
+
+import ca.unb.ktb.core.model.Bucket;
+import ca.unb.ktb.core.model.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+/**
+ * Verify that users and buckets are served from the second-level cache once loaded, and that writes made through the
+ * JDBC DAOs are not hidden by stale cache entries.
+ * */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+class SecondLevelCacheIntegrationTest {
+
+    @Autowired private UserDAO userDAO;
+
+    @Autowired private BucketDAO bucketDAO;
+
+    @Autowired private UserJdbcDAO userJdbcDAO;
+
+    @Autowired private BucketJdbcDAO bucketJdbcDAO;
+
+    @Autowired private ItemJdbcDAO itemJdbcDAO;
+
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    private Bucket bucket;
+
+    private Statistics statistics;
+
+    @BeforeEach void setup() {
+        user = new User();
+        user.setFirstName("Cache");
+        user.setLastName("Test");
+        user.setUsername("cachetestuser");
+        user.setEmail("cachetestuser@email.com");
+        user.setPassword("password");
+        user = userDAO.save(user);
+
+        bucket = new Bucket();
+        bucket.setName("Cache Test Bucket");
+        bucket.setIsPublic(true);
+        bucket.setOwner(user);
+        bucket = bucketDAO.save(bucket);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach void teardown() {
+        bucketDAO.delete(bucket);
+        userDAO.delete(user);
+    }
+
+    @Test
+    void repeatedLookupServedFromCacheTest() {
+        userDAO.findById(user.getId());
+        bucketDAO.findById(bucket.getId());
+        long hitCount = statistics.getSecondLevelCacheHitCount();
+
+        userDAO.findById(user.getId());
+        bucketDAO.findById(bucket.getId());
+
+        Assertions.assertEquals(hitCount + 2, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void cachedLookupByUsernameServedFromQueryCacheTest() {
+        userDAO.findByUsername(user.getUsername());
+        userDAO.findByUsername(user.getUsername());
+
+        Assertions.assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void jdbcUserPatchEvictsCachedUserTest() {
+        userDAO.findById(user.getId());
+        userDAO.findByUsername(user.getUsername());
+
+        User partialUser = new User();
+        partialUser.setBio("Updated bio");
+        partialUser.setUsername("cachetestuser2");
+        userJdbcDAO.patchUser(user.getId(), partialUser);
+
+        Assertions.assertEquals("Updated bio", userDAO.findById(user.getId()).orElseThrow().getBio());
+        Assertions.assertFalse(userDAO.findByUsername("cachetestuser").isPresent());
+    }
+
+    @Test
+    void jdbcBucketPatchEvictsCachedBucketTest() {
+        bucketDAO.findById(bucket.getId());
+
+        Bucket partialBucket = new Bucket();
+        partialBucket.setName("Updated Bucket Name");
+        bucketJdbcDAO.patchBucketOwnedByUser(bucket.getId(), user.getId(), partialBucket);
+
+        Assertions.assertEquals("Updated Bucket Name", bucketDAO.findById(bucket.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void jdbcCloneMaterializationEvictsOnlyClonesTest() {
+        Bucket clone = new Bucket();
+        clone.setName("Cache Test Clone");
+        clone.setIsPublic(true);
+        clone.setOwner(user);
+        clone.setSource(bucket);
+        clone = bucketDAO.save(clone);
+
+        try {
+            userDAO.findById(user.getId());
+            bucketDAO.findById(clone.getId());
+            long hitCount = statistics.getSecondLevelCacheHitCount();
+
+            Assertions.assertEquals(List.of(clone.getId()), itemJdbcDAO.materializeClonesOfSource(bucket.getId()));
+
+            Assertions.assertNull(bucketDAO.findById(clone.getId()).orElseThrow().getSource());
+            userDAO.findById(user.getId());
+            Assertions.assertEquals(hitCount + 1, statistics.getSecondLevelCacheHitCount());
+        } finally {
+            bucketDAO.delete(clone);
+        }
+    }
+
+    @Test
+    void jdbcBucketBatchDeleteEvictsOnlyDeletedBucketsTest() {
+        User owner = new User();
+        owner.setFirstName("Cache");
+        owner.setLastName("Test");
+        owner.setUsername("cachetestuser0");
+        owner.setEmail("cachetestuser0@email.com");
+        owner.setPassword("password");
+        owner = userDAO.save(owner);
+
+        Bucket deletedBucket = new Bucket();
+        deletedBucket.setName("Cache Test Deleted Bucket");
+        deletedBucket.setIsPublic(true);
+        deletedBucket.setOwner(owner);
+        deletedBucket = bucketDAO.save(deletedBucket);
+
+        try {
+            userDAO.findById(user.getId());
+            bucketDAO.findById(deletedBucket.getId());
+            long hitCount = statistics.getSecondLevelCacheHitCount();
+
+            Assertions.assertEquals(List.of(deletedBucket.getId()),
+                    bucketJdbcDAO.deleteBatchOwnedByUser(owner.getId(), 10));
+
+            Assertions.assertFalse(bucketDAO.findById(deletedBucket.getId()).isPresent());
+            userDAO.findById(user.getId());
+            Assertions.assertEquals(hitCount + 1, statistics.getSecondLevelCacheHitCount());
+        } finally {
+            userDAO.delete(owner);
+        }
+    }
+}
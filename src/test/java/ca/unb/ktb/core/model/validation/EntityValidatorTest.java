@@ -0,0 +1,49 @@
+package ca.unb.ktb.core.model.validation;
+
+import ca.unb.ktb.core.model.Bucket;
+import ca.unb.ktb.core.model.Item;
+import ca.unb.ktb.core.model.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.ConstraintViolation;
+import java.util.List;
+import java.util.Set;
+
+class EntityValidatorTest {
+
+    @Test void validateEntityTest() {
+        Assertions.assertTrue(EntityValidator.validateEntity(buildUser("username")));
+        Assertions.assertFalse(EntityValidator.validateEntity(buildUser("user name")));
+        Assertions.assertFalse(EntityValidator.validateEntity(null));
+    }
+
+    @Test void validateAllTest() {
+        Item invalid = new Item();
+        invalid.setName("");
+
+        Item valid = new Item();
+        valid.setName("Item");
+        valid.setLink("https://www.unb.ca");
+        valid.setParent(new Bucket(1L));
+        valid.setIsComplete(false);
+
+        List<Set<ConstraintViolation<Item>>> violations = EntityValidator.validateAll(List.of(invalid, valid, invalid));
+
+        Assertions.assertEquals(3, violations.size());
+        Assertions.assertFalse(violations.get(0).isEmpty());
+        Assertions.assertTrue(violations.get(1).isEmpty());
+        Assertions.assertEquals(violations.get(0).size(), violations.get(2).size());
+    }
+
+    private static User buildUser(final String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail("test@test.ca");
+        user.setFirstName("first");
+        user.setLastName("last");
+        user.setPassword("password");
+
+        return user;
+    }
+}
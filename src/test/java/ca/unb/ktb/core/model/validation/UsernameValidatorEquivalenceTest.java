@@ -0,0 +1,84 @@
+package ca.unb.ktb.core.model.validation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.Charset;
+import java.util.Random;
+
+/**
+ * Verify that {@link UsernameValidator} accepts exactly the usernames accepted by the regular expression rules it
+ * replaced, over every character in every position class, every short string over an alphabet of representative
+ * characters, and a large number of random strings.
+ * */
+class UsernameValidatorEquivalenceTest {
+
+    private static final char[] ALPHABET = { 'a', 'Z', '7', '.', '-', '\'', '&', 'Σ' };
+
+    private static final char[] RANDOM_ALPHABET = {
+            'a', 'z', 'A', 'Z', '0', '9', '-', '_', '\'', '.', '.', '.', '&', '=', '<', '>', '+', ',', ' ', '\n', '@',
+            '/', '`', '{', '[', ':', '\u007f', 'é', 'Σ', '\ud83d', '\ude00', '\u0000' };
+
+    private final UsernameValidator validator = new UsernameValidator();
+
+    @Test void everyCharacterTest() {
+        for(char c = Character.MIN_VALUE; c < Character.MAX_VALUE; c++) {
+            assertEquivalent(c + "abcde");
+            assertEquivalent("abcde" + c);
+            assertEquivalent("ab" + c + "cde");
+        }
+    }
+
+    @Test void exhaustiveShortStringTest() {
+        for(int length = 0; length <= 7; length++) {
+            char[] value = new char[length];
+            int combinations = (int) Math.pow(ALPHABET.length, length);
+            for(int n = 0; n < combinations; n++) {
+                int digits = n;
+                for(int i = 0; i < length; i++) {
+                    value[i] = ALPHABET[digits % ALPHABET.length];
+                    digits /= ALPHABET.length;
+                }
+
+                assertEquivalent(new String(value));
+            }
+        }
+    }
+
+    @Test void randomStringTest() {
+        Random random = new Random(0x5eed);
+        for(int n = 0; n < 200000; n++) {
+            char[] value = new char[random.nextInt(70)];
+            for(int i = 0; i < value.length; i++) {
+                value[i] = random.nextInt(4) == 0
+                        ? RANDOM_ALPHABET[random.nextInt(RANDOM_ALPHABET.length)]
+                        : ALPHABET[random.nextInt(3)];
+            }
+
+            assertEquivalent(new String(value));
+        }
+    }
+
+    @Test void nullTest() {
+        Assertions.assertFalse(validator.isValid(null, null));
+    }
+
+    private void assertEquivalent(final String value) {
+        Assertions.assertEquals(isValidByRegex(value), validator.isValid(value, null), () -> "Mismatch for '" + value + "'");
+    }
+
+    /**
+     * The rules {@link UsernameValidator} implemented with regular expressions, before it was rewritten.
+     * */
+    private static boolean isValidByRegex(final String value) {
+        if(value.length() < 6 || value.length() > 64) {
+            return false;
+        }
+
+        if(!Charset.forName("US-ASCII").newEncoder().canEncode(value)) {
+            return false;
+        }
+
+        return value.matches("\\A\\p{Alnum}[a-zA-Z0-9\\-_'.]+\\z") && !value.matches("\\A.*\\.\\..*\\z");
+    }
+}
@@ -0,0 +1,85 @@
+package ca.unb.ktb.infrastructure;
+
+import ca.unb.ktb.api.dto.response.BucketSummaryResponse;
+import ca.unb.ktb.api.dto.response.ItemSummaryResponse;
+import ca.unb.ktb.api.dto.response.UserFeedResponse;
+import ca.unb.ktb.api.dto.response.UserSummaryResponse;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compare the CBOR encoding of a feed response with the JSON encoding, and verify that building the CBOR mapper leaves
+ * the application {@link Jackson2ObjectMapperBuilder} unmodified.
+ * */
+class ContentNegotiationConfigurationTest {
+
+    private static final int FEED_USERS = 20;
+
+    private static final int ENTRIES_PER_USER = 5;
+
+    private final ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final ObjectMapper cborMapper =
+            ContentNegotiationConfiguration.buildCborObjectMapper(Jackson2ObjectMapperBuilder.json());
+
+    private UserFeedResponse feed;
+
+    @BeforeEach void setup() {
+        List<UserFeedResponse.UserBucketPair> buckets = new ArrayList<>();
+        List<UserFeedResponse.UserItemPair> items = new ArrayList<>();
+        for(long i = 0; i < FEED_USERS; i++) {
+            UserSummaryResponse user = new UserSummaryResponse(i, "username" + i, "username" + i + "@email.com",
+                    "A short biography of user " + i + ".", "First", null, "Last",
+                    "https://s3.amazonaws.com/profile-images/" + i + "?X-Amz-Expires=1800&X-Amz-Signature=abcdef0123456789");
+
+            List<BucketSummaryResponse> userBuckets = new ArrayList<>();
+            List<ItemSummaryResponse> userItems = new ArrayList<>();
+            for(long j = 0; j < ENTRIES_PER_USER; j++) {
+                long id = i * ENTRIES_PER_USER + j;
+                userBuckets.add(new BucketSummaryResponse(id, i, "Bucket " + id, true,
+                        "Things to do before the end of the year."));
+                userItems.add(new ItemSummaryResponse(id, id, "Item " + id, "https://www.unb.ca",
+                        "Something to do.", j % 2 == 0));
+            }
+
+            buckets.add(new UserFeedResponse.UserBucketPair(user, userBuckets));
+            items.add(new UserFeedResponse.UserItemPair(user, userItems));
+        }
+
+        feed = new UserFeedResponse(null, null, null, null, buckets, items, null, null);
+    }
+
+    @Test void encodingEquivalenceTest() throws IOException {
+        byte[] json = jsonMapper.writeValueAsBytes(feed);
+        byte[] cbor = cborMapper.writeValueAsBytes(feed);
+
+        Assertions.assertEquals(jsonMapper.readTree(json), cborMapper.readTree(cbor));
+    }
+
+    @Test void encodingSizeTest() throws IOException {
+        byte[] json = jsonMapper.writeValueAsBytes(feed);
+        byte[] cbor = cborMapper.writeValueAsBytes(feed);
+
+        Assertions.assertTrue(cbor.length < json.length);
+    }
+
+    @Test void applicationBuilderUnmodifiedTest() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        ObjectMapper cbor = ContentNegotiationConfiguration.buildCborObjectMapper(builder);
+        Assertions.assertTrue(cbor.getFactory() instanceof CBORFactory);
+        Assertions.assertTrue(cbor.isEnabled(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY));
+
+        ObjectMapper mapper = builder.build();
+        Assertions.assertFalse(mapper.getFactory() instanceof CBORFactory);
+        Assertions.assertFalse(mapper.isEnabled(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY));
+    }
+}
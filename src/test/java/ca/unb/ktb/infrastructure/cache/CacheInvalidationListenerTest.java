@@ -0,0 +1,148 @@
+package ca.unb.ktb.infrastructure.cache;
+
+import ca.unb.ktb.infrastructure.security.UserIdentityIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+class CacheInvalidationListenerTest {
+
+    private final List<String> evictions = new ArrayList<>();
+
+    private final List<String> flushes = new ArrayList<>();
+
+    private final List<Long> identityAdditions = new ArrayList<>();
+
+    private int identityRebuilds;
+
+    private CacheInvalidationPublisher publisher;
+
+    private CacheInvalidationListener listener;
+
+    @BeforeEach void setup() {
+        publisher = new CacheInvalidationPublisher();
+        listener = new RecordingCacheInvalidationListener();
+        ReflectionTestUtils.setField(listener, "cacheInvalidationPublisher", publisher);
+        ReflectionTestUtils.setField(listener, "userIdentityIndex", new RecordingUserIdentityIndex());
+    }
+
+    @Test void encodeAndDecodeTest() {
+        List<CacheInvalidationMessage.Entry> entries = List.of(
+                new CacheInvalidationMessage.Entry(CacheRegion.USER, 12L),
+                new CacheInvalidationMessage.Entry(CacheRegion.PHYSICAL_ADDRESS, 7L),
+                new CacheInvalidationMessage.Entry(CacheRegion.BUCKET, 3L));
+
+        String payload = CacheInvalidationMessage.of("node", 42, entries).encode();
+        Assertions.assertEquals("node:42:U12,A7,B3", payload);
+
+        CacheInvalidationMessage message = CacheInvalidationMessage.decode(payload);
+        Assertions.assertEquals("node", message.getSender());
+        Assertions.assertEquals(42, message.getSequence());
+        Assertions.assertEquals(entries, message.getEntries());
+
+        Assertions.assertEquals("node:43:*", CacheInvalidationMessage.of("node", 43, Collections.emptyList()).encode());
+        Assertions.assertTrue(CacheInvalidationMessage.decode("node:43:*").isFlush());
+    }
+
+    @Test void encodeOversizedMessageAsFlushTest() {
+        List<CacheInvalidationMessage.Entry> entries = new ArrayList<>();
+        for(long id = 0; id < 1000; id++) {
+            entries.add(new CacheInvalidationMessage.Entry(CacheRegion.BUCKET, Long.MAX_VALUE - id));
+        }
+
+        Assertions.assertEquals("node:1:*", CacheInvalidationMessage.of("node", 1, entries).encode());
+    }
+
+    @Test void decodeMalformedMessageTest() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CacheInvalidationMessage.decode("node"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CacheInvalidationMessage.decode("node:x:U1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CacheInvalidationMessage.decode("node:1:X1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CacheInvalidationMessage.decode("node:1:U"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CacheInvalidationMessage.decode("node:1:Ux"));
+    }
+
+    @Test void applyEvictionsTest() {
+        listener.apply("other:5:U12,B3");
+        listener.apply("other:6:A7");
+
+        Assertions.assertEquals(List.of("USER:12", "BUCKET:3", "PHYSICAL_ADDRESS:7"), evictions);
+        Assertions.assertTrue(flushes.isEmpty());
+        Assertions.assertEquals(List.of(12L), identityAdditions);
+        Assertions.assertEquals(0, identityRebuilds);
+    }
+
+    @Test void ignoreOwnMessagesTest() {
+        listener.apply(publisher.getNodeId() + ":1:U12");
+        listener.apply(publisher.getNodeId() + ":3:*");
+
+        Assertions.assertTrue(evictions.isEmpty());
+        Assertions.assertTrue(flushes.isEmpty());
+    }
+
+    @Test void flushOnGapTest() {
+        listener.apply("other:1:U1");
+        listener.apply("other:3:U3");
+        listener.apply("another:9:U9");
+
+        Assertions.assertEquals(List.of("USER:1", "USER:9"), evictions);
+        Assertions.assertEquals(List.of("gap"), flushes);
+        Assertions.assertEquals(List.of(1L, 9L), identityAdditions);
+        Assertions.assertEquals(1, identityRebuilds);
+    }
+
+    @Test void ignoreDuplicateMessagesTest() {
+        listener.apply("other:1:U1");
+        listener.apply("other:1:U1");
+        listener.apply("other:2:U2");
+
+        Assertions.assertEquals(List.of("USER:1", "USER:2"), evictions);
+        Assertions.assertTrue(flushes.isEmpty());
+    }
+
+    @Test void flushOnRequestOrMalformedMessageTest() {
+        listener.apply("other:1:*");
+        listener.apply("other:2:U");
+
+        Assertions.assertTrue(evictions.isEmpty());
+        Assertions.assertEquals(List.of("requested", "malformed"), flushes);
+        Assertions.assertEquals(1, identityRebuilds);
+    }
+
+    /**
+     * A listener that records evictions and flushes, rather than applying them to a cache.
+     * */
+    private class RecordingCacheInvalidationListener extends CacheInvalidationListener {
+
+        @Override
+        void evict(final CacheRegion region, final Long id) {
+            evictions.add(region + ":" + id);
+        }
+
+        @Override
+        void flush(final String reason) {
+            flushes.add(reason);
+        }
+    }
+
+    /**
+     * A user identity index that records additions and rebuilds.
+     * */
+    private class RecordingUserIdentityIndex extends UserIdentityIndex {
+
+        @Override
+        public void addUsers(final Collection<Long> userIds) {
+            identityAdditions.addAll(userIds);
+        }
+
+        @Override
+        public synchronized void rebuild() {
+            identityRebuilds++;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package ca.unb.ktb.infrastructure.datasource;
+
+import ca.unb.ktb.infrastructure.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.http.Cookie;
+import java.util.Collections;
+
+class ReadYourWritesInterceptorTest {
+
+    private ReadYourWritesTracker tracker;
+
+    private ReadYourWritesInterceptor interceptor;
+
+    @BeforeEach void setup() {
+        tracker = new ReadYourWritesTracker(10000);
+        interceptor = new ReadYourWritesInterceptor(tracker);
+
+        UserPrincipal userPrincipal = new UserPrincipal(1L, "testUsername", "test@email.com",
+                "password", Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userPrincipal, null, userPrincipal.getAuthorities()));
+    }
+
+    @AfterEach void teardown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test void writeReturnsLastWriteCookieTest() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(new MockHttpServletRequest("POST", "/users/1/buckets"), response, null);
+
+        Cookie cookie = response.getCookie(ReadYourWritesInterceptor.LAST_WRITE_COOKIE);
+        Assertions.assertNotNull(cookie);
+        Assertions.assertTrue(Long.parseLong(cookie.getValue()) > System.currentTimeMillis());
+        Assertions.assertTrue(cookie.getMaxAge() > 0 && cookie.getMaxAge() <= 11);
+        Assertions.assertTrue(tracker.isRecentWriter(1L));
+    }
+
+    @Test void readWithLastWriteCookieRecordsWriteTest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/1/buckets");
+        request.setCookies(new Cookie(ReadYourWritesInterceptor.LAST_WRITE_COOKIE,
+                Long.toString(System.currentTimeMillis() + 5000)));
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        Assertions.assertTrue(tracker.isRecentWriter(1L));
+        Assertions.assertFalse(tracker.isRecentWriter(2L));
+    }
+
+    @Test void readWithoutCookieNotRecordedTest() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/users/1/buckets"), response, null);
+
+        Assertions.assertFalse(tracker.isRecentWriter(1L));
+        Assertions.assertNull(response.getCookie(ReadYourWritesInterceptor.LAST_WRITE_COOKIE));
+    }
+
+    @Test void expiredOrMalformedLastWriteCookieIgnoredTest() {
+        MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/users/1/buckets");
+        expired.setCookies(new Cookie(ReadYourWritesInterceptor.LAST_WRITE_COOKIE,
+                Long.toString(System.currentTimeMillis() - 1000)));
+        interceptor.preHandle(expired, new MockHttpServletResponse(), null);
+
+        MockHttpServletRequest malformed = new MockHttpServletRequest("GET", "/users/1/buckets");
+        malformed.setCookies(new Cookie(ReadYourWritesInterceptor.LAST_WRITE_COOKIE, "malformed"));
+        interceptor.preHandle(malformed, new MockHttpServletResponse(), null);
+
+        Assertions.assertFalse(tracker.isRecentWriter(1L));
+    }
+
+    @Test void lastWriteCookieCappedToWindowTest() throws InterruptedException {
+        ReadYourWritesTracker shortTracker = new ReadYourWritesTracker(50);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/1/buckets");
+        request.setCookies(new Cookie(ReadYourWritesInterceptor.LAST_WRITE_COOKIE, Long.toString(Long.MAX_VALUE)));
+
+        new ReadYourWritesInterceptor(shortTracker).preHandle(request, new MockHttpServletResponse(), null);
+        Assertions.assertTrue(shortTracker.isRecentWriter(1L));
+
+        Thread.sleep(100);
+        Assertions.assertFalse(shortTracker.isRecentWriter(1L));
+    }
+}
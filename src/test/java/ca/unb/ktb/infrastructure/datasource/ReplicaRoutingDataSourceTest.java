@@ -0,0 +1,87 @@
+package ca.unb.ktb.infrastructure.datasource;
+
+import ca.unb.ktb.infrastructure.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+class ReplicaRoutingDataSourceTest {
+
+    private ReadYourWritesTracker tracker;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach void setup() {
+        tracker = new ReadYourWritesTracker(10000);
+        routingDataSource = new ReplicaRoutingDataSource(Arrays.asList("replica-0", "replica-1"), 5000, tracker);
+        routingDataSource.updateReplicaLag("replica-0", 0L);
+        routingDataSource.updateReplicaLag("replica-1", 0L);
+    }
+
+    @AfterEach void teardown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readWriteTransactionRoutedToPrimaryTest() {
+        Assertions.assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Nested
+    class ReadOnlyTransactionTest {
+
+        @BeforeEach void setup() {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        }
+
+        @Test
+        void readOnlyTransactionRoutedToReplicasInTurnTest() {
+            Set<Object> keys = new HashSet<>();
+            keys.add(routingDataSource.determineCurrentLookupKey());
+            keys.add(routingDataSource.determineCurrentLookupKey());
+
+            Assertions.assertEquals(new HashSet<>(Arrays.asList("replica-0", "replica-1")), keys);
+        }
+
+        @Test
+        void laggingReplicaNotUsedTest() {
+            routingDataSource.updateReplicaLag("replica-0", 60000L);
+
+            Assertions.assertEquals("replica-1", routingDataSource.determineCurrentLookupKey());
+            Assertions.assertEquals("replica-1", routingDataSource.determineCurrentLookupKey());
+        }
+
+        @Test
+        void noAvailableReplicaRoutedToPrimaryTest() {
+            routingDataSource.updateReplicaLag("replica-0", 60000L);
+            routingDataSource.updateReplicaLag("replica-1", null);
+
+            Assertions.assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+        }
+
+        @Test
+        void recentWriterRoutedToPrimaryTest() {
+            UserPrincipal userPrincipal = new UserPrincipal(1L, "testUsername", "test@email.com",
+                    "password", Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(userPrincipal, null, userPrincipal.getAuthorities()));
+
+            Assertions.assertNotEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+
+            tracker.recordWrite(1L);
+            Assertions.assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+        }
+    }
+}
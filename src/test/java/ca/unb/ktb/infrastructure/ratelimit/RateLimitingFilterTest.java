@@ -0,0 +1,188 @@
+package ca.unb.ktb.infrastructure.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.autoconfigure.web.embedded.TomcatWebServerFactoryCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.ValidatorFactory;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+class RateLimitingFilterTest {
+
+    private RateLimitProperties properties;
+
+    private RateLimiter rateLimiter;
+
+    @BeforeEach void setup() {
+        properties = new RateLimitProperties();
+        rateLimiter = new RateLimiter(properties);
+    }
+
+    @Nested
+    class RateLimiterTest {
+
+        private final long interval = TimeUnit.SECONDS.toNanos(1);
+
+        @Test void allowBurstTest() {
+            for(int i = 0; i < 3; i++) {
+                Assertions.assertEquals(0, rateLimiter.tryAcquire("client", interval, 3, 0));
+            }
+
+            Assertions.assertEquals(interval, rateLimiter.tryAcquire("client", interval, 3, 0));
+            Assertions.assertEquals(0, rateLimiter.tryAcquire("other", interval, 3, 0));
+        }
+
+        @Test void replenishTest() {
+            Assertions.assertEquals(0, rateLimiter.tryAcquire("client", interval, 1, 0));
+            Assertions.assertEquals(interval / 2, rateLimiter.tryAcquire("client", interval, 1, interval / 2));
+            Assertions.assertEquals(0, rateLimiter.tryAcquire("client", interval, 1, interval));
+        }
+
+        @Test void evictIdleTest() {
+            long now = System.nanoTime();
+            rateLimiter.tryAcquire("idle", 1, 1, now - TimeUnit.SECONDS.toNanos(1));
+            rateLimiter.tryAcquire("busy", TimeUnit.HOURS.toNanos(1), 1, now);
+
+            rateLimiter.evictIdle();
+            Assertions.assertEquals(1, rateLimiter.size());
+        }
+
+        @Test void allowUntrackedWhenFullTest() {
+            properties.setMaxKeys(1);
+
+            Assertions.assertEquals(0, rateLimiter.tryAcquire("client", interval, 1, 0));
+            Assertions.assertEquals(0, rateLimiter.tryAcquire("other", interval, 1, 0));
+            Assertions.assertEquals(0, rateLimiter.tryAcquire("other", interval, 1, 0));
+            Assertions.assertEquals(1, rateLimiter.size());
+        }
+
+        @Test void evictOnlyWhenScheduledTest() {
+            properties.setMaxKeys(1);
+            long now = System.nanoTime();
+            rateLimiter.tryAcquire("idle", 1, 1, now - TimeUnit.SECONDS.toNanos(1));
+
+            Assertions.assertEquals(0, rateLimiter.tryAcquire("client", interval, 1, now));
+            Assertions.assertEquals(0, rateLimiter.tryAcquire("client", interval, 1, now));
+            Assertions.assertEquals(1, rateLimiter.size());
+
+            rateLimiter.evictIdle();
+            Assertions.assertEquals(0, rateLimiter.tryAcquire("client", interval, 1, now));
+            Assertions.assertEquals(interval, rateLimiter.tryAcquire("client", interval, 1, now));
+        }
+    }
+
+    @Test void rejectNonPositivePermitsTest() {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setPattern("/auth/signin");
+        route.setPermitsPerMinute(0);
+        properties.setRoutes(List.of(route));
+
+        try(ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory()) {
+            Set<ConstraintViolation<RateLimitProperties>> violations = validatorFactory.getValidator().validate(properties);
+
+            Assertions.assertEquals(1, violations.size());
+            Assertions.assertEquals("routes[0].permitsPerMinute",
+                    violations.iterator().next().getPropertyPath().toString());
+        }
+    }
+
+    /**
+     * Clients behind the load balancer connect from the address of the load balancer, and are identified by the
+     * X-Forwarded-For header, with the server configured from application.properties.
+     * */
+    @Test void limitForwardedClientsSeparatelyTest() throws Exception {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setPattern("/auth/signin");
+        route.setMethods(List.of("POST"));
+        route.setPermitsPerMinute(1);
+        route.setBurst(1);
+        properties.setRoutes(List.of(route));
+        RateLimitingFilter filter = new RateLimitingFilter(properties, rateLimiter, new SimpleMeterRegistry());
+
+        ServerProperties serverProperties = new ServerProperties();
+        new Binder(ConfigurationPropertySources.from(new ResourcePropertySource("classpath:application.properties")))
+                .bind("server", Bindable.ofInstance(serverProperties));
+
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        new TomcatWebServerFactoryCustomizer(new MockEnvironment(), serverProperties).customize(factory);
+        WebServer server = factory.getWebServer(servletContext -> servletContext.addFilter("rateLimitingFilter", filter)
+                .addMappingForUrlPatterns(null, false, "/*"));
+
+        server.start();
+        try {
+            int port = server.getPort();
+            Assertions.assertNotEquals(HttpStatus.TOO_MANY_REQUESTS.value(), signIn(port, "203.0.113.1"));
+            Assertions.assertNotEquals(HttpStatus.TOO_MANY_REQUESTS.value(), signIn(port, "203.0.113.2"));
+            Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), signIn(port, "203.0.113.1"));
+            Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), signIn(port, "198.51.100.7, 203.0.113.2"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test void rejectWithRetryAfterTest() throws Exception {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setPattern("/auth/signin");
+        route.setMethods(List.of("POST"));
+        route.setPermitsPerMinute(1);
+        route.setBurst(1);
+        properties.setRoutes(List.of(route));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RateLimitingFilter filter = new RateLimitingFilter(properties, rateLimiter, meterRegistry);
+
+        Assertions.assertEquals(HttpStatus.OK.value(), filter(filter, "POST", "/auth/signin").getStatus());
+        Assertions.assertEquals(HttpStatus.OK.value(), filter(filter, "GET", "/auth/signin").getStatus());
+        Assertions.assertEquals(HttpStatus.OK.value(), filter(filter, "POST", "/auth/signup").getStatus());
+
+        MockHttpServletResponse response = filter(filter, "POST", "/auth/signin");
+        Assertions.assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        Assertions.assertEquals("60", response.getHeader(HttpHeaders.RETRY_AFTER));
+        Assertions.assertEquals(1, meterRegistry.get("rate-limit.rejected").counter().count());
+    }
+
+    private static int signIn(final int port, final String forwardedFor) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/auth/signin")
+                .openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("X-Forwarded-For", forwardedFor);
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static MockHttpServletResponse filter(final RateLimitingFilter filter, final String method,
+                                                  final String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        return response;
+    }
+}
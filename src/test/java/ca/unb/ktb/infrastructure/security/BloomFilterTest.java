@@ -0,0 +1,48 @@
+package ca.unb.ktb.infrastructure.security;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+class BloomFilterTest {
+
+    private static final int INSERTIONS = 10000;
+
+    @Test void noFalseNegativesTest() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+        String[] values = new String[INSERTIONS];
+        for(int i = 0; i < INSERTIONS; i++) {
+            values[i] = UUID.randomUUID().toString();
+            filter.put(values[i]);
+        }
+
+        for(String value : values) {
+            Assertions.assertTrue(filter.mightContain(value));
+        }
+    }
+
+    @Test void falsePositiveProbabilityTest() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+        for(int i = 0; i < INSERTIONS; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+
+        int falsePositives = 0;
+        for(int i = 0; i < INSERTIONS * 10; i++) {
+            if(filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        Assertions.assertTrue(falsePositives < INSERTIONS * 10 * 0.02, "False positives: " + falsePositives);
+    }
+
+    @Test void sizingTest() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+
+        Assertions.assertTrue(filter.bitSize() >= 95851);
+        Assertions.assertEquals(7, filter.hashCount());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BloomFilter(INSERTIONS, 1));
+    }
+}
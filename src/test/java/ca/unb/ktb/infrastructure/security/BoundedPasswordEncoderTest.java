@@ -0,0 +1,87 @@
+package ca.unb.ktb.infrastructure.security;
+
+import ca.unb.ktb.api.exception.server.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private MeterRegistry meterRegistry;
+
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        encoder = new BoundedPasswordEncoder(new BlockingPasswordEncoder(), 1, 1, meterRegistry);
+    }
+
+    @AfterEach void teardown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test void encodeAndMatchTest() {
+        release.countDown();
+
+        Assertions.assertEquals("{encoded}password", encoder.encode("password"));
+        Assertions.assertTrue(encoder.matches("password", "{encoded}password"));
+        Assertions.assertFalse(encoder.matches("password", "{encoded}other"));
+        Assertions.assertEquals(1, meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count());
+        Assertions.assertEquals(2, meterRegistry.get("auth.password.hash").tag("operation", "matches").timer().count());
+    }
+
+    @Test void rejectWhenQueueFullTest() throws Exception {
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("running"));
+        awaitGauge("auth.password.active", 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("queued"));
+        awaitGauge("auth.password.queue.depth", 1);
+
+        Assertions.assertThrows(ServiceUnavailableException.class, () -> encoder.encode("rejected"));
+        Assertions.assertEquals(1, meterRegistry.get("auth.password.rejected").counter().count());
+
+        release.countDown();
+        Assertions.assertEquals("{encoded}running", running.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals("{encoded}queued", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private void awaitGauge(final String name, final double value) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while(meterRegistry.get(name).gauge().value() != value) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for " + name);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * A trivial encoder that blocks until the test releases it.
+     * */
+    private class BlockingPasswordEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(final CharSequence rawPassword) {
+            try {
+                release.await();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return "{encoded}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -56,4 +56,29 @@ class JSONWebTokenUtilTest {
         Assertions.assertThrows(RuntimeException.class, () ->
             JSONWebTokenUtil.validateToken(token, userPrincipal, RuntimeException::new));
     }
+
+    @Test void parsePrincipalFromTokenTest() {
+        userPrincipal = new UserPrincipal(1L, "testUsername", "test@email.com",
+                "password", Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN")), 3);
+        String token = JSONWebTokenUtil.generateToken(userPrincipal);
+
+        UserPrincipal principal = JSONWebTokenUtil.parsePrincipalFromToken(token).orElseThrow();
+        Assertions.assertEquals(userPrincipal.getId(), principal.getId());
+        Assertions.assertEquals(userPrincipal.getUsername(), principal.getUsername());
+        Assertions.assertEquals(userPrincipal.getEmail(), principal.getEmail());
+        Assertions.assertEquals(userPrincipal.getAuthorities(), principal.getAuthorities());
+        Assertions.assertEquals(3, principal.getTokenVersion());
+
+        Assertions.assertFalse(JSONWebTokenUtil.parsePrincipalFromToken(token.substring(0, token.length() - 2)).isPresent());
+    }
+
+    @Test void validateRevokedTokenTest() {
+        String token = JSONWebTokenUtil.generateToken(userPrincipal);
+        UserPrincipal revokedPrincipal = new UserPrincipal(1L, "testUsername", "test@email.com",
+                "password", Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")), 1);
+
+        Assertions.assertFalse(JSONWebTokenUtil.validateToken(token, revokedPrincipal));
+        Assertions.assertTrue(JSONWebTokenUtil.validateToken(JSONWebTokenUtil.generateToken(revokedPrincipal),
+                revokedPrincipal));
+    }
 }
@@ -0,0 +1,79 @@
+package ca.unb.ktb.infrastructure.security;
+
+import ca.unb.ktb.application.dao.RevokedTokenJdbcDAO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+class TokenRevocationListTest {
+
+    private InMemoryRevokedTokenDAO revokedTokenDAO;
+
+    private TokenRevocationList tokenRevocationList;
+
+    @BeforeEach void setup() {
+        revokedTokenDAO = new InMemoryRevokedTokenDAO();
+        tokenRevocationList = new TokenRevocationList();
+        ReflectionTestUtils.setField(tokenRevocationList, "revokedTokenJdbcDAO", revokedTokenDAO);
+        ReflectionTestUtils.setField(tokenRevocationList, "expectedInsertions", 1000);
+        ReflectionTestUtils.setField(tokenRevocationList, "falsePositiveProbability", 0.001);
+    }
+
+    @Test void verifyOnlyFilterHitsTest() {
+        tokenRevocationList.rebuild();
+        tokenRevocationList.revoke("revoked", 1L, new Date());
+
+        Assertions.assertTrue(tokenRevocationList.isRevoked("revoked"));
+        Assertions.assertEquals(1, revokedTokenDAO.lookups);
+
+        for(int i = 0; i < 100; i++) {
+            tokenRevocationList.isRevoked(UUID.randomUUID().toString());
+        }
+        Assertions.assertTrue(revokedTokenDAO.lookups < 5);
+    }
+
+    @Test void verifyAllBeforeLoadedTest() {
+        Assertions.assertFalse(tokenRevocationList.isRevoked("active"));
+        Assertions.assertEquals(1, revokedTokenDAO.lookups);
+    }
+
+    @Test void rebuildFromDatabaseTest() {
+        revokedTokenDAO.revoked.add("elsewhere");
+        tokenRevocationList.rebuild();
+
+        Assertions.assertTrue(tokenRevocationList.isRevoked("elsewhere"));
+    }
+
+    /**
+     * A revoked token DAO backed by a set, which counts exact lookups.
+     * */
+    private static class InMemoryRevokedTokenDAO extends RevokedTokenJdbcDAO {
+
+        private final Set<String> revoked = new HashSet<>();
+
+        private int lookups;
+
+        @Override
+        public void insertRevokedToken(final String jti, final Long userId, final Date expiresAt) {
+            revoked.add(jti);
+        }
+
+        @Override
+        public boolean existsActiveRevokedToken(final String jti) {
+            lookups++;
+            return revoked.contains(jti);
+        }
+
+        @Override
+        public void findActiveRevokedTokens(final Consumer<String> consumer) {
+            revoked.forEach(consumer);
+        }
+    }
+}
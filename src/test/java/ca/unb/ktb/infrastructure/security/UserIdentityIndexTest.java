@@ -0,0 +1,87 @@
+package ca.unb.ktb.infrastructure.security;
+
+import ca.unb.ktb.application.dao.UserJdbcDAO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+class UserIdentityIndexTest {
+
+    private final Map<String, String> identities = new LinkedHashMap<>();
+
+    private UserIdentityIndex userIdentityIndex;
+
+    @BeforeEach void setup() {
+        userIdentityIndex = new UserIdentityIndex();
+        ReflectionTestUtils.setField(userIdentityIndex, "userJdbcDAO", new InMemoryUserIdentityDAO());
+        ReflectionTestUtils.setField(userIdentityIndex, "expectedInsertions", 1000);
+        ReflectionTestUtils.setField(userIdentityIndex, "falsePositiveProbability", 0.001);
+    }
+
+    @Test void mightContainBeforeLoadedTest() {
+        Assertions.assertTrue(userIdentityIndex.mightContainUsername("anyone"));
+        Assertions.assertTrue(userIdentityIndex.mightContainEmail("anyone@email.com"));
+    }
+
+    @Test void rebuildFromDatabaseTest() {
+        identities.put("username", "user@email.com");
+        userIdentityIndex.rebuild();
+
+        Assertions.assertTrue(userIdentityIndex.mightContainUsername("username"));
+        Assertions.assertTrue(userIdentityIndex.mightContainUsername("UserName"));
+        Assertions.assertTrue(userIdentityIndex.mightContainEmail("User@Email.com"));
+        Assertions.assertFalse(userIdentityIndex.mightContainUsername("other"));
+        Assertions.assertFalse(userIdentityIndex.mightContainEmail("username"));
+        Assertions.assertFalse(userIdentityIndex.mightContainUsername("user@email.com"));
+    }
+
+    @Test void addAfterLoadedTest() {
+        userIdentityIndex.rebuild();
+        userIdentityIndex.add("username", null);
+
+        Assertions.assertTrue(userIdentityIndex.mightContainUsername("username"));
+        Assertions.assertFalse(userIdentityIndex.mightContainEmail("user@email.com"));
+
+        userIdentityIndex.rebuild();
+        Assertions.assertTrue(userIdentityIndex.mightContainUsername("username"));
+    }
+
+    @Test void addUsersTest() {
+        userIdentityIndex.rebuild();
+        identities.put("username", "user@email.com");
+        identities.put("other", "other@email.com");
+        userIdentityIndex.addUsers(List.of(1L));
+
+        Assertions.assertTrue(userIdentityIndex.mightContainUsername("username"));
+        Assertions.assertTrue(userIdentityIndex.mightContainEmail("user@email.com"));
+        Assertions.assertFalse(userIdentityIndex.mightContainUsername("other"));
+    }
+
+    /**
+     * A user DAO that reads identities from the test map. Users are identified by their position in the map, from 1.
+     * */
+    private class InMemoryUserIdentityDAO extends UserJdbcDAO {
+
+        @Override
+        public void findUserIdentities(final BiConsumer<String, String> consumer) {
+            identities.forEach(consumer);
+        }
+
+        @Override
+        public void findUserIdentities(final Collection<Long> userIds, final BiConsumer<String, String> consumer) {
+            long id = 0;
+            for(Map.Entry<String, String> identity : identities.entrySet()) {
+                if(userIds.contains(++id)) {
+                    consumer.accept(identity.getKey(), identity.getValue());
+                }
+            }
+        }
+    }
+}